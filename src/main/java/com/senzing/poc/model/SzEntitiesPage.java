@@ -183,59 +183,122 @@ public interface SzEntitiesPage {
 
   /**
    * Gets the total number of entities in the set representing
-   * the set of all possible results across all pages.
+   * the set of all possible results across all pages.  This returns
+   * <code>null</code> if the counts were not requested.
    *
    * @return The the total number of entities in the set
    *         representing the set of all possible results
-   *         across all pages.
+   *         across all pages, or <code>null</code> if the
+   *         counts were not requested.
    */
-  long getTotalEntityCount();
+  @JsonInclude(NON_NULL)
+  Long getTotalEntityCount();
 
   /**
    * Sets the total number of entities in the set representing
-   * the set of all possible results across all pages.
+   * the set of all possible results across all pages.  Set this
+   * to <code>null</code> if the counts were not requested.
    *
    * @param count The the total number of entities in the set
    *              representing the set of all possible results
-   *              across all pages.
+   *              across all pages, or <code>null</code> if the
+   *              counts were not requested.
    */
-  void setTotalEntityCount(long count);
+  void setTotalEntityCount(Long count);
 
   /**
    * Gets the number of entities in the set that exist on
-   * pages that occur before this page.
+   * pages that occur before this page.  This returns
+   * <code>null</code> if the counts were not requested.
    * 
    * @return The the number of entities in the set that exist
-   *         on pages that occur before this page.
+   *         on pages that occur before this page, or
+   *         <code>null</code> if the counts were not requested.
    */
-  long getBeforePageCount();
+  @JsonInclude(NON_NULL)
+  Long getBeforePageCount();
 
   /**
    * Sets the number of entities in the set that exist on
-   * pages that occur before this page.
+   * pages that occur before this page.  Set this to
+   * <code>null</code> if the counts were not requested.
    * 
    * @param count The the number of entities in the set that
-   *              exist on pages that occur before this page.
+   *              exist on pages that occur before this page,
+   *              or <code>null</code> if the counts were not
+   *              requested.
    */
-  void setBeforePageCount(long count);
+  void setBeforePageCount(Long count);
 
   /**
    * Gets the number of entities in the set that exist on
-   * pages that occur after this page.
+   * pages that occur after this page.  This returns
+   * <code>null</code> if the counts were not requested.
    * 
    * @return The the number of entities in the set that exist
-   *         on pages that occur after this page.
+   *         on pages that occur after this page, or
+   *         <code>null</code> if the counts were not requested.
    */
-  long getAfterPageCount();
+  @JsonInclude(NON_NULL)
+  Long getAfterPageCount();
 
   /**
    * Sets the number of entities in the set that exist on
-   * pages that occur after this page.
+   * pages that occur after this page.  Set this to
+   * <code>null</code> if the counts were not requested.
    * 
    * @param count The the number of entities in the set that
-   *              exist on pages that occur after this page.
+   *              exist on pages that occur after this page,
+   *              or <code>null</code> if the counts were not
+   *              requested.
+   */
+  void setAfterPageCount(Long count);
+
+  /**
+   * Gets the opaque cursor that can be provided to retrieve the page
+   * of entities immediately following this page.  This returns
+   * <code>null</code> if it is known that there are no entities
+   * following this page.
+   *
+   * @return The opaque cursor for the next page, or <code>null</code>
+   *         if there is no next page.
+   */
+  @JsonInclude(NON_NULL)
+  String getNextCursor();
+
+  /**
+   * Sets the opaque cursor that can be provided to retrieve the page
+   * of entities immediately following this page.  Set this to
+   * <code>null</code> if it is known that there are no entities
+   * following this page.
+   *
+   * @param cursor The opaque cursor for the next page, or
+   *               <code>null</code> if there is no next page.
+   */
+  void setNextCursor(String cursor);
+
+  /**
+   * Gets the opaque cursor that can be provided to retrieve the page
+   * of entities immediately preceding this page.  This returns
+   * <code>null</code> if it is known that there are no entities
+   * preceding this page.
+   *
+   * @return The opaque cursor for the previous page, or <code>null</code>
+   *         if there is no previous page.
+   */
+  @JsonInclude(NON_NULL)
+  String getPreviousCursor();
+
+  /**
+   * Sets the opaque cursor that can be provided to retrieve the page
+   * of entities immediately preceding this page.  Set this to
+   * <code>null</code> if it is known that there are no entities
+   * preceding this page.
+   *
+   * @param cursor The opaque cursor for the previous page, or
+   *               <code>null</code> if there is no previous page.
    */
-  void setAfterPageCount(long count);
+  void setPreviousCursor(String cursor);
 
   /**
    * Gets the {@link List} of {@link SzEntity} instances describing the
@@ -0,0 +1,117 @@
+package com.senzing.poc.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.api.model.AbstractModelProvider;
+import com.senzing.api.model.ModelFactory;
+import com.senzing.api.model.ModelProvider;
+import com.senzing.poc.model.impl.SzLoadCheckpointImpl;
+
+/**
+ * Describes the checkpoint for a bulk data stream load, which is the offset
+ * of the records in the bulk data below which every record has been handled.
+ */
+@JsonDeserialize(using = SzLoadCheckpoint.Factory.class)
+public interface SzLoadCheckpoint {
+  /**
+   * Gets the load ID for the checkpointed load.
+   *
+   * @return The load ID for the checkpointed load.
+   */
+  String getLoadId();
+
+  /**
+   * Sets the load ID for the checkpointed load.
+   *
+   * @param loadId The load ID for the checkpointed load.
+   */
+  void setLoadId(String loadId);
+
+  /**
+   * Gets the offset of the records in the bulk data below which every record
+   * has been handled.  This is the number of leading records that can be
+   * skipped when resuming the load.
+   *
+   * @return The checkpointed record offset.
+   */
+  long getRecordOffset();
+
+  /**
+   * Sets the offset of the records in the bulk data below which every record
+   * has been handled.
+   *
+   * @param recordOffset The checkpointed record offset.
+   */
+  void setRecordOffset(long recordOffset);
+
+  /**
+   * A {@link ModelProvider} for instances of {@link SzLoadCheckpoint}.
+   */
+  interface Provider extends ModelProvider<SzLoadCheckpoint> {
+    /**
+     * Creates a new instance of {@link SzLoadCheckpoint}.
+     *
+     * @return The new instance of {@link SzLoadCheckpoint}
+     */
+    SzLoadCheckpoint create();
+  }
+
+  /**
+   * Provides a default {@link Provider} implementation for {@link
+   * SzLoadCheckpoint} that produces instances of {@link
+   * SzLoadCheckpointImpl}.
+   */
+  class DefaultProvider extends AbstractModelProvider<SzLoadCheckpoint>
+    implements Provider
+  {
+    /**
+     * Default constructor.
+     */
+    public DefaultProvider() {
+      super(SzLoadCheckpoint.class, SzLoadCheckpointImpl.class);
+    }
+
+    @Override
+    public SzLoadCheckpoint create() {
+      return new SzLoadCheckpointImpl();
+    }
+  }
+
+  /**
+   * Provides a {@link ModelFactory} implementation for {@link
+   * SzLoadCheckpoint}.
+   */
+  class Factory extends ModelFactory<SzLoadCheckpoint, Provider> {
+    /**
+     * Default constructor.  This is public and can only be called after the
+     * singleton master instance is created as it inherits the same state from
+     * the master instance.
+     */
+    public Factory() {
+      super(SzLoadCheckpoint.class);
+    }
+
+    /**
+     * Constructs with the default provider.  This constructor is private and
+     * is used for the master singleton instance.
+     * @param defaultProvider The default provider.
+     */
+    private Factory(Provider defaultProvider) {
+      super(defaultProvider);
+    }
+
+    /**
+     * Creates a new instance of {@link SzLoadCheckpoint}.
+     *
+     * @return A new instance of {@link SzLoadCheckpoint}.
+     */
+    public SzLoadCheckpoint create()
+    {
+      return this.getProvider().create();
+    }
+  }
+
+  /**
+   * The {@link Factory} instance for this interface.
+   */
+  Factory FACTORY = new Factory(new DefaultProvider());
+}
@@ -0,0 +1,142 @@
+package com.senzing.poc.model;
+
+import com.senzing.api.model.*;
+import com.senzing.poc.model.impl.SzLoadCheckpointResponseImpl;
+
+/**
+ * Describes a response when a load checkpoint is requested.
+ * 
+ */
+public interface SzLoadCheckpointResponse extends SzBasicResponse {
+  /**
+   * Returns the {@link SzLoadCheckpoint} associated with this response.
+   *
+   * @return The data associated with this response.
+   */
+  SzLoadCheckpoint getData();
+
+  /**
+   * Sets the data associated with this response with an {@link
+   * SzLoadCheckpoint}.
+   *
+   * @param info The {@link SzLoadCheckpoint} describing the checkpoint.
+   */
+  void setData(SzLoadCheckpoint info);
+
+  /**
+   * A {@link ModelProvider} for instances of {@link SzLoadCheckpointResponse}.
+   */
+  interface Provider extends ModelProvider<SzLoadCheckpointResponse> {
+    /**
+     * Constructs with only the {@link SzMeta} and {@link SzLinks}.
+     *
+     * @param meta  The response meta data.
+     *
+     * @param links The links for the response.
+     */
+    SzLoadCheckpointResponse create(SzMeta meta, SzLinks links);
+
+    /**
+     * Creates an instance with the specified {@link SzMeta}, {@link SzLinks}
+     * and {@link SzLoadCheckpoint}.
+     *
+     * @param meta       The response meta data.
+     *
+     * @param links      The links for the response.
+     *
+     * @param checkpoint The {@link SzLoadCheckpoint} describing the data for
+     *                   this instance.
+     */
+    SzLoadCheckpointResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadCheckpoint checkpoint);
+  }
+
+  /**
+   * Provides a default {@link Provider} implementation for {@link
+   * SzLoadCheckpointResponse} that produces instances of
+   * {@link SzLoadCheckpointResponseImpl}.
+   */
+  class DefaultProvider extends AbstractModelProvider<SzLoadCheckpointResponse>
+      implements Provider {
+    /**
+     * Default constructor.
+     */
+    public DefaultProvider() {
+      super(SzLoadCheckpointResponse.class,
+          SzLoadCheckpointResponseImpl.class);
+    }
+
+    @Override
+    public SzLoadCheckpointResponse create(SzMeta meta, SzLinks links) {
+      return new SzLoadCheckpointResponseImpl(meta, links);
+    }
+
+    @Override
+    public SzLoadCheckpointResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadCheckpoint checkpoint) {
+      return new SzLoadCheckpointResponseImpl(meta, links, checkpoint);
+    }
+  }
+
+  /**
+   * Provides a {@link ModelFactory} implementation for
+   * {@link SzLoadCheckpointResponse}.
+   */
+  class Factory extends ModelFactory<SzLoadCheckpointResponse, Provider> {
+    /**
+     * Default constructor. This is public and can only be called after the
+     * singleton master instance is created as it inherits the same state from
+     * the master instance.
+     */
+    public Factory() {
+      super(SzLoadCheckpointResponse.class);
+    }
+
+    /**
+     * Constructs with the default provider. This constructor is private and
+     * is used for the master singleton instance.
+     * 
+     * @param defaultProvider The default provider.
+     */
+    private Factory(Provider defaultProvider) {
+      super(defaultProvider);
+    }
+
+    /**
+     * Creates an instance of {@link SzLoadCheckpointResponse} with the
+     * specified {@link SzMeta} and {@link SzLinks}.
+     *
+     * @param meta  The response meta data.
+     *
+     * @param links The links for the response.
+     */
+    public SzLoadCheckpointResponse create(SzMeta meta, SzLinks links) {
+      return this.getProvider().create(meta, links);
+    }
+
+    /**
+     * Creates an instance of {@link SzLoadCheckpointResponse} with the
+     * specified {@link SzMeta}, {@link SzLinks} and the specified {@link
+     * SzLoadCheckpoint} describing the load checkpoint.
+     *
+     * @param meta       The response meta data.
+     *
+     * @param links      The links for the response.
+     *
+     * @param checkpoint The {@link SzLoadCheckpoint} describing the load
+     *                   checkpoint.
+     */
+    public SzLoadCheckpointResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadCheckpoint checkpoint) {
+      return this.getProvider().create(meta, links, checkpoint);
+    }
+  }
+
+  /**
+   * The {@link Factory} instance for this interface.
+   */
+  Factory FACTORY = new Factory(new DefaultProvider());
+}
@@ -0,0 +1,139 @@
+package com.senzing.poc.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.api.model.AbstractModelProvider;
+import com.senzing.api.model.ModelFactory;
+import com.senzing.api.model.ModelProvider;
+import com.senzing.poc.model.impl.SzLoadFailureStatsImpl;
+
+import java.util.Map;
+
+/**
+ * Describes the statistics on the records that have failed to be enqueued
+ * on the load queue since the server started.
+ */
+@JsonDeserialize(using = SzLoadFailureStats.Factory.class)
+public interface SzLoadFailureStats {
+  /**
+   * Gets the total number of records that have failed to be enqueued for
+   * loading.  This includes the records of failures that were dropped
+   * without being logged.
+   *
+   * @return The total number of records that have failed to be enqueued.
+   */
+  long getFailedRecordCount();
+
+  /**
+   * Sets the total number of records that have failed to be enqueued for
+   * loading.
+   *
+   * @param count The total number of records that have failed to be
+   *              enqueued.
+   */
+  void setFailedRecordCount(long count);
+
+  /**
+   * Gets the number of failures that were dropped without being logged
+   * because the backlog of failures to be logged was full.
+   *
+   * @return The number of dropped failures.
+   */
+  long getDroppedFailureCount();
+
+  /**
+   * Sets the number of failures that were dropped without being logged
+   * because the backlog of failures to be logged was full.
+   *
+   * @param count The number of dropped failures.
+   */
+  void setDroppedFailureCount(long count);
+
+  /**
+   * Gets the {@link Map} of data source codes to the number of records for
+   * that data source that have failed to be enqueued for loading.
+   *
+   * @return The {@link Map} of data source codes to failed record counts.
+   */
+  Map<String, Long> getDataSourceCounts();
+
+  /**
+   * Sets the {@link Map} of data source codes to the number of records for
+   * that data source that have failed to be enqueued for loading.
+   *
+   * @param counts The {@link Map} of data source codes to failed record
+   *               counts.
+   */
+  void setDataSourceCounts(Map<String, Long> counts);
+
+  /**
+   * A {@link ModelProvider} for instances of {@link SzLoadFailureStats}.
+   */
+  interface Provider extends ModelProvider<SzLoadFailureStats> {
+    /**
+     * Creates a new instance of {@link SzLoadFailureStats}.
+     *
+     * @return The new instance of {@link SzLoadFailureStats}
+     */
+    SzLoadFailureStats create();
+  }
+
+  /**
+   * Provides a default {@link Provider} implementation for {@link
+   * SzLoadFailureStats} that produces instances of {@link
+   * SzLoadFailureStatsImpl}.
+   */
+  class DefaultProvider extends AbstractModelProvider<SzLoadFailureStats>
+    implements Provider
+  {
+    /**
+     * Default constructor.
+     */
+    public DefaultProvider() {
+      super(SzLoadFailureStats.class, SzLoadFailureStatsImpl.class);
+    }
+
+    @Override
+    public SzLoadFailureStats create() {
+      return new SzLoadFailureStatsImpl();
+    }
+  }
+
+  /**
+   * Provides a {@link ModelFactory} implementation for {@link
+   * SzLoadFailureStats}.
+   */
+  class Factory extends ModelFactory<SzLoadFailureStats, Provider> {
+    /**
+     * Default constructor.  This is public and can only be called after the
+     * singleton master instance is created as it inherits the same state from
+     * the master instance.
+     */
+    public Factory() {
+      super(SzLoadFailureStats.class);
+    }
+
+    /**
+     * Constructs with the default provider.  This constructor is private and
+     * is used for the master singleton instance.
+     * @param defaultProvider The default provider.
+     */
+    private Factory(Provider defaultProvider) {
+      super(defaultProvider);
+    }
+
+    /**
+     * Creates a new instance of {@link SzLoadFailureStats}.
+     *
+     * @return A new instance of {@link SzLoadFailureStats}.
+     */
+    public SzLoadFailureStats create()
+    {
+      return this.getProvider().create();
+    }
+  }
+
+  /**
+   * The {@link Factory} instance for this interface.
+   */
+  Factory FACTORY = new Factory(new DefaultProvider());
+}
@@ -0,0 +1,142 @@
+package com.senzing.poc.model;
+
+import com.senzing.api.model.*;
+import com.senzing.poc.model.impl.SzLoadFailureStatsResponseImpl;
+
+/**
+ * Describes a response when the load failure statistics are requested.
+ * 
+ */
+public interface SzLoadFailureStatsResponse extends SzBasicResponse {
+  /**
+   * Returns the {@link SzLoadFailureStats} associated with this response.
+   *
+   * @return The data associated with this response.
+   */
+  SzLoadFailureStats getData();
+
+  /**
+   * Sets the data associated with this response with an {@link
+   * SzLoadFailureStats}.
+   *
+   * @param info The {@link SzLoadFailureStats} describing the statistics.
+   */
+  void setData(SzLoadFailureStats info);
+
+  /**
+   * A {@link ModelProvider} for instances of {@link SzLoadFailureStatsResponse}.
+   */
+  interface Provider extends ModelProvider<SzLoadFailureStatsResponse> {
+    /**
+     * Constructs with only the {@link SzMeta} and {@link SzLinks}.
+     *
+     * @param meta  The response meta data.
+     *
+     * @param links The links for the response.
+     */
+    SzLoadFailureStatsResponse create(SzMeta meta, SzLinks links);
+
+    /**
+     * Creates an instance with the specified {@link SzMeta}, {@link SzLinks}
+     * and {@link SzLoadFailureStats}.
+     *
+     * @param meta       The response meta data.
+     *
+     * @param links      The links for the response.
+     *
+     * @param stats      The {@link SzLoadFailureStats} describing the data
+     *                   for this instance.
+     */
+    SzLoadFailureStatsResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadFailureStats stats);
+  }
+
+  /**
+   * Provides a default {@link Provider} implementation for {@link
+   * SzLoadFailureStatsResponse} that produces instances of
+   * {@link SzLoadFailureStatsResponseImpl}.
+   */
+  class DefaultProvider extends AbstractModelProvider<SzLoadFailureStatsResponse>
+      implements Provider {
+    /**
+     * Default constructor.
+     */
+    public DefaultProvider() {
+      super(SzLoadFailureStatsResponse.class,
+          SzLoadFailureStatsResponseImpl.class);
+    }
+
+    @Override
+    public SzLoadFailureStatsResponse create(SzMeta meta, SzLinks links) {
+      return new SzLoadFailureStatsResponseImpl(meta, links);
+    }
+
+    @Override
+    public SzLoadFailureStatsResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadFailureStats stats) {
+      return new SzLoadFailureStatsResponseImpl(meta, links, stats);
+    }
+  }
+
+  /**
+   * Provides a {@link ModelFactory} implementation for
+   * {@link SzLoadFailureStatsResponse}.
+   */
+  class Factory extends ModelFactory<SzLoadFailureStatsResponse, Provider> {
+    /**
+     * Default constructor. This is public and can only be called after the
+     * singleton master instance is created as it inherits the same state from
+     * the master instance.
+     */
+    public Factory() {
+      super(SzLoadFailureStatsResponse.class);
+    }
+
+    /**
+     * Constructs with the default provider. This constructor is private and
+     * is used for the master singleton instance.
+     * 
+     * @param defaultProvider The default provider.
+     */
+    private Factory(Provider defaultProvider) {
+      super(defaultProvider);
+    }
+
+    /**
+     * Creates an instance of {@link SzLoadFailureStatsResponse} with the
+     * specified {@link SzMeta} and {@link SzLinks}.
+     *
+     * @param meta  The response meta data.
+     *
+     * @param links The links for the response.
+     */
+    public SzLoadFailureStatsResponse create(SzMeta meta, SzLinks links) {
+      return this.getProvider().create(meta, links);
+    }
+
+    /**
+     * Creates an instance of {@link SzLoadFailureStatsResponse} with the
+     * specified {@link SzMeta}, {@link SzLinks} and the specified {@link
+     * SzLoadFailureStats} describing the load failure statistics.
+     *
+     * @param meta       The response meta data.
+     *
+     * @param links      The links for the response.
+     *
+     * @param stats      The {@link SzLoadFailureStats} describing the load
+     *                   failure statistics.
+     */
+    public SzLoadFailureStatsResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadFailureStats stats) {
+      return this.getProvider().create(meta, links, stats);
+    }
+  }
+
+  /**
+   * The {@link Factory} instance for this interface.
+   */
+  Factory FACTORY = new Factory(new DefaultProvider());
+}
@@ -0,0 +1,252 @@
+package com.senzing.poc.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.api.model.AbstractModelProvider;
+import com.senzing.api.model.ModelFactory;
+import com.senzing.api.model.ModelProvider;
+import com.senzing.poc.model.impl.SzLoadJournalStatsImpl;
+
+/**
+ * Describes the statistics for the spill-over journal of load messages that
+ * failed to be sent to the load queue, including the replay throughput.
+ */
+@JsonDeserialize(using = SzLoadJournalStats.Factory.class)
+public interface SzLoadJournalStats {
+  /**
+   * Gets the number of segment files in the load journal.
+   *
+   * @return The number of segment files.
+   */
+  int getSegmentCount();
+
+  /**
+   * Sets the number of segment files in the load journal.
+   *
+   * @param segmentCount The number of segment files.
+   */
+  void setSegmentCount(int segmentCount);
+
+  /**
+   * Gets the number of journaled messages that are pending replay.
+   *
+   * @return The number of messages pending replay.
+   */
+  long getPendingMessageCount();
+
+  /**
+   * Sets the number of journaled messages that are pending replay.
+   *
+   * @param pendingMessageCount The number of messages pending replay.
+   */
+  void setPendingMessageCount(long pendingMessageCount);
+
+  /**
+   * Gets the number of journaled message bytes that are pending replay.
+   *
+   * @return The number of message bytes pending replay.
+   */
+  long getPendingByteCount();
+
+  /**
+   * Sets the number of journaled message bytes that are pending replay.
+   *
+   * @param pendingByteCount The number of message bytes pending replay.
+   */
+  void setPendingByteCount(long pendingByteCount);
+
+  /**
+   * Gets the number of messages journaled since the server started.
+   *
+   * @return The number of messages journaled.
+   */
+  long getJournaledMessageCount();
+
+  /**
+   * Sets the number of messages journaled since the server started.
+   *
+   * @param journaledMessageCount The number of messages journaled.
+   */
+  void setJournaledMessageCount(long journaledMessageCount);
+
+  /**
+   * Gets the number of journaled messages replayed since the server started.
+   *
+   * @return The number of messages replayed.
+   */
+  long getReplayedMessageCount();
+
+  /**
+   * Sets the number of journaled messages replayed since the server started.
+   *
+   * @param replayedMessageCount The number of messages replayed.
+   */
+  void setReplayedMessageCount(long replayedMessageCount);
+
+  /**
+   * Gets the number of journaled message bytes replayed since the server
+   * started.
+   *
+   * @return The number of message bytes replayed.
+   */
+  long getReplayedByteCount();
+
+  /**
+   * Sets the number of journaled message bytes replayed since the server
+   * started.
+   *
+   * @param replayedByteCount The number of message bytes replayed.
+   */
+  void setReplayedByteCount(long replayedByteCount);
+
+  /**
+   * Gets the number of failed attempts to replay a journaled message since
+   * the server started.
+   *
+   * @return The number of failed replay attempts.
+   */
+  long getReplayFailureCount();
+
+  /**
+   * Sets the number of failed attempts to replay a journaled message since
+   * the server started.
+   *
+   * @param replayFailureCount The number of failed replay attempts.
+   */
+  void setReplayFailureCount(long replayFailureCount);
+
+  /**
+   * Gets the number of journaled messages parked in the dead-letter file
+   * since the server started because they could not be replayed.
+   *
+   * @return The number of parked messages.
+   */
+  long getParkedMessageCount();
+
+  /**
+   * Sets the number of journaled messages parked in the dead-letter file
+   * since the server started because they could not be replayed.
+   *
+   * @param parkedMessageCount The number of parked messages.
+   */
+  void setParkedMessageCount(long parkedMessageCount);
+
+  /**
+   * Gets the number of failed load messages that were not journaled because
+   * the journal was full since the server started.
+   *
+   * @return The number of rejected messages.
+   */
+  long getRejectedMessageCount();
+
+  /**
+   * Sets the number of failed load messages that were not journaled because
+   * the journal was full since the server started.
+   *
+   * @param rejectedMessageCount The number of rejected messages.
+   */
+  void setRejectedMessageCount(long rejectedMessageCount);
+
+  /**
+   * Gets the replay throughput in messages per second measured over the time
+   * spent replaying (excluding idle and back-off time).
+   *
+   * @return The replay throughput in messages per second.
+   */
+  double getReplayMessageRate();
+
+  /**
+   * Sets the replay throughput in messages per second measured over the time
+   * spent replaying (excluding idle and back-off time).
+   *
+   * @param replayMessageRate The replay throughput in messages per second.
+   */
+  void setReplayMessageRate(double replayMessageRate);
+
+  /**
+   * Gets the replay throughput in bytes per second measured over the time
+   * spent replaying (excluding idle and back-off time).
+   *
+   * @return The replay throughput in bytes per second.
+   */
+  double getReplayByteRate();
+
+  /**
+   * Sets the replay throughput in bytes per second measured over the time
+   * spent replaying (excluding idle and back-off time).
+   *
+   * @param replayByteRate The replay throughput in bytes per second.
+   */
+  void setReplayByteRate(double replayByteRate);
+
+  /**
+   * A {@link ModelProvider} for instances of {@link SzLoadJournalStats}.
+   */
+  interface Provider extends ModelProvider<SzLoadJournalStats> {
+    /**
+     * Creates a new instance of {@link SzLoadJournalStats}.
+     *
+     * @return The new instance of {@link SzLoadJournalStats}
+     */
+    SzLoadJournalStats create();
+  }
+
+  /**
+   * Provides a default {@link Provider} implementation for {@link
+   * SzLoadJournalStats} that produces instances of {@link
+   * SzLoadJournalStatsImpl}.
+   */
+  class DefaultProvider extends AbstractModelProvider<SzLoadJournalStats>
+    implements Provider
+  {
+    /**
+     * Default constructor.
+     */
+    public DefaultProvider() {
+      super(SzLoadJournalStats.class, SzLoadJournalStatsImpl.class);
+    }
+
+    @Override
+    public SzLoadJournalStats create() {
+      return new SzLoadJournalStatsImpl();
+    }
+  }
+
+  /**
+   * Provides a {@link ModelFactory} implementation for {@link
+   * SzLoadJournalStats}.
+   */
+  class Factory extends ModelFactory<SzLoadJournalStats, Provider> {
+    /**
+     * Default constructor.  This is public and can only be called after the
+     * singleton master instance is created as it inherits the same state from
+     * the master instance.
+     */
+    public Factory() {
+      super(SzLoadJournalStats.class);
+    }
+
+    /**
+     * Constructs with the default provider.  This constructor is private and
+     * is used for the master singleton instance.
+     * @param defaultProvider The default provider.
+     */
+    private Factory(Provider defaultProvider) {
+      super(defaultProvider);
+    }
+
+    /**
+     * Creates a new instance of {@link SzLoadJournalStats}.
+     *
+     * @return A new instance of {@link SzLoadJournalStats}.
+     */
+    public SzLoadJournalStats create()
+    {
+      return this.getProvider().create();
+    }
+  }
+
+  /**
+   * The {@link Factory} instance for this interface.
+   */
+  Factory FACTORY = new Factory(new DefaultProvider());
+}
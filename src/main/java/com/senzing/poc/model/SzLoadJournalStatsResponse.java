@@ -0,0 +1,142 @@
+package com.senzing.poc.model;
+
+import com.senzing.api.model.*;
+import com.senzing.poc.model.impl.SzLoadJournalStatsResponseImpl;
+
+/**
+ * Describes a response when the load journal statistics are requested.
+ * 
+ */
+public interface SzLoadJournalStatsResponse extends SzBasicResponse {
+  /**
+   * Returns the {@link SzLoadJournalStats} associated with this response.
+   *
+   * @return The data associated with this response.
+   */
+  SzLoadJournalStats getData();
+
+  /**
+   * Sets the data associated with this response with an {@link
+   * SzLoadJournalStats}.
+   *
+   * @param info The {@link SzLoadJournalStats} describing the statistics.
+   */
+  void setData(SzLoadJournalStats info);
+
+  /**
+   * A {@link ModelProvider} for instances of {@link SzLoadJournalStatsResponse}.
+   */
+  interface Provider extends ModelProvider<SzLoadJournalStatsResponse> {
+    /**
+     * Constructs with only the {@link SzMeta} and {@link SzLinks}.
+     *
+     * @param meta  The response meta data.
+     *
+     * @param links The links for the response.
+     */
+    SzLoadJournalStatsResponse create(SzMeta meta, SzLinks links);
+
+    /**
+     * Creates an instance with the specified {@link SzMeta}, {@link SzLinks}
+     * and {@link SzLoadJournalStats}.
+     *
+     * @param meta       The response meta data.
+     *
+     * @param links      The links for the response.
+     *
+     * @param stats      The {@link SzLoadJournalStats} describing the data
+     *                   for this instance.
+     */
+    SzLoadJournalStatsResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadJournalStats stats);
+  }
+
+  /**
+   * Provides a default {@link Provider} implementation for {@link
+   * SzLoadJournalStatsResponse} that produces instances of
+   * {@link SzLoadJournalStatsResponseImpl}.
+   */
+  class DefaultProvider extends AbstractModelProvider<SzLoadJournalStatsResponse>
+      implements Provider {
+    /**
+     * Default constructor.
+     */
+    public DefaultProvider() {
+      super(SzLoadJournalStatsResponse.class,
+          SzLoadJournalStatsResponseImpl.class);
+    }
+
+    @Override
+    public SzLoadJournalStatsResponse create(SzMeta meta, SzLinks links) {
+      return new SzLoadJournalStatsResponseImpl(meta, links);
+    }
+
+    @Override
+    public SzLoadJournalStatsResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadJournalStats stats) {
+      return new SzLoadJournalStatsResponseImpl(meta, links, stats);
+    }
+  }
+
+  /**
+   * Provides a {@link ModelFactory} implementation for
+   * {@link SzLoadJournalStatsResponse}.
+   */
+  class Factory extends ModelFactory<SzLoadJournalStatsResponse, Provider> {
+    /**
+     * Default constructor. This is public and can only be called after the
+     * singleton master instance is created as it inherits the same state from
+     * the master instance.
+     */
+    public Factory() {
+      super(SzLoadJournalStatsResponse.class);
+    }
+
+    /**
+     * Constructs with the default provider. This constructor is private and
+     * is used for the master singleton instance.
+     * 
+     * @param defaultProvider The default provider.
+     */
+    private Factory(Provider defaultProvider) {
+      super(defaultProvider);
+    }
+
+    /**
+     * Creates an instance of {@link SzLoadJournalStatsResponse} with the
+     * specified {@link SzMeta} and {@link SzLinks}.
+     *
+     * @param meta  The response meta data.
+     *
+     * @param links The links for the response.
+     */
+    public SzLoadJournalStatsResponse create(SzMeta meta, SzLinks links) {
+      return this.getProvider().create(meta, links);
+    }
+
+    /**
+     * Creates an instance of {@link SzLoadJournalStatsResponse} with the
+     * specified {@link SzMeta}, {@link SzLinks} and the specified {@link
+     * SzLoadJournalStats} describing the load journal statistics.
+     *
+     * @param meta       The response meta data.
+     *
+     * @param links      The links for the response.
+     *
+     * @param stats      The {@link SzLoadJournalStats} describing the load
+     *                   journal statistics.
+     */
+    public SzLoadJournalStatsResponse create(SzMeta meta,
+        SzLinks links,
+        SzLoadJournalStats stats) {
+      return this.getProvider().create(meta, links, stats);
+    }
+  }
+
+  /**
+   * The {@link Factory} instance for this interface.
+   */
+  Factory FACTORY = new Factory(new DefaultProvider());
+}
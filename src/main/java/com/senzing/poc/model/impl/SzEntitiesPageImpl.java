@@ -54,19 +54,29 @@ public class SzEntitiesPageImpl implements SzEntitiesPage {
    * The total number of entities representing the set of all possible
    * results across all pages.
    */
-  private long totalEntityCount = 0L;
+  private Long totalEntityCount = null;
 
   /**
    * The number of entities in the set that exist on pages before this
    * page.
    */
-  private long beforePageCount = 0L;
+  private Long beforePageCount = null;
 
   /**
    * The number of entities in the set that exist on pages after this
    * page.
    */
-  private long afterPageCount = 0L;
+  private Long afterPageCount = null;
+
+  /**
+   * The opaque cursor for the next page.
+   */
+  private String nextCursor = null;
+
+  /**
+   * The opaque cursor for the previous page.
+   */
+  private String previousCursor = null;
 
   /**
    * The {@link Set} of {@link Long} entity ID's identifying the entities
@@ -84,9 +94,11 @@ public class SzEntitiesPageImpl implements SzEntitiesPage {
     this.sampleSize = null;
     this.pageMinimumValue = null;
     this.pageMaximumValue = null;
-    this.totalEntityCount = 0L;
-    this.beforePageCount = 0L;
-    this.afterPageCount = 0L;
+    this.totalEntityCount = null;
+    this.beforePageCount = null;
+    this.afterPageCount = null;
+    this.nextCursor = null;
+    this.previousCursor = null;
     this.entities = new TreeMap<>();
   }
 
@@ -171,35 +183,55 @@ public class SzEntitiesPageImpl implements SzEntitiesPage {
   }
 
   @Override
-  public long getTotalEntityCount() {
+  public Long getTotalEntityCount() {
     return this.totalEntityCount;
   }
 
   @Override
-  public void setTotalEntityCount(long entityCount) {
+  public void setTotalEntityCount(Long entityCount) {
     this.totalEntityCount = entityCount;
   }
 
   @Override
-  public long getBeforePageCount() {
+  public Long getBeforePageCount() {
     return this.beforePageCount;
   }
 
   @Override
-  public void setBeforePageCount(long entityCount) {
+  public void setBeforePageCount(Long entityCount) {
     this.beforePageCount = entityCount;
   }
 
   @Override
-  public long getAfterPageCount() {
+  public Long getAfterPageCount() {
     return this.afterPageCount;
   }
 
   @Override
-  public void setAfterPageCount(long entityCount) {
+  public void setAfterPageCount(Long entityCount) {
     this.afterPageCount = entityCount;
   }
 
+  @Override
+  public String getNextCursor() {
+    return this.nextCursor;
+  }
+
+  @Override
+  public void setNextCursor(String cursor) {
+    this.nextCursor = cursor;
+  }
+
+  @Override
+  public String getPreviousCursor() {
+    return this.previousCursor;
+  }
+
+  @Override
+  public void setPreviousCursor(String cursor) {
+    this.previousCursor = cursor;
+  }
+
   @Override
   public List<SzEntity> getEntities() {
     return new ArrayList<>(this.entities.values());
@@ -0,0 +1,48 @@
+package com.senzing.poc.model.impl;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.poc.model.SzLoadCheckpoint;
+
+/**
+ * Provides a default implementation of {@link SzLoadCheckpoint}.
+ */
+@JsonDeserialize
+public class SzLoadCheckpointImpl implements SzLoadCheckpoint {
+  /**
+   * The load ID for the checkpointed load.
+   */
+  private String loadId;
+
+  /**
+   * The checkpointed record offset.
+   */
+  private long recordOffset;
+
+  /**
+   * Default constructor
+   */
+  public SzLoadCheckpointImpl() {
+    this.loadId       = null;
+    this.recordOffset = 0L;
+  }
+
+  @Override
+  public String getLoadId() {
+    return loadId;
+  }
+
+  @Override
+  public void setLoadId(String loadId) {
+    this.loadId = loadId;
+  }
+
+  @Override
+  public long getRecordOffset() {
+    return recordOffset;
+  }
+
+  @Override
+  public void setRecordOffset(long recordOffset) {
+    this.recordOffset = recordOffset;
+  }
+}
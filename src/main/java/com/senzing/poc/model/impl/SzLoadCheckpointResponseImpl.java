@@ -0,0 +1,77 @@
+package com.senzing.poc.model.impl;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.api.model.SzLinks;
+import com.senzing.api.model.SzMeta;
+import com.senzing.api.model.impl.SzBasicResponseImpl;
+import com.senzing.poc.model.SzLoadCheckpoint;
+import com.senzing.poc.model.SzLoadCheckpointResponse;
+
+/**
+ * Provides a default implementation of {@link SzLoadCheckpointResponse}.
+ */
+@JsonDeserialize
+public class SzLoadCheckpointResponseImpl extends SzBasicResponseImpl
+  implements SzLoadCheckpointResponse
+{
+  /**
+   * The data for this instance.
+   */
+  private SzLoadCheckpoint checkpoint;
+
+  /**
+   * Default constructor for JSON deserialization.
+   */
+  protected SzLoadCheckpointResponseImpl() {
+    this.checkpoint = null;
+  }
+
+  /**
+   * Constructs with only the meta data and links, leaving the checkpoint
+   * data to be initialized later.
+   *
+   * @param meta The response meta data.
+   *
+   * @param links The links for the response.
+   */
+  public SzLoadCheckpointResponseImpl(SzMeta meta, SzLinks links) {
+    this(meta, links, null);
+  }
+
+  /**
+   * Constructs with only the meta data, links, and the checkpoint data.
+   *
+   * @param meta The response meta data.
+   *
+   * @param links The links for the response.
+   * 
+   * @param checkpoint The {@link SzLoadCheckpoint} describing the data for
+   *                   this instance.
+   */
+  public SzLoadCheckpointResponseImpl(SzMeta            meta,
+                                      SzLinks           links,
+                                      SzLoadCheckpoint  checkpoint)
+  {
+    super(meta, links);
+    this.checkpoint = checkpoint;
+  }
+
+  /**
+   * Returns the {@link SzLoadCheckpoint} associated with this response.
+   *
+   * @return The data associated with this response.
+   */
+  public SzLoadCheckpoint getData() {
+    return this.checkpoint;
+  }
+
+  /**
+   * Sets the data associated with this response with an {@link
+   * SzLoadCheckpoint}.
+   *
+   * @param info The {@link SzLoadCheckpoint} describing the checkpoint.
+   */
+  public void setData(SzLoadCheckpoint info) {
+    this.checkpoint = info;
+  }
+}
@@ -0,0 +1,69 @@
+package com.senzing.poc.model.impl;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.poc.model.SzLoadFailureStats;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Provides a default implementation of {@link SzLoadFailureStats}.
+ */
+@JsonDeserialize
+public class SzLoadFailureStatsImpl implements SzLoadFailureStats {
+  /**
+   * The total number of failed records.
+   */
+  private long failedRecordCount;
+
+  /**
+   * The number of dropped failures.
+   */
+  private long droppedFailureCount;
+
+  /**
+   * The {@link Map} of data source codes to failed record counts.
+   */
+  private SortedMap<String, Long> dataSourceCounts;
+
+  /**
+   * Default constructor
+   */
+  public SzLoadFailureStatsImpl() {
+    this.failedRecordCount    = 0L;
+    this.droppedFailureCount  = 0L;
+    this.dataSourceCounts     = new TreeMap<>();
+  }
+
+  @Override
+  public long getFailedRecordCount() {
+    return this.failedRecordCount;
+  }
+
+  @Override
+  public void setFailedRecordCount(long count) {
+    this.failedRecordCount = count;
+  }
+
+  @Override
+  public long getDroppedFailureCount() {
+    return this.droppedFailureCount;
+  }
+
+  @Override
+  public void setDroppedFailureCount(long count) {
+    this.droppedFailureCount = count;
+  }
+
+  @Override
+  public Map<String, Long> getDataSourceCounts() {
+    return new TreeMap<>(this.dataSourceCounts);
+  }
+
+  @Override
+  public void setDataSourceCounts(Map<String, Long> counts) {
+    this.dataSourceCounts.clear();
+    if (counts != null) this.dataSourceCounts.putAll(counts);
+  }
+}
@@ -0,0 +1,77 @@
+package com.senzing.poc.model.impl;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.api.model.SzLinks;
+import com.senzing.api.model.SzMeta;
+import com.senzing.api.model.impl.SzBasicResponseImpl;
+import com.senzing.poc.model.SzLoadFailureStats;
+import com.senzing.poc.model.SzLoadFailureStatsResponse;
+
+/**
+ * Provides a default implementation of {@link SzLoadFailureStatsResponse}.
+ */
+@JsonDeserialize
+public class SzLoadFailureStatsResponseImpl extends SzBasicResponseImpl
+  implements SzLoadFailureStatsResponse
+{
+  /**
+   * The data for this instance.
+   */
+  private SzLoadFailureStats stats;
+
+  /**
+   * Default constructor for JSON deserialization.
+   */
+  protected SzLoadFailureStatsResponseImpl() {
+    this.stats = null;
+  }
+
+  /**
+   * Constructs with only the meta data and links, leaving the statistics
+   * data to be initialized later.
+   *
+   * @param meta The response meta data.
+   *
+   * @param links The links for the response.
+   */
+  public SzLoadFailureStatsResponseImpl(SzMeta meta, SzLinks links) {
+    this(meta, links, null);
+  }
+
+  /**
+   * Constructs with only the meta data, links, and the statistics data.
+   *
+   * @param meta The response meta data.
+   *
+   * @param links The links for the response.
+   * 
+   * @param stats The {@link SzLoadFailureStats} describing the data for
+   *              this instance.
+   */
+  public SzLoadFailureStatsResponseImpl(SzMeta              meta,
+                                        SzLinks             links,
+                                        SzLoadFailureStats  stats)
+  {
+    super(meta, links);
+    this.stats = stats;
+  }
+
+  /**
+   * Returns the {@link SzLoadFailureStats} associated with this response.
+   *
+   * @return The data associated with this response.
+   */
+  public SzLoadFailureStats getData() {
+    return this.stats;
+  }
+
+  /**
+   * Sets the data associated with this response with an {@link
+   * SzLoadFailureStats}.
+   *
+   * @param info The {@link SzLoadFailureStats} describing the statistics.
+   */
+  public void setData(SzLoadFailureStats info) {
+    this.stats = info;
+  }
+}
@@ -0,0 +1,192 @@
+package com.senzing.poc.model.impl;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.poc.model.SzLoadJournalStats;
+
+/**
+ * Provides a default implementation of {@link SzLoadJournalStats}.
+ */
+@JsonDeserialize
+public class SzLoadJournalStatsImpl implements SzLoadJournalStats {
+  /**
+   * The number of segment files.
+   */
+  private int segmentCount;
+
+  /**
+   * The number of messages pending replay.
+   */
+  private long pendingMessageCount;
+
+  /**
+   * The number of message bytes pending replay.
+   */
+  private long pendingByteCount;
+
+  /**
+   * The number of messages journaled.
+   */
+  private long journaledMessageCount;
+
+  /**
+   * The number of messages replayed.
+   */
+  private long replayedMessageCount;
+
+  /**
+   * The number of message bytes replayed.
+   */
+  private long replayedByteCount;
+
+  /**
+   * The number of failed replay attempts.
+   */
+  private long replayFailureCount;
+
+  /**
+   * The number of parked messages.
+   */
+  private long parkedMessageCount;
+
+  /**
+   * The number of rejected messages.
+   */
+  private long rejectedMessageCount;
+
+  /**
+   * The replay throughput in messages per second.
+   */
+  private double replayMessageRate;
+
+  /**
+   * The replay throughput in bytes per second.
+   */
+  private double replayByteRate;
+
+  /**
+   * Default constructor
+   */
+  public SzLoadJournalStatsImpl() {
+    this.segmentCount          = 0;
+    this.pendingMessageCount   = 0L;
+    this.pendingByteCount      = 0L;
+    this.journaledMessageCount = 0L;
+    this.replayedMessageCount  = 0L;
+    this.replayedByteCount     = 0L;
+    this.replayFailureCount    = 0L;
+    this.parkedMessageCount    = 0L;
+    this.rejectedMessageCount  = 0L;
+    this.replayMessageRate     = 0.0;
+    this.replayByteRate        = 0.0;
+  }
+
+  @Override
+  public int getSegmentCount() {
+    return this.segmentCount;
+  }
+
+  @Override
+  public void setSegmentCount(int segmentCount) {
+    this.segmentCount = segmentCount;
+  }
+
+  @Override
+  public long getPendingMessageCount() {
+    return this.pendingMessageCount;
+  }
+
+  @Override
+  public void setPendingMessageCount(long pendingMessageCount) {
+    this.pendingMessageCount = pendingMessageCount;
+  }
+
+  @Override
+  public long getPendingByteCount() {
+    return this.pendingByteCount;
+  }
+
+  @Override
+  public void setPendingByteCount(long pendingByteCount) {
+    this.pendingByteCount = pendingByteCount;
+  }
+
+  @Override
+  public long getJournaledMessageCount() {
+    return this.journaledMessageCount;
+  }
+
+  @Override
+  public void setJournaledMessageCount(long journaledMessageCount) {
+    this.journaledMessageCount = journaledMessageCount;
+  }
+
+  @Override
+  public long getReplayedMessageCount() {
+    return this.replayedMessageCount;
+  }
+
+  @Override
+  public void setReplayedMessageCount(long replayedMessageCount) {
+    this.replayedMessageCount = replayedMessageCount;
+  }
+
+  @Override
+  public long getReplayedByteCount() {
+    return this.replayedByteCount;
+  }
+
+  @Override
+  public void setReplayedByteCount(long replayedByteCount) {
+    this.replayedByteCount = replayedByteCount;
+  }
+
+  @Override
+  public long getReplayFailureCount() {
+    return this.replayFailureCount;
+  }
+
+  @Override
+  public void setReplayFailureCount(long replayFailureCount) {
+    this.replayFailureCount = replayFailureCount;
+  }
+
+  @Override
+  public long getParkedMessageCount() {
+    return this.parkedMessageCount;
+  }
+
+  @Override
+  public void setParkedMessageCount(long parkedMessageCount) {
+    this.parkedMessageCount = parkedMessageCount;
+  }
+
+  @Override
+  public long getRejectedMessageCount() {
+    return this.rejectedMessageCount;
+  }
+
+  @Override
+  public void setRejectedMessageCount(long rejectedMessageCount) {
+    this.rejectedMessageCount = rejectedMessageCount;
+  }
+
+  @Override
+  public double getReplayMessageRate() {
+    return this.replayMessageRate;
+  }
+
+  @Override
+  public void setReplayMessageRate(double replayMessageRate) {
+    this.replayMessageRate = replayMessageRate;
+  }
+
+  @Override
+  public double getReplayByteRate() {
+    return this.replayByteRate;
+  }
+
+  @Override
+  public void setReplayByteRate(double replayByteRate) {
+    this.replayByteRate = replayByteRate;
+  }
+}
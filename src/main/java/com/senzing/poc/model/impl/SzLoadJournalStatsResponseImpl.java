@@ -0,0 +1,77 @@
+package com.senzing.poc.model.impl;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.senzing.api.model.SzLinks;
+import com.senzing.api.model.SzMeta;
+import com.senzing.api.model.impl.SzBasicResponseImpl;
+import com.senzing.poc.model.SzLoadJournalStats;
+import com.senzing.poc.model.SzLoadJournalStatsResponse;
+
+/**
+ * Provides a default implementation of {@link SzLoadJournalStatsResponse}.
+ */
+@JsonDeserialize
+public class SzLoadJournalStatsResponseImpl extends SzBasicResponseImpl
+  implements SzLoadJournalStatsResponse
+{
+  /**
+   * The data for this instance.
+   */
+  private SzLoadJournalStats stats;
+
+  /**
+   * Default constructor for JSON deserialization.
+   */
+  protected SzLoadJournalStatsResponseImpl() {
+    this.stats = null;
+  }
+
+  /**
+   * Constructs with only the meta data and links, leaving the statistics
+   * data to be initialized later.
+   *
+   * @param meta The response meta data.
+   *
+   * @param links The links for the response.
+   */
+  public SzLoadJournalStatsResponseImpl(SzMeta meta, SzLinks links) {
+    this(meta, links, null);
+  }
+
+  /**
+   * Constructs with only the meta data, links, and the statistics data.
+   *
+   * @param meta The response meta data.
+   *
+   * @param links The links for the response.
+   * 
+   * @param stats The {@link SzLoadJournalStats} describing the data for
+   *              this instance.
+   */
+  public SzLoadJournalStatsResponseImpl(SzMeta              meta,
+                                        SzLinks             links,
+                                        SzLoadJournalStats  stats)
+  {
+    super(meta, links);
+    this.stats = stats;
+  }
+
+  /**
+   * Returns the {@link SzLoadJournalStats} associated with this response.
+   *
+   * @return The data associated with this response.
+   */
+  public SzLoadJournalStats getData() {
+    return this.stats;
+  }
+
+  /**
+   * Sets the data associated with this response with an {@link
+   * SzLoadJournalStats}.
+   *
+   * @param info The {@link SzLoadJournalStats} describing the statistics.
+   */
+  public void setData(SzLoadJournalStats info) {
+    this.stats = info;
+  }
+}
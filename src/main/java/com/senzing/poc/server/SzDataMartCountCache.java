@@ -0,0 +1,274 @@
+package com.senzing.poc.server;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.senzing.listener.communication.sql.SQLConsumer.MessageQueue;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Provides an in-process cache of the row counts computed against the data
+ * mart report detail table, keyed by a {@link String} that incorporates the
+ * report key.  The cache tracks a "generation" number that is advanced every
+ * time the data mart is known to be changing (e.g.: when an INFO message is
+ * enqueued for the data mart replicator) which invalidates all previously
+ * cached counts.  The stale entries are evicted lazily when next looked up.
+ * <p>
+ * Since the replicator applies the updates asynchronously, a count computed
+ * right after the generation advances may not yet reflect them.  Therefore,
+ * the generation is only handed out for caching once the data mart's
+ * database message queue has been observed to be drained, and is advanced
+ * once more at that point.  While the queue has messages that the replicator
+ * has not yet consumed, {@link #getGeneration()} returns {@link #UNSETTLED}
+ * and nothing is cached.  Each entry also has a maximum age after which it
+ * is recomputed.
+ */
+public class SzDataMartCountCache {
+  /**
+   * The default maximum number of milliseconds that a cached count is
+   * considered valid.
+   */
+  public static final long DEFAULT_MAXIMUM_AGE = 30000L;
+
+  /**
+   * The default maximum number of cached counts.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  /**
+   * The generation returned by {@link #getGeneration()} while the data mart
+   * has pending updates, which is never current so that nothing computed
+   * with it is cached.
+   */
+  public static final long UNSETTLED = -1L;
+
+  /**
+   * The minimum number of milliseconds between checks of the data mart's
+   * database message queue while it has pending messages.
+   */
+  private static final long PENDING_CHECK_INTERVAL = 250L;
+
+  /**
+   * Describes a cached count.
+   */
+  private static class Entry {
+    /**
+     * The generation at which the count was computed.
+     */
+    private long generation;
+
+    /**
+     * The nanosecond timestamp at which the entry was created.
+     */
+    private long timestamp;
+
+    /**
+     * The cached count.
+     */
+    private long count;
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param generation The generation at which the count was computed.
+     * @param count The cached count.
+     */
+    private Entry(long generation, long count) {
+      this.generation = generation;
+      this.timestamp  = System.nanoTime();
+      this.count      = count;
+    }
+  }
+
+  /**
+   * The maximum age in milliseconds for a cached count.
+   */
+  private long maximumAge;
+
+  /**
+   * The maximum number of cached counts.
+   */
+  private int maximumSize;
+
+  /**
+   * The current generation.
+   */
+  private AtomicLong generation = new AtomicLong(0L);
+
+  /**
+   * The latest generation for which the data mart's database message queue
+   * has been observed to be drained, which starts out unsettled so that any
+   * messages left from a previous run are accounted for.
+   */
+  private AtomicLong settledGeneration = new AtomicLong(UNSETTLED);
+
+  /**
+   * The nanosecond timestamp of the last check that found pending messages.
+   */
+  private volatile long lastPendingCheck = System.nanoTime()
+      - (PENDING_CHECK_INTERVAL * 1000000L);
+
+  /**
+   * The data mart's database {@link MessageQueue} whose pending messages
+   * are yet to be applied, or <code>null</code> if none.
+   */
+  private volatile MessageQueue messageQueue = null;
+
+  /**
+   * The least-recently-used {@link Map} of cache keys to {@link Entry}
+   * instances.
+   */
+  private Map<String, Entry> entries;
+
+  /**
+   * Constructs with the {@linkplain #DEFAULT_MAXIMUM_AGE default maximum age}
+   * and the {@linkplain #DEFAULT_MAXIMUM_SIZE default maximum size}.
+   */
+  public SzDataMartCountCache() {
+    this(DEFAULT_MAXIMUM_AGE, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Constructs with the specified maximum age and maximum size.
+   *
+   * @param maximumAge The maximum number of milliseconds for which a cached
+   *                   count is considered valid.
+   * @param maximumSize The maximum number of counts to cache.
+   */
+  public SzDataMartCountCache(long maximumAge, int maximumSize) {
+    this.maximumAge   = maximumAge;
+    this.maximumSize  = maximumSize;
+    this.entries      = new LinkedHashMap<>(128, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<String, SzDataMartCountCache.Entry> eldest)
+      {
+        return this.size() > SzDataMartCountCache.this.maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Sets the data mart's database {@link MessageQueue} that is checked for
+   * pending messages before handing out a generation for caching.
+   *
+   * @param messageQueue The data mart's database {@link MessageQueue}, or
+   *                     <code>null</code> if none.
+   */
+  public void setMessageQueue(MessageQueue messageQueue) {
+    this.messageQueue = messageQueue;
+  }
+
+  /**
+   * Gets the current generation, or {@link #UNSETTLED} if the data mart has
+   * pending updates.  This should be obtained <b>before</b> computing a
+   * count that will be {@linkplain #put(String, long, long) cached} so that
+   * a count computed while the data mart was changing is not cached.  While
+   * the generation is settled this does not touch the database.
+   *
+   * @return The current generation, or {@link #UNSETTLED} if results should
+   *         not be cached.
+   */
+  public long getGeneration() {
+    long current = this.generation.get();
+    if (this.settledGeneration.get() == current) return current;
+
+    // avoid checking the queue on every request while it is busy
+    long now = System.nanoTime();
+    if ((now - this.lastPendingCheck) < PENDING_CHECK_INTERVAL * 1000000L) {
+      return UNSETTLED;
+    }
+    if (this.hasPendingMessages()) {
+      this.lastPendingCheck = now;
+      return UNSETTLED;
+    }
+
+    // the queue drained after the current generation began so advance the
+    // generation once more to retire anything computed before the drain
+    // (unless another message was enqueued meanwhile)
+    if (!this.generation.compareAndSet(current, current + 1L)) {
+      return UNSETTLED;
+    }
+    this.settledGeneration.accumulateAndGet(current + 1L, Math::max);
+    return this.getCurrentGeneration();
+  }
+
+  /**
+   * Gets the current generation without checking whether it is settled,
+   * for validating the cached entries.
+   *
+   * @return The current generation.
+   */
+  long getCurrentGeneration() {
+    long current = this.generation.get();
+    return (this.settledGeneration.get() == current) ? current : UNSETTLED;
+  }
+
+  /**
+   * Checks if the data mart's database message queue has messages that have
+   * not yet been consumed by the replicator.  If the count cannot be
+   * obtained then the queue is assumed to have pending messages.
+   *
+   * @return <code>true</code> if there are pending messages, otherwise
+   *         <code>false</code>.
+   */
+  private boolean hasPendingMessages() {
+    MessageQueue queue = this.messageQueue;
+    if (queue == null) return false;
+    try {
+      return (queue.getMessageCount() > 0);
+
+    } catch (SQLException e) {
+      logWarning(e, "Failed to get message count from SQL message queue");
+      return true;
+    }
+  }
+
+  /**
+   * Invalidates all cached counts by advancing the generation.  This does
+   * not block and the stale entries are evicted when next looked up.
+   */
+  public void invalidate() {
+    this.generation.incrementAndGet();
+  }
+
+  /**
+   * Gets the cached count for the specified key if one exists and is still
+   * valid.
+   *
+   * @param key The key for the count.
+   *
+   * @return The cached count, or <code>null</code> if there is no valid
+   *         cached count for the specified key.
+   */
+  public synchronized Long get(String key) {
+    Entry entry = this.entries.get(key);
+    if (entry == null) return null;
+    long age = (System.nanoTime() - entry.timestamp) / 1000000L;
+    if (entry.generation != this.getCurrentGeneration()
+        || age > this.maximumAge)
+    {
+      this.entries.remove(key);
+      return null;
+    }
+    return entry.count;
+  }
+
+  /**
+   * Caches the specified count for the specified key provided the specified
+   * generation is still the current generation and is not {@link
+   * #UNSETTLED}.
+   *
+   * @param key The key for the count.
+   * @param generation The {@linkplain #getGeneration() generation} that was
+   *                   obtained prior to computing the count.
+   * @param count The count to cache.
+   */
+  public synchronized void put(String key, long generation, long count) {
+    if (generation == UNSETTLED) return;
+    if (generation != this.getCurrentGeneration()) return;
+    this.entries.put(key, new Entry(generation, count));
+  }
+}
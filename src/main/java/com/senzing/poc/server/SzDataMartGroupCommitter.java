@@ -0,0 +1,265 @@
+package com.senzing.poc.server;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.senzing.listener.communication.sql.SQLConsumer.MessageQueue;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Group-commits the INFO messages enqueued on the data mart's database
+ * message queue by concurrent senders.  The messages are buffered and
+ * enqueued together as a single JSON array message so that each group costs
+ * one insert and commit rather than one per message.  The replicator treats
+ * each element of a JSON array message as a separate INFO message.  A group
+ * is enqueued once it reaches the maximum number of messages or once the
+ * commit window has elapsed since its first message arrived.
+ * <p>
+ * Each caller of {@link #enqueue(String)} blocks until the group containing
+ * its message has been committed, so a failure to enqueue the group is
+ * reported to the sender of every message in it.  The groups are committed
+ * by a single daemon thread so that the database sees a single writer.  This
+ * class is thread-safe.
+ */
+public class SzDataMartGroupCommitter {
+  /**
+   * The default maximum number of INFO messages per group.
+   */
+  public static final int DEFAULT_MAXIMUM_MESSAGES = 1000;
+
+  /**
+   * Describes an INFO message awaiting commit.
+   */
+  private static final class Pending {
+    /**
+     * The INFO message text.
+     */
+    private String message;
+
+    /**
+     * The {@link CompletableFuture} completed once the message is committed.
+     */
+    private CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /**
+     * Constructs with the specified INFO message text.
+     *
+     * @param message The INFO message text.
+     */
+    private Pending(String message) {
+      this.message = message;
+    }
+  }
+
+  /**
+   * The backing {@link MessageQueue}.
+   */
+  private MessageQueue messageQueue;
+
+  /**
+   * The number of nanoseconds to wait for more messages after the first
+   * message of a group arrives.
+   */
+  private long windowNanos;
+
+  /**
+   * The maximum number of messages per group.
+   */
+  private int maxMessages;
+
+  /**
+   * The queue of messages awaiting commit.
+   */
+  private LinkedBlockingQueue<Pending> pendingQueue
+      = new LinkedBlockingQueue<>();
+
+  /**
+   * The committer thread.
+   */
+  private Thread committer;
+
+  /**
+   * Flag indicating if shutdown has been requested.
+   */
+  private volatile boolean shutdown = false;
+
+  /**
+   * Constructs with the specified parameters and starts the committer
+   * thread.
+   *
+   * @param messageQueue The backing {@link MessageQueue}.
+   * @param windowMillis The number of milliseconds to wait for more messages
+   *                     after the first message of a group arrives.
+   * @param maxMessages The maximum number of messages per group.
+   */
+  public SzDataMartGroupCommitter(MessageQueue  messageQueue,
+                                  long          windowMillis,
+                                  int           maxMessages)
+  {
+    if (windowMillis < 0L) {
+      throw new IllegalArgumentException(
+          "The group commit window cannot be negative: " + windowMillis);
+    }
+    if (maxMessages < 1) {
+      throw new IllegalArgumentException(
+          "The maximum number of messages must be positive: " + maxMessages);
+    }
+    this.messageQueue = messageQueue;
+    this.windowNanos  = windowMillis * 1000000L;
+    this.maxMessages  = maxMessages;
+
+    this.committer = new Thread(this::commitGroups, "data-mart-group-commit");
+    this.committer.setDaemon(true);
+    this.committer.start();
+  }
+
+  /**
+   * Adds the specified INFO message to the next group and waits for that
+   * group to be committed.
+   *
+   * @param message The INFO message text.
+   *
+   * @throws SQLException If the group could not be enqueued.
+   */
+  public void enqueue(String message) throws SQLException {
+    if (this.shutdown) {
+      throw new IllegalStateException(
+          "The data mart group committer has been shutdown");
+    }
+    Pending pending = new Pending(message);
+    this.pendingQueue.add(pending);
+
+    // fail the message if shutdown began after the check above and it was
+    // added after the committer and shutdown drained the queue (if it is no
+    // longer queued then whoever took it will complete it)
+    if (this.shutdown && this.pendingQueue.remove(pending)) {
+      throw new IllegalStateException(
+          "The data mart group committer has been shutdown");
+    }
+    try {
+      pending.future.get();
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLException("Interrupted waiting for group commit", e);
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof SQLException) throw (SQLException) cause;
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      throw new SQLException(cause);
+    }
+  }
+
+  /**
+   * Stops the committer thread once the messages already pending have been
+   * committed and fails any messages that could not be committed.
+   */
+  public void shutdown() {
+    this.shutdown = true;
+    try {
+      this.committer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    Exception failure = new IllegalStateException(
+        "The data mart group committer has been shutdown");
+    for (Pending pending = this.pendingQueue.poll();
+         pending != null;
+         pending = this.pendingQueue.poll())
+    {
+      pending.future.completeExceptionally(failure);
+    }
+  }
+
+  /**
+   * Runs the committer thread which groups the pending messages and enqueues
+   * each group until shutdown.
+   */
+  private void commitGroups() {
+    List<Pending> group = new ArrayList<>(this.maxMessages);
+    try {
+      while (true) {
+        // wait for the first message of the group
+        Pending first = null;
+        while (first == null) {
+          if (this.shutdown && this.pendingQueue.isEmpty()) return;
+          first = this.pendingQueue.poll(100L, TimeUnit.MILLISECONDS);
+        }
+        group.add(first);
+
+        // gather more messages until the group is full or the window closes
+        long deadline = System.nanoTime() + this.windowNanos;
+        while (group.size() < this.maxMessages) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0L) {
+            this.pendingQueue.drainTo(group, this.maxMessages - group.size());
+            break;
+          }
+          Pending next = this.pendingQueue.poll(remaining,
+                                                TimeUnit.NANOSECONDS);
+          if (next == null) break;
+          group.add(next);
+        }
+
+        this.commit(group);
+        group.clear();
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+    } finally {
+      Exception failure = new IllegalStateException(
+          "The data mart group committer was interrupted");
+      for (Pending pending : group) {
+        pending.future.completeExceptionally(failure);
+      }
+    }
+  }
+
+  /**
+   * Enqueues the specified group of messages as a single message (a JSON
+   * array if there is more than one) and completes the futures for each of
+   * the messages accordingly.
+   *
+   * @param group The {@link List} of {@link Pending} messages in the group.
+   */
+  private void commit(List<Pending> group) {
+    String body;
+    if (group.size() == 1) {
+      body = group.get(0).message;
+    } else {
+      int length = 2;
+      for (Pending pending : group) length += pending.message.length() + 1;
+      StringBuilder sb = new StringBuilder(length);
+      String prefix = "[";
+      for (Pending pending : group) {
+        sb.append(prefix).append(pending.message);
+        prefix = ",";
+      }
+      sb.append("]");
+      body = sb.toString();
+    }
+
+    try {
+      if (isDebugLogging()) {
+        logDebug("Group-committing " + group.size() + " INFO messages");
+      }
+      this.messageQueue.enqueueMessage(body);
+      for (Pending pending : group) {
+        pending.future.complete(null);
+      }
+
+    } catch (Exception e) {
+      for (Pending pending : group) {
+        pending.future.completeExceptionally(e);
+      }
+    }
+  }
+}
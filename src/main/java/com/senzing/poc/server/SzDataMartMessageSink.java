@@ -30,13 +30,54 @@ public class SzDataMartMessageSink implements SzMessageSink {
    */
   private MessageQueue messageQueue = null;
 
+  /**
+   * The {@link SzDataMartCountCache} to invalidate when messages are enqueued,
+   * or <code>null</code> if none.
+   */
+  private SzDataMartCountCache countCache = null;
+
+  /**
+   * The {@link SzDataMartGroupCommitter} through which to enqueue the
+   * messages, or <code>null</code> if each message is enqueued directly.
+   */
+  private SzDataMartGroupCommitter groupCommitter = null;
+
   /**
    * Constructs with the specified message queue
    */
   public SzDataMartMessageSink(MessageQueue messageQueue,
       SzMessageSink messageSink) {
-    this.backingSink = messageSink;
-    this.messageQueue = messageQueue;
+    this(messageQueue, messageSink, null);
+  }
+
+  /**
+   * Constructs with the specified message queue, backing sink and the
+   * {@link SzDataMartCountCache} to invalidate whenever a message is
+   * enqueued for the data mart.
+   */
+  public SzDataMartMessageSink(MessageQueue         messageQueue,
+                               SzMessageSink        messageSink,
+                               SzDataMartCountCache countCache)
+  {
+    this(messageQueue, messageSink, countCache, null);
+  }
+
+  /**
+   * Constructs with the specified message queue, backing sink, the {@link
+   * SzDataMartCountCache} to invalidate whenever a message is enqueued for
+   * the data mart and the {@link SzDataMartGroupCommitter} through which to
+   * group-commit the messages (or <code>null</code> to enqueue each message
+   * directly on the message queue).
+   */
+  public SzDataMartMessageSink(MessageQueue             messageQueue,
+                               SzMessageSink            messageSink,
+                               SzDataMartCountCache     countCache,
+                               SzDataMartGroupCommitter groupCommitter)
+  {
+    this.backingSink    = messageSink;
+    this.messageQueue   = messageQueue;
+    this.countCache     = countCache;
+    this.groupCommitter = groupCommitter;
   }
 
   /**
@@ -54,15 +95,27 @@ public class SzDataMartMessageSink implements SzMessageSink {
    * {@inheritDoc}
    * <p>
    * Overridden to also enqueue the message to the backing message queue in
-   * addition to any backing {@link SzMessageSink} (if one exists).
+   * addition to any backing {@link SzMessageSink} (if one exists).  If group
+   * commit is enabled then this blocks until the group containing the
+   * message has been committed.
    */
   @Override
   public void send(SzMessage message, FailureHandler onFailure)
       throws Exception {
     Exception failure = null;
     try {
-      this.messageQueue.enqueueMessage(message.getBody());
-    } catch (SQLException e) {
+      if (this.groupCommitter != null) {
+        this.groupCommitter.enqueue(message.getBody());
+      } else {
+        this.messageQueue.enqueueMessage(message.getBody());
+      }
+
+      // the data mart will be updated so the cached counts are stale
+      if (this.countCache != null) this.countCache.invalidate();
+
+    } catch (Exception e) {
+      // report any failure (e.g.: the group committer was shutdown) and
+      // still send to the backing sink
       onFailure.handle(e, message);
       failure = e;
     }
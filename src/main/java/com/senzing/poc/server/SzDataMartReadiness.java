@@ -0,0 +1,177 @@
+package com.senzing.poc.server;
+
+import com.senzing.datamart.SzReplicationProvider;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Tracks the readiness of the data mart replicator so that request threads
+ * need not each block on {@link SzReplicationProvider#waitUntilReady(long)}.
+ * A single background thread waits for the replicator to become ready (or to
+ * indicate that it never will be) and caches the result.  Once ready, checks
+ * are answered immediately from the cached state.  Until then only a bounded
+ * number of request threads may wait for readiness at any one time and all
+ * others fail fast so that a burst of requests during startup cannot park
+ * every HTTP worker thread.
+ */
+public class SzDataMartReadiness {
+  /**
+   * The default maximum number of threads that may concurrently wait for the
+   * replicator to become ready.
+   */
+  public static final int DEFAULT_MAXIMUM_WAITERS = 4;
+
+  /**
+   * The number of milliseconds the background thread waits on each call to
+   * {@link SzReplicationProvider#waitUntilReady(long)}.
+   */
+  private static final long POLL_INTERVAL = 1000L;
+
+  /**
+   * The {@link SzReplicationProvider} whose readiness is being tracked.
+   */
+  private SzReplicationProvider replicationProvider;
+
+  /**
+   * Flag indicating if the replicator is ready.
+   */
+  private volatile boolean ready = false;
+
+  /**
+   * Flag indicating if the replicator indicated it will never be ready.
+   */
+  private volatile boolean failed = false;
+
+  /**
+   * The {@link CountDownLatch} that is released once the readiness state is
+   * known.
+   */
+  private CountDownLatch latch = new CountDownLatch(1);
+
+  /**
+   * The {@link Semaphore} bounding the number of waiting threads.
+   */
+  private Semaphore waiters;
+
+  /**
+   * The background {@link Thread} waiting for readiness.
+   */
+  private Thread monitorThread = null;
+
+  /**
+   * Constructs with the specified {@link SzReplicationProvider} and the
+   * {@linkplain #DEFAULT_MAXIMUM_WAITERS default maximum number of waiters}.
+   *
+   * @param replicationProvider The {@link SzReplicationProvider} whose
+   *                            readiness is tracked.
+   */
+  public SzDataMartReadiness(SzReplicationProvider replicationProvider) {
+    this(replicationProvider, DEFAULT_MAXIMUM_WAITERS);
+  }
+
+  /**
+   * Constructs with the specified {@link SzReplicationProvider} and maximum
+   * number of threads that may concurrently wait for readiness.
+   *
+   * @param replicationProvider The {@link SzReplicationProvider} whose
+   *                            readiness is tracked.
+   * @param maximumWaiters The maximum number of threads that may concurrently
+   *                       wait for readiness, or zero (0) if callers should
+   *                       always fail fast.
+   */
+  public SzDataMartReadiness(SzReplicationProvider  replicationProvider,
+                             int                    maximumWaiters)
+  {
+    Objects.requireNonNull(
+        replicationProvider, "The replication provider cannot be null");
+    if (maximumWaiters < 0) {
+      throw new IllegalArgumentException(
+          "The maximum number of waiters cannot be negative: "
+          + maximumWaiters);
+    }
+    this.replicationProvider  = replicationProvider;
+    this.waiters              = new Semaphore(maximumWaiters);
+  }
+
+  /**
+   * Starts the background thread that waits for the replicator to become
+   * ready.  This has no effect if already started.
+   */
+  public synchronized void start() {
+    if (this.monitorThread != null) return;
+    this.monitorThread = new Thread(this::monitor, "data-mart-readiness");
+    this.monitorThread.setDaemon(true);
+    this.monitorThread.start();
+  }
+
+  /**
+   * Stops the background thread if it has not yet completed.
+   */
+  public synchronized void shutdown() {
+    if (this.monitorThread == null) return;
+    this.monitorThread.interrupt();
+  }
+
+  /**
+   * Waits for the replicator in the background until it is ready or has
+   * indicated that it never will be.
+   */
+  private void monitor() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Boolean result = this.replicationProvider.waitUntilReady(POLL_INTERVAL);
+        if (result == null) {
+          this.failed = true;
+          break;
+        }
+        if (result) {
+          this.ready = true;
+          break;
+        }
+      }
+    } catch (InterruptedException e) {
+      // shutting down
+    } catch (Exception e) {
+      logWarning(e, "Failed waiting for the data mart replicator");
+      this.failed = true;
+    } finally {
+      this.latch.countDown();
+    }
+  }
+
+  /**
+   * Checks the readiness of the replicator, waiting at most the specified
+   * number of milliseconds if it is not yet ready and fewer than the
+   * maximum number of threads are already waiting.  Otherwise this returns
+   * immediately.
+   *
+   * @param maxWait The maximum number of milliseconds to wait.
+   *
+   * @return {@link Boolean#TRUE} if ready, {@link Boolean#FALSE} if not yet
+   *         ready, or <code>null</code> if the replicator will never be
+   *         ready.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  public Boolean awaitReady(long maxWait) throws InterruptedException {
+    // check the cached state
+    if (this.ready) return Boolean.TRUE;
+    if (this.failed) return null;
+
+    // fail fast if not waiting or too many are already waiting
+    if (maxWait <= 0L || !this.waiters.tryAcquire()) return Boolean.FALSE;
+    try {
+      this.latch.await(maxWait, TimeUnit.MILLISECONDS);
+    } finally {
+      this.waiters.release();
+    }
+    if (this.ready) return Boolean.TRUE;
+    if (this.failed) return null;
+    return Boolean.FALSE;
+  }
+}
@@ -0,0 +1,206 @@
+package com.senzing.poc.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Provides an in-process cache of the results of the data mart statistics
+ * services keyed by a {@link String} that identifies the end-point and its
+ * normalized query parameters.  Each cached result is stamped with the
+ * generation of the associated {@link SzDataMartCountCache} at the time the
+ * result was computed and is discarded once that generation advances (i.e.:
+ * when the data mart is known to be changing).  Nothing is cached while the
+ * generation is {@linkplain SzDataMartCountCache#UNSETTLED unsettled} (i.e.:
+ * while the replicator has pending updates to apply).  Each entry also has a
+ * maximum age after which it is recomputed.
+ */
+public class SzDataMartResponseCache {
+  /**
+   * The default maximum number of milliseconds that a cached result is
+   * considered valid.
+   */
+  public static final long DEFAULT_MAXIMUM_AGE = 30000L;
+
+  /**
+   * The default maximum number of cached results.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  /**
+   * Describes a cached result along with its entity tag.
+   */
+  public static final class Entry {
+    /**
+     * The generation at which the result was computed.
+     */
+    private long generation;
+
+    /**
+     * The nanosecond timestamp at which the entry was created.
+     */
+    private long timestamp;
+
+    /**
+     * The cached result.
+     */
+    private Object result;
+
+    /**
+     * The entity tag for the cached result.
+     */
+    private String entityTag;
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param generation The generation at which the result was computed.
+     * @param result The cached result.
+     * @param entityTag The entity tag for the cached result.
+     */
+    private Entry(long generation, Object result, String entityTag) {
+      this.generation = generation;
+      this.timestamp  = System.nanoTime();
+      this.result     = result;
+      this.entityTag  = entityTag;
+    }
+
+    /**
+     * Gets the cached result.
+     *
+     * @return The cached result.
+     */
+    public Object getResult() {
+      return this.result;
+    }
+
+    /**
+     * Gets the entity tag for the cached result.
+     *
+     * @return The entity tag for the cached result.
+     */
+    public String getEntityTag() {
+      return this.entityTag;
+    }
+  }
+
+  /**
+   * The {@link SzDataMartCountCache} whose generation is used to stamp the
+   * cached results.
+   */
+  private SzDataMartCountCache generationSource;
+
+  /**
+   * The maximum age in milliseconds for a cached result.
+   */
+  private long maximumAge;
+
+  /**
+   * The maximum number of cached results.
+   */
+  private int maximumSize;
+
+  /**
+   * The least-recently-used {@link Map} of cache keys to {@link Entry}
+   * instances.
+   */
+  private Map<String, Entry> entries;
+
+  /**
+   * Constructs with the specified {@link SzDataMartCountCache} as the source
+   * of the generation, the {@linkplain #DEFAULT_MAXIMUM_AGE default maximum
+   * age} and the {@linkplain #DEFAULT_MAXIMUM_SIZE default maximum size}.
+   *
+   * @param generationSource The {@link SzDataMartCountCache} whose generation
+   *                         is used to stamp the cached results.
+   */
+  public SzDataMartResponseCache(SzDataMartCountCache generationSource) {
+    this(generationSource, DEFAULT_MAXIMUM_AGE, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * Constructs with the specified {@link SzDataMartCountCache} as the source
+   * of the generation and the specified maximum age and maximum size.
+   *
+   * @param generationSource The {@link SzDataMartCountCache} whose generation
+   *                         is used to stamp the cached results.
+   * @param maximumAge The maximum number of milliseconds for which a cached
+   *                   result is considered valid.
+   * @param maximumSize The maximum number of results to cache.
+   */
+  public SzDataMartResponseCache(SzDataMartCountCache generationSource,
+                                 long                 maximumAge,
+                                 int                  maximumSize)
+  {
+    Objects.requireNonNull(
+        generationSource, "The generation source cannot be null");
+    this.generationSource = generationSource;
+    this.maximumAge       = maximumAge;
+    this.maximumSize      = maximumSize;
+    this.entries          = new LinkedHashMap<>(128, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(
+          Map.Entry<String, SzDataMartResponseCache.Entry> eldest)
+      {
+        return this.size() > SzDataMartResponseCache.this.maximumSize;
+      }
+    };
+  }
+
+  /**
+   * Gets the current generation, or {@link SzDataMartCountCache#UNSETTLED}
+   * if the data mart has pending updates.  This should be obtained
+   * <b>before</b> computing a result that will be {@linkplain #put(String,
+   * long, Object, String) cached} so that a result computed while the data
+   * mart was changing is not cached.
+   *
+   * @return The current generation, or {@link SzDataMartCountCache#UNSETTLED}
+   *         if results should not be cached.
+   */
+  public long getGeneration() {
+    return this.generationSource.getGeneration();
+  }
+
+  /**
+   * Gets the cached {@link Entry} for the specified key if one exists and is
+   * still valid.
+   *
+   * @param key The key for the result.
+   *
+   * @return The cached {@link Entry}, or <code>null</code> if there is no
+   *         valid cached result for the specified key.
+   */
+  public synchronized Entry get(String key) {
+    Entry entry = this.entries.get(key);
+    if (entry == null) return null;
+    long age = (System.nanoTime() - entry.timestamp) / 1000000L;
+    if (entry.generation != this.generationSource.getCurrentGeneration()
+        || age > this.maximumAge)
+    {
+      this.entries.remove(key);
+      return null;
+    }
+    return entry;
+  }
+
+  /**
+   * Caches the specified result with the specified entity tag for the
+   * specified key provided the specified generation is still the current
+   * generation and is not {@link SzDataMartCountCache#UNSETTLED}.
+   *
+   * @param key The key for the result.
+   * @param generation The {@linkplain #getGeneration() generation} that was
+   *                   obtained prior to computing the result.
+   * @param result The result to cache.
+   * @param entityTag The entity tag for the result.
+   */
+  public synchronized void put(String  key,
+                               long    generation,
+                               Object  result,
+                               String  entityTag)
+  {
+    if (generation == SzDataMartCountCache.UNSETTLED) return;
+    if (generation != this.generationSource.getCurrentGeneration()) return;
+    this.entries.put(key, new Entry(generation, result, entityTag));
+  }
+}
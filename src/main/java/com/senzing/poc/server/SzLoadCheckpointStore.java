@@ -0,0 +1,181 @@
+package com.senzing.poc.server;
+
+import java.io.*;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Stores the checkpoints for stream-loaded bulk data keyed by load ID so
+ * that an interrupted load can be resumed without re-enqueueing the records
+ * that were already acknowledged by the load queue.  Each checkpoint is the
+ * number of leading records of the bulk data (the record offset) that have
+ * all been handled.  The checkpoints are always held in memory (up to a
+ * maximum number of load IDs) and, if a directory is specified, are also
+ * persisted to a file per load ID so they survive a restart of the server.
+ * The checkpoint for a load is removed once the load completes with every
+ * record handled.
+ * <p>
+ * This class is thread-safe.
+ */
+public class SzLoadCheckpointStore {
+  /**
+   * The default maximum number of checkpoints to retain in memory.
+   */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  /**
+   * The file suffix for persisted checkpoints.
+   */
+  private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+  /**
+   * The property key for the record offset in a persisted checkpoint.
+   */
+  private static final String RECORD_OFFSET_KEY = "recordOffset";
+
+  /**
+   * The directory to persist the checkpoints to, or <code>null</code> if
+   * they are only held in memory.
+   */
+  private File directory;
+
+  /**
+   * The least-recently-used {@link Map} of load IDs to record offsets.
+   */
+  private Map<String, Long> checkpoints;
+
+  /**
+   * Constructs with the specified directory to persist the checkpoints to.
+   * The directory is created if it does not exist.
+   *
+   * @param directory The directory to persist the checkpoints to, or
+   *                  <code>null</code> if only held in memory.
+   *
+   * @throws IllegalArgumentException If the directory could not be created or
+   *                                  is not a directory.
+   */
+  public SzLoadCheckpointStore(File directory) {
+    if (directory != null && !directory.isDirectory()
+        && !directory.mkdirs())
+    {
+      throw new IllegalArgumentException(
+          "The load checkpoint directory could not be created: " + directory);
+    }
+    this.directory = directory;
+    this.checkpoints = new LinkedHashMap<>(128, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+        return this.size() > DEFAULT_MAXIMUM_SIZE;
+      }
+    };
+  }
+
+  /**
+   * Gets the directory to which the checkpoints are persisted, or
+   * <code>null</code> if they are only held in memory.
+   *
+   * @return The directory to which the checkpoints are persisted, or
+   *         <code>null</code> if they are only held in memory.
+   */
+  public File getDirectory() {
+    return this.directory;
+  }
+
+  /**
+   * Gets the record offset checkpointed for the specified load ID.
+   *
+   * @param loadId The load ID for the checkpoint.
+   *
+   * @return The checkpointed record offset, or <code>null</code> if there is
+   *         no checkpoint for the load ID.
+   */
+  public synchronized Long getRecordOffset(String loadId) {
+    Long offset = this.checkpoints.get(loadId);
+    if (offset != null || this.directory == null) return offset;
+
+    // check if the checkpoint was persisted
+    File file = this.getFile(loadId);
+    if (!file.exists()) return null;
+    try (InputStream is = new FileInputStream(file);
+         Reader reader = new InputStreamReader(is, UTF_8))
+    {
+      Properties props = new Properties();
+      props.load(reader);
+      offset = Long.parseLong(props.getProperty(RECORD_OFFSET_KEY));
+      this.checkpoints.put(loadId, offset);
+      return offset;
+
+    } catch (IOException | RuntimeException e) {
+      logWarning(e, "Failed to read load checkpoint: " + file);
+      return null;
+    }
+  }
+
+  /**
+   * Saves the record offset for the specified load ID, replacing any
+   * existing checkpoint.  A failure to persist the checkpoint is logged
+   * rather than failing the load.
+   *
+   * @param loadId The load ID for the checkpoint.
+   * @param recordOffset The record offset to checkpoint.
+   */
+  public synchronized void saveRecordOffset(String loadId, long recordOffset) {
+    this.checkpoints.put(loadId, recordOffset);
+    if (this.directory == null) return;
+
+    File file = this.getFile(loadId);
+    File tempFile = new File(this.directory, file.getName() + ".tmp");
+    try {
+      Properties props = new Properties();
+      props.setProperty(RECORD_OFFSET_KEY, String.valueOf(recordOffset));
+      try (OutputStream os = new FileOutputStream(tempFile);
+           Writer writer = new OutputStreamWriter(os, UTF_8))
+      {
+        props.store(writer, loadId);
+      }
+      // replace the checkpoint atomically so a crash cannot corrupt it
+      Files.move(tempFile.toPath(), file.toPath(),
+                 StandardCopyOption.REPLACE_EXISTING,
+                 StandardCopyOption.ATOMIC_MOVE);
+
+    } catch (IOException e) {
+      logWarning(e, "Failed to persist load checkpoint: " + file);
+    }
+  }
+
+  /**
+   * Removes the checkpoint for the specified load ID, deleting its persisted
+   * file if any.  A failure to delete the file is logged.
+   *
+   * @param loadId The load ID for the checkpoint.
+   */
+  public synchronized void removeRecordOffset(String loadId) {
+    this.checkpoints.remove(loadId);
+    if (this.directory == null) return;
+
+    File file = this.getFile(loadId);
+    if (file.exists() && !file.delete()) {
+      logWarning("Failed to delete load checkpoint: " + file);
+    }
+  }
+
+  /**
+   * Gets the {@link File} for persisting the checkpoint for the specified
+   * load ID.
+   *
+   * @param loadId The load ID for the checkpoint.
+   *
+   * @return The {@link File} for the checkpoint.
+   */
+  private File getFile(String loadId) {
+    return new File(this.directory,
+                    URLEncoder.encode(loadId, UTF_8) + CHECKPOINT_SUFFIX);
+  }
+}
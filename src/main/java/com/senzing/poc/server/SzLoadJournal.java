@@ -0,0 +1,962 @@
+package com.senzing.poc.server;
+
+import com.senzing.api.services.SzMessage;
+import com.senzing.api.services.SzMessageSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Provides a local write-ahead journal for load messages that could not be
+ * sent to the load queue so that they can be replayed once the load queue
+ * recovers rather than being dropped.  The journal is a sequence of
+ * append-only, memory-mapped segment files in a directory.  Each entry is
+ * the UTF-8 message body preceded by its length and its CRC-32 checksum.
+ * The length is written only after the body so that a partially written
+ * entry marks the end of the segment, and an entry whose body does not match
+ * its checksum (i.e.: a torn write) is treated the same way when recovering.
+ * Once an entry has been replayed its length is negated in place so that it
+ * is not replayed again if the server restarts.  The total size of the
+ * segment files is capped, and messages that would exceed the cap are not
+ * journaled.
+ * <p>
+ * A daemon thread replays the pending entries in order using sinks acquired
+ * from the {@link SzPocProvider}, backing off while the load queue is still
+ * unavailable, and deletes each segment once all its entries are replayed.
+ * Any segments left by a previous run are replayed first.  An entry that
+ * can never be sent (i.e.: exceeds the maximum message size or is rejected
+ * as invalid), or that fails the maximum number of attempts while the load
+ * queue is otherwise reachable, is parked by appending it to the {@linkplain
+ * #DEAD_LETTER_FILE_NAME dead-letter file} so it does not block the entries
+ * behind it.  This class is thread-safe.
+ */
+public class SzLoadJournal {
+  /**
+   * The default size of each segment file in bytes.
+   */
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * The default maximum total size of the segment files in bytes.
+   */
+  public static final long DEFAULT_MAXIMUM_SIZE = 1024L * 1024L * 1024L;
+
+  /**
+   * The default maximum number of failed attempts to replay an entry while
+   * the load queue is reachable before the entry is parked.
+   */
+  public static final int DEFAULT_MAXIMUM_ATTEMPTS = 10;
+
+  /**
+   * The name of the file in the journal directory to which parked messages
+   * are appended, one message per line.
+   */
+  public static final String DEAD_LETTER_FILE_NAME = "dead-letter.jsonl";
+
+  /**
+   * The file suffix for the segment files.
+   */
+  private static final String SEGMENT_SUFFIX = ".journal";
+
+  /**
+   * The number of bytes for the length that precedes each entry.
+   */
+  private static final int LENGTH_BYTES = 4;
+
+  /**
+   * The number of bytes for the length and checksum that precede each entry.
+   */
+  private static final int HEADER_BYTES = LENGTH_BYTES + 4;
+
+  /**
+   * The number of milliseconds to wait for new entries when there are none
+   * pending.
+   */
+  private static final long IDLE_WAIT = 1000L;
+
+  /**
+   * The initial number of milliseconds to back off after a failed replay.
+   */
+  private static final long INITIAL_RETRY_DELAY = 1000L;
+
+  /**
+   * The maximum number of milliseconds to back off after a failed replay.
+   */
+  private static final long MAXIMUM_RETRY_DELAY = 60000L;
+
+  /**
+   * Describes a memory-mapped segment file of the journal.
+   */
+  private static final class Segment {
+    /**
+     * The sequence number for the segment.
+     */
+    private long sequence;
+
+    /**
+     * The segment {@link File}.
+     */
+    private File file;
+
+    /**
+     * The {@link FileChannel} for the segment.
+     */
+    private FileChannel channel;
+
+    /**
+     * The {@link MappedByteBuffer} for appending to the segment.
+     */
+    private MappedByteBuffer buffer;
+
+    /**
+     * The view of the buffer used by the replay thread.
+     */
+    private ByteBuffer replayBuffer;
+
+    /**
+     * The position after the last complete entry.
+     */
+    private volatile int writePosition = 0;
+
+    /**
+     * Flag indicating if no more entries will be appended to the segment.
+     */
+    private volatile boolean sealed = false;
+
+    /**
+     * The position of the next entry to replay, which is only accessed by
+     * the replay thread.
+     */
+    private int replayPosition = 0;
+
+    /**
+     * Opens the specified segment file, creating it with the specified size
+     * if it does not exist.
+     *
+     * @param sequence The sequence number for the segment.
+     * @param file The segment {@link File}.
+     * @param size The size for the segment if it is being created.
+     *
+     * @throws IOException If a failure occurs.
+     */
+    private Segment(long sequence, File file, int size) throws IOException {
+      this.sequence = sequence;
+      this.file     = file;
+      this.channel  = FileChannel.open(file.toPath(),
+                                       StandardOpenOption.CREATE,
+                                       StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE);
+      long length = Math.max(this.channel.size(), size);
+      this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      this.replayBuffer = this.buffer.duplicate();
+    }
+
+    /**
+     * Gets the capacity of the segment in bytes.
+     *
+     * @return The capacity of the segment in bytes.
+     */
+    private int capacity() {
+      return this.buffer.capacity();
+    }
+
+    /**
+     * Closes the segment.
+     */
+    private void close() {
+      try {
+        this.channel.close();
+      } catch (IOException e) {
+        logWarning(e, "Failed to close load journal segment: " + this.file);
+      }
+    }
+  }
+
+  /**
+   * The possible outcomes of an attempt to replay an entry.
+   */
+  private enum Outcome {
+    /**
+     * The entry was sent to the load queue.
+     */
+    SENT,
+
+    /**
+     * The entry could not be sent because the load queue is unavailable.
+     */
+    UNAVAILABLE,
+
+    /**
+     * The entry could not be sent even though the load queue is reachable.
+     */
+    FAILED,
+
+    /**
+     * The entry can never be sent.
+     */
+    REJECTED
+  }
+
+  /**
+   * The directory containing the segment files.
+   */
+  private File directory;
+
+  /**
+   * The size for new segment files.
+   */
+  private int segmentSize;
+
+  /**
+   * The maximum total size of the segment files.
+   */
+  private long maximumSize;
+
+  /**
+   * The maximum number of failed attempts to replay an entry while the load
+   * queue is reachable before it is parked.
+   */
+  private int maximumAttempts;
+
+  /**
+   * The total size of the segment files.
+   */
+  private long totalSize = 0L;
+
+  /**
+   * Flag indicating if the journal is full and rejecting messages.
+   */
+  private boolean full = false;
+
+  /**
+   * The {@link SzPocProvider} from which to acquire the load sinks.
+   */
+  private SzPocProvider provider;
+
+  /**
+   * The segments in order with the segment being appended to (if any) last.
+   */
+  private ConcurrentLinkedDeque<Segment> segments
+      = new ConcurrentLinkedDeque<>();
+
+  /**
+   * The segment being appended to, or <code>null</code> if none.
+   */
+  private Segment activeSegment = null;
+
+  /**
+   * The sequence number for the next segment.
+   */
+  private long nextSequence = 0L;
+
+  /**
+   * The monitor used to wake the replay thread.
+   */
+  private final Object monitor = new Object();
+
+  /**
+   * The replay thread.
+   */
+  private Thread replayer;
+
+  /**
+   * Flag indicating if shutdown has been requested.
+   */
+  private volatile boolean shutdown = false;
+
+  /**
+   * The number of entries that are pending replay.
+   */
+  private final AtomicLong pendingCount = new AtomicLong(0L);
+
+  /**
+   * The number of message bytes that are pending replay.
+   */
+  private final AtomicLong pendingBytes = new AtomicLong(0L);
+
+  /**
+   * The number of messages journaled since the server started.
+   */
+  private final AtomicLong journaledCount = new AtomicLong(0L);
+
+  /**
+   * The number of messages replayed since the server started.
+   */
+  private final AtomicLong replayedCount = new AtomicLong(0L);
+
+  /**
+   * The number of message bytes replayed since the server started.
+   */
+  private final AtomicLong replayedBytes = new AtomicLong(0L);
+
+  /**
+   * The number of failed replay attempts since the server started.
+   */
+  private final AtomicLong replayFailureCount = new AtomicLong(0L);
+
+  /**
+   * The number of messages parked since the server started.
+   */
+  private final AtomicLong parkedCount = new AtomicLong(0L);
+
+  /**
+   * The number of messages rejected because the journal was full since the
+   * server started.
+   */
+  private final AtomicLong rejectedCount = new AtomicLong(0L);
+
+  /**
+   * The total number of nanoseconds spent successfully replaying messages.
+   */
+  private final AtomicLong replayNanos = new AtomicLong(0L);
+
+  /**
+   * Constructs with the specified parameters using the {@linkplain
+   * #DEFAULT_MAXIMUM_SIZE default maximum size} and {@linkplain
+   * #DEFAULT_MAXIMUM_ATTEMPTS default maximum attempts}, recovering any
+   * segments left in the directory and starting the replay thread.  The
+   * directory is created if it does not exist.
+   *
+   * @param directory The directory for the segment files.
+   * @param segmentSize The size for new segment files in bytes.
+   * @param provider The {@link SzPocProvider} from which to acquire the load
+   *                 sinks for replay.
+   *
+   * @throws IllegalArgumentException If the directory could not be created or
+   *                                  is not a directory.
+   * @throws IOException If the existing segments could not be recovered.
+   */
+  public SzLoadJournal(File           directory,
+                       int            segmentSize,
+                       SzPocProvider  provider)
+      throws IOException
+  {
+    this(directory,
+         segmentSize,
+         DEFAULT_MAXIMUM_SIZE,
+         DEFAULT_MAXIMUM_ATTEMPTS,
+         provider);
+  }
+
+  /**
+   * Constructs with the specified parameters, recovering any segments left
+   * in the directory and starting the replay thread.  The directory is
+   * created if it does not exist.
+   *
+   * @param directory The directory for the segment files.
+   * @param segmentSize The size for new segment files in bytes.
+   * @param maximumSize The maximum total size of the segment files in bytes,
+   *                    which must be at least the segment size.
+   * @param maximumAttempts The maximum number of failed attempts to replay
+   *                        an entry while the load queue is reachable before
+   *                        it is parked.
+   * @param provider The {@link SzPocProvider} from which to acquire the load
+   *                 sinks for replay.
+   *
+   * @throws IllegalArgumentException If the directory could not be created or
+   *                                  is not a directory, or if any of the
+   *                                  sizes or the maximum attempts is not
+   *                                  valid.
+   * @throws IOException If the existing segments could not be recovered.
+   */
+  public SzLoadJournal(File           directory,
+                       int            segmentSize,
+                       long           maximumSize,
+                       int            maximumAttempts,
+                       SzPocProvider  provider)
+      throws IOException
+  {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IllegalArgumentException(
+          "The load journal directory could not be created: " + directory);
+    }
+    if (segmentSize <= HEADER_BYTES) {
+      throw new IllegalArgumentException(
+          "The segment size is too small: " + segmentSize);
+    }
+    if (maximumSize < segmentSize) {
+      throw new IllegalArgumentException(
+          "The maximum size (" + maximumSize + ") cannot be less than the "
+          + "segment size: " + segmentSize);
+    }
+    if (maximumAttempts < 1) {
+      throw new IllegalArgumentException(
+          "The maximum attempts must be positive: " + maximumAttempts);
+    }
+    this.directory        = directory;
+    this.segmentSize      = segmentSize;
+    this.maximumSize      = maximumSize;
+    this.maximumAttempts  = maximumAttempts;
+    this.provider         = provider;
+
+    this.recover();
+
+    this.replayer = new Thread(this::replayEntries, "load-journal-replay");
+    this.replayer.setDaemon(true);
+    this.replayer.start();
+  }
+
+  /**
+   * Gets the directory containing the segment files.
+   *
+   * @return The directory containing the segment files.
+   */
+  public File getDirectory() {
+    return this.directory;
+  }
+
+  /**
+   * Gets the file in the journal directory to which parked messages are
+   * appended.
+   *
+   * @return The dead-letter {@link File} for parked messages.
+   */
+  public File getDeadLetterFile() {
+    return new File(this.directory, DEAD_LETTER_FILE_NAME);
+  }
+
+  /**
+   * Gets the number of segment files in the journal.
+   *
+   * @return The number of segment files in the journal.
+   */
+  public int getSegmentCount() {
+    return this.segments.size();
+  }
+
+  /**
+   * Gets the number of messages that are pending replay.
+   *
+   * @return The number of messages that are pending replay.
+   */
+  public long getPendingMessageCount() {
+    return this.pendingCount.get();
+  }
+
+  /**
+   * Gets the number of message bytes that are pending replay.
+   *
+   * @return The number of message bytes that are pending replay.
+   */
+  public long getPendingByteCount() {
+    return this.pendingBytes.get();
+  }
+
+  /**
+   * Gets the number of messages journaled since the server started.
+   *
+   * @return The number of messages journaled since the server started.
+   */
+  public long getJournaledMessageCount() {
+    return this.journaledCount.get();
+  }
+
+  /**
+   * Gets the number of messages replayed since the server started.
+   *
+   * @return The number of messages replayed since the server started.
+   */
+  public long getReplayedMessageCount() {
+    return this.replayedCount.get();
+  }
+
+  /**
+   * Gets the number of message bytes replayed since the server started.
+   *
+   * @return The number of message bytes replayed since the server started.
+   */
+  public long getReplayedByteCount() {
+    return this.replayedBytes.get();
+  }
+
+  /**
+   * Gets the number of failed replay attempts since the server started.
+   *
+   * @return The number of failed replay attempts since the server started.
+   */
+  public long getReplayFailureCount() {
+    return this.replayFailureCount.get();
+  }
+
+  /**
+   * Gets the number of messages parked in the dead-letter file since the
+   * server started.
+   *
+   * @return The number of messages parked since the server started.
+   */
+  public long getParkedMessageCount() {
+    return this.parkedCount.get();
+  }
+
+  /**
+   * Gets the number of messages that were not journaled because the journal
+   * was full since the server started.
+   *
+   * @return The number of messages rejected since the server started.
+   */
+  public long getRejectedMessageCount() {
+    return this.rejectedCount.get();
+  }
+
+  /**
+   * Gets the replay throughput in messages per second measured over the
+   * time spent successfully replaying (excluding idle and back-off time).
+   *
+   * @return The replay throughput in messages per second, or zero if
+   *         nothing has been replayed.
+   */
+  public double getReplayMessageRate() {
+    long nanos = this.replayNanos.get();
+    if (nanos == 0L) return 0.0;
+    return (this.replayedCount.get() * 1000000000.0) / nanos;
+  }
+
+  /**
+   * Gets the replay throughput in bytes per second measured over the time
+   * spent successfully replaying (excluding idle and back-off time).
+   *
+   * @return The replay throughput in bytes per second, or zero if nothing
+   *         has been replayed.
+   */
+  public double getReplayByteRate() {
+    long nanos = this.replayNanos.get();
+    if (nanos == 0L) return 0.0;
+    return (this.replayedBytes.get() * 1000000000.0) / nanos;
+  }
+
+  /**
+   * Appends the body of the specified message to the journal so that it is
+   * replayed to the load queue.
+   *
+   * @param message The {@link SzMessage} to journal.
+   *
+   * @return <code>true</code> if the message was journaled, otherwise
+   *         <code>false</code> if it could not be written or the journal is
+   *         full.
+   */
+  public boolean append(SzMessage message) {
+    return this.append(message.getBody());
+  }
+
+  /**
+   * Stops the replay thread and closes the segment files, leaving any
+   * pending entries to be replayed when the server restarts.
+   */
+  public void shutdown() {
+    this.shutdown = true;
+    this.replayer.interrupt();
+    try {
+      this.replayer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      for (Segment segment : this.segments) {
+        segment.buffer.force();
+        segment.close();
+      }
+      this.segments.clear();
+      this.activeSegment = null;
+    }
+  }
+
+  /**
+   * Appends the specified message body to the journal.
+   *
+   * @param body The message body to journal.
+   *
+   * @return <code>true</code> if the message was journaled, otherwise
+   *         <code>false</code> if it could not be written or the journal is
+   *         full.
+   */
+  private boolean append(String body) {
+    byte[] bytes = body.getBytes(UTF_8);
+    synchronized (this) {
+      if (this.shutdown) return false;
+      try {
+        Segment segment = this.activeSegment;
+        int     needed  = HEADER_BYTES + bytes.length;
+
+        // roll to a new segment if the entry does not fit (leaving room for
+        // the zero length that marks the end of the segment)
+        if (segment == null
+            || segment.writePosition + needed + LENGTH_BYTES
+               > segment.capacity())
+        {
+          // check if the new segment would exceed the maximum size
+          int size = Math.max(this.segmentSize, needed + LENGTH_BYTES);
+          if (this.totalSize + size > this.maximumSize) {
+            this.rejectedCount.incrementAndGet();
+            if (!this.full) {
+              this.full = true;
+              logWarning("Load journal is full (" + this.totalSize
+                             + " bytes), not journaling failed load messages "
+                             + "until replayed segments are removed");
+            }
+            return false;
+          }
+
+          if (segment != null) {
+            segment.buffer.force();
+            segment.sealed = true;
+          }
+          long sequence = this.nextSequence++;
+          segment = new Segment(sequence, this.getFile(sequence), size);
+          this.segments.add(segment);
+          this.activeSegment = segment;
+          this.totalSize += segment.capacity();
+        }
+
+        // write the body before the length so a partial entry is ignored
+        int position = segment.writePosition;
+        ByteBuffer view = segment.buffer.duplicate();
+        view.position(position + HEADER_BYTES);
+        view.put(bytes);
+        segment.buffer.putInt(position + LENGTH_BYTES,
+                              checksum(segment.buffer,
+                                       position + HEADER_BYTES,
+                                       bytes.length));
+        segment.buffer.putInt(position, bytes.length);
+        segment.buffer.force();
+        segment.writePosition = position + needed;
+
+      } catch (IOException | RuntimeException e) {
+        logError(e, "Failed to journal load message: " + body);
+        return false;
+      }
+    }
+
+    this.journaledCount.incrementAndGet();
+    this.pendingCount.incrementAndGet();
+    this.pendingBytes.addAndGet(bytes.length);
+    synchronized (this.monitor) {
+      this.monitor.notifyAll();
+    }
+    return true;
+  }
+
+  /**
+   * Recovers the segments left in the directory by a previous run, deleting
+   * those that have no entries pending replay.  All recovered segments are
+   * sealed so new entries are appended to a new segment.
+   *
+   * @throws IOException If a failure occurs.
+   */
+  private void recover() throws IOException {
+    File[] files = this.directory.listFiles(
+        (dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+    if (files == null) return;
+    Arrays.sort(files);
+    for (File file : files) {
+      String name = file.getName();
+      long sequence;
+      try {
+        sequence = Long.parseLong(
+            name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+      } catch (NumberFormatException e) {
+        continue;
+      }
+      this.nextSequence = Math.max(this.nextSequence, sequence + 1L);
+
+      // scan the entries to find the end and count those pending replay
+      Segment segment = new Segment(sequence, file, 0);
+      long pending = 0L;
+      long bytes   = 0L;
+      int position = 0;
+      while (position + HEADER_BYTES <= segment.capacity()) {
+        int length = segment.buffer.getInt(position);
+        if (length == 0) break;
+
+        // stop at a torn entry since nothing was appended after it
+        int size = (length == Integer.MIN_VALUE) ? -1 : Math.abs(length);
+        if (size < 0 || size > segment.capacity() - position - HEADER_BYTES
+            || (segment.buffer.getInt(position + LENGTH_BYTES)
+                != checksum(segment.buffer, position + HEADER_BYTES, size)))
+        {
+          logWarning("Ignoring torn entry at position " + position
+                         + " of load journal segment: " + file);
+          break;
+        }
+        if (length > 0) {
+          pending++;
+          bytes += length;
+        }
+        position += HEADER_BYTES + size;
+      }
+      segment.writePosition = position;
+      segment.sealed = true;
+
+      if (pending == 0L) {
+        segment.close();
+        if (!file.delete()) {
+          logWarning("Failed to delete replayed load journal segment: "
+                         + file);
+        }
+        continue;
+      }
+      this.segments.add(segment);
+      this.totalSize += segment.capacity();
+      this.pendingCount.addAndGet(pending);
+      this.pendingBytes.addAndGet(bytes);
+      logInfo("Recovered " + pending + " load messages pending replay from "
+                  + "load journal segment: " + file);
+    }
+  }
+
+  /**
+   * Runs the replay thread which replays the pending entries in order until
+   * shutdown, parking those that can never be sent or that exhaust the
+   * maximum number of attempts.
+   */
+  private void replayEntries() {
+    long retryDelay = INITIAL_RETRY_DELAY;
+    int  attempts   = 0;
+    try {
+      while (!this.shutdown) {
+        Segment segment = this.segments.peekFirst();
+
+        // check if the segment has an entry to replay
+        boolean sealed = (segment != null) && segment.sealed;
+        if (segment == null
+            || segment.replayPosition >= segment.writePosition)
+        {
+          if (sealed) {
+            this.removeSegment(segment);
+            continue;
+          }
+          synchronized (this.monitor) {
+            this.monitor.wait(IDLE_WAIT);
+          }
+          continue;
+        }
+
+        // read the entry
+        int position = segment.replayPosition;
+        int length = segment.replayBuffer.getInt(position);
+        if (length < 0) {
+          // already replayed
+          segment.replayPosition = position + HEADER_BYTES - length;
+          continue;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = segment.replayBuffer.duplicate();
+        view.position(position + HEADER_BYTES);
+        view.get(bytes);
+        String body = new String(bytes, UTF_8);
+
+        // replay the entry, parking it if it can never be sent or has failed
+        // too many times while the load queue is reachable
+        Outcome outcome = this.replay(body);
+        if (outcome == Outcome.FAILED) attempts++;
+        if (outcome == Outcome.REJECTED || attempts >= this.maximumAttempts) {
+          if (!this.park(body, outcome, attempts)) outcome = Outcome.FAILED;
+          else outcome = Outcome.SENT;
+        }
+
+        // back off if the entry is still pending
+        if (outcome != Outcome.SENT) {
+          Thread.sleep(retryDelay);
+          retryDelay = Math.min(retryDelay * 2L, MAXIMUM_RETRY_DELAY);
+          continue;
+        }
+        retryDelay  = INITIAL_RETRY_DELAY;
+        attempts    = 0;
+
+        // mark the entry as replayed
+        segment.replayBuffer.putInt(position, -length);
+        segment.replayPosition = position + HEADER_BYTES + length;
+        this.pendingCount.decrementAndGet();
+        this.pendingBytes.addAndGet(-length);
+      }
+    } catch (InterruptedException ignore) {
+      // shutting down
+    }
+  }
+
+  /**
+   * Sends the specified message body to the load queue.  If the failure is
+   * reported asynchronously after the send has returned then the message is
+   * journaled again.
+   *
+   * @param body The message body to replay.
+   *
+   * @return The {@link Outcome} of the attempt.
+   */
+  private Outcome replay(String body) {
+    // check if the message can never be sent
+    int byteCount = body.getBytes(UTF_8).length;
+    if (byteCount > this.provider.getLoadMessageMaximumBytes()) {
+      return Outcome.REJECTED;
+    }
+
+    SzMessageSink loadSink = null;
+    long start = System.nanoTime();
+    try {
+      loadSink = this.provider.acquireLoadSink();
+      loadSink.send(new SzMessage(body), (e, msg) -> {
+        logWarning(e, "Failed to replay journaled load message, "
+                       + "journaling it again");
+        if (!this.append(msg.getBody())) {
+          logError("Failed to journal load message again: " + msg.getBody());
+        }
+      });
+      this.replayNanos.addAndGet(System.nanoTime() - start);
+      this.replayedCount.incrementAndGet();
+      this.replayedBytes.addAndGet(byteCount);
+      return Outcome.SENT;
+
+    } catch (Exception e) {
+      this.replayFailureCount.incrementAndGet();
+      if (isInvalidMessage(e)) {
+        logWarning(e, "Journaled load message was rejected as invalid");
+        return Outcome.REJECTED;
+      }
+      logWarning(e, "Failed to replay journaled load message, will retry");
+      return (this.isLoadQueueReachable()) ? Outcome.FAILED
+          : Outcome.UNAVAILABLE;
+
+    } finally {
+      if (loadSink != null) this.provider.releaseLoadSink(loadSink);
+    }
+  }
+
+  /**
+   * Checks if the specified failure to send a message indicates that the
+   * message itself is invalid and can never be sent.
+   *
+   * @param e The {@link Exception} describing the failure.
+   *
+   * @return <code>true</code> if the message is invalid, otherwise
+   *         <code>false</code>.
+   */
+  private static boolean isInvalidMessage(Exception e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof IllegalArgumentException) return true;
+      if (t.getCause() == t) break;
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the load queue is reachable by probing a sink for its message
+   * count so that a failure to send while the load queue is down does not
+   * count against the attempts for an entry.
+   *
+   * @return <code>true</code> if the load queue is reachable, otherwise
+   *         <code>false</code>.
+   */
+  private boolean isLoadQueueReachable() {
+    SzMessageSink loadSink = null;
+    try {
+      loadSink = this.provider.acquireLoadSink();
+      loadSink.getMessageCount();
+      return true;
+
+    } catch (Exception e) {
+      return false;
+
+    } finally {
+      if (loadSink != null) this.provider.releaseLoadSink(loadSink);
+    }
+  }
+
+  /**
+   * Parks the specified message body by appending it to the dead-letter
+   * file so that it no longer blocks the entries behind it.
+   *
+   * @param body The message body to park.
+   * @param outcome The {@link Outcome} of the last attempt to replay it.
+   * @param attempts The number of failed attempts to replay it.
+   *
+   * @return <code>true</code> if the message was parked, otherwise
+   *         <code>false</code> if the dead-letter file could not be written.
+   */
+  private boolean park(String body, Outcome outcome, int attempts) {
+    File file = this.getDeadLetterFile();
+    try {
+      Files.write(file.toPath(),
+                  (body.replace('\n', ' ') + "\n").getBytes(UTF_8),
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.APPEND,
+                  StandardOpenOption.SYNC);
+
+    } catch (IOException e) {
+      logError(e, "Failed to park journaled load message: " + file);
+      return false;
+    }
+    this.parkedCount.incrementAndGet();
+    logError("Parked journaled load message in " + file + " ("
+                 + ((outcome == Outcome.REJECTED) ? "cannot be sent"
+                    : "failed " + attempts + " attempts") + ")");
+    return true;
+  }
+
+  /**
+   * Computes the CRC-32 checksum of the specified number of bytes of the
+   * specified {@link ByteBuffer} starting at the specified position.
+   *
+   * @param buffer The {@link ByteBuffer} containing the bytes.
+   * @param position The position of the first byte.
+   * @param length The number of bytes.
+   *
+   * @return The CRC-32 checksum as an <code>int</code>.
+   */
+  private static int checksum(ByteBuffer buffer, int position, int length) {
+    ByteBuffer view = buffer.duplicate();
+    view.limit(position + length);
+    view.position(position);
+    CRC32 crc = new CRC32();
+    crc.update(view);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Removes the specified fully replayed segment from the journal and deletes
+   * its file.
+   *
+   * @param segment The {@link Segment} to remove.
+   */
+  private void removeSegment(Segment segment) {
+    synchronized (this) {
+      this.segments.remove(segment);
+      segment.close();
+      this.totalSize -= segment.capacity();
+      if (this.full) {
+        this.full = false;
+        logInfo("Load journal is no longer full, journaling resumed");
+      }
+    }
+    if (!segment.file.delete()) {
+      logWarning("Failed to delete replayed load journal segment: "
+                     + segment.file);
+    }
+    if (isDebugLogging()) {
+      logDebug("Replayed load journal segment " + segment.sequence + ": "
+                   + segment.file);
+    }
+  }
+
+  /**
+   * Gets the {@link File} for the segment with the specified sequence number.
+   *
+   * @param sequence The sequence number for the segment.
+   *
+   * @return The {@link File} for the segment.
+   */
+  private File getFile(long sequence) {
+    return new File(this.directory,
+                    String.format("%020d", sequence) + SEGMENT_SUFFIX);
+  }
+}
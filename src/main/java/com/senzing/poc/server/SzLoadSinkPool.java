@@ -0,0 +1,360 @@
+package com.senzing.poc.server;
+
+import com.senzing.api.server.mq.SzMessagingEndpoint;
+import com.senzing.api.services.SzMessage;
+import com.senzing.api.services.SzMessageSink;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Provides long-lived load sinks from a fixed number of stripes so that
+ * acquiring and releasing a load sink for each record does not contend on
+ * the pool of the shared {@link SzMessagingEndpoint}.  Each stripe holds the
+ * sink of its own single-sink {@link SzMessagingEndpoint} and each thread
+ * has an affinity for the stripe selected by its thread ID, so a request
+ * thread normally gets the same sink every time.  If the stripe is in use
+ * then the other stripes are tried in turn and if all are in use then the
+ * caller borrows a sink from the endpoint as before.
+ * <p>
+ * A stripe whose sink fails to send a message is probed in the background
+ * by a daemon thread, which also probes idle stripes periodically.  Only a
+ * stripe that fails the probe (i.e.: a connection-level failure rather than
+ * a failure of a single message) is reconnected, by replacing its endpoint
+ * and sink with fresh ones and discarding the failed sink rather than
+ * returning it to any pool, so request threads never wait on the reconnect
+ * and never get a broken sink.  This class is thread-safe.
+ */
+public class SzLoadSinkPool {
+  /**
+   * The default number of milliseconds between health checks of the sinks.
+   */
+  public static final long DEFAULT_HEALTH_CHECK_INTERVAL = 30000L;
+
+  /**
+   * A stripe of the pool which wraps its current backing sink.
+   */
+  private final class Stripe implements SzMessageSink {
+    /**
+     * The {@link Semaphore} that is held while the stripe is acquired.  This
+     * is not a lock since the stripe need not be released by the thread
+     * that acquired it.
+     */
+    private final Semaphore permit = new Semaphore(1);
+
+    /**
+     * The {@link SzMessagingEndpoint} that owns the backing sink.
+     */
+    private volatile SzMessagingEndpoint endpoint;
+
+    /**
+     * The backing {@link SzMessageSink} for the stripe.
+     */
+    private volatile SzMessageSink sink;
+
+    /**
+     * Flag indicating if the backing sink has failed and should be replaced.
+     */
+    private volatile boolean failed = false;
+
+    /**
+     * Flag indicating if the backing sink failed to send a message and should
+     * be probed to check if its connection has failed.
+     */
+    private volatile boolean suspect = false;
+
+    /**
+     * Constructs with the specified {@link SzMessagingEndpoint}, acquiring
+     * the backing {@link SzMessageSink} from it.
+     *
+     * @param endpoint The {@link SzMessagingEndpoint} for the stripe.
+     */
+    private Stripe(SzMessagingEndpoint endpoint) {
+      this.endpoint = endpoint;
+      this.sink     = endpoint.acquireMessageSink();
+    }
+
+    /**
+     * Marks the backing sink as suspect and wakes the health check thread to
+     * probe it.
+     */
+    private void markSuspect() {
+      this.suspect = true;
+      SzLoadSinkPool.this.requestHealthCheck();
+    }
+
+    @Override
+    public void send(SzMessage message, FailureHandler onFailure)
+        throws Exception
+    {
+      try {
+        this.sink.send(message, (e, msg) -> {
+          this.markSuspect();
+          onFailure.handle(e, msg);
+        });
+      } catch (Exception e) {
+        this.markSuspect();
+        throw e;
+      }
+    }
+
+    @Override
+    public String getProviderType() {
+      return this.sink.getProviderType();
+    }
+
+    @Override
+    public Integer getMessageCount() {
+      return this.sink.getMessageCount();
+    }
+  }
+
+  /**
+   * The {@link Supplier} of the single-sink {@link SzMessagingEndpoint}
+   * instances for the stripes.
+   */
+  private Supplier<SzMessagingEndpoint> endpointFactory;
+
+  /**
+   * The stripes of the pool.
+   */
+  private Stripe[] stripes;
+
+  /**
+   * The number of milliseconds between health checks.
+   */
+  private long healthCheckInterval;
+
+  /**
+   * The monitor used to wake the health check thread.
+   */
+  private final Object monitor = new Object();
+
+  /**
+   * Flag indicating if a health check has been requested early.
+   */
+  private boolean checkRequested = false;
+
+  /**
+   * Flag indicating if shutdown has been requested.
+   */
+  private volatile boolean shutdown = false;
+
+  /**
+   * The health check thread.
+   */
+  private Thread healthChecker;
+
+  /**
+   * Constructs with the specified parameters, creating an endpoint with the
+   * specified {@link Supplier} for each stripe and starting the health check
+   * thread.
+   *
+   * @param endpointFactory The {@link Supplier} that creates a new
+   *                        {@link SzMessagingEndpoint} with (at least) one
+   *                        sink for a stripe.
+   * @param stripeCount The number of stripes.
+   * @param healthCheckInterval The number of milliseconds between health
+   *                            checks of the sinks.
+   */
+  public SzLoadSinkPool(Supplier<SzMessagingEndpoint> endpointFactory,
+                        int                           stripeCount,
+                        long                          healthCheckInterval)
+  {
+    if (stripeCount < 1) {
+      throw new IllegalArgumentException(
+          "The number of stripes must be positive: " + stripeCount);
+    }
+    if (healthCheckInterval <= 0L) {
+      throw new IllegalArgumentException(
+          "The health check interval must be positive: "
+          + healthCheckInterval);
+    }
+    this.endpointFactory      = endpointFactory;
+    this.healthCheckInterval  = healthCheckInterval;
+    this.stripes              = new Stripe[stripeCount];
+    for (int index = 0; index < stripeCount; index++) {
+      this.stripes[index] = new Stripe(endpointFactory.get());
+    }
+
+    this.healthChecker = new Thread(this::checkHealth, "load-sink-health");
+    this.healthChecker.setDaemon(true);
+    this.healthChecker.start();
+  }
+
+  /**
+   * Gets the number of stripes in the pool.
+   *
+   * @return The number of stripes in the pool.
+   */
+  public int getStripeCount() {
+    return this.stripes.length;
+  }
+
+  /**
+   * Acquires the load sink of a stripe that is not in use, preferring the
+   * stripe for the calling thread.  This never waits.  The returned sink
+   * must be released via {@link #release(SzMessageSink)}.
+   *
+   * @return The acquired {@link SzMessageSink}, or <code>null</code> if every
+   *         stripe is in use.
+   */
+  public SzMessageSink acquire() {
+    int count = this.stripes.length;
+    int home  = (int) (Thread.currentThread().getId() % count);
+    for (int index = 0; index < count; index++) {
+      Stripe stripe = this.stripes[(home + index) % count];
+      if (stripe.permit.tryAcquire()) return stripe;
+    }
+    return null;
+  }
+
+  /**
+   * Releases the specified load sink if it was acquired via {@link
+   * #acquire()}.
+   *
+   * @param sink The {@link SzMessageSink} to release.
+   *
+   * @return <code>true</code> if the sink was released, otherwise
+   *         <code>false</code> if the sink is not from this pool.
+   */
+  public boolean release(SzMessageSink sink) {
+    if (!(sink instanceof Stripe)) return false;
+    ((Stripe) sink).permit.release();
+    return true;
+  }
+
+  /**
+   * Stops the health check thread and releases the sinks held by the stripes
+   * that are not in use back to their endpoints.
+   */
+  public void shutdown() {
+    this.shutdown = true;
+    this.requestHealthCheck();
+    try {
+      this.healthChecker.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Stripe stripe : this.stripes) {
+      if (stripe.permit.tryAcquire()) {
+        stripe.endpoint.releaseMessageSink(stripe.sink);
+      }
+    }
+  }
+
+  /**
+   * Wakes the health check thread so that failed sinks are replaced without
+   * waiting for the next interval.
+   */
+  private void requestHealthCheck() {
+    synchronized (this.monitor) {
+      this.checkRequested = true;
+      this.monitor.notifyAll();
+    }
+  }
+
+  /**
+   * Runs the health check thread which periodically probes the sinks of the
+   * stripes that are not in use (and the suspect stripes when requested)
+   * and replaces any that have failed.
+   */
+  private void checkHealth() {
+    while (!this.shutdown) {
+      boolean periodic;
+      synchronized (this.monitor) {
+        if (!this.checkRequested) {
+          try {
+            this.monitor.wait(this.healthCheckInterval);
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        periodic = !this.checkRequested;
+        this.checkRequested = false;
+      }
+      if (this.shutdown) return;
+
+      boolean retry = false;
+      for (Stripe stripe : this.stripes) {
+        // only check the suspect or failed stripes when requested early
+        if (!periodic && !stripe.failed && !stripe.suspect) continue;
+        if (!stripe.permit.tryAcquire()) {
+          retry = retry || stripe.failed || stripe.suspect;
+          continue;
+        }
+        try {
+          stripe.suspect = false;
+          if (!stripe.failed) this.probe(stripe);
+          if (stripe.failed) this.reconnect(stripe);
+        } finally {
+          stripe.permit.release();
+        }
+        retry = retry || stripe.failed;
+      }
+
+      // pause before retrying stripes that were busy or failed to reconnect
+      if (retry) {
+        try {
+          Thread.sleep(Math.min(1000L, this.healthCheckInterval));
+        } catch (InterruptedException e) {
+          return;
+        }
+        this.requestHealthCheck();
+      }
+    }
+  }
+
+  /**
+   * Probes the backing sink of the specified stripe by getting its message
+   * count and marks the stripe as failed if that fails.
+   *
+   * @param stripe The {@link Stripe} to probe.
+   */
+  private void probe(Stripe stripe) {
+    try {
+      stripe.sink.getMessageCount();
+    } catch (Exception e) {
+      logWarning(e, "Load sink failed health check");
+      stripe.failed = true;
+    }
+  }
+
+  /**
+   * Replaces the endpoint and backing sink of the specified failed stripe
+   * with fresh ones and discards the failed sink rather than releasing it
+   * back to its endpoint, where it could be handed out again.  The stripe
+   * remains failed if that fails so that it is retried.
+   *
+   * @param stripe The {@link Stripe} to reconnect.
+   */
+  private void reconnect(Stripe stripe) {
+    SzMessageSink       oldSink = stripe.sink;
+    SzMessagingEndpoint newEndpoint;
+    SzMessageSink       newSink;
+    try {
+      newEndpoint = this.endpointFactory.get();
+      newSink     = newEndpoint.acquireMessageSink();
+    } catch (Exception e) {
+      logWarning(e, "Failed to reconnect load sink");
+      return;
+    }
+    stripe.endpoint = newEndpoint;
+    stripe.sink     = newSink;
+    stripe.failed   = false;
+
+    // close the failed sink if possible to free its connection
+    if (oldSink instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) oldSink).close();
+      } catch (Exception e) {
+        logWarning(e, "Failed to close failed load sink");
+      }
+    }
+    if (isDebugLogging()) {
+      logDebug("Reconnected load sink: " + newSink);
+    }
+  }
+}
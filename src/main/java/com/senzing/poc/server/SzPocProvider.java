@@ -3,6 +3,10 @@ package com.senzing.poc.server;
 import com.senzing.api.services.SzApiProvider;
 import com.senzing.datamart.SzReplicationProvider;
 import com.senzing.api.services.SzMessageSink;
+import com.senzing.poc.services.StreamLoadCoalescer;
+import com.senzing.sql.ConnectionProvider;
+
+import java.util.concurrent.ExecutorService;
 
 /**
  * The {@link SzPocProvider} used by the service operations to
@@ -28,7 +32,61 @@ public interface SzPocProvider extends SzApiProvider {
    *         data mart replicator context.
    */
   SzReplicationProvider getReplicationProvider();
-  
+
+  /**
+   * Returns the {@link SzDataMartReadiness} that caches the readiness of the
+   * data mart replicator so that requests need not each block waiting for
+   * it.
+   * 
+   * @return The {@link SzDataMartReadiness} for the data mart replicator.
+   */
+  SzDataMartReadiness getDataMartReadiness();
+
+  /**
+   * Returns the {@link SzDataMartCountCache} used for caching the counts
+   * computed against the data mart when paging through report details.
+   * 
+   * @return The {@link SzDataMartCountCache} used for caching the counts
+   *         computed against the data mart.
+   */
+  SzDataMartCountCache getDataMartCountCache();
+
+  /**
+   * Returns the {@link SzDataMartResponseCache} used for caching the results
+   * of the data mart statistics services.
+   * 
+   * @return The {@link SzDataMartResponseCache} used for caching the results
+   *         of the data mart statistics services.
+   */
+  SzDataMartResponseCache getDataMartResponseCache();
+
+  /**
+   * Returns the {@link ExecutorService} to use for computing the cross-source
+   * summary statistics concurrently, or <code>null</code> if they should be
+   * computed serially.  The number of threads of the returned {@link
+   * ExecutorService} matches the size of the {@linkplain
+   * #getDataMartSummaryConnectionProvider() summary connection provider}.
+   *
+   * @return The {@link ExecutorService} to use for computing the cross-source
+   *         summary statistics concurrently, or <code>null</code> if they
+   *         should be computed serially.
+   */
+  ExecutorService getDataMartSummaryExecutor();
+
+  /**
+   * Returns the {@link ConnectionProvider} from which the concurrent
+   * cross-source summary computations lease their data mart connections, or
+   * <code>null</code> if they are computed serially.  This is separate from
+   * the data mart connection pool used by the request threads and is sized
+   * to the {@linkplain #getDataMartSummaryExecutor() summary executor} so
+   * that the computations never wait on connections held by requests.
+   *
+   * @return The {@link ConnectionProvider} for the concurrent cross-source
+   *         summary computations, or <code>null</code> if they are computed
+   *         serially.
+   */
+  ConnectionProvider getDataMartSummaryConnectionProvider();
+
   /**
    * Checks if there is a load message sink configured for asynchronous loading.
    *
@@ -46,6 +104,19 @@ public interface SzPocProvider extends SzApiProvider {
    */
   SzMessageSink acquireLoadSink();
 
+  /**
+   * Acquires the {@link SzMessageSink} for sending record messages for loading
+   * only if one is free, without waiting.  This allows a load to use extra
+   * sinks for concurrent sends without holding some sinks while waiting on
+   * others, which could deadlock concurrent loads.  This returns
+   * <code>null</code> if no loading queue is configured or if every sink is
+   * in use.
+   *
+   * @return The {@link SzMessageSink} for sending record messages for loading,
+   *         or <code>null</code> if none is configured or free.
+   */
+  SzMessageSink tryAcquireLoadSink();
+
   /**
    * Releases the {@link SzMessageSink} for sending record messages for loading.
    *
@@ -53,4 +124,41 @@ public interface SzPocProvider extends SzApiProvider {
    */
   void releaseLoadSink(SzMessageSink sink);
 
+  /**
+   * Gets the maximum number of bytes for a message sent to the load queue.
+   * This is derived from the type of the load queue unless explicitly
+   * configured.
+   *
+   * @return The maximum number of bytes for a message sent to the load queue.
+   */
+  int getLoadMessageMaximumBytes();
+
+  /**
+   * Gets the {@link SzLoadCheckpointStore} for the checkpoints of bulk data
+   * stream loads, which persists the checkpoints if so configured.
+   *
+   * @return The {@link SzLoadCheckpointStore} for the load checkpoints.
+   */
+  SzLoadCheckpointStore getLoadCheckpointStore();
+
+  /**
+   * Gets the {@link StreamLoadCoalescer} for coalescing concurrently loaded
+   * single records into batch messages for the load queue, or
+   * <code>null</code> if single records are sent individually.
+   *
+   * @return The {@link StreamLoadCoalescer} for the load queue, or
+   *         <code>null</code> if not coalescing.
+   */
+  StreamLoadCoalescer getLoadCoalescer();
+
+  /**
+   * Gets the {@link SzLoadJournal} to which load messages that fail to be
+   * sent are written for replay, or <code>null</code> if failed load
+   * messages are not journaled.
+   *
+   * @return The {@link SzLoadJournal} for the load queue, or
+   *         <code>null</code> if not journaling.
+   */
+  SzLoadJournal getLoadJournal();
+
 }
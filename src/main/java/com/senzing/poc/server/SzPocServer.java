@@ -17,6 +17,11 @@ import com.senzing.cmdline.DeprecatedOptionWarning;
 import com.senzing.poc.model.SzPocMeta;
 import com.senzing.poc.model.SzPocServerInfo;
 import com.senzing.poc.model.SzPocVersionInfo;
+import com.senzing.poc.services.StreamLoadCoalescer;
+import com.senzing.sql.ConnectionPool;
+import com.senzing.sql.ConnectionProvider;
+import com.senzing.sql.PoolConnectionProvider;
+import com.senzing.sql.PostgreSqlConnector;
 import com.senzing.util.AccessToken;
 import com.senzing.datamart.SzReplicator;
 import com.senzing.listener.communication.sql.SQLConsumer;
@@ -25,10 +30,14 @@ import com.senzing.datamart.SzReplicationProvider;
 import com.senzing.datamart.SzReplicatorOption;
 import com.senzing.datamart.SzReplicatorOptions;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.senzing.poc.BuildInfo;
 import com.senzing.util.LoggingUtilities;
@@ -101,6 +110,40 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
    */
   private SzMessagingEndpoint loadEndpoint;
 
+  /**
+   * The maximum number of bytes for a message sent to the load queue.
+   */
+  private int loadMessageMaximumBytes = DEFAULT_SQS_LOAD_MESSAGE_BYTES;
+
+  /**
+   * The {@link SzLoadCheckpointStore} for the checkpoints of stream loads.
+   */
+  private SzLoadCheckpointStore loadCheckpointStore = null;
+
+  /**
+   * The {@link StreamLoadCoalescer} for coalescing single record loads, or
+   * <code>null</code> if not coalescing.
+   */
+  private StreamLoadCoalescer loadCoalescer = null;
+
+  /**
+   * The {@link SzLoadSinkPool} holding long-lived load sinks, or
+   * <code>null</code> if load sink affinity is not enabled.
+   */
+  private SzLoadSinkPool loadSinkPool = null;
+
+  /**
+   * The number of load sinks borrowed from the load endpoint (rather than
+   * held by the {@link #loadSinkPool}), including those being waited for.
+   */
+  private final AtomicInteger borrowedLoadSinks = new AtomicInteger(0);
+
+  /**
+   * The {@link SzLoadJournal} for the load messages that fail to send, or
+   * <code>null</code> if failed load messages are not journaled.
+   */
+  private SzLoadJournal loadJournal = null;
+
   /**
    * The {@link Map} of Web Socket implementation classes to the {@link String}
    * path endpoints.
@@ -118,6 +161,50 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
    */
   private SQLConsumer.MessageQueue sqlMessageQueue = null;
 
+  /**
+   * The {@link SzDataMartCountCache} for caching data mart counts.
+   */
+  private SzDataMartCountCache countCache = new SzDataMartCountCache();
+
+  /**
+   * The {@link SzDataMartGroupCommitter} for group-committing the INFO
+   * messages for the data mart, or <code>null</code> if not group-committing.
+   */
+  private SzDataMartGroupCommitter groupCommitter = null;
+
+  /**
+   * The {@link SzDataMartResponseCache} for caching the statistics results,
+   * which shares the generation of the {@link #countCache}.
+   */
+  private SzDataMartResponseCache responseCache
+      = new SzDataMartResponseCache(this.countCache);
+
+  /**
+   * The {@link SzDataMartReadiness} tracking the readiness of the
+   * {@link #replicator}.
+   */
+  private SzDataMartReadiness readiness = null;
+
+  /**
+   * The {@link ExecutorService} for computing cross-source summary statistics
+   * concurrently, or <code>null</code> if they are computed serially.
+   */
+  private ExecutorService summaryExecutor = null;
+
+  /**
+   * The {@link ConnectionPool} dedicated to computing cross-source summary
+   * statistics concurrently, or <code>null</code> if they are computed
+   * serially.
+   */
+  private ConnectionPool summaryConnectionPool = null;
+
+  /**
+   * The {@link ConnectionProvider} backed by the {@link
+   * #summaryConnectionPool}, or <code>null</code> if the cross-source summary
+   * statistics are computed serially.
+   */
+  private ConnectionProvider summaryConnectionProvider = null;
+
   /**
    * Constructs with the specified {@link SzPocServerOptions} instance.
    *
@@ -213,6 +300,24 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
     this.replicator       = new SzReplicator(replicatorOptions);
     this.sqlMessageQueue  = this.replicator.getDatabaseMessageQueue();
 
+    // only cache data mart results once the replicator has drained the queue
+    this.countCache.setMessageQueue(this.sqlMessageQueue);
+
+    // group-commit the INFO messages if a group commit window was specified
+    Long groupCommitWindow = (Long) options.get(DATA_MART_GROUP_COMMIT_WINDOW);
+    if (groupCommitWindow != null) {
+      this.groupCommitter = new SzDataMartGroupCommitter(
+          this.sqlMessageQueue,
+          groupCommitWindow,
+          SzDataMartGroupCommitter.DEFAULT_MAXIMUM_MESSAGES);
+    }
+    Integer readinessWaiters
+        = (Integer) options.get(DATA_MART_READINESS_WAITERS);
+    this.readiness        = new SzDataMartReadiness(
+        this.replicator.getReplicationProvider(),
+        (readinessWaiters == null)
+            ? SzDataMartReadiness.DEFAULT_MAXIMUM_WAITERS : readinessWaiters);
+
     Map<String, Map<String, Object>> optionGroups = new LinkedHashMap<>();
 
     // organize options into option groups
@@ -234,19 +339,111 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
 
     // count the number of specified info queues
     Map<String, Object> loadQueueProps = null;
+    String loadQueueGroup = null;
     for (String key : LOAD_QUEUE_GROUPS) {
       if (!optionGroups.containsKey(key)) continue;
       loadQueueProps = optionGroups.get(key);
+      loadQueueGroup = key;
       break;
     }
 
+    // determine the maximum load message size for the type of queue
+    Integer loadMessageBytes
+        = (Integer) options.get(LOAD_QUEUE_MAX_MESSAGE_BYTES);
+    if (loadMessageBytes != null) {
+      this.loadMessageMaximumBytes = loadMessageBytes;
+    } else if (KAFKA_LOAD_QUEUE_GROUP.equals(loadQueueGroup)) {
+      this.loadMessageMaximumBytes = DEFAULT_KAFKA_LOAD_MESSAGE_BYTES;
+    } else if (RABBITMQ_LOAD_QUEUE_GROUP.equals(loadQueueGroup)) {
+      this.loadMessageMaximumBytes = DEFAULT_RABBITMQ_LOAD_MESSAGE_BYTES;
+    } else {
+      this.loadMessageMaximumBytes = DEFAULT_SQS_LOAD_MESSAGE_BYTES;
+    }
+
+    // create the store for the stream load checkpoints
+    this.loadCheckpointStore = new SzLoadCheckpointStore(
+        (File) options.get(LOAD_CHECKPOINT_DIR));
+
     // build the load endpoint
+    Integer sinkStripes = (Integer) options.get(LOAD_QUEUE_SINK_STRIPES);
     this.loadEndpoint = (loadQueueProps == null) ? null
-        : SzMessagingEndpointFactory.createEndpoint(loadQueueProps,
-                                                    this.getConcurrency());
+        : SzMessagingEndpointFactory.createEndpoint(
+            loadQueueProps, this.getConcurrency());
+
+    // hold long-lived load sinks if load sink affinity is enabled (each
+    // stripe has its own endpoint so a failed sink can be discarded)
+    if (this.loadEndpoint != null && sinkStripes != null) {
+      Map<String, Object> stripeProps = loadQueueProps;
+      this.loadSinkPool = new SzLoadSinkPool(
+          () -> {
+            try {
+              return SzMessagingEndpointFactory.createEndpoint(stripeProps, 1);
+            } catch (RuntimeException e) {
+              throw e;
+            } catch (Exception e) {
+              throw new IllegalStateException(e);
+            }
+          },
+          sinkStripes,
+          SzLoadSinkPool.DEFAULT_HEALTH_CHECK_INTERVAL);
+    }
+
+    // journal the load messages that fail to send if a directory was given
+    File journalDir = (File) options.get(LOAD_JOURNAL_DIR);
+    if (this.loadEndpoint != null && journalDir != null) {
+      Integer journalMaxSize = (Integer) options.get(LOAD_JOURNAL_MAX_SIZE);
+      Integer journalMaxAttempts
+          = (Integer) options.get(LOAD_JOURNAL_MAX_ATTEMPTS);
+      this.loadJournal = new SzLoadJournal(
+          journalDir,
+          SzLoadJournal.DEFAULT_SEGMENT_SIZE,
+          (journalMaxSize == null) ? SzLoadJournal.DEFAULT_MAXIMUM_SIZE
+              : journalMaxSize * 1024L * 1024L,
+          (journalMaxAttempts == null) ? SzLoadJournal.DEFAULT_MAXIMUM_ATTEMPTS
+              : journalMaxAttempts,
+          this);
+    }
+
+    // coalesce single record loads if a coalescing window was specified
+    Long coalesceWindow = (Long) options.get(LOAD_QUEUE_COALESCE_WINDOW);
+    if (this.loadEndpoint != null && coalesceWindow != null) {
+      this.loadCoalescer = new StreamLoadCoalescer(
+          this,
+          coalesceWindow,
+          StreamLoadCoalescer.DEFAULT_MAXIMUM_RECORDS,
+          this.loadMessageMaximumBytes,
+          this.getConcurrency());
+    }
+
+    // determine the cross-source summary concurrency (SQLite allows only one
+    // connection so it is always serial)
+    Integer summaryConcurrency
+        = (Integer) options.get(DATA_MART_SUMMARY_CONCURRENCY);
+    if (summaryConcurrency != null && summaryConcurrency > 1
+        && options.containsKey(POSTGRESQL_HOST))
+    {
+      // the concurrent computations lease from their own pool sized to the
+      // executor so they never wait on connections held by request threads
+      this.summaryConnectionPool = new ConnectionPool(
+          new PostgreSqlConnector((String) options.get(POSTGRESQL_HOST),
+                                  (Integer) options.get(POSTGRESQL_PORT),
+                                  (String) options.get(POSTGRESQL_DATABASE),
+                                  (String) options.get(POSTGRESQL_USER),
+                                  (String) options.get(POSTGRESQL_PASSWORD)),
+          summaryConcurrency);
+      this.summaryConnectionProvider
+          = new PoolConnectionProvider(this.summaryConnectionPool);
+      this.summaryExecutor = Executors.newFixedThreadPool(
+          summaryConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "data-mart-summary");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
 
     this.startHttpServer(options);
     this.replicator.start();
+    this.readiness.start();
   }
 
   /**
@@ -318,7 +515,35 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
         "   --postgresql-password <password>",
         "        Used to specify the password for connecting to PostgreSQL as the ",
         "        data-mart database.",
-        "        --> VIA ENVIRONMENT: " + POSTGRESQL_PASSWORD.getEnvironmentVariable()));
+        "        --> VIA ENVIRONMENT: " + POSTGRESQL_PASSWORD.getEnvironmentVariable(),
+        "",
+        "   --data-mart-summary-concurrency <count>",
+        "        Used to specify the maximum number of cross-source summary statistics",
+        "        to compute concurrently when servicing data source summary requests.",
+        "        They lease their data-mart database connections from a separate",
+        "        pool of this size.  If not specified then they are computed",
+        "        serially.  This is ignored when using SQLite.",
+        "        --> VIA ENVIRONMENT: "
+            + DATA_MART_SUMMARY_CONCURRENCY.getEnvironmentVariable(),
+        "",
+        "   --data-mart-group-commit-window <milliseconds>",
+        "        Enables group commit of the INFO messages for the data mart and",
+        "        specifies how long to wait for more messages after the first message",
+        "        of a group arrives.  Each group of up to "
+            + SzDataMartGroupCommitter.DEFAULT_MAXIMUM_MESSAGES + " messages is",
+        "        enqueued with a single insert and commit.  If not specified then each",
+        "        INFO message is committed individually.",
+        "        --> VIA ENVIRONMENT: "
+            + DATA_MART_GROUP_COMMIT_WINDOW.getEnvironmentVariable(),
+        "",
+        "   --data-mart-readiness-waiters <count>",
+        "        Used to specify the maximum number of requests that may wait for the",
+        "        data mart to become ready during startup.  Other requests fail fast",
+        "        until it is ready.  Specify zero (0) to always fail fast.  If not",
+        "        specified then the default of "
+            + SzDataMartReadiness.DEFAULT_MAXIMUM_WAITERS + " is used.",
+        "        --> VIA ENVIRONMENT: "
+            + DATA_MART_READINESS_WAITERS.getEnvironmentVariable()));
   }
 
   /**
@@ -436,6 +661,71 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
         "                             "
             + KAFKA_LOAD_TOPIC.getEnvironmentFallbacks().iterator().next()
             + " (fallback)",
+        "",
+        "   --load-queue-max-message-bytes <bytes>",
+        "        Also -loadQueueMaxMessageBytes.  Specifies the maximum number of",
+        "        bytes for a message sent to the load queue (at least 1024).  If not",
+        "        specified then this defaults according to the type of load queue:",
+        "          - SQS      : 229376 bytes (224 KB)",
+        "          - Kafka    : 983040 bytes (960 KB)",
+        "          - RabbitMQ : 4194304 bytes (4 MB)",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_QUEUE_MAX_MESSAGE_BYTES.getEnvironmentVariable(),
+        "",
+        "   --load-queue-coalesce-window <milliseconds>",
+        "        Also -loadQueueCoalesceWindow.  Enables coalescing of concurrently",
+        "        loaded single records into batch messages of up to "
+            + StreamLoadCoalescer.DEFAULT_MAXIMUM_RECORDS + " records",
+        "        and specifies how long to wait for more records after the first",
+        "        record of a batch arrives.  If not specified then each single record",
+        "        is sent to the load queue as its own message.",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_QUEUE_COALESCE_WINDOW.getEnvironmentVariable(),
+        "",
+        "   --load-queue-sink-stripes <count>",
+        "        Also -loadQueueSinkStripes.  Enables load sink affinity with the",
+        "        specified number of stripes of long-lived load queue sinks so that",
+        "        each request thread reuses a sink rather than acquiring one for every",
+        "        record.  Failed sinks are reconnected in the background.  If not",
+        "        specified then a sink is acquired for each load.",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_QUEUE_SINK_STRIPES.getEnvironmentVariable(),
+        "",
+        "   --load-journal-dir <directory-path>",
+        "        Also -loadJournalDir.  Enables the spill-over journal for load",
+        "        messages that fail to be sent to the load queue and specifies the",
+        "        directory for its segment files.  Journaled messages are replayed to",
+        "        the load queue in the background once it recovers, even after the",
+        "        server restarts.  If not specified then load messages that fail to",
+        "        be sent are reported as failed.",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_JOURNAL_DIR.getEnvironmentVariable(),
+        "",
+        "   --load-journal-max-size <megabytes>",
+        "        Also -loadJournalMaxSize.  Specifies the maximum total size in",
+        "        megabytes of the load journal segment files.  Load messages that fail",
+        "        to be sent while the journal is full are reported as failed.  If not",
+        "        specified then " + (SzLoadJournal.DEFAULT_MAXIMUM_SIZE / (1024 * 1024))
+            + " megabytes is used.",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_JOURNAL_MAX_SIZE.getEnvironmentVariable(),
+        "",
+        "   --load-journal-max-attempts <count>",
+        "        Also -loadJournalMaxAttempts.  Specifies the maximum number of failed",
+        "        attempts to replay a journaled load message while the load queue is",
+        "        reachable before it is parked in the dead-letter file of the journal",
+        "        directory.  If not specified then "
+            + SzLoadJournal.DEFAULT_MAXIMUM_ATTEMPTS + " attempts is used.",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_JOURNAL_MAX_ATTEMPTS.getEnvironmentVariable(),
+        "",
+        "   --load-checkpoint-dir <directory-path>",
+        "        Also -loadCheckpointDir.  Specifies the directory in which to persist",
+        "        the checkpoints for bulk data stream loads that specify a load ID so",
+        "        they can be resumed after the server restarts.  If not specified then",
+        "        the checkpoints are only held in memory.",
+        "        --> VIA ENVIRONMENT: "
+            + LOAD_CHECKPOINT_DIR.getEnvironmentVariable(),
         ""));
   }
 
@@ -611,6 +901,31 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
     return this.replicator.getReplicationProvider();
   }
 
+  @Override
+  public SzDataMartReadiness getDataMartReadiness() {
+    return this.readiness;
+  }
+
+  @Override
+  public SzDataMartCountCache getDataMartCountCache() {
+    return this.countCache;
+  }
+
+  @Override
+  public SzDataMartResponseCache getDataMartResponseCache() {
+    return this.responseCache;
+  }
+
+  @Override
+  public ExecutorService getDataMartSummaryExecutor() {
+    return this.summaryExecutor;
+  }
+
+  @Override
+  public ConnectionProvider getDataMartSummaryConnectionProvider() {
+    return this.summaryConnectionProvider;
+  }
+
   @Override
   public boolean hasInfoSink() {
     return true;
@@ -619,7 +934,8 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
   @Override
   public SzMessageSink acquireInfoSink() {
     SzMessageSink baseSink = super.acquireInfoSink();
-    return new SzDataMartMessageSink(this.sqlMessageQueue, baseSink);
+    return new SzDataMartMessageSink(
+        this.sqlMessageQueue, baseSink, this.countCache, this.groupCommitter);
   }
 
   @Override
@@ -639,8 +955,48 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
 
   @Override
   public SzMessageSink acquireLoadSink() {
-    return (this.loadEndpoint == null) ? null
-        : this.loadEndpoint.acquireMessageSink();
+    if (this.loadEndpoint == null) return null;
+    if (this.loadSinkPool != null) {
+      SzMessageSink sink = this.loadSinkPool.acquire();
+      if (sink != null) return sink;
+    }
+
+    // borrow a sink from the endpoint, waiting if none are free
+    this.borrowedLoadSinks.incrementAndGet();
+    return this.borrowLoadSink();
+  }
+
+  @Override
+  public SzMessageSink tryAcquireLoadSink() {
+    if (this.loadEndpoint == null) return null;
+    if (this.loadSinkPool != null) {
+      SzMessageSink sink = this.loadSinkPool.acquire();
+      if (sink != null) return sink;
+    }
+
+    // only borrow a sink from the endpoint if one is free
+    int borrowed;
+    do {
+      borrowed = this.borrowedLoadSinks.get();
+      if (borrowed >= this.getConcurrency()) return null;
+    } while (!this.borrowedLoadSinks.compareAndSet(borrowed, borrowed + 1));
+    return this.borrowLoadSink();
+  }
+
+  /**
+   * Borrows a sink from the load endpoint after it has been counted against
+   * the {@linkplain #borrowedLoadSinks borrowed sinks}, uncounting it if the
+   * endpoint fails to provide one.
+   *
+   * @return The {@link SzMessageSink} borrowed from the load endpoint.
+   */
+  private SzMessageSink borrowLoadSink() {
+    try {
+      return this.loadEndpoint.acquireMessageSink();
+    } catch (RuntimeException e) {
+      this.borrowedLoadSinks.decrementAndGet();
+      throw e;
+    }
   }
 
   @Override
@@ -649,7 +1005,29 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
       throw new IllegalStateException(
           "No load message endpoint exists for releasing the sink");
     }
+    if (this.loadSinkPool != null && this.loadSinkPool.release(sink)) return;
     this.loadEndpoint.releaseMessageSink(sink);
+    this.borrowedLoadSinks.decrementAndGet();
+  }
+
+  @Override
+  public int getLoadMessageMaximumBytes() {
+    return this.loadMessageMaximumBytes;
+  }
+
+  @Override
+  public SzLoadCheckpointStore getLoadCheckpointStore() {
+    return this.loadCheckpointStore;
+  }
+
+  @Override
+  public StreamLoadCoalescer getLoadCoalescer() {
+    return this.loadCoalescer;
+  }
+
+  @Override
+  public SzLoadJournal getLoadJournal() {
+    return this.loadJournal;
   }
 
   /**
@@ -728,6 +1106,15 @@ public class SzPocServer extends SzApiServer implements SzPocProvider {
    */
   @Override
   protected void shutdown() {
+    if (this.summaryExecutor != null) this.summaryExecutor.shutdownNow();
+    if (this.summaryConnectionPool != null) {
+      this.summaryConnectionPool.shutdown();
+    }
+    if (this.loadCoalescer != null) this.loadCoalescer.shutdown();
+    if (this.loadJournal != null) this.loadJournal.shutdown();
+    if (this.groupCommitter != null) this.groupCommitter.shutdown();
+    if (this.loadSinkPool != null) this.loadSinkPool.shutdown();
+    this.readiness.shutdown();
     this.replicator.shutdown();
     super.shutdown();
   }
@@ -29,6 +29,32 @@ public final class SzPocServerConstants {
   static final Set<String> LOAD_QUEUE_GROUPS = Set.of(
       RABBITMQ_LOAD_QUEUE_GROUP, KAFKA_LOAD_QUEUE_GROUP, SQS_LOAD_QUEUE_GROUP);
 
+  /**
+   * The default maximum number of bytes for a message sent to an SQS load
+   * queue.  SQS limits messages to 256 KB so this leaves room for the message
+   * attributes and encoding overhead.
+   */
+  static final int DEFAULT_SQS_LOAD_MESSAGE_BYTES = 224 * 1024;
+
+  /**
+   * The default maximum number of bytes for a message sent to a Kafka load
+   * topic.  Kafka limits messages to 1 MB by default so this leaves room for
+   * the record overhead.
+   */
+  static final int DEFAULT_KAFKA_LOAD_MESSAGE_BYTES = 960 * 1024;
+
+  /**
+   * The default maximum number of bytes for a message sent to a RabbitMQ load
+   * queue.
+   */
+  static final int DEFAULT_RABBITMQ_LOAD_MESSAGE_BYTES = 4 * 1024 * 1024;
+
+  /**
+   * The minimum number of bytes that may be configured as the maximum for a
+   * message sent to the load queue.
+   */
+  static final int MINIMUM_LOAD_MESSAGE_BYTES = 1024;
+
   /**
    * The prefix for environment variables used that are specific to the
    * Senzing REST API Server.
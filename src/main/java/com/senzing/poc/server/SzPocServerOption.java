@@ -307,6 +307,197 @@ public enum SzPocServerOption
       false, 1, true,
       KAFKA_LOAD_QUEUE_GROUP, TOPIC_PROPERTY_KEY, false),
 
+  /**
+   * <p>
+   * This option is used to specify the maximum number of bytes for a message
+   * sent to the load queue, which bounds the size of the micro-batches sent
+   * when stream loading bulk data.  The single parameter to this option is a
+   * positive integer of at least 1024.  If not specified then the maximum is
+   * derived from the type of load queue: 224 KB for SQS (which limits
+   * messages to 256 KB), 960 KB for Kafka (which limits messages to 1 MB by
+   * default) and 4 MB for RabbitMQ.  This option is ignored if no load queue
+   * is configured.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--load-queue-max-message-bytes {bytes}</code></li>
+   * <li>Command Line: <code>-loadQueueMaxMessageBytes {bytes}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_QUEUE_MAX_MESSAGE_BYTES="{bytes}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_QUEUE_MAX_MESSAGE_BYTES(
+      "--load-queue-max-message-bytes",
+      Set.of("-loadQueueMaxMessageBytes"),
+      "SENZING_LOAD_QUEUE_MAX_MESSAGE_BYTES",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to specify the directory in which to persist the
+   * checkpoints for stream-loaded bulk data so that loads with an explicit
+   * load ID can be resumed after a restart of the server.  The single
+   * parameter to this option is the directory path, which is created if it
+   * does not exist.  If not specified then the checkpoints are only held in
+   * memory and are lost when the server is restarted.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--load-checkpoint-dir {directory-path}</code></li>
+   * <li>Command Line: <code>-loadCheckpointDir {directory-path}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_CHECKPOINT_DIR="{directory-path}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_CHECKPOINT_DIR(
+      "--load-checkpoint-dir",
+      Set.of("-loadCheckpointDir"),
+      "SENZING_LOAD_CHECKPOINT_DIR",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to enable coalescing of concurrently loaded single
+   * records into batch messages for the load queue and to specify the number
+   * of milliseconds to wait for more records after the first record of a
+   * batch arrives.  A batch is sent once it has 100 records, once it reaches
+   * the maximum message size or once the window has elapsed, and each request
+   * completes once the batch containing its record has been sent.  The single
+   * parameter to this option is a non-negative integer number of
+   * milliseconds.  If not specified then each single record is sent to the
+   * load queue as its own message.  This option is ignored if no load queue
+   * is configured.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line:
+   * <code>--load-queue-coalesce-window {milliseconds}</code></li>
+   * <li>Command Line: <code>-loadQueueCoalesceWindow {milliseconds}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_QUEUE_COALESCE_WINDOW="{milliseconds}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_QUEUE_COALESCE_WINDOW(
+      "--load-queue-coalesce-window",
+      Set.of("-loadQueueCoalesceWindow"),
+      "SENZING_LOAD_QUEUE_COALESCE_WINDOW",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to enable load sink affinity and to specify the
+   * number of stripes of long-lived load sinks.  Each request thread has an
+   * affinity for one of the stripes so that it does not acquire and release
+   * a sink from the load queue endpoint for every record, and failed sinks
+   * are reconnected in the background.  The single parameter to this option
+   * is a positive integer.  If not specified then a sink is acquired from the
+   * endpoint for each load.  This option is ignored if no load queue is
+   * configured.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--load-queue-sink-stripes {count}</code></li>
+   * <li>Command Line: <code>-loadQueueSinkStripes {count}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_QUEUE_SINK_STRIPES="{count}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_QUEUE_SINK_STRIPES(
+      "--load-queue-sink-stripes",
+      Set.of("-loadQueueSinkStripes"),
+      "SENZING_LOAD_QUEUE_SINK_STRIPES",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to enable the spill-over journal for the load queue
+   * and to specify the directory for its segment files.  Load messages that
+   * fail to be sent to the load queue are written to the journal rather than
+   * failed and are replayed to the load queue in the background once it
+   * recovers, including after a restart of the server.  The single parameter
+   * to this option is the directory path, which is created if it does not
+   * exist.  If not specified then load messages that fail to be sent are
+   * reported as failed.  This option is ignored if no load queue is
+   * configured.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--load-journal-dir {directory-path}</code></li>
+   * <li>Command Line: <code>-loadJournalDir {directory-path}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_JOURNAL_DIR="{directory-path}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_JOURNAL_DIR(
+      "--load-journal-dir",
+      Set.of("-loadJournalDir"),
+      "SENZING_LOAD_JOURNAL_DIR",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to specify the maximum total size of the segment
+   * files of the spill-over journal for the load queue so that a long outage
+   * of the load queue cannot fill the disk.  Load messages that fail to be
+   * sent while the journal is full are reported as failed.  The single
+   * parameter to this option is the maximum size in megabytes, which must be
+   * at least the size of one segment.  If not specified then {@link
+   * SzLoadJournal#DEFAULT_MAXIMUM_SIZE} is used.  This option is ignored if
+   * the {@link #LOAD_JOURNAL_DIR} option is not specified.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--load-journal-max-size {megabytes}</code></li>
+   * <li>Command Line: <code>-loadJournalMaxSize {megabytes}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_JOURNAL_MAX_SIZE="{megabytes}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_JOURNAL_MAX_SIZE(
+      "--load-journal-max-size",
+      Set.of("-loadJournalMaxSize"),
+      "SENZING_LOAD_JOURNAL_MAX_SIZE",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to specify the maximum number of failed attempts to
+   * replay a journaled load message while the load queue is otherwise
+   * reachable before the message is parked in the dead-letter file of the
+   * journal directory so it does not block the messages behind it.  The
+   * single parameter to this option is the maximum number of attempts.  If
+   * not specified then {@link SzLoadJournal#DEFAULT_MAXIMUM_ATTEMPTS} is
+   * used.  This option is ignored if the {@link #LOAD_JOURNAL_DIR} option is
+   * not specified.
+   * </p>
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--load-journal-max-attempts {count}</code></li>
+   * <li>Command Line: <code>-loadJournalMaxAttempts {count}</code></li>
+   * <li>Environment:
+   * <code>SENZING_LOAD_JOURNAL_MAX_ATTEMPTS="{count}"</code></li>
+   * </ul>
+   * </p>
+   */
+  LOAD_JOURNAL_MAX_ATTEMPTS(
+      "--load-journal-max-attempts",
+      Set.of("-loadJournalMaxAttempts"),
+      "SENZING_LOAD_JOURNAL_MAX_ATTEMPTS",
+      null, 1),
+
   /**
    * <p>
    * This option is used to specify the SQLite database file to connect to for
@@ -461,6 +652,84 @@ public enum SzPocServerOption
       "--postgresql-password",
       Set.of("-postgresqlPassword"),
       "SENZING_DATA_MART_POSTGRESQL_PASSWORD",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to specify the maximum number of cross-source summary
+   * statistics that may be computed concurrently against the data mart when
+   * servicing data source summary requests.  The single parameter to this
+   * option is a positive integer.  If not specified then the cross-source
+   * summaries are computed serially.  The concurrent computations lease
+   * their data mart database connections from a separate connection pool of
+   * this size rather than the pool shared with request threads, so they never
+   * wait on connections held by requests.  This option is ignored (i.e.:
+   * summaries are computed serially) if {@link #SQLITE_DATABASE_FILE} is
+   * specified since SQLite only allows a single connection.
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line: <code>--data-mart-summary-concurrency {count}</code></li>
+   * <li>Environment:
+   * <code>SENZING_DATA_MART_SUMMARY_CONCURRENCY="{count}"</code></li>
+   * </ul>
+   */
+  DATA_MART_SUMMARY_CONCURRENCY(
+      "--data-mart-summary-concurrency",
+      Set.of("-dataMartSummaryConcurrency"),
+      "SENZING_DATA_MART_SUMMARY_CONCURRENCY",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to enable group commit of the INFO messages enqueued
+   * for the data mart and to specify the number of milliseconds to wait for
+   * more messages after the first message of a group arrives.  The INFO
+   * messages from concurrent requests are buffered and enqueued on the data
+   * mart database message queue as a single message (with a single insert
+   * and commit) once the group has 1000 messages or once the window has
+   * elapsed.  Each request waits until its group is committed.  The single
+   * parameter to this option is a non-negative integer number of
+   * milliseconds.  If not specified then each INFO message is enqueued and
+   * committed individually.
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line:
+   * <code>--data-mart-group-commit-window {milliseconds}</code></li>
+   * <li>Environment:
+   * <code>SENZING_DATA_MART_GROUP_COMMIT_WINDOW="{milliseconds}"</code></li>
+   * </ul>
+   */
+  DATA_MART_GROUP_COMMIT_WINDOW(
+      "--data-mart-group-commit-window",
+      Set.of("-dataMartGroupCommitWindow"),
+      "SENZING_DATA_MART_GROUP_COMMIT_WINDOW",
+      null, 1),
+
+  /**
+   * <p>
+   * This option is used to specify the maximum number of request threads that
+   * may concurrently wait for the data mart replicator to become ready during
+   * startup.  Requests beyond this number fail fast rather than waiting, so
+   * that a burst of requests during startup cannot park every HTTP worker
+   * thread.  The single parameter to this option is a non-negative integer,
+   * where zero (0) causes every request to fail fast until the replicator is
+   * ready.  If not specified then the default of {@link
+   * SzDataMartReadiness#DEFAULT_MAXIMUM_WAITERS} is used.
+   * <p>
+   * This option can be specified in the following ways:
+   * <ul>
+   * <li>Command Line:
+   * <code>--data-mart-readiness-waiters {count}</code></li>
+   * <li>Environment:
+   * <code>SENZING_DATA_MART_READINESS_WAITERS="{count}"</code></li>
+   * </ul>
+   */
+  DATA_MART_READINESS_WAITERS(
+      "--data-mart-readiness-waiters",
+      Set.of("-dataMartReadinessWaiters"),
+      "SENZING_DATA_MART_READINESS_WAITERS",
       null, 1);
 
   /**
@@ -1174,6 +1443,105 @@ public enum SzPocServerOption
           return port;
         }
 
+        case DATA_MART_SUMMARY_CONCURRENCY: {
+          int concurrency = Integer.parseInt(params.get(0));
+          if (concurrency <= 0) {
+            throw new IllegalArgumentException(
+                "The data mart summary concurrency must be positive: "
+                + concurrency);
+          }
+          return concurrency;
+        }
+
+        case DATA_MART_GROUP_COMMIT_WINDOW: {
+          long window = Long.parseLong(params.get(0));
+          if (window < 0L) {
+            throw new IllegalArgumentException(
+                "The data mart group commit window cannot be negative: "
+                + window);
+          }
+          return window;
+        }
+
+        case DATA_MART_READINESS_WAITERS: {
+          int waiters = Integer.parseInt(params.get(0));
+          if (waiters < 0) {
+            throw new IllegalArgumentException(
+                "The data mart readiness waiters cannot be negative: "
+                + waiters);
+          }
+          return waiters;
+        }
+
+        case LOAD_QUEUE_MAX_MESSAGE_BYTES: {
+          int maxBytes = Integer.parseInt(params.get(0));
+          if (maxBytes < MINIMUM_LOAD_MESSAGE_BYTES) {
+            throw new IllegalArgumentException(
+                "The maximum load queue message size must be at least "
+                + MINIMUM_LOAD_MESSAGE_BYTES + " bytes: " + maxBytes);
+          }
+          return maxBytes;
+        }
+
+        case LOAD_QUEUE_COALESCE_WINDOW: {
+          long window = Long.parseLong(params.get(0));
+          if (window < 0L) {
+            throw new IllegalArgumentException(
+                "The load queue coalescing window cannot be negative: "
+                + window);
+          }
+          return window;
+        }
+
+        case LOAD_QUEUE_SINK_STRIPES: {
+          int stripes = Integer.parseInt(params.get(0));
+          if (stripes <= 0) {
+            throw new IllegalArgumentException(
+                "The number of load queue sink stripes must be positive: "
+                + stripes);
+          }
+          return stripes;
+        }
+
+        case LOAD_CHECKPOINT_DIR: {
+          File dir = new File(params.get(0));
+          if (dir.exists() && !dir.isDirectory()) {
+            throw new IllegalArgumentException(
+                "The load checkpoint directory is not a directory: " + dir);
+          }
+          return dir;
+        }
+
+        case LOAD_JOURNAL_DIR: {
+          File dir = new File(params.get(0));
+          if (dir.exists() && !dir.isDirectory()) {
+            throw new IllegalArgumentException(
+                "The load journal directory is not a directory: " + dir);
+          }
+          return dir;
+        }
+
+        case LOAD_JOURNAL_MAX_SIZE: {
+          int megabytes = Integer.parseInt(params.get(0));
+          long minimum = SzLoadJournal.DEFAULT_SEGMENT_SIZE / (1024 * 1024);
+          if (megabytes < minimum) {
+            throw new IllegalArgumentException(
+                "The maximum load journal size must be at least " + minimum
+                + " megabytes: " + megabytes);
+          }
+          return megabytes;
+        }
+
+        case LOAD_JOURNAL_MAX_ATTEMPTS: {
+          int attempts = Integer.parseInt(params.get(0));
+          if (attempts <= 0) {
+            throw new IllegalArgumentException(
+                "The maximum load journal replay attempts must be positive: "
+                + attempts);
+          }
+          return attempts;
+        }
+
         case SQLITE_DATABASE_FILE:
           return new File(params.get(0));
 
@@ -5,6 +5,7 @@ import com.senzing.api.server.SzApiServerOptions;
 import com.senzing.cmdline.CommandLineOption;
 
 import javax.json.JsonObject;
+import java.io.File;
 import java.util.Map;
 
 import static com.senzing.poc.server.SzPocServerOption.*;
@@ -31,6 +32,16 @@ public class SzPocServerOptions extends SzApiServerOptions {
   private String rabbitLoadExchange = null;
   private String rabbitLoadRoutingKey = null;
   private String sqsLoadUrl = null;
+  private Integer dataMartSummaryConcurrency = null;
+  private Long dataMartGroupCommitWindow = null;
+  private Integer dataMartReadinessWaiters = null;
+  private Integer loadQueueMaxMessageBytes = null;
+  private File loadCheckpointDirectory = null;
+  private Long loadQueueCoalesceWindow = null;
+  private Integer loadQueueSinkStripes = null;
+  private File loadJournalDirectory = null;
+  private Integer loadJournalMaxSize = null;
+  private Integer loadJournalMaxAttempts = null;
 
   /**
    * Constructs with the native Senzing JSON initialization parameters as a
@@ -311,6 +322,282 @@ public class SzPocServerOptions extends SzApiServerOptions {
     return this;
   }
 
+  /**
+   * Returns the maximum number of bytes for a message sent to the "load"
+   * queue.  If <code>null</code> then the maximum is derived from the type of
+   * the "load" queue.
+   *
+   * @return The maximum number of bytes for a message sent to the "load"
+   *         queue, or <code>null</code> if derived from the type of queue.
+   */
+  public Integer getLoadQueueMaxMessageBytes() {
+    return this.loadQueueMaxMessageBytes;
+  }
+
+  /**
+   * Sets the maximum number of bytes for a message sent to the "load" queue.
+   * Set to <code>null</code> to derive the maximum from the type of the
+   * "load" queue.
+   *
+   * @param maxBytes The maximum number of bytes for a message sent to the
+   *                 "load" queue, or <code>null</code> to derive the maximum
+   *                 from the type of queue.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadQueueMaxMessageBytes(Integer maxBytes) {
+    this.loadQueueMaxMessageBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Returns the directory in which to persist the checkpoints for
+   * stream-loaded bulk data.  If <code>null</code> then the checkpoints are
+   * only held in memory.
+   *
+   * @return The directory in which to persist the load checkpoints, or
+   *         <code>null</code> if only held in memory.
+   */
+  public File getLoadCheckpointDirectory() {
+    return this.loadCheckpointDirectory;
+  }
+
+  /**
+   * Sets the directory in which to persist the checkpoints for stream-loaded
+   * bulk data.  Set to <code>null</code> to only hold the checkpoints in
+   * memory.
+   *
+   * @param directory The directory in which to persist the load checkpoints,
+   *                  or <code>null</code> if only held in memory.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadCheckpointDirectory(File directory) {
+    this.loadCheckpointDirectory = directory;
+    return this;
+  }
+
+  /**
+   * Returns the number of milliseconds to wait for more records when
+   * coalescing concurrently loaded single records into batch messages for
+   * the "load" queue.  If <code>null</code> then single records are not
+   * coalesced.
+   *
+   * @return The number of milliseconds for the coalescing window, or
+   *         <code>null</code> if not coalescing.
+   */
+  public Long getLoadQueueCoalesceWindow() {
+    return this.loadQueueCoalesceWindow;
+  }
+
+  /**
+   * Sets the number of milliseconds to wait for more records when
+   * coalescing concurrently loaded single records into batch messages for
+   * the "load" queue.  Set to <code>null</code> to send single records
+   * individually.
+   *
+   * @param window The number of milliseconds for the coalescing window, or
+   *               <code>null</code> if not coalescing.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadQueueCoalesceWindow(Long window) {
+    this.loadQueueCoalesceWindow = window;
+    return this;
+  }
+
+  /**
+   * Returns the number of stripes of long-lived sinks for the "load" queue
+   * when load sink affinity is enabled.  If <code>null</code> then a sink is
+   * acquired from the load queue endpoint for each load.
+   *
+   * @return The number of load sink stripes, or <code>null</code> if load
+   *         sink affinity is not enabled.
+   */
+  public Integer getLoadQueueSinkStripes() {
+    return this.loadQueueSinkStripes;
+  }
+
+  /**
+   * Sets the number of stripes of long-lived sinks for the "load" queue to
+   * enable load sink affinity.  Set to <code>null</code> to acquire a sink
+   * from the load queue endpoint for each load.
+   *
+   * @param stripes The number of load sink stripes, or <code>null</code> if
+   *                load sink affinity is not enabled.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadQueueSinkStripes(Integer stripes) {
+    this.loadQueueSinkStripes = stripes;
+    return this;
+  }
+
+  /**
+   * Returns the directory for the spill-over journal to which load messages
+   * that fail to be sent to the "load" queue are written for replay.  If
+   * <code>null</code> then failed load messages are not journaled.
+   *
+   * @return The directory for the load journal, or <code>null</code> if
+   *         failed load messages are not journaled.
+   */
+  public File getLoadJournalDirectory() {
+    return this.loadJournalDirectory;
+  }
+
+  /**
+   * Sets the directory for the spill-over journal to which load messages
+   * that fail to be sent to the "load" queue are written for replay.  Set to
+   * <code>null</code> to report failed load messages as failed.
+   *
+   * @param directory The directory for the load journal, or
+   *                  <code>null</code> if failed load messages are not
+   *                  journaled.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadJournalDirectory(File directory) {
+    this.loadJournalDirectory = directory;
+    return this;
+  }
+
+  /**
+   * Returns the maximum total size in megabytes of the segment files of the
+   * load journal.  If <code>null</code> then {@link
+   * SzLoadJournal#DEFAULT_MAXIMUM_SIZE} is used.
+   *
+   * @return The maximum size of the load journal in megabytes, or
+   *         <code>null</code> if the default is used.
+   */
+  public Integer getLoadJournalMaxSize() {
+    return this.loadJournalMaxSize;
+  }
+
+  /**
+   * Sets the maximum total size in megabytes of the segment files of the
+   * load journal.  Set to <code>null</code> to use {@link
+   * SzLoadJournal#DEFAULT_MAXIMUM_SIZE}.
+   *
+   * @param megabytes The maximum size of the load journal in megabytes, or
+   *                  <code>null</code> if the default is used.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadJournalMaxSize(Integer megabytes) {
+    this.loadJournalMaxSize = megabytes;
+    return this;
+  }
+
+  /**
+   * Returns the maximum number of failed attempts to replay a journaled load
+   * message before it is parked.  If <code>null</code> then {@link
+   * SzLoadJournal#DEFAULT_MAXIMUM_ATTEMPTS} is used.
+   *
+   * @return The maximum number of replay attempts, or <code>null</code> if
+   *         the default is used.
+   */
+  public Integer getLoadJournalMaxAttempts() {
+    return this.loadJournalMaxAttempts;
+  }
+
+  /**
+   * Sets the maximum number of failed attempts to replay a journaled load
+   * message before it is parked.  Set to <code>null</code> to use {@link
+   * SzLoadJournal#DEFAULT_MAXIMUM_ATTEMPTS}.
+   *
+   * @param attempts The maximum number of replay attempts, or
+   *                 <code>null</code> if the default is used.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setLoadJournalMaxAttempts(Integer attempts) {
+    this.loadJournalMaxAttempts = attempts;
+    return this;
+  }
+
+  /**
+   * Returns the maximum number of cross-source summary statistics to compute
+   * concurrently against the data mart.  If <code>null</code> then they are
+   * computed serially.
+   *
+   * @return The maximum number of cross-source summary statistics to compute
+   *         concurrently, or <code>null</code> if they are computed serially.
+   */
+  public Integer getDataMartSummaryConcurrency() {
+    return this.dataMartSummaryConcurrency;
+  }
+
+  /**
+   * Sets the maximum number of cross-source summary statistics to compute
+   * concurrently against the data mart.  Set to <code>null</code> to compute
+   * them serially.
+   *
+   * @param concurrency The maximum number of cross-source summary statistics
+   *                    to compute concurrently, or <code>null</code> to
+   *                    compute them serially.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setDataMartSummaryConcurrency(Integer concurrency) {
+    this.dataMartSummaryConcurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Returns the number of milliseconds to wait for more INFO messages when
+   * group-committing the INFO messages enqueued for the data mart.  If
+   * <code>null</code> then each INFO message is committed individually.
+   *
+   * @return The number of milliseconds for the group commit window, or
+   *         <code>null</code> if not group-committing.
+   */
+  public Long getDataMartGroupCommitWindow() {
+    return this.dataMartGroupCommitWindow;
+  }
+
+  /**
+   * Sets the number of milliseconds to wait for more INFO messages when
+   * group-committing the INFO messages enqueued for the data mart.  Set to
+   * <code>null</code> to commit each INFO message individually.
+   *
+   * @param window The number of milliseconds for the group commit window, or
+   *               <code>null</code> if not group-committing.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setDataMartGroupCommitWindow(Long window) {
+    this.dataMartGroupCommitWindow = window;
+    return this;
+  }
+
+  /**
+   * Returns the maximum number of request threads that may concurrently wait
+   * for the data mart replicator to become ready.  If <code>null</code> then
+   * {@link SzDataMartReadiness#DEFAULT_MAXIMUM_WAITERS} is used.
+   *
+   * @return The maximum number of threads that may wait for the data mart to
+   *         become ready, or <code>null</code> if using the default.
+   */
+  public Integer getDataMartReadinessWaiters() {
+    return this.dataMartReadinessWaiters;
+  }
+
+  /**
+   * Sets the maximum number of request threads that may concurrently wait
+   * for the data mart replicator to become ready.  Set to <code>null</code>
+   * to use {@link SzDataMartReadiness#DEFAULT_MAXIMUM_WAITERS}.
+   *
+   * @param waiters The maximum number of threads that may wait for the data
+   *                mart to become ready, or <code>null</code> to use the
+   *                default.
+   *
+   * @return A reference to this instance.
+   */
+  public SzPocServerOptions setDataMartReadinessWaiters(Integer waiters) {
+    this.dataMartReadinessWaiters = waiters;
+    return this;
+  }
+
   /**
    * Creates a {@link Map} of {@link CommandLineOption} keys to {@link Object}
    * values for initializing an {@link SzApiServer} instance.
@@ -332,6 +619,19 @@ public class SzPocServerOptions extends SzApiServerOptions {
     put(map, RABBIT_LOAD_EXCHANGE, this.getRabbitLoadExchange());
     put(map, RABBIT_LOAD_ROUTING_KEY, this.getRabbitLoadRoutingKey());
     put(map, SQS_LOAD_URL, this.getSqsLoadUrl());
+    put(map, LOAD_QUEUE_MAX_MESSAGE_BYTES, this.getLoadQueueMaxMessageBytes());
+    put(map, LOAD_CHECKPOINT_DIR, this.getLoadCheckpointDirectory());
+    put(map, LOAD_QUEUE_COALESCE_WINDOW, this.getLoadQueueCoalesceWindow());
+    put(map, LOAD_QUEUE_SINK_STRIPES, this.getLoadQueueSinkStripes());
+    put(map, LOAD_JOURNAL_DIR, this.getLoadJournalDirectory());
+    put(map, LOAD_JOURNAL_MAX_SIZE, this.getLoadJournalMaxSize());
+    put(map, LOAD_JOURNAL_MAX_ATTEMPTS, this.getLoadJournalMaxAttempts());
+    put(map, DATA_MART_SUMMARY_CONCURRENCY,
+        this.getDataMartSummaryConcurrency());
+    put(map, DATA_MART_GROUP_COMMIT_WINDOW,
+        this.getDataMartGroupCommitWindow());
+    put(map, DATA_MART_READINESS_WAITERS,
+        this.getDataMartReadinessWaiters());
 
     return map;
   }
@@ -0,0 +1,175 @@
+package com.senzing.poc.services;
+
+/**
+ * Adjusts the maximum number of records and bytes per stream-load batch at
+ * runtime based on the observed latency and failures of sending the batches
+ * to the load queue.  The limits grow while larger batches continue to
+ * improve the per-record send cost and shrink when a send fails, when the
+ * per-record send cost degrades or when a single send takes longer than the
+ * {@linkplain #TARGET_SEND_LATENCY target latency}.  The limits never exceed
+ * the ceilings specified at construction.
+ * <p>
+ * This class is thread-safe so that it may be shared by multiple sender
+ * threads.
+ */
+class AdaptiveBatchSizer {
+  /**
+   * The maximum number of records per batch when adaptively sizing batches.
+   */
+  static final int MAXIMUM_ADAPTIVE_BATCH_COUNT = 1000;
+
+  /**
+   * The minimum number of bytes per batch.
+   */
+  private static final int MINIMUM_BATCH_BYTES = 8 * 1024;
+
+  /**
+   * The number of milliseconds for a single send beyond which the batch
+   * limits are reduced.
+   */
+  private static final long TARGET_SEND_LATENCY = 1000L;
+
+  /**
+   * The factor by which the limits grow after a favorable send.
+   */
+  private static final double GROWTH_FACTOR = 1.25;
+
+  /**
+   * The factor by which the limits shrink after an unfavorable send.
+   */
+  private static final double SHRINK_FACTOR = 0.5;
+
+  /**
+   * The ratio of per-record send cost to the average beyond which a send is
+   * considered to have degraded.
+   */
+  private static final double DEGRADED_RATIO = 1.5;
+
+  /**
+   * The weight given to the most recent send in the moving average.
+   */
+  private static final double SMOOTHING = 0.2;
+
+  /**
+   * The ceiling for the number of records per batch.
+   */
+  private int countCeiling;
+
+  /**
+   * The ceiling for the number of bytes per batch.
+   */
+  private int byteCeiling;
+
+  /**
+   * The current maximum number of records per batch.
+   */
+  private int countLimit;
+
+  /**
+   * The current maximum number of bytes per batch.
+   */
+  private int byteLimit;
+
+  /**
+   * The moving average of the send nanoseconds per record, or a negative
+   * number if no sends have been observed.
+   */
+  private double averageRecordNanos = -1.0;
+
+  /**
+   * Constructs with the specified initial number of records per batch and
+   * the ceilings for the number of records and bytes per batch.  The byte
+   * limit starts at the byte ceiling.
+   *
+   * @param initialCount The initial maximum number of records per batch.
+   * @param countCeiling The ceiling for the number of records per batch.
+   * @param byteCeiling The ceiling for the number of bytes per batch.
+   */
+  AdaptiveBatchSizer(int initialCount, int countCeiling, int byteCeiling) {
+    if (countCeiling < 1) {
+      throw new IllegalArgumentException(
+          "The count ceiling must be positive: " + countCeiling);
+    }
+    if (byteCeiling < 1) {
+      throw new IllegalArgumentException(
+          "The byte ceiling must be positive: " + byteCeiling);
+    }
+    this.countCeiling = countCeiling;
+    this.byteCeiling  = byteCeiling;
+    this.countLimit   = Math.max(1, Math.min(initialCount, countCeiling));
+    this.byteLimit    = byteCeiling;
+  }
+
+  /**
+   * Gets the current maximum number of records per batch.
+   *
+   * @return The current maximum number of records per batch.
+   */
+  synchronized int getCountLimit() {
+    return this.countLimit;
+  }
+
+  /**
+   * Gets the current maximum number of bytes per batch.
+   *
+   * @return The current maximum number of bytes per batch.
+   */
+  synchronized int getByteLimit() {
+    return this.byteLimit;
+  }
+
+  /**
+   * Records the outcome of sending a batch and adjusts the limits
+   * accordingly.
+   *
+   * @param recordCount The number of records in the batch.
+   * @param sendNanos The number of nanoseconds taken to send the batch.
+   * @param failed <code>true</code> if the send failed, otherwise
+   *               <code>false</code>.
+   */
+  synchronized void recordSend(int recordCount, long sendNanos, boolean failed)
+  {
+    if (failed) {
+      this.shrink();
+      return;
+    }
+    if (recordCount <= 0) return;
+
+    double recordNanos = ((double) sendNanos) / recordCount;
+    double average = this.averageRecordNanos;
+    this.averageRecordNanos = (average < 0.0) ? recordNanos
+        : (SMOOTHING * recordNanos) + ((1.0 - SMOOTHING) * average);
+
+    if ((sendNanos / 1000000L) > TARGET_SEND_LATENCY
+        || (average >= 0.0 && recordNanos > average * DEGRADED_RATIO))
+    {
+      this.shrink();
+
+    } else if (recordCount >= this.countLimit
+               || average < 0.0 || recordNanos <= average)
+    {
+      // only grow if the batch was full or sending became cheaper
+      this.grow();
+    }
+  }
+
+  /**
+   * Grows the limits toward the ceilings.
+   */
+  private void grow() {
+    this.countLimit = (int) Math.min(
+        this.countCeiling,
+        Math.max(this.countLimit + 1L, (long) (this.countLimit * GROWTH_FACTOR)));
+    this.byteLimit = (int) Math.min(
+        this.byteCeiling, (long) (this.byteLimit * GROWTH_FACTOR));
+  }
+
+  /**
+   * Shrinks the limits toward the minimums.
+   */
+  private void shrink() {
+    this.countLimit = Math.max(1, (int) (this.countLimit * SHRINK_FACTOR));
+    this.byteLimit = Math.max(Math.min(MINIMUM_BATCH_BYTES, this.byteCeiling),
+                              (int) (this.byteLimit * SHRINK_FACTOR));
+  }
+}
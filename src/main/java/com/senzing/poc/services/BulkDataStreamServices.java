@@ -1,6 +1,8 @@
 package com.senzing.poc.services;
 
 import com.senzing.api.model.SzBulkLoadResponse;
+import com.senzing.poc.model.SzLoadCheckpoint;
+import com.senzing.poc.model.SzLoadCheckpointResponse;
 import com.senzing.poc.server.SzPocProvider;
 import com.senzing.util.AccessToken;
 import com.senzing.util.Timers;
@@ -16,6 +18,7 @@ import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.sse.Sse;
 import javax.ws.rs.sse.SseEventSink;
 
+import static com.senzing.api.model.SzHttpMethod.GET;
 import static com.senzing.api.model.SzHttpMethod.POST;
 import static com.senzing.util.LoggingUtilities.logOnceAndThrow;
 import static javax.ws.rs.core.MediaType.*;
@@ -46,6 +49,22 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
    * @param maxFailures       The maximum number of failures or a negative number
    *                          if
    *                          no maximum.
+   * @param senderThreads     The optional number of threads to send the
+   *                          batches on, in which case the records are read,
+   *                          batched and sent in a pipelined fashion.
+   * @param adaptiveBatching  Whether or not to adjust the number of records
+   *                          and bytes per micro-batch based on the observed
+   *                          load queue latency and failures, in which case
+   *                          the maximum batch count is the initial count.
+   * @param inFlightBatches   The optional maximum number of micro-batches to
+   *                          have in flight at once, in which case the batches
+   *                          are sent asynchronously.
+   * @param resume            Whether or not to resume the load with the
+   *                          specified load ID from its checkpoint, skipping
+   *                          the records that were already handled.
+   * @param startRecord       The optional offset in the original bulk data
+   *                          of the first uploaded record if only uploading
+   *                          the remainder of the bulk data.
    * @param mediaType         The media type for the content.
    * @param dataInputStream   The input stream to read the uploaded data.
    * @param fileMetaData      The form meta data for the uploaded file.
@@ -60,12 +79,23 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
       @QueryParam("loadId") String loadId,
       @DefaultValue("10") @QueryParam("maxBatchCount") int maxBatchCount,
       @DefaultValue("0") @QueryParam("maxFailures") int maxFailures,
+      @QueryParam("senderThreads") Integer senderThreads,
+      @DefaultValue("false") @QueryParam("adaptiveBatching") boolean adaptiveBatching,
+      @QueryParam("inFlightBatches") Integer inFlightBatches,
+      @DefaultValue("false") @QueryParam("resume") boolean resume,
+      @QueryParam("startRecord") Long startRecord,
       @HeaderParam("Content-Type") MediaType mediaType,
       @FormDataParam("data") InputStream dataInputStream,
       @FormDataParam("data") FormDataContentDisposition fileMetaData,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+    this.validateSenderThreads(senderThreads, uriInfo, timers);
+    this.validateInFlightBatches(
+        inFlightBatches, senderThreads, uriInfo, timers);
+    this.validateResume(loadId, resume, startRecord, uriInfo, timers);
+    String encoding = this.getBulkDataEncoding(
+        null, fileMetaData, uriInfo, timers);
     AccessToken accessToken = this.prepareStreamLoadOperation(provider,
         uriInfo,
         timers);
@@ -78,7 +108,13 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
           loadId,
           maxBatchCount,
           maxFailures,
+          senderThreads,
+          adaptiveBatching,
+          inFlightBatches,
+          resume,
+          startRecord,
           mediaType,
+          encoding,
           dataInputStream,
           fileMetaData,
           uriInfo,
@@ -121,6 +157,22 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
    * @param maxFailures       The maximum number of failures or a negative number
    *                          if
    *                          no maximum.
+   * @param senderThreads     The optional number of threads to send the
+   *                          batches on, in which case the records are read,
+   *                          batched and sent in a pipelined fashion.
+   * @param adaptiveBatching  Whether or not to adjust the number of records
+   *                          and bytes per micro-batch based on the observed
+   *                          load queue latency and failures, in which case
+   *                          the maximum batch count is the initial count.
+   * @param inFlightBatches   The optional maximum number of micro-batches to
+   *                          have in flight at once, in which case the batches
+   *                          are sent asynchronously.
+   * @param resume            Whether or not to resume the load with the
+   *                          specified load ID from its checkpoint, skipping
+   *                          the records that were already handled.
+   * @param startRecord       The optional offset in the original bulk data
+   *                          of the first uploaded record if only uploading
+   *                          the remainder of the bulk data.
    */
   @POST
   @Path("/records")
@@ -135,11 +187,23 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
       @QueryParam("loadId") String loadId,
       @DefaultValue("10") @QueryParam("maxBatchCount") int maxBatchCount,
       @DefaultValue("0") @QueryParam("maxFailures") int maxFailures,
+      @QueryParam("senderThreads") Integer senderThreads,
+      @DefaultValue("false") @QueryParam("adaptiveBatching") boolean adaptiveBatching,
+      @QueryParam("inFlightBatches") Integer inFlightBatches,
+      @DefaultValue("false") @QueryParam("resume") boolean resume,
+      @QueryParam("startRecord") Long startRecord,
       @HeaderParam("Content-Type") MediaType mediaType,
+      @HeaderParam("Content-Encoding") String contentEncoding,
       InputStream dataInputStream,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+    this.validateSenderThreads(senderThreads, uriInfo, timers);
+    this.validateInFlightBatches(
+        inFlightBatches, senderThreads, uriInfo, timers);
+    this.validateResume(loadId, resume, startRecord, uriInfo, timers);
+    String encoding = this.getBulkDataEncoding(
+        contentEncoding, null, uriInfo, timers);
     AccessToken accessToken = this.prepareStreamLoadOperation(provider,
         uriInfo,
         timers);
@@ -158,7 +222,13 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
           loadId,
           maxBatchCount,
           maxFailures,
+          senderThreads,
+          adaptiveBatching,
+          inFlightBatches,
+          resume,
+          startRecord,
           mediaType,
+          encoding,
           dataInputStream,
           null,
           uriInfo,
@@ -201,6 +271,22 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
    * @param maxFailures       The maximum number of failures or a negative number
    *                          if
    *                          no maximum.
+   * @param senderThreads     The optional number of threads to send the
+   *                          batches on, in which case the records are read,
+   *                          batched and sent in a pipelined fashion.
+   * @param adaptiveBatching  Whether or not to adjust the number of records
+   *                          and bytes per micro-batch based on the observed
+   *                          load queue latency and failures, in which case
+   *                          the maximum batch count is the initial count.
+   * @param inFlightBatches   The optional maximum number of micro-batches to
+   *                          have in flight at once, in which case the batches
+   *                          are sent asynchronously.
+   * @param resume            Whether or not to resume the load with the
+   *                          specified load ID from its checkpoint, skipping
+   *                          the records that were already handled.
+   * @param startRecord       The optional offset in the original bulk data
+   *                          of the first uploaded record if only uploading
+   *                          the remainder of the bulk data.
    * @param progressPeriod    The suggested maximum time between SSE `progress`
    *                          events specified in milliseconds. If not specified
    *                          then the default of `3000` milliseconds (i.e.: 3
@@ -221,6 +307,11 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
       @QueryParam("loadId") String loadId,
       @DefaultValue("10") @QueryParam("maxBatchCount") int maxBatchCount,
       @DefaultValue("0") @QueryParam("maxFailures") int maxFailures,
+      @QueryParam("senderThreads") Integer senderThreads,
+      @DefaultValue("false") @QueryParam("adaptiveBatching") boolean adaptiveBatching,
+      @QueryParam("inFlightBatches") Integer inFlightBatches,
+      @DefaultValue("false") @QueryParam("resume") boolean resume,
+      @QueryParam("startRecord") Long startRecord,
       @HeaderParam("Content-Type") MediaType mediaType,
       @FormDataParam("data") InputStream dataInputStream,
       @FormDataParam("data") FormDataContentDisposition fileMetaData,
@@ -232,6 +323,12 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
   {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+    this.validateSenderThreads(senderThreads, uriInfo, timers);
+    this.validateInFlightBatches(
+        inFlightBatches, senderThreads, uriInfo, timers);
+    this.validateResume(loadId, resume, startRecord, uriInfo, timers);
+    String encoding = this.getBulkDataEncoding(
+        null, fileMetaData, uriInfo, timers);
     AccessToken accessToken = this.prepareStreamLoadOperation(provider,
         uriInfo,
         timers);
@@ -244,7 +341,13 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
           loadId,
           maxBatchCount,
           maxFailures,
+          senderThreads,
+          adaptiveBatching,
+          inFlightBatches,
+          resume,
+          startRecord,
           mediaType,
+          encoding,
           dataInputStream,
           fileMetaData,
           uriInfo,
@@ -287,6 +390,22 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
    * @param maxFailures       The maximum number of failures or a negative number
    *                          if
    *                          no maximum.
+   * @param senderThreads     The optional number of threads to send the
+   *                          batches on, in which case the records are read,
+   *                          batched and sent in a pipelined fashion.
+   * @param adaptiveBatching  Whether or not to adjust the number of records
+   *                          and bytes per micro-batch based on the observed
+   *                          load queue latency and failures, in which case
+   *                          the maximum batch count is the initial count.
+   * @param inFlightBatches   The optional maximum number of micro-batches to
+   *                          have in flight at once, in which case the batches
+   *                          are sent asynchronously.
+   * @param resume            Whether or not to resume the load with the
+   *                          specified load ID from its checkpoint, skipping
+   *                          the records that were already handled.
+   * @param startRecord       The optional offset in the original bulk data
+   *                          of the first uploaded record if only uploading
+   *                          the remainder of the bulk data.
    * @param progressPeriod    The suggested maximum time between SSE `progress`
    *                          events specified in milliseconds. If not specified
    *                          then the default of `3000` milliseconds (i.e.: 3
@@ -311,7 +430,13 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
       @QueryParam("loadId") String loadId,
       @DefaultValue("10") @QueryParam("maxBatchCount") int maxBatchCount,
       @DefaultValue("0") @QueryParam("maxFailures") int maxFailures,
+      @QueryParam("senderThreads") Integer senderThreads,
+      @DefaultValue("false") @QueryParam("adaptiveBatching") boolean adaptiveBatching,
+      @QueryParam("inFlightBatches") Integer inFlightBatches,
+      @DefaultValue("false") @QueryParam("resume") boolean resume,
+      @QueryParam("startRecord") Long startRecord,
       @HeaderParam("Content-Type") MediaType mediaType,
+      @HeaderParam("Content-Encoding") String contentEncoding,
       InputStream dataInputStream,
       @Context UriInfo uriInfo,
       @QueryParam("progressPeriod") @DefaultValue("3000") long progressPeriod,
@@ -319,6 +444,12 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
       @Context Sse sse) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+    this.validateSenderThreads(senderThreads, uriInfo, timers);
+    this.validateInFlightBatches(
+        inFlightBatches, senderThreads, uriInfo, timers);
+    this.validateResume(loadId, resume, startRecord, uriInfo, timers);
+    String encoding = this.getBulkDataEncoding(
+        contentEncoding, null, uriInfo, timers);
     AccessToken accessToken = this.prepareStreamLoadOperation(provider,
         uriInfo,
         timers);
@@ -331,7 +462,13 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
           loadId,
           maxBatchCount,
           maxFailures,
+          senderThreads,
+          adaptiveBatching,
+          inFlightBatches,
+          resume,
+          startRecord,
           mediaType,
+          encoding,
           dataInputStream,
           null,
           uriInfo,
@@ -353,4 +490,43 @@ public class BulkDataStreamServices implements BulkDataStreamSupport {
       provider.concludeProlongedOperation(accessToken);
     }
   }
+
+  /**
+   * Gets the checkpoint for a bulk data stream load with an explicit load ID,
+   * providing the implementation of
+   * <tt>"GET /load-queue/bulk-data/checkpoints/{loadId}"</tt>.  The record
+   * offset of the checkpoint is the number of leading records that will be
+   * skipped if the load is resumed.
+   *
+   * @param loadId  The load ID for the checkpoint.
+   * @param uriInfo The {@link UriInfo} for the request.
+   *
+   * @return The {@link SzLoadCheckpointResponse} describing the checkpoint.
+   */
+  @GET
+  @Path("/checkpoints/{loadId}")
+  @Produces(APPLICATION_JSON)
+  public SzLoadCheckpointResponse getLoadCheckpoint(
+      @PathParam("loadId") String loadId,
+      @Context UriInfo uriInfo) {
+    SzPocProvider provider = (SzPocProvider) this.getApiProvider();
+    Timers timers = this.newTimers();
+
+    Long recordOffset
+        = provider.getLoadCheckpointStore().getRecordOffset(loadId);
+    if (recordOffset == null) {
+      throw this.newNotFoundException(
+          GET, uriInfo, timers,
+          "No checkpoint exists for the specified load ID: " + loadId);
+    }
+
+    SzLoadCheckpoint checkpoint = SzLoadCheckpoint.FACTORY.create();
+    checkpoint.setLoadId(loadId);
+    checkpoint.setRecordOffset(recordOffset);
+
+    return SzLoadCheckpointResponse.FACTORY.create(
+        this.newMeta(GET, 200, timers),
+        this.newLinks(uriInfo),
+        checkpoint);
+  }
 }
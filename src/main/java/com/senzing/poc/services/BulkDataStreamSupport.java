@@ -7,6 +7,7 @@ import com.senzing.api.services.SzMessage;
 import com.senzing.api.services.SzMessageSink;
 import com.senzing.io.RecordReader;
 import com.senzing.io.TemporaryDataCache;
+import com.senzing.poc.server.SzLoadCheckpointStore;
 import com.senzing.poc.server.SzPocProvider;
 import com.senzing.util.AccessToken;
 import com.senzing.util.JsonUtilities;
@@ -16,6 +17,7 @@ import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
 
 import javax.json.JsonObject;
 import javax.websocket.Session;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ForbiddenException;
 import javax.ws.rs.ServiceUnavailableException;
 import javax.ws.rs.core.MediaType;
@@ -26,12 +28,12 @@ import javax.ws.rs.sse.SseEventSink;
 import java.io.*;
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
 
 import static com.senzing.api.model.SzBulkDataStatus.ABORTED;
 import static com.senzing.api.model.SzBulkDataStatus.COMPLETED;
 import static com.senzing.api.model.SzHttpMethod.POST;
-import static com.senzing.poc.services.StreamLoadUtilities.logFailedAsyncLoad;
-import static com.senzing.io.IOUtilities.UTF_8;
+import static com.senzing.poc.services.StreamLoadUtilities.handleFailedAsyncLoad;
 import static com.senzing.util.LoggingUtilities.*;
 
 /**
@@ -41,10 +43,27 @@ import static com.senzing.util.LoggingUtilities.*;
 public interface BulkDataStreamSupport
     extends BulkDataSupport, StreamLoadSupport {
   /**
-   * The maximum number of bytes for a micro batch to avoid queue limits.
+   * The default maximum number of bytes for a micro batch to avoid queue
+   * limits.  The {@linkplain SzPocProvider#getLoadMessageMaximumBytes()
+   * maximum for the configured load queue} is used when loading.
    */
   int MAXIMUM_BATCH_BYTES = 224 * 1024;
 
+  /**
+   * The content coding for gzip-compressed bulk data.
+   */
+  String GZIP_ENCODING = "gzip";
+
+  /**
+   * The content coding for zstd-compressed bulk data.
+   */
+  String ZSTD_ENCODING = "zstd";
+
+  /**
+   * The size of the buffer to use when decompressing bulk data.
+   */
+  int DECOMPRESSION_BUFFER_SIZE = 64 * 1024;
+
   /**
    * Prepares for performing a stream-loading operation by ensuring a load
    * queue is configured, the server is not in read-only mode and a long-running
@@ -73,7 +92,262 @@ public interface BulkDataStreamSupport
   }
 
   /**
-   * Appends the records in the bulk data to the load queue.
+   * Validates the optional number of sender threads for a pipelined stream
+   * load.
+   *
+   * @param senderThreads The number of sender threads, or <code>null</code>
+   *                      if not pipelining the load.
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @param timers  The {@link Timers} tracking timing for the operation.
+   *
+   * @throws BadRequestException If the number of sender threads is specified
+   *                             and out of range.
+   */
+  default void validateSenderThreads(Integer  senderThreads,
+                                     UriInfo  uriInfo,
+                                     Timers   timers)
+      throws BadRequestException
+  {
+    if (senderThreads == null) return;
+    if (senderThreads < 1
+        || senderThreads > StreamLoadPipeline.MAXIMUM_SENDER_THREADS)
+    {
+      throw this.newBadRequestException(
+          POST, uriInfo, timers,
+          "The number of sender threads (senderThreads) must be between 1 and "
+          + StreamLoadPipeline.MAXIMUM_SENDER_THREADS + ": " + senderThreads);
+    }
+  }
+
+  /**
+   * Validates the optional number of in-flight batches for a windowed stream
+   * load.  The window cannot be combined with a pipelined load since the
+   * pipeline's sender threads already bound the number of in-flight batches.
+   *
+   * @param inFlightBatches The maximum number of batches in flight, or
+   *                        <code>null</code> if not windowing the sends.
+   * @param senderThreads The number of sender threads, or <code>null</code>
+   *                      if not pipelining the load.
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @param timers  The {@link Timers} tracking timing for the operation.
+   *
+   * @throws BadRequestException If the number of in-flight batches is
+   *                             specified and out of range or if the number
+   *                             of sender threads is also specified.
+   */
+  default void validateInFlightBatches(Integer  inFlightBatches,
+                                       Integer  senderThreads,
+                                       UriInfo  uriInfo,
+                                       Timers   timers)
+      throws BadRequestException
+  {
+    if (inFlightBatches == null) return;
+    if (inFlightBatches < 1
+        || inFlightBatches > StreamLoadSendWindow.MAXIMUM_IN_FLIGHT_BATCHES)
+    {
+      throw this.newBadRequestException(
+          POST, uriInfo, timers,
+          "The number of in-flight batches (inFlightBatches) must be between "
+          + "1 and " + StreamLoadSendWindow.MAXIMUM_IN_FLIGHT_BATCHES + ": "
+          + inFlightBatches);
+    }
+    if (senderThreads != null) {
+      throw this.newBadRequestException(
+          POST, uriInfo, timers,
+          "The number of in-flight batches (inFlightBatches) cannot be "
+          + "specified with the number of sender threads (senderThreads).");
+    }
+  }
+
+  /**
+   * Validates the optional parameters for resuming a checkpointed stream
+   * load.  Resuming requires an explicit load ID since the checkpoints are
+   * keyed by load ID.
+   *
+   * @param loadId The explicit load ID, or <code>null</code> if none.
+   * @param resume <code>true</code> if resuming the load from its checkpoint,
+   *               otherwise <code>false</code>.
+   * @param startRecord The offset in the original bulk data of the first
+   *                    uploaded record, or <code>null</code> if the upload
+   *                    begins with the first record.
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @param timers  The {@link Timers} tracking timing for the operation.
+   *
+   * @throws BadRequestException If resuming without a load ID or if the
+   *                             start record is negative.
+   */
+  default void validateResume(String   loadId,
+                              boolean  resume,
+                              Long     startRecord,
+                              UriInfo  uriInfo,
+                              Timers   timers)
+      throws BadRequestException
+  {
+    if (resume && (loadId == null || loadId.trim().length() == 0)) {
+      throw this.newBadRequestException(
+          POST, uriInfo, timers,
+          "A load ID (loadId) must be specified to resume a load.");
+    }
+    if (startRecord != null && startRecord < 0L) {
+      throw this.newBadRequestException(
+          POST, uriInfo, timers,
+          "The start record (startRecord) cannot be negative: "
+          + startRecord);
+    }
+  }
+
+  /**
+   * Determines the compression of the bulk data from the specified
+   * <code>Content-Encoding</code> header value or, if none, from the file
+   * name extension of the uploaded file (<code>".gz"</code> or
+   * <code>".zst"</code>).  Only gzip compression is currently supported.
+   *
+   * @param contentEncoding The value of the <code>Content-Encoding</code>
+   *                        header, or <code>null</code> if not specified.
+   * @param fileMetaData The form meta data for the uploaded file, or
+   *                     <code>null</code> if not uploaded via a form.
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @param timers  The {@link Timers} tracking timing for the operation.
+   *
+   * @return {@link #GZIP_ENCODING} if the bulk data is gzip-compressed,
+   *         otherwise <code>null</code> if not compressed.
+   *
+   * @throws BadRequestException If the bulk data is compressed with an
+   *                             unsupported content coding.
+   */
+  default String getBulkDataEncoding(String                     contentEncoding,
+                                     FormDataContentDisposition fileMetaData,
+                                     UriInfo                    uriInfo,
+                                     Timers                     timers)
+      throws BadRequestException
+  {
+    String encoding = null;
+    if (contentEncoding != null) {
+      for (String coding : contentEncoding.split(",")) {
+        coding = coding.trim().toLowerCase();
+        if (coding.length() == 0 || coding.equals("identity")) continue;
+        if (coding.equals("x-gzip")) coding = GZIP_ENCODING;
+        if (encoding != null) {
+          throw this.newBadRequestException(
+              POST, uriInfo, timers,
+              "Multiple content codings are not supported for bulk data: "
+              + contentEncoding);
+        }
+        encoding = coding;
+      }
+
+    } else if (fileMetaData != null && fileMetaData.getFileName() != null) {
+      String fileName = fileMetaData.getFileName().trim().toLowerCase();
+      if (fileName.endsWith(".gz")) {
+        encoding = GZIP_ENCODING;
+      } else if (fileName.endsWith(".zst")) {
+        encoding = ZSTD_ENCODING;
+      }
+    }
+
+    if (encoding == null || encoding.equals(GZIP_ENCODING)) return encoding;
+
+    throw this.newBadRequestException(
+        POST, uriInfo, timers,
+        "Unsupported content coding for bulk data (only " + GZIP_ENCODING
+        + " is supported): " + encoding);
+  }
+
+  /**
+   * Gets the {@link RecordReader.Format} declared by the specified {@link
+   * MediaType}, if any.
+   *
+   * @param mediaType The {@link MediaType} for the bulk data, or
+   *                  <code>null</code> if not specified.
+   *
+   * @return The declared {@link RecordReader.Format}, or <code>null</code> if
+   *         the media type does not identify a record format.
+   */
+  static RecordReader.Format getDeclaredFormat(MediaType mediaType) {
+    if (mediaType == null) return null;
+    return RecordReader.Format.fromMediaType(
+        mediaType.getType() + "/" + mediaType.getSubtype());
+  }
+
+  /**
+   * Gets the character encoding explicitly declared by the specified {@link
+   * MediaType}, if any.
+   *
+   * @param mediaType The {@link MediaType} for the bulk data, or
+   *                  <code>null</code> if not specified.
+   *
+   * @return The declared character encoding, or <code>null</code> if none is
+   *         declared.
+   */
+  static String getDeclaredCharset(MediaType mediaType) {
+    if (mediaType == null) return null;
+    String charset = mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+    if (charset == null || charset.trim().length() == 0) return null;
+    return charset.trim();
+  }
+
+  /**
+   * Formats a load ID for bulk data that is streamed directly from the
+   * request without being spooled to a {@link TemporaryDataCache}.
+   *
+   * @param fileMetaData The form meta data for the uploaded file, or
+   *                     <code>null</code> if not uploaded via a form.
+   *
+   * @return The formatted load ID.
+   */
+  default String formatStreamLoadId(FormDataContentDisposition fileMetaData) {
+    String fileName = (fileMetaData == null) ? null : fileMetaData.getFileName();
+    String suffix = UUID.randomUUID().toString();
+    return (fileName == null || fileName.trim().length() == 0)
+        ? "STREAM_LOAD_" + suffix
+        : "STREAM_LOAD_" + fileName.trim() + "_" + suffix;
+  }
+
+  /**
+   * Detects the format of the bulk data in the specified {@link
+   * TemporaryDataCache} without consuming it.
+   *
+   * @param dataCache The {@link TemporaryDataCache} containing the bulk data.
+   * @param charset The character encoding for the bulk data.
+   *
+   * @return The detected {@link RecordReader.Format}, or <code>null</code> if
+   *         the format could not be detected.
+   *
+   * @throws IOException If an I/O failure occurs.
+   */
+  default RecordReader.Format detectBulkDataFormat(
+      TemporaryDataCache  dataCache,
+      String              charset)
+      throws IOException
+  {
+    try (InputStream is = dataCache.getInputStream(false);
+        InputStreamReader isr = new InputStreamReader(is, charset);
+        BufferedReader br = new BufferedReader(isr)) {
+      return new RecordReader(br).getFormat();
+
+    } catch (IllegalStateException | IllegalArgumentException e) {
+      // let the record reader report the failure when loading
+      return null;
+    }
+  }
+
+  /**
+   * Appends the records in the bulk data to the load queue.  If the number
+   * of sender threads is specified then the records are read, batched and
+   * sent by separate pipelined threads.  If adaptive batching is requested
+   * then the maximum batch count is only the initial number of records per
+   * batch and the record and byte limits are adjusted as batches are sent.
+   * If the number of in-flight batches is specified then the batches are
+   * sent asynchronously and reading only blocks when that many batches are
+   * awaiting completion.  If the media type explicitly declares both the
+   * record format and the character encoding then the records are read
+   * directly from the request as the bytes arrive rather than first being
+   * spooled to a temporary data cache.  Compressed bulk data is decompressed
+   * as it is read.  JSON-lines records are copied into the batches as-is
+   * (with the load ID spliced in) when no data source mapping is being
+   * applied.  If a load ID is explicitly specified then the offset of the
+   * records that have been handled is checkpointed so that the load can
+   * later be resumed, skipping the records before the checkpoint.
    *
    */
   default SzBulkLoadResponse streamLoadBulkRecords(
@@ -85,7 +359,13 @@ public interface BulkDataStreamSupport
       String explicitLoadId,
       int maxBatchCount,
       int maxFailures,
+      Integer senderThreads,
+      boolean adaptiveBatching,
+      Integer inFlightBatches,
+      boolean resume,
+      Long startRecord,
       MediaType mediaType,
+      String contentEncoding,
       InputStream dataInputStream,
       FormDataContentDisposition fileMetaData,
       UriInfo uriInfo,
@@ -121,194 +401,346 @@ public interface BulkDataStreamSupport
     ProgressState progressState = new ProgressState();
 
     try {
-      BulkDataSet bulkDataSet = new BulkDataSet(mediaType, dataInputStream);
+      // decompress the bulk data as it is read if it is compressed
+      if (GZIP_ENCODING.equals(contentEncoding)) {
+        dataInputStream = new GZIPInputStream(dataInputStream,
+                                              DECOMPRESSION_BUFFER_SIZE);
+      }
 
-      TemporaryDataCache dataCache = bulkDataSet.getDataCache();
+      // stream directly from the request if the format and charset are
+      // declared, otherwise spool to a temporary cache to detect them
+      RecordReader.Format declaredFormat = getDeclaredFormat(mediaType);
+      String declaredCharset = getDeclaredCharset(mediaType);
+      boolean direct = (declaredFormat != null && declaredCharset != null);
 
-      String charset = bulkDataSet.getCharacterEncoding();
+      BulkDataSet bulkDataSet = (direct) ? null
+          : new BulkDataSet(mediaType, dataInputStream);
 
-      logDebug("Bulk data character encoding: " + charset);
+      TemporaryDataCache dataCache = (direct) ? null
+          : bulkDataSet.getDataCache();
 
-      String loadId = (explicitLoadId == null)
-          ? formatLoadId(dataCache, fileMetaData)
-          : explicitLoadId;
+      String charset = (direct) ? declaredCharset
+          : bulkDataSet.getCharacterEncoding();
 
-      SzMessageSink loadSink = provider.acquireLoadSink();
+      logDebug("Bulk data character encoding: " + charset,
+               "Streaming bulk data directly: " + direct);
+
+      String loadId = (explicitLoadId != null) ? explicitLoadId
+          : ((direct) ? formatStreamLoadId(fileMetaData)
+                      : formatLoadId(dataCache, fileMetaData));
+
+      // checkpoint the load if the load ID was specified so it can resume
+      SzLoadCheckpointStore checkpointStore
+          = provider.getLoadCheckpointStore();
+      long recordOffset = (startRecord == null) ? 0L : startRecord;
+      long skipCount = 0L;
+      if (resume) {
+        try {
+          skipCount = StreamLoadCheckpoint.getResumeSkipCount(
+              checkpointStore, explicitLoadId, recordOffset);
+
+        } catch (IllegalArgumentException e) {
+          throw this.newBadRequestException(
+              POST, uriInfo, timers, e.getMessage());
+        }
+      }
+      StreamLoadCheckpoint checkpoint = (explicitLoadId == null) ? null
+          : new StreamLoadCheckpoint(
+              checkpointStore, explicitLoadId, recordOffset + skipCount);
+      if (checkpoint != null) checkpoint.save();
+
+      logDebug("Bulk data record offset: " + recordOffset,
+               "Records to skip for resume: " + skipCount);
+
+      // get the maximum message size for the load queue
+      int maxMessageBytes = provider.getLoadMessageMaximumBytes();
+
+      // adapt the batch sizes to the load queue if requested
+      AdaptiveBatchSizer batchSizer = (!adaptiveBatching) ? null
+          : new AdaptiveBatchSizer(
+              maxBatchCount,
+              AdaptiveBatchSizer.MAXIMUM_ADAPTIVE_BATCH_COUNT,
+              maxMessageBytes);
+
+      // pipeline the load if sender threads were requested
+      StreamLoadPipeline pipeline = (senderThreads == null) ? null
+          : new StreamLoadPipeline(this,
+                                   provider,
+                                   bulkLoadResult,
+                                   maxBatchCount,
+                                   maxMessageBytes,
+                                   batchSizer,
+                                   checkpoint,
+                                   senderThreads,
+                                   timers);
+
+      // check if JSON-lines records can be passed through without being
+      // parsed and re-serialized (only possible without data source mapping)
+      RecordReader.Format detectedFormat = (!dataSourceMap.isEmpty()) ? null
+          : ((direct) ? declaredFormat
+                      : this.detectBulkDataFormat(dataCache, charset));
+      boolean passthrough
+          = (detectedFormat == RecordReader.Format.JSON_LINES);
+
+      SzMessageSink loadSink = (pipeline != null || inFlightBatches != null)
+          ? null : provider.acquireLoadSink();
 
       // check if we need to auto-detect the media type
-      try (InputStream is = dataCache.getInputStream(true);
+      try (InputStream is = (direct) ? dataInputStream
+                                     : dataCache.getInputStream(true);
           InputStreamReader isr = new InputStreamReader(is, charset);
           BufferedReader br = new BufferedReader(isr)) {
+        JsonLinesPassthroughReader passthroughReader = (!passthrough) ? null
+            : new JsonLinesPassthroughReader(br, loadId);
+
         // if format is null then RecordReader will auto-detect
-        RecordReader recordReader = new RecordReader(null,
-            br,
-            dataSourceMap,
-            loadId);
+        RecordReader recordReader = (passthrough) ? null
+            : new RecordReader(declaredFormat, br, dataSourceMap, loadId);
+
+        RecordReader.Format format = (passthrough)
+            ? RecordReader.Format.JSON_LINES
+            : recordReader.getFormat();
 
         this.verifyBulkDataFormat(specifiedMediaType,
-            bulkDataSet.getFormat(),
-            recordReader.getFormat(),
+            (direct) ? declaredFormat : bulkDataSet.getFormat(),
+            format,
             uriInfo,
             timers);
 
         // override the format accordingly
-        bulkDataSet.setFormat(recordReader.getFormat());
+        if (bulkDataSet != null) bulkDataSet.setFormat(format);
 
         if (LoggingUtilities.isDebugLogging()) {
-          System.out.println("Bulk data format: " + bulkDataSet.getFormat());
+          System.out.println("Bulk data format: " + format);
         }
 
         bulkLoadResult.setCharacterEncoding(charset);
-        bulkLoadResult.setMediaType(bulkDataSet.getFormat().getMediaType());
+        bulkLoadResult.setMediaType(format.getMediaType());
 
         boolean done = false;
         SzMessage[] failedMsg = { null };
 
-        ByteArrayOutputStream batchBytes = new ByteArrayOutputStream(MAXIMUM_BATCH_BYTES);
-
-        int batchCount = 0;
-        String prefix = "[";
-        List<String[]> trackingList = new LinkedList<>();
+        StreamLoadBatchBuilder batchBuilder = (pipeline != null) ? null
+            : StreamLoadBatchBuilder.acquire();
 
         boolean aborted = false;
+        boolean completed = false;
         ProgressUpdater<SzBulkLoadResponse> progressUpdater = null;
+        // window the sends if requested and not pipelining
+        StreamLoadSendWindow sendWindow
+            = (pipeline != null || inFlightBatches == null) ? null
+            : new StreamLoadSendWindow(this,
+                                       provider,
+                                       bulkLoadResult,
+                                       batchSizer,
+                                       checkpoint,
+                                       inFlightBatches,
+                                       timers);
+
+        if (pipeline != null) pipeline.start();
         try {
           // loop through the records and handle each record
           while (!done) {
-            JsonObject record = recordReader.readRecord();
+            JsonObject record = null;
+            String recordText = null;
+            String resolvedDS = null;
+            if (passthroughReader != null) {
+              // read the record text and data source directly
+              recordText = passthroughReader.readRecord();
+              resolvedDS = passthroughReader.getDataSource();
+              done = (recordText == null);
+
+            } else {
+              record = recordReader.readRecord();
 
-            // check if the record is null
-            if (record == null) {
-              done = true;
+              // check if the record is null
+              if (record == null) {
+                done = true;
+              }
+
+              // check if we have a data source and entity type
+              resolvedDS = (done || pipeline != null) ? null
+                  : JsonUtilities.getString(record, "DATA_SOURCE");
+            }
+
+            // skip the records already handled if resuming the load
+            long currentOffset = (done) ? recordOffset : recordOffset++;
+            if (!done && skipCount > 0L) {
+              skipCount--;
+              continue;
             }
 
-            // check if we have a data source and entity type
-            String resolvedDS = (done) ? null
-                : JsonUtilities.getString(record, "DATA_SOURCE");
-            if ((!done)
+            if (pipeline != null) {
+              // hand off the record to be batched and sent
+              if (!done && record != null) {
+                pipeline.submit(record, currentOffset);
+              } else if (!done) {
+                pipeline.submit(recordText, resolvedDS, currentOffset);
+              }
+
+            } else if ((!done)
                 && (resolvedDS == null || resolvedDS.trim().length() == 0)) {
               logDebug("Incomplete record not set: "
-                  + JsonUtilities.toJsonText(record));
+                  + ((recordText != null)
+                     ? recordText : JsonUtilities.toJsonText(record)));
 
-              bulkLoadResult.trackIncompleteRecord(resolvedDS);
+              synchronized (bulkLoadResult) {
+                bulkLoadResult.trackIncompleteRecord(resolvedDS);
+              }
+              if (checkpoint != null) {
+                checkpoint.handled(currentOffset, currentOffset + 1L);
+              }
 
             } else {
-              String recordText = (done) ? null : JsonUtilities.toJsonText(record);
-              byte[] recordBytes = (done) ? null : recordText.getBytes(UTF_8);
-              int byteCount = (done) ? 0 : recordBytes.length + 3;
+              if (!done && recordText == null) {
+                recordText = JsonUtilities.toJsonText(record);
+              }
+              int recordByteCount = (done) ? 0
+                  : StreamLoadBatchBuilder.utf8Length(recordText);
+              int countLimit = (batchSizer == null) ? maxBatchCount
+                  : batchSizer.getCountLimit();
+              int byteLimit = (batchSizer == null) ? maxMessageBytes
+                  : batchSizer.getByteLimit();
+              int byteCount = (done) ? 0 : recordByteCount + 3;
+              boolean batched = done;
 
-              String messageBody = null;
-              List<String[]> batchTrackingList = trackingList;
+              StreamLoadBatchBuilder.Batch batch = null;
 
               // check if adding this record to the batch does NOT exceed the
               // maximum number of bytes in a batch nor max number of records
-              if ((!done) && (byteCount + batchBytes.size() < MAXIMUM_BATCH_BYTES)
-                  && (batchCount < maxBatchCount)) {
-                batchCount++;
-                batchBytes.write(prefix.getBytes(UTF_8));
-                batchBytes.write(recordBytes);
-                prefix = ",";
-                String[] trackParams = { resolvedDS };
-                trackingList.add(trackParams);
-                recordBytes = null;
-
-                logDebug("Batching record " + batchCount
-                    + " of " + maxBatchCount + " (max): " + recordText,
-                    "Batch size is " + batchBytes.size() + " bytes of "
-                        + MAXIMUM_BATCH_BYTES + " bytes (max)");
+              if ((!done)
+                  && (byteCount + batchBuilder.getByteCount() < byteLimit)
+                  && (batchBuilder.getRecordCount() < countLimit)) {
+                batchBuilder.add(
+                    recordText, recordByteCount, resolvedDS, currentOffset);
+                batched = true;
+
+                if (isDebugLogging()) {
+                  logDebug("Batching record " + batchBuilder.getRecordCount()
+                      + " of " + countLimit + " (max): " + recordText,
+                      "Batch size is " + batchBuilder.getByteCount()
+                          + " bytes of " + byteLimit + " bytes (max)");
+                }
               }
 
               // now check if we are sending the current batch
-              if ((batchCount > 0)
-                  && (done || batchCount >= maxBatchCount
-                      || (batchBytes.size() + 1) >= MAXIMUM_BATCH_BYTES)) {
-                // create the batch message
-                batchBytes.write("]".getBytes(UTF_8));
-                messageBody = new String(batchBytes.toByteArray(), UTF_8);
-
-                // reset the batch
-                batchBytes = new ByteArrayOutputStream(MAXIMUM_BATCH_BYTES);
-                trackingList = new LinkedList<>();
-                batchCount = 0;
-                prefix = "[";
+              if ((!batchBuilder.isEmpty())
+                  && (done || batchBuilder.getRecordCount() >= countLimit
+                      || (batchBuilder.getByteCount() + 1) >= byteLimit)) {
+                // create the batch message and reset the builder
+                batch = batchBuilder.build();
               }
 
               // check if we are ready to send a batch
-              if (messageBody != null) {
+              if (batch != null && sendWindow != null) {
+                // send asynchronously, blocking only if the window is full
+                sendWindow.send(batch);
+
+              } else if (batch != null) {
+                StreamLoadBatchBuilder.Batch sentBatch = batch;
+
                 // create the message object
-                SzMessage message = new SzMessage(messageBody);
+                SzMessage message = new SzMessage(batch.getMessageBody());
 
                 // send the batch
                 this.sendingAsyncMessage(timers, LOAD_QUEUE_NAME);
+                long sendStart = System.nanoTime();
+                boolean sendFailed = false;
                 try {
-                  logDebug("Sending message: " + messageBody);
+                  if (isDebugLogging()) {
+                    logDebug("Sending message: " + batch.getMessageBody());
+                  }
 
                   // send the info on the async queue
                   loadSink.send(message, (exception, msg) -> {
-                    logFailedAsyncLoad(exception, msg);
-                    if (failedMsg[0] != message) {
-                      failedMsg[0] = message;
-                      for (String[] trackParams : batchTrackingList) {
-                        String trackDS = trackParams[0];
-                        bulkLoadResult.trackFailedRecord(
-                            trackDS, this.newError(exception));
+                    if (handleFailedAsyncLoad(provider, exception, msg)) {
+                      return;
+                    }
+                    sentBatch.trackUnhandled(checkpoint);
+                    if (batchSizer != null) {
+                      batchSizer.recordSend(sentBatch.getRecordCount(), 0L, true);
+                    }
+                    synchronized (bulkLoadResult) {
+                      if (failedMsg[0] != message) {
+                        failedMsg[0] = message;
+                        sentBatch.trackFailed(
+                            bulkLoadResult, this.newError(exception));
                       }
                     }
                   });
 
-                  // track that we successfully enqueued the record
-                  for (String[] trackParams : batchTrackingList) {
-                    String trackDS = trackParams[0];
-                    bulkLoadResult.trackLoadedRecord(trackDS);
+                  // track that we successfully enqueued the records
+                  synchronized (bulkLoadResult) {
+                    batch.trackLoaded(bulkLoadResult);
                   }
+                  batch.trackHandled(checkpoint);
 
                 } catch (Exception e) {
-                  // failed async logger will not double-log
-                  logFailedAsyncLoad(e, message);
-                  if (failedMsg[0] != message) {
-                    failedMsg[0] = message;
-
-                    for (String[] trackParams : batchTrackingList) {
-                      String trackDS = trackParams[0];
-                      bulkLoadResult.trackFailedRecord(
-                          trackDS, this.newError(e));
+                  sendFailed = true;
+
+                  // the records are not lost if the batch was journaled (and
+                  // the failed async logger will not double-log)
+                  if (handleFailedAsyncLoad(provider, e, message)) {
+                    synchronized (bulkLoadResult) {
+                      batch.trackLoaded(bulkLoadResult);
+                    }
+                    batch.trackHandled(checkpoint);
+
+                  } else {
+                    batch.trackUnhandled(checkpoint);
+                    synchronized (bulkLoadResult) {
+                      if (failedMsg[0] != message) {
+                        failedMsg[0] = message;
+                        batch.trackFailed(bulkLoadResult, this.newError(e));
+                      }
                     }
                   }
 
                 } finally {
                   this.sentAsyncMessage(timers, LOAD_QUEUE_NAME);
+                  if (batchSizer != null) {
+                    batchSizer.recordSend(batch.getRecordCount(),
+                                          System.nanoTime() - sendStart,
+                                          sendFailed);
+                  }
                 }
               }
 
               // now check if we have a record that was not added to the batch
-              if (recordBytes != null) {
+              if (!batched) {
                 // check if the individual message is simply too large to send
-                if ((byteCount + 2) >= MAXIMUM_BATCH_BYTES) {
-                  bulkLoadResult.trackFailedRecord(
-                      resolvedDS,
-                      this.newError("Maximum message size ("
-                          + MAXIMUM_BATCH_BYTES + ") exceeded: "
-                          + byteCount));
+                if ((byteCount + 2) >= maxMessageBytes) {
+                  synchronized (bulkLoadResult) {
+                    bulkLoadResult.trackFailedRecord(
+                        resolvedDS,
+                        this.newError("Maximum message size ("
+                            + maxMessageBytes + ") exceeded: "
+                            + byteCount));
+                  }
+                  if (checkpoint != null) {
+                    checkpoint.handled(currentOffset, currentOffset + 1L);
+                  }
                 } else {
                   // add this record to the newly created batch
-                  batchCount++;
-                  batchBytes.write(prefix.getBytes(UTF_8));
-                  batchBytes.write(recordBytes);
-                  prefix = ",";
-                  String[] trackParams = { resolvedDS };
-                  trackingList.add(trackParams);
-
-                  logDebug("Batching record " + batchCount
-                      + " of " + maxBatchCount + " (max): " + recordText,
-                      "Batch size is " + batchBytes.size() + " bytes of "
-                          + MAXIMUM_BATCH_BYTES + " bytes (max)");
+                  batchBuilder.add(
+                      recordText, recordByteCount, resolvedDS, currentOffset);
+
+                  if (isDebugLogging()) {
+                    logDebug("Batching record " + batchBuilder.getRecordCount()
+                        + " of " + countLimit + " (max): " + recordText,
+                        "Batch size is " + batchBuilder.getByteCount()
+                            + " bytes of " + byteLimit + " bytes (max)");
+                  }
                 }
               }
             }
 
             // count the number of failures
-            int failedCount = bulkLoadResult.getFailedRecordCount()
-                + bulkLoadResult.getIncompleteRecordCount();
+            int failedCount;
+            synchronized (bulkLoadResult) {
+              failedCount = bulkLoadResult.getFailedRecordCount()
+                  + bulkLoadResult.getIncompleteRecordCount();
+            }
 
             // break if aborted
             if (maxFailures > 0 && failedCount >= maxFailures) {
@@ -336,7 +768,57 @@ public interface BulkDataStreamSupport
             }
           }
 
+          // wait for the pipeline to send the remaining batches
+          if (pipeline != null) {
+            if (aborted) pipeline.abort();
+            pipeline.close();
+          }
+
+          // wait for the in-flight batches to complete
+          if (sendWindow != null) {
+            if (aborted) sendWindow.abort();
+            sendWindow.close();
+          }
+          completed = !aborted;
+
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while stream loading", e);
+
         } finally {
+          // make sure the pipeline is stopped if we did not complete
+          if (pipeline != null && !done && !aborted) {
+            pipeline.abort();
+            try {
+              pipeline.close();
+            } catch (Exception ignore) {
+              // ignore the exception since already failing
+            }
+          }
+
+          // make sure the send window is closed if we did not complete
+          if (sendWindow != null && !done && !aborted) {
+            sendWindow.abort();
+            try {
+              sendWindow.close();
+            } catch (InterruptedException ignore) {
+              // ignore the exception since already failing
+            }
+          }
+
+          // return the batch builder to the pool
+          StreamLoadBatchBuilder.release(batchBuilder);
+
+          // save the final checkpoint now that no batches are in flight, or
+          // remove it if the load completed with every record handled
+          if (checkpoint != null) {
+            if (completed) {
+              checkpoint.complete();
+            } else {
+              checkpoint.save();
+            }
+          }
+
           // make sure to clean up the progress updater
           if (progressUpdater != null) {
             // calling this should mark it complete and trigger wake-up
@@ -363,7 +845,7 @@ public interface BulkDataStreamSupport
       } finally {
         if (loadSink != null)
           provider.releaseLoadSink(loadSink);
-        dataCache.delete();
+        if (dataCache != null) dataCache.delete();
       }
 
     } catch (IOException e) {
@@ -0,0 +1,262 @@
+package com.senzing.poc.services;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.senzing.sql.DatabaseType;
+import com.senzing.sql.SQLUtilities;
+import com.senzing.sql.TransactionIsolation;
+
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Provides a request-scoped context for the data mart so that all the query
+ * helpers invoked while servicing a single REST request on the current thread
+ * share one {@link Connection} and one read-only transaction rather than each
+ * leasing their own {@link Connection} from the pool.  Where the database
+ * supports it the transaction uses {@link TransactionIsolation#REPEATABLE_READ}
+ * so that every query in the request sees the same snapshot of the data mart.
+ * <p>
+ * Contexts are reference counted so that nested calls to {@link #begin()} on
+ * the same thread share the outer-most context, and the shared
+ * {@link Connection} is only released when the outer-most context is
+ * {@linkplain #close() closed}.  The {@link Connection} handed out by the
+ * context ignores calls to {@link Connection#close()} so existing code that
+ * closes its {@link Connection} when done can be used unchanged.
+ */
+public final class DataMartRequestContext implements AutoCloseable {
+  /**
+   * The {@link ThreadLocal} tracking the active context for each thread.
+   */
+  private static final ThreadLocal<DataMartRequestContext> CURRENT
+      = new ThreadLocal<>();
+
+  /**
+   * The number of times {@link #begin()} has been called for this context
+   * without a corresponding call to {@link #close()}.
+   */
+  private int depth = 0;
+
+  /**
+   * The backing {@link Connection} leased from the pool, or <code>null</code>
+   * if not yet attached.
+   */
+  private Connection connection = null;
+
+  /**
+   * The shared {@link Connection} proxy that ignores {@link
+   * Connection#close()}, or <code>null</code> if not yet attached.
+   */
+  private Connection sharedConnection = null;
+
+  /**
+   * The original read-only flag of the backing {@link Connection}.
+   */
+  private boolean readOnly = false;
+
+  /**
+   * The original transaction isolation of the backing {@link Connection}.
+   */
+  private int isolation = Connection.TRANSACTION_NONE;
+
+  /**
+   * The original auto-commit setting of the backing {@link Connection}.
+   */
+  private boolean autoCommit = false;
+
+  /**
+   * The {@link Map} of request-scoped attributes.
+   */
+  private Map<String, Object> attributes = new HashMap<>();
+
+  /**
+   * Private constructor.
+   */
+  private DataMartRequestContext() {
+    // do nothing
+  }
+
+  /**
+   * Begins a request context on the current thread, or joins the context
+   * that is already active on the current thread.  The returned context
+   * must be {@linkplain #close() closed} when done.
+   *
+   * @return The {@link DataMartRequestContext} for the current thread.
+   */
+  public static DataMartRequestContext begin() {
+    DataMartRequestContext context = CURRENT.get();
+    if (context == null) {
+      context = new DataMartRequestContext();
+      CURRENT.set(context);
+    }
+    context.depth++;
+    return context;
+  }
+
+  /**
+   * Gets the {@link DataMartRequestContext} that is active on the current
+   * thread, if any.
+   *
+   * @return The active {@link DataMartRequestContext} for the current
+   *         thread, or <code>null</code> if none.
+   */
+  public static DataMartRequestContext getCurrent() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Gets the shared {@link Connection} for this context if one has been
+   * {@linkplain #attach(Connection) attached}.
+   *
+   * @return The shared {@link Connection}, or <code>null</code> if none has
+   *         yet been attached.
+   */
+  public Connection getConnection() {
+    return this.sharedConnection;
+  }
+
+  /**
+   * Attaches the specified backing {@link Connection} to this context,
+   * starting the read-only transaction, and returns the shared
+   * {@link Connection} to use in its place.  The backing {@link Connection}
+   * is closed when this context is closed.
+   *
+   * @param conn The backing {@link Connection} leased from the pool.
+   *
+   * @return The shared {@link Connection} that ignores calls to
+   *         {@link Connection#close()}.
+   *
+   * @throws IllegalStateException If a {@link Connection} is already
+   *                               attached.
+   * @throws SQLException If a JDBC failure occurs.
+   */
+  public Connection attach(Connection conn) throws SQLException {
+    if (this.connection != null) {
+      throw new IllegalStateException(
+          "A connection is already attached to this context.");
+    }
+
+    // record the original settings
+    this.autoCommit = conn.getAutoCommit();
+    this.readOnly   = conn.isReadOnly();
+    this.isolation  = conn.getTransactionIsolation();
+
+    try {
+      // start the transaction (the pool leases with auto-commit disabled)
+      if (this.autoCommit) conn.setAutoCommit(false);
+
+      // use a consistent snapshot if supported
+      if (conn.getMetaData().supportsTransactionIsolationLevel(
+          TransactionIsolation.REPEATABLE_READ.getIntegerValue()))
+      {
+        TransactionIsolation.REPEATABLE_READ.applyTo(conn);
+      }
+
+      // SQLite does not allow the read-only flag to change once connected
+      if (DatabaseType.detect(conn) != DatabaseType.SQLITE) {
+        conn.setReadOnly(true);
+      }
+
+    } catch (SQLException e) {
+      restore(conn, this.autoCommit, this.readOnly, this.isolation);
+      throw e;
+    }
+
+    this.connection = conn;
+    this.sharedConnection = (Connection) Proxy.newProxyInstance(
+        Connection.class.getClassLoader(),
+        new Class<?>[] { Connection.class },
+        (proxy, method, args) -> {
+          if ("close".equals(method.getName()) && method.getParameterCount() == 0)
+          {
+            return null;
+          }
+          try {
+            return method.invoke(conn, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+
+    return this.sharedConnection;
+  }
+
+  /**
+   * Gets the request-scoped attribute with the specified name.
+   *
+   * @param name The name of the attribute.
+   *
+   * @return The value of the attribute, or <code>null</code> if none.
+   */
+  public Object getAttribute(String name) {
+    return this.attributes.get(name);
+  }
+
+  /**
+   * Sets the request-scoped attribute with the specified name.
+   *
+   * @param name The name of the attribute.
+   * @param value The value for the attribute.
+   */
+  public void setAttribute(String name, Object value) {
+    this.attributes.put(name, value);
+  }
+
+  /**
+   * Releases this context.  If this is the outer-most reference to the
+   * context then the read-only transaction is ended, the original settings
+   * of the backing {@link Connection} are restored and it is closed.
+   */
+  @Override
+  public void close() {
+    if (this.depth <= 0) return;
+    this.depth--;
+    if (this.depth > 0) return;
+
+    // remove from the thread
+    CURRENT.remove();
+    this.attributes.clear();
+
+    // release the connection
+    if (this.connection != null) {
+      try {
+        this.connection.rollback();
+      } catch (SQLException e) {
+        logWarning(e, "Failed to end the data mart request transaction");
+      }
+      restore(this.connection, this.autoCommit, this.readOnly, this.isolation);
+      this.connection = SQLUtilities.close(this.connection);
+      this.sharedConnection = null;
+    }
+  }
+
+  /**
+   * Restores the specified settings on the specified {@link Connection},
+   * logging rather than throwing any failure.
+   *
+   * @param conn The {@link Connection} to restore.
+   * @param autoCommit The auto-commit setting to restore.
+   * @param readOnly The read-only flag to restore.
+   * @param isolation The transaction isolation to restore.
+   */
+  private static void restore(Connection conn,
+                              boolean    autoCommit,
+                              boolean    readOnly,
+                              int        isolation)
+  {
+    try {
+      if (conn.isReadOnly() != readOnly) conn.setReadOnly(readOnly);
+      if (conn.getTransactionIsolation() != isolation) {
+        conn.setTransactionIsolation(isolation);
+      }
+      if (conn.getAutoCommit() != autoCommit) conn.setAutoCommit(autoCommit);
+
+    } catch (SQLException e) {
+      logWarning(e, "Failed to restore the data mart connection settings");
+    }
+  }
+}
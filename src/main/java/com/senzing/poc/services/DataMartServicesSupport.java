@@ -4,21 +4,38 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.BadRequestException;
+import javax.ws.rs.RedirectionException;
 import javax.ws.rs.ServiceUnavailableException;
 import javax.ws.rs.InternalServerErrorException;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.senzing.util.Timers;
 import com.senzing.api.services.ServicesSupport;
 import com.senzing.api.model.SzHttpMethod;
 import com.senzing.poc.server.SzPocProvider;
+import com.senzing.poc.server.SzDataMartCountCache;
+import com.senzing.poc.server.SzDataMartResponseCache;
 import com.senzing.poc.model.SzBoundType;
 import com.senzing.poc.model.SzEntitiesPage;
 import com.senzing.poc.model.SzRelationsPage;
@@ -50,6 +67,16 @@ public interface DataMartServicesSupport extends ServicesSupport {
    */
   final int SAMPLE_SIZE_MULTIPLIER = 20;
 
+  /**
+   * The JDBC fetch size used when streaming entities for export.
+   */
+  final int EXPORT_FETCH_SIZE = 1000;
+
+  /**
+   * The media type for newline-delimited JSON.
+   */
+  final String APPLICATION_NDJSON = "application/x-ndjson";
+
   /**
    * The number of milliseconds to wait for the data mart replicator to become
    * ready before throwing a {@link ServiceUnavailableException}.
@@ -91,7 +118,10 @@ public interface DataMartServicesSupport extends ServicesSupport {
    * Gets the {@link Connection} from the underlying {@link SzReplicationProvider}
    * for use in accessing the data mart. The caller must call {@link #close()} on
    * this {@link Connection} when done using it in order to make it available for
-   * other use by other operations.
+   * other use by other operations.  If a {@link DataMartRequestContext} is
+   * active on the current thread then its shared {@link Connection} is
+   * returned instead (attaching a newly leased {@link Connection} to the
+   * context if it does not yet have one).
    * 
    * @param httpMethod The {@link SzHttpMethod} of the request.
    * @param uriInfo    The {@link UriInfo} for the request.
@@ -114,18 +144,242 @@ public interface DataMartServicesSupport extends ServicesSupport {
    */
   default Connection getConnection(SzHttpMethod httpMethod, UriInfo uriInfo, Timers timers, SzPocProvider provider)
       throws SQLException, ServiceUnavailableException, InternalServerErrorException {
+    // check for a shared connection for the request
+    DataMartRequestContext context = DataMartRequestContext.getCurrent();
+    if (context != null && context.getConnection() != null) {
+      return context.getConnection();
+    }
+
     SzReplicationProvider repProvider = this.getReplicationProvider(httpMethod, uriInfo, timers, provider);
 
     ConnectionProvider connProvider = repProvider.getConnectionProvider();
 
-    return connProvider.getConnection();
+    Connection conn = connProvider.getConnection();
+
+    // attach to the request context if we have one
+    if (context != null) {
+      try {
+        conn = context.attach(conn);
+      } catch (SQLException e) {
+        conn = close(conn);
+        throw e;
+      }
+    }
+
+    return conn;
+  }
+
+  /**
+   * Gets the key for caching the result of a statistics request which is
+   * formed from the path of the request and its query parameters sorted by
+   * name and value.
+   *
+   * @param uriInfo The {@link UriInfo} for the request.
+   *
+   * @return The key for caching the result of the request.
+   */
+  default String getStatisticsCacheKey(UriInfo uriInfo) {
+    StringBuilder sb = new StringBuilder(uriInfo.getPath());
+    MultivaluedMap<String, String> params = uriInfo.getQueryParameters();
+    char prefix = '?';
+    for (String name : new TreeSet<>(params.keySet())) {
+      List<String> values = new ArrayList<>(params.get(name));
+      Collections.sort(values);
+      for (String value : values) {
+        sb.append(prefix).append(name).append('=').append(value.trim());
+        prefix = '&';
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Gets the current generation of the {@link SzDataMartResponseCache} from
+   * the specified {@link SzPocProvider}.  This should be obtained before
+   * computing a result that will be {@linkplain #cacheStatistics(UriInfo,
+   * String, long, Object, HttpServletResponse, SzPocProvider) cached}.
+   *
+   * @param provider The {@link SzPocProvider} for the request.
+   *
+   * @return The current generation of the response cache.
+   */
+  default long getStatisticsGeneration(SzPocProvider provider) {
+    return provider.getDataMartResponseCache().getGeneration();
+  }
+
+  /**
+   * Gets the cached result for the specified statistics request if one is
+   * available.  If the cached result has an entity tag that matches the
+   * specified <code>If-None-Match</code> header value then a
+   * {@link RedirectionException} with a <code>304 Not Modified</code>
+   * response is thrown.  Otherwise, the entity tag of the cached result is
+   * set on the specified {@link HttpServletResponse}.
+   *
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @param ifNoneMatch The value of the <code>If-None-Match</code> header, or
+   *                    <code>null</code> if not specified.
+   * @param response The {@link HttpServletResponse} for the request, or
+   *                 <code>null</code> if not available.
+   * @param provider The {@link SzPocProvider} for the request.
+   * @param resultClass The {@link Class} of the expected result.
+   *
+   * @return The cached result, or <code>null</code> if none is available.
+   *
+   * @throws RedirectionException With a <code>304 Not Modified</code>
+   *                              response if the cached result is not
+   *                              modified.
+   */
+  default <T> T getCachedStatistics(UriInfo             uriInfo,
+                                    String              ifNoneMatch,
+                                    HttpServletResponse response,
+                                    SzPocProvider       provider,
+                                    Class<T>            resultClass)
+      throws RedirectionException
+  {
+    SzDataMartResponseCache cache = provider.getDataMartResponseCache();
+    SzDataMartResponseCache.Entry entry
+        = cache.get(this.getStatisticsCacheKey(uriInfo));
+    if (entry == null || !resultClass.isInstance(entry.getResult())) {
+      return null;
+    }
+
+    // check if the client already has the result
+    String entityTag = entry.getEntityTag();
+    if (matchesEntityTag(ifNoneMatch, entityTag)) {
+      throw newNotModifiedException(entityTag);
+    }
+
+    setEntityTag(response, entityTag);
+    return resultClass.cast(entry.getResult());
+  }
+
+  /**
+   * Caches the specified result of a statistics request (provided the
+   * specified generation is still current) and sets the entity tag for the
+   * result on the specified {@link HttpServletResponse}.  If the generation
+   * is {@linkplain SzDataMartCountCache#UNSETTLED unsettled} then the data
+   * mart has pending updates so the result is neither cached nor given an
+   * entity tag, since a client could otherwise keep confirming a result
+   * that is about to change.  The entity tag is
+   * a hash of the JSON representation of the result so that it stays the
+   * same across generations if the result has not changed.  If the entity
+   * tag matches the specified <code>If-None-Match</code> header value then a
+   * {@link RedirectionException} with a <code>304 Not Modified</code>
+   * response is thrown so that a client is not sent a result it already has
+   * just because the cached entry was evicted or invalidated.
+   *
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @param ifNoneMatch The value of the <code>If-None-Match</code> header, or
+   *                    <code>null</code> if not specified.
+   * @param generation The {@linkplain #getStatisticsGeneration(SzPocProvider)
+   *                   generation} obtained before computing the result.
+   * @param result The result to cache.
+   * @param response The {@link HttpServletResponse} for the request, or
+   *                 <code>null</code> if not available.
+   * @param provider The {@link SzPocProvider} for the request.
+   *
+   * @throws RedirectionException With a <code>304 Not Modified</code>
+   *                              response if the result is not modified.
+   */
+  default void cacheStatistics(UriInfo              uriInfo,
+                               String               ifNoneMatch,
+                               long                 generation,
+                               Object               result,
+                               HttpServletResponse  response,
+                               SzPocProvider        provider)
+      throws RedirectionException
+  {
+    if (generation == SzDataMartCountCache.UNSETTLED) return;
+
+    String entityTag = null;
+    try {
+      ObjectMapper mapper = new ObjectMapper();
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(mapper.writeValueAsBytes(result));
+      entityTag = "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(
+          Arrays.copyOf(hash, 16)) + "\"";
+
+    } catch (Exception e) {
+      logWarning(e, "Failed to compute entity tag for statistics result");
+      return;
+    }
+
+    SzDataMartResponseCache cache = provider.getDataMartResponseCache();
+    cache.put(this.getStatisticsCacheKey(uriInfo), generation, result, entityTag);
+
+    // check if the client already has the result
+    if (matchesEntityTag(ifNoneMatch, entityTag)) {
+      throw newNotModifiedException(entityTag);
+    }
+    setEntityTag(response, entityTag);
+  }
+
+  /**
+   * Creates a {@link RedirectionException} with a <code>304 Not
+   * Modified</code> response for the specified entity tag.
+   *
+   * @param entityTag The quoted entity tag.
+   *
+   * @return The {@link RedirectionException} with the <code>304 Not
+   *         Modified</code> response.
+   */
+  private static RedirectionException newNotModifiedException(String entityTag)
+  {
+    return new RedirectionException(
+        Response.notModified()
+            .header(HttpHeaders.ETAG, entityTag)
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .build());
+  }
+
+  /**
+   * Checks if the specified <code>If-None-Match</code> header value matches
+   * the specified entity tag.
+   *
+   * @param ifNoneMatch The value of the <code>If-None-Match</code> header, or
+   *                    <code>null</code> if not specified.
+   * @param entityTag The quoted entity tag to check.
+   *
+   * @return <code>true</code> if the header matches the entity tag,
+   *         otherwise <code>false</code>.
+   */
+  private static boolean matchesEntityTag(String ifNoneMatch, String entityTag)
+  {
+    if (ifNoneMatch == null) return false;
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.equals("*")) return true;
+      if (tag.startsWith("W/")) tag = tag.substring(2);
+      if (tag.equals(entityTag)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Sets the entity tag header on the specified {@link HttpServletResponse}
+   * along with a <code>Cache-Control</code> header that requires clients to
+   * revalidate.
+   *
+   * @param response The {@link HttpServletResponse}, or <code>null</code> if
+   *                 not available.
+   * @param entityTag The quoted entity tag.
+   */
+  private static void setEntityTag(HttpServletResponse  response,
+                                   String               entityTag)
+  {
+    if (response == null) return;
+    response.setHeader(HttpHeaders.ETAG, entityTag);
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
   }
 
   /**
    * Gets the {@link SzReplicationProvider} from the specified
    * {@link SzPocProvider} and ensures it is ready to use before returning it.
-   * This will wait at most {@link #REPLICATOR_READY_WAIT_TIME} milliseconds for
-   * the replicator to become ready to use.
+   * Once the replicator is ready this returns immediately using the cached
+   * {@linkplain SzPocProvider#getDataMartReadiness() readiness}.  Until then
+   * this will wait at most {@link #REPLICATOR_READY_WAIT_TIME} milliseconds for
+   * the replicator to become ready to use, unless the maximum number of
+   * requests are already waiting in which case this fails immediately.
    * 
    * @param httpMethod The {@link SzHttpMethod} of the request.
    * @param uriInfo    The {@link UriInfo} for the request.
@@ -150,7 +404,8 @@ public interface DataMartServicesSupport extends ServicesSupport {
     Boolean ready = null;
     try {
       // ensure it is ready
-      ready = replicationProvider.waitUntilReady(REPLICATOR_READY_WAIT_TIME);
+      ready = provider.getDataMartReadiness().awaitReady(
+          REPLICATOR_READY_WAIT_TIME);
 
     } catch (InterruptedException e) {
       throw this.newInternalServerErrorException(httpMethod, uriInfo, timers, e);
@@ -174,7 +429,10 @@ public interface DataMartServicesSupport extends ServicesSupport {
 
   /**
    * Retrieves a page of entity ID's for a specific report key with the specified
-   * bound applied.
+   * bound applied.  This is equivalent to calling {@link
+   * #retrieveEntitiesPage(SzHttpMethod, UriInfo, Timers, SzPocProvider, String,
+   * String, SzBoundType, String, Integer, Integer, boolean)} with a
+   * <code>null</code> cursor and requesting the page counts.
    * 
    * @param httpMethod    The {@link SzHttpMethod} being invoked.
    * @param uriInfo       The {@link UriInfo} for the REST invocation.
@@ -217,6 +475,78 @@ public interface DataMartServicesSupport extends ServicesSupport {
       throws BadRequestException,
       ServiceUnavailableException,
       InternalServerErrorException {
+    return this.retrieveEntitiesPage(httpMethod,
+                                     uriInfo,
+                                     timers,
+                                     provider,
+                                     reportKey,
+                                     entityIdBound,
+                                     boundType,
+                                     null,
+                                     pageSize,
+                                     sampleSize,
+                                     true);
+  }
+
+  /**
+   * Retrieves a page of entity ID's for a specific report key with the specified
+   * bound or cursor applied.  If a cursor is specified then it must have been
+   * obtained from a previously returned {@link SzEntitiesPage} and the bound
+   * must <b>not</b> be specified since the cursor encodes both the bound and
+   * the {@link SzBoundType}.  The total, "before" and "after" counts require
+   * additional queries against the data mart and are only computed if
+   * requested.
+   * 
+   * @param httpMethod    The {@link SzHttpMethod} being invoked.
+   * @param uriInfo       The {@link UriInfo} for the REST invocation.
+   * @param timers        The {@link Timers} used for instrumenting the request.
+   * @param provider      The {@link SzPocProvider} for the request context.
+   * @param reportKey     The report key identifying the report with which the
+   *                      entity ID's are associated.
+   * @param entityIdBound The bounded value for the returned entity ID's.
+   * @param boundType     The {@link SzBoundType} describing how the entity ID
+   *                      bound value is applied in retrieving the page.
+   * @param cursor        The optional opaque cursor from a previous page that
+   *                      encodes both the bound and the {@link SzBoundType}.
+   * @param pageSize      The optional maximum number of entity ID's to return.
+   * @param sampleSize    The optional number of results to randomly sample from
+   *                      the page, which, if specified, must be strictly
+   *                      less-than the page size.
+   * @param withCounts    <code>true</code> if the total, "before" and "after"
+   *                      entity counts should be computed, otherwise
+   *                      <code>false</code>.
+   * 
+   * @return The {@link SzEntitiesPage} describing the entities on the page.
+   * 
+   * @throws BadRequestException          If the specified page size or sample
+   *                                      size is less than one (1), if the
+   *                                      sample size is specified and is
+   *                                      greater-than or equal to the sample
+   *                                      size, if both a bound and a cursor
+   *                                      are specified or if the cursor is
+   *                                      not valid.
+   * @throws ServiceUnavailableException  If the {@link SzReplicationProvider} is
+   *                                      not yet ready to use after waiting
+   *                                      {@link #REPLICATION_READY_WAIT_TIME}
+   *                                      milliseconds.
+   * @throws InternalServerErrorException If the {@link SzReplicationProvider}
+   *                                      indicates that it will never be ready to
+   *                                      use.
+   */
+  default SzEntitiesPage retrieveEntitiesPage(SzHttpMethod httpMethod,
+      UriInfo uriInfo,
+      Timers timers,
+      SzPocProvider provider,
+      String reportKey,
+      String entityIdBound,
+      SzBoundType boundType,
+      String cursor,
+      Integer pageSize,
+      Integer sampleSize,
+      boolean withCounts)
+      throws BadRequestException,
+      ServiceUnavailableException,
+      InternalServerErrorException {
     // check the request parameters
     if (pageSize != null && pageSize < 1) {
       throw this.newBadRequestException(httpMethod, uriInfo, timers,
@@ -232,6 +562,23 @@ public interface DataMartServicesSupport extends ServicesSupport {
               + ") must be strictly less-than the page size (" + pageSize + ")");
     }
 
+    // check if a cursor was specified
+    if (cursor != null) {
+      if (entityIdBound != null) {
+        throw this.newBadRequestException(httpMethod, uriInfo, timers,
+            "The entity ID bound cannot be specified with a cursor: " + entityIdBound);
+      }
+      try {
+        PageCursor pageCursor = PageCursor.parse(cursor);
+        entityIdBound = pageCursor.getBound();
+        boundType = pageCursor.getBoundType();
+
+      } catch (IllegalArgumentException e) {
+        throw this.newBadRequestException(httpMethod, uriInfo, timers,
+            "The specified cursor is not valid: " + cursor);
+      }
+    }
+
     // default the page size if not specified
     if (pageSize == null) {
       pageSize = (sampleSize == null) ? DEFAULT_PAGE_SIZE : SAMPLE_SIZE_MULTIPLIER * sampleSize;
@@ -268,6 +615,9 @@ public interface DataMartServicesSupport extends ServicesSupport {
     long maxEntityId = -1L;
     int resultCount = 0;
 
+    // track if there are more results beyond the page in the bound direction
+    boolean morePages = false;
+
     // prepare the result object the rest of the page
     SzEntitiesPage page = SzEntitiesPage.FACTORY.create();
     page.setBound(entityIdBound);
@@ -285,17 +635,6 @@ public interface DataMartServicesSupport extends ServicesSupport {
       conn = this.getConnection(httpMethod, uriInfo, timers, provider);
 
       StringBuilder sb = new StringBuilder();
-      sb.append("SELECT t1.entity_id, t2.entity_name,"
-          + " t2.record_count, t2.relation_count,"
-          + " t3.data_source, t3.record_id,"
-          + " t3.match_key, t3.errule_code "
-          + "FROM sz_dm_report_detail t1 "
-          + "LEFT OUTER JOIN sz_dm_entity t2 "
-          + "ON t1.entity_id = t2.entity_id "
-          + "LEFT OUTER JOIN sz_dm_record t3 "
-          + "ON t1.entity_id = t3.entity_id "
-          + "WHERE t1.entity_id IN ( ");
-
       sb.append("SELECT entity_id FROM sz_dm_report_detail "
           + "WHERE report_key = ? AND related_id = 0 AND entity_id ");
 
@@ -317,17 +656,95 @@ public interface DataMartServicesSupport extends ServicesSupport {
           throw new IllegalStateException("Unhandled bound type: " + boundType);
       }
 
-      // handle the page size
+      // handle the page size (reading one extra entity ID so we can detect if
+      // there are more results in the bound direction without a count query)
       sb.append("LIMIT ?");
-      sb.append(") ORDER BY t1.entity_id, t3.data_source, t3.record_id");
+      String innerQuery = sb.toString();
+      sb.delete(0, sb.length());
+
+      // if sampling then select the entity ID's for the page without joining
+      // the records and pick the sample so only sampled entities are read
+      long[] sampleIds = null;
+      if (sampleSize != null) {
+        ps = conn.prepareStatement(innerQuery);
+        ps.setString(1, reportKey);
+        ps.setLong(2, boundValue);
+        ps.setInt(3, pageSize + 1);
+        rs = ps.executeQuery();
+
+        long[] pageIds = new long[pageSize + 1];
+        int idCount = 0;
+        while (rs.next()) {
+          pageIds[idCount++] = rs.getLong(1);
+        }
+        rs = close(rs);
+        ps = close(ps);
+
+        // determine the results for the page before sampling
+        morePages = (idCount > pageSize);
+        resultCount = Math.min(idCount, pageSize);
+        for (int index = 0; index < resultCount; index++) {
+          long entityId = pageIds[index];
+          if (minEntityId < 0L || entityId < minEntityId) {
+            minEntityId = entityId;
+          }
+          if (maxEntityId < 0L || entityId > maxEntityId) {
+            maxEntityId = entityId;
+          }
+        }
+
+        // pick the sample from the page
+        if (resultCount > sampleSize) {
+          // set the page minimum and maximum value
+          page.setPageMinimumValue(minEntityId);
+          page.setPageMaximumValue(maxEntityId);
+
+          int[] indices = randomSampleIndices(resultCount, sampleSize);
+          sampleIds = new long[indices.length];
+          for (int index = 0; index < indices.length; index++) {
+            sampleIds[index] = pageIds[indices[index]];
+          }
+
+        } else if (resultCount > 0) {
+          sampleIds = Arrays.copyOf(pageIds, resultCount);
+        }
+      }
+
+      // now the outer query to join the entities with their records
+      sb.append("SELECT t1.entity_id, t2.entity_name,"
+          + " t2.record_count, t2.relation_count,"
+          + " t3.data_source, t3.record_id,"
+          + " t3.match_key, t3.errule_code "
+          + "FROM sz_dm_report_detail t1 "
+          + "LEFT OUTER JOIN sz_dm_entity t2 "
+          + "ON t1.entity_id = t2.entity_id "
+          + "LEFT OUTER JOIN sz_dm_record t3 "
+          + "ON t1.entity_id = t3.entity_id "
+          + "WHERE t1.entity_id IN (");
+      if (sampleIds == null) {
+        sb.append(innerQuery);
+      } else {
+        for (int index = 0; index < sampleIds.length; index++) {
+          sb.append((index == 0) ? "?" : ", ?");
+        }
+      }
+      sb.append(") ORDER BY t1.entity_id ");
+      sb.append(boundType.isLower() ? "ASC" : "DESC");
+      sb.append(", t3.data_source, t3.record_id");
 
       // prepare the statement
       ps = conn.prepareStatement(sb.toString());
 
       // bind the parameters
-      ps.setString(1, reportKey);
-      ps.setLong(2, boundValue);
-      ps.setInt(3, pageSize);
+      if (sampleIds == null) {
+        ps.setString(1, reportKey);
+        ps.setLong(2, boundValue);
+        ps.setInt(3, pageSize + 1);
+      } else {
+        for (int index = 0; index < sampleIds.length; index++) {
+          ps.setLong(index + 1, sampleIds[index]);
+        }
+      }
 
       // execute the query
       rs = ps.executeQuery();
@@ -369,8 +786,10 @@ public interface DataMartServicesSupport extends ServicesSupport {
           // set the entity to null
           entity = null;
 
-          // break out if we hit the maximum number of results
+          // break out if we hit the maximum number of results (since we
+          // are on the row for another entity, there are more pages)
           if (pageResults.size() >= pageSize) {
+            morePages = true;
             break;
           }
         }
@@ -406,107 +825,118 @@ public interface DataMartServicesSupport extends ServicesSupport {
         }
       }
 
-      // get the actual count of results on the page
-      resultCount = pageResults.size();
-
-      // now filter the results if we have a sample size
-      if (sampleSize != null && pageResults.size() > sampleSize) {
-        // set the page minimum and maximum value
-        page.setPageMinimumValue(minEntityId);
-        page.setPageMaximumValue(maxEntityId);
-
-        // create a list of indices
-        List<Integer> indices = new ArrayList<>();
-        for (int index = 0; index < resultCount; index++) {
-          indices.add(index);
-        }
-
-        // shuffle the list of indices
-        Collections.shuffle(indices);
-
-        // determine how many results to filter out
-        int filterCount = resultCount - sampleSize;
-
-        // now eliminate the filtered results using first N indices
-        for (int index = 0; index < filterCount; index++) {
-          int resultIndex = indices.get(index);
-          pageResults.set(resultIndex, null);
-        }
+      // get the actual count of results on the page (unless sampling in
+      // which case it was determined before the sample was picked)
+      if (sampleSize == null) {
+        resultCount = pageResults.size();
       }
 
-      // add the non-filtered results to the page
-      pageResults.forEach(resultEntity -> {
-        // check if the result was filtered out from random sampling
-        if (resultEntity != null) {
-          // the result was not filtered so add it to the page
-          page.addEntity(resultEntity);
-        }
-      });
+      // add the results to the page
+      pageResults.forEach(resultEntity -> page.addEntity(resultEntity));
     } catch (WebApplicationException e) {
+      conn = close(conn);
       throw e;
 
     } catch (Exception e) {
+      conn = close(conn);
       throw this.newInternalServerErrorException(httpMethod, uriInfo, timers, e);
 
     } finally {
       this.queriedDatabase(timers, "selectPagedEntities");
+      if (!withCounts) {
+        rs = close(rs);
+        ps = close(ps);
+        conn = close(conn);
+      }
     }
 
-    // now get the total entity ID count
-    long totalCount = 0L;
-    this.queryingDatabase(timers, "selectTotalEntityPageCount");
-    try {
-      // prepare the query
-      ps = conn.prepareStatement(
-          "SELECT COUNT(*) FROM sz_dm_report_detail "
-              + "WHERE report_key = ? AND related_id = 0");
-      ps.setString(1, reportKey);
-      rs = ps.executeQuery();
-      rs.next();
-      totalCount = rs.getLong(1);
-      rs = close(rs);
-      ps = close(ps);
-
-    } catch (WebApplicationException e) {
-      throw e;
-
-    } catch (Exception e) {
-      throw this.newInternalServerErrorException(httpMethod, uriInfo, timers, e);
+    // determine if there are pages before and after this page without counts
+    boolean beforePages = (boundType.isLower()) ? (boundValue > 0L) : morePages;
+    boolean afterPages = (boundType.isLower()) ? morePages : (boundValue < Long.MAX_VALUE);
 
-    } finally {
-      this.queriedDatabase(timers, "selectTotalEntityPageCount");
-      rs = close(rs);
-      ps = close(ps);
+    // check if we are skipping the counts
+    if (!withCounts) {
+      setEntitiesPageCursors(page, boundType, boundValue, resultCount,
+          minEntityId, maxEntityId, beforePages, afterPages);
+      return page;
     }
 
-    // now get the "before" and "after" entity ID count
-    long beforeCount = 0L;
-    long afterCount = 0L;
-    this.queryingDatabase(timers, "selectBeforePageEntityCount");
+    // get the count cache and its generation before counting
+    SzDataMartCountCache countCache = provider.getDataMartCountCache();
+    long generation = countCache.getGeneration();
+
     try {
+      // get the total entity ID count (checking the cache first)
+      String totalKey = "entityTotal:" + reportKey;
+      Long totalCount = countCache.get(totalKey);
+      if (totalCount == null) {
+        this.queryingDatabase(timers, "selectTotalEntityPageCount");
+        try {
+          // prepare the query
+          ps = conn.prepareStatement(
+              "SELECT COUNT(*) FROM sz_dm_report_detail "
+                  + "WHERE report_key = ? AND related_id = 0");
+          ps.setString(1, reportKey);
+          rs = ps.executeQuery();
+          rs.next();
+          totalCount = rs.getLong(1);
+
+        } finally {
+          this.queriedDatabase(timers, "selectTotalEntityPageCount");
+          rs = close(rs);
+          ps = close(ps);
+        }
+        countCache.put(totalKey, generation, totalCount);
+      }
+
+      // now get the "before" and "after" entity ID count
+      long beforeCount = 0L;
       if (resultCount > 0) {
-        ps = conn.prepareStatement("SELECT COUNT(*) FROM sz_dm_report_detail "
-            + "WHERE report_key = ? AND entity_id < ? AND related_id = 0");
+        String beforeKey = "entityBefore:" + reportKey + ":" + minEntityId;
+        Long cachedCount = countCache.get(beforeKey);
+        if (cachedCount != null) {
+          beforeCount = cachedCount;
 
-        ps.setString(1, reportKey);
-        ps.setLong(2, minEntityId);
+        } else {
+          this.queryingDatabase(timers, "selectBeforePageEntityCount");
+          try {
+            ps = conn.prepareStatement("SELECT COUNT(*) FROM sz_dm_report_detail "
+                + "WHERE report_key = ? AND entity_id < ? AND related_id = 0");
 
-        rs = ps.executeQuery();
-        rs.next();
+            ps.setString(1, reportKey);
+            ps.setLong(2, minEntityId);
 
-        beforeCount = rs.getLong(1);
+            rs = ps.executeQuery();
+            rs.next();
 
-        rs = close(rs);
-        ps = close(ps);
+            beforeCount = rs.getLong(1);
+
+          } finally {
+            this.queriedDatabase(timers, "selectBeforePageEntityCount");
+            rs = close(rs);
+            ps = close(ps);
+          }
+          countCache.put(beforeKey, generation, beforeCount);
+        }
       }
+
       // calculate the "after" count from total, page and before count
-      afterCount = totalCount - resultCount - beforeCount;
+      // (guarding against cached counts from slightly different times)
+      long afterCount = Math.max(0L, totalCount - resultCount - beforeCount);
 
       // set the fields on the page
       page.setTotalEntityCount(totalCount);
       page.setBeforePageCount(beforeCount);
       page.setAfterPageCount(afterCount);
 
+      // use the exact counts to determine the cursors when we have results
+      if (resultCount > 0) {
+        beforePages = (beforeCount > 0L);
+        afterPages = (afterCount > 0L);
+      }
+      setEntitiesPageCursors(page, boundType, boundValue, resultCount,
+          minEntityId, maxEntityId, beforePages, afterPages);
+
       // return the page
       return page;
 
@@ -517,13 +947,288 @@ public interface DataMartServicesSupport extends ServicesSupport {
       throw this.newInternalServerErrorException(httpMethod, uriInfo, timers, e);
 
     } finally {
-      this.queriedDatabase(timers, "selectBeforePageEntityCount");
       rs = close(rs);
       ps = close(ps);
       conn = close(conn);
     }
   }
 
+  /**
+   * Streams all the entities for the specified report key in ascending
+   * order of entity ID as newline-delimited JSON.  The query is executed
+   * before this method returns so that failures can be reported with an
+   * appropriate HTTP status, but the rows are read through a single
+   * forward-only cursor (using {@link #EXPORT_FETCH_SIZE} as the fetch size)
+   * as the returned {@link StreamingOutput} is written so that the full set
+   * of entities is never held in memory.  The JDBC resources are released
+   * when the {@link StreamingOutput} has been written.
+   *
+   * @param httpMethod The {@link SzHttpMethod} of the request.
+   * @param uriInfo    The {@link UriInfo} for the request.
+   * @param timers     The {@link Timers} for the request.
+   * @param provider   The {@link SzPocProvider} associated with the request.
+   * @param reportKey  The report key for which to export the entities.
+   *
+   * @return The {@link StreamingOutput} that writes the entities.
+   *
+   * @throws ServiceUnavailableException  If the data mart is not yet ready to
+   *                                      service a request.
+   * @throws InternalServerErrorException If an internal error occurs.
+   */
+  default StreamingOutput streamEntities(SzHttpMethod   httpMethod,
+                                         UriInfo        uriInfo,
+                                         Timers         timers,
+                                         SzPocProvider  provider,
+                                         String         reportKey)
+      throws ServiceUnavailableException, InternalServerErrorException
+  {
+    Connection conn = null;
+    PreparedStatement ps = null;
+    ResultSet rs = null;
+    boolean autoCommit = true;
+    this.queryingDatabase(timers, "selectExportEntities");
+    try {
+      // get the connection to the database
+      conn = this.getConnection(httpMethod, uriInfo, timers, provider);
+      autoCommit = conn.getAutoCommit();
+
+      // PostgreSQL only honors the fetch size with auto-commit disabled,
+      // otherwise the entire result set is read into memory
+      if (DatabaseType.detect(conn) == DatabaseType.POSTGRESQL) {
+        conn.setAutoCommit(false);
+      }
+
+      // prepare the statement
+      ps = conn.prepareStatement(
+          "SELECT t1.entity_id, t2.entity_name,"
+          + " t2.record_count, t2.relation_count,"
+          + " t3.data_source, t3.record_id,"
+          + " t3.match_key, t3.errule_code "
+          + "FROM sz_dm_report_detail t1 "
+          + "LEFT OUTER JOIN sz_dm_entity t2 "
+          + "ON t1.entity_id = t2.entity_id "
+          + "LEFT OUTER JOIN sz_dm_record t3 "
+          + "ON t1.entity_id = t3.entity_id "
+          + "WHERE t1.report_key = ? AND t1.related_id = 0 "
+          + "ORDER BY t1.entity_id, t3.data_source, t3.record_id",
+          ResultSet.TYPE_FORWARD_ONLY,
+          ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(EXPORT_FETCH_SIZE);
+
+      // bind the parameters
+      ps.setString(1, reportKey);
+
+      // execute the query
+      rs = ps.executeQuery();
+
+    } catch (WebApplicationException e) {
+      rs = close(rs);
+      ps = close(ps);
+      conn = releaseExportConnection(conn, autoCommit);
+      throw e;
+
+    } catch (Exception e) {
+      rs = close(rs);
+      ps = close(ps);
+      conn = releaseExportConnection(conn, autoCommit);
+      throw this.newInternalServerErrorException(
+          httpMethod, uriInfo, timers, e);
+
+    } finally {
+      this.queriedDatabase(timers, "selectExportEntities");
+    }
+
+    // the JDBC resources are now owned by the streaming output
+    final Connection exportConn = conn;
+    final PreparedStatement exportPS = ps;
+    final ResultSet exportRS = rs;
+    final boolean restoreAutoCommit = autoCommit;
+    return (output) -> {
+      try {
+        writeEntities(exportRS, output);
+
+      } catch (SQLException e) {
+        throw new IOException(e);
+
+      } finally {
+        close(exportRS);
+        close(exportPS);
+        releaseExportConnection(exportConn, restoreAutoCommit);
+      }
+    };
+  }
+
+  /**
+   * Reads the entities and their records from the specified {@link ResultSet}
+   * and writes each {@link SzEntity} as a line of JSON text to the specified
+   * {@link OutputStream}.  Only one {@link SzEntity} is held in memory at any
+   * given time.
+   *
+   * @param rs The {@link ResultSet} from which to read the entities.
+   * @param output The {@link OutputStream} to write the entities to.
+   *
+   * @return The number of entities that were written.
+   *
+   * @throws SQLException If a JDBC failure occurs.
+   * @throws IOException If an I/O failure occurs.
+   */
+  private static long writeEntities(ResultSet rs, OutputStream output)
+      throws SQLException, IOException
+  {
+    ObjectMapper  mapper  = new ObjectMapper();
+    OutputStream  os      = new BufferedOutputStream(output);
+    long          count   = 0L;
+
+    SzEntity entity = null;
+    while (rs.next()) {
+      // get the fields
+      long entityId = rs.getLong(1);
+      String entityName = getString(rs, 2);
+      Integer recordCount = getInt(rs, 3);
+      Integer relationCount = getInt(rs, 4);
+      String dataSource = getString(rs, 5);
+      String recordId = getString(rs, 6);
+      String matchKey = getString(rs, 7);
+      String principle = getString(rs, 8);
+
+      // check if we need to finish with the entity
+      if (entity != null && entity.getEntityId() != entityId) {
+        os.write(mapper.writeValueAsBytes(entity));
+        os.write('\n');
+        count++;
+        entity = null;
+      }
+
+      // check if the entity is null
+      if (entity == null) {
+        entity = SzEntity.FACTORY.create(entityId, entityName);
+        entity.setRecordCount(recordCount);
+        entity.setRelationCount(relationCount);
+      }
+
+      // add the record to the entity
+      if (dataSource != null && recordId != null) {
+        SzRecord record = SzRecord.FACTORY.create(dataSource, recordId);
+        record.setMatchKey(matchKey);
+        record.setPrinciple(principle);
+        entity.addRecord(record);
+      }
+    }
+
+    // handle the last entity
+    if (entity != null) {
+      os.write(mapper.writeValueAsBytes(entity));
+      os.write('\n');
+      count++;
+    }
+    os.flush();
+
+    return count;
+  }
+
+  /**
+   * Ends the read-only transaction (if any) on the specified
+   * {@link Connection} that was used to export entities, restores its
+   * auto-commit setting and closes it.
+   *
+   * @param conn The {@link Connection} to release, or <code>null</code>.
+   * @param autoCommit The auto-commit setting to restore.
+   *
+   * @return Always returns <code>null</code>.
+   */
+  private static Connection releaseExportConnection(Connection  conn,
+                                                    boolean     autoCommit)
+  {
+    if (conn == null) return null;
+    try {
+      if (!conn.getAutoCommit()) {
+        conn.rollback();
+        conn.setAutoCommit(autoCommit);
+      }
+    } catch (SQLException e) {
+      logWarning(e, "Failed to restore auto-commit on export connection");
+    }
+    return close(conn);
+  }
+
+  /**
+   * Sets the next and previous cursors on the specified {@link SzEntitiesPage}.
+   * If the page has results then the next cursor is an exclusive lower bound on
+   * the maximum entity ID of the page and the previous cursor is an exclusive
+   * upper bound on the minimum entity ID of the page.  If the page is empty
+   * then the cursor in the direction opposite the bound is the complement of
+   * the requested bound.
+   *
+   * @param page        The {@link SzEntitiesPage} on which to set the cursors.
+   * @param boundType   The {@link SzBoundType} that was applied.
+   * @param boundValue  The entity ID bound value that was applied.
+   * @param resultCount The number of results on the page prior to sampling.
+   * @param minEntityId The minimum entity ID on the page prior to sampling.
+   * @param maxEntityId The maximum entity ID on the page prior to sampling.
+   * @param beforePages <code>true</code> if there are entities preceding the
+   *                    page, otherwise <code>false</code>.
+   * @param afterPages  <code>true</code> if there are entities following the
+   *                    page, otherwise <code>false</code>.
+   */
+  private static void setEntitiesPageCursors(SzEntitiesPage page,
+                                             SzBoundType boundType,
+                                             long boundValue,
+                                             int resultCount,
+                                             long minEntityId,
+                                             long maxEntityId,
+                                             boolean beforePages,
+                                             boolean afterPages)
+  {
+    String bound = (boundValue == Long.MAX_VALUE) ? "max" : String.valueOf(boundValue);
+    if (resultCount > 0) {
+      if (afterPages) {
+        page.setNextCursor(new PageCursor(
+            EXCLUSIVE_LOWER, String.valueOf(maxEntityId)).encode());
+      }
+      if (beforePages) {
+        page.setPreviousCursor(new PageCursor(
+            EXCLUSIVE_UPPER, String.valueOf(minEntityId)).encode());
+      }
+
+    } else if (boundType.isLower() && boundValue > 0L) {
+      page.setPreviousCursor(new PageCursor(
+          boundType.isInclusive() ? EXCLUSIVE_UPPER : INCLUSIVE_UPPER,
+          bound).encode());
+
+    } else if (boundType.isUpper() && boundValue < Long.MAX_VALUE) {
+      page.setNextCursor(new PageCursor(
+          boundType.isInclusive() ? EXCLUSIVE_LOWER : INCLUSIVE_LOWER,
+          bound).encode());
+    }
+  }
+
+  /**
+   * Randomly selects the specified number of distinct indices from the range
+   * of zero (inclusive) to the specified count (exclusive) using a partial
+   * Fisher-Yates shuffle.  The returned indices are sorted in ascending order.
+   *
+   * @param count The number of indices from which to select.
+   * @param sampleSize The number of indices to select.
+   *
+   * @return The sorted array of selected indices.
+   */
+  private static int[] randomSampleIndices(int count, int sampleSize) {
+    int[] indices = new int[count];
+    for (int index = 0; index < count; index++) {
+      indices[index] = index;
+    }
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int index = 0; index < sampleSize; index++) {
+      int swapIndex = index + random.nextInt(count - index);
+      int temp = indices[index];
+      indices[index] = indices[swapIndex];
+      indices[swapIndex] = temp;
+    }
+    int[] result = Arrays.copyOf(indices, sampleSize);
+    Arrays.sort(result);
+    return result;
+  }
+
   /**
    * Gets a {@link String} from a {@link ResultSet} and returns
    * <code>null</code> if the SQL value was NULL.
@@ -769,6 +1474,71 @@ public interface DataMartServicesSupport extends ServicesSupport {
       String innerQuery = sb.toString();
       sb.delete(0, sb.length());
 
+      // if sampling then select the relation ID's for the page without
+      // joining the entities and records and pick the sample so only the
+      // sampled relations are read
+      long[] sampleIds = null;
+      if (sampleSize != null) {
+        ps = conn.prepareStatement(innerQuery);
+        ps.setString(1, reportKey);
+        ps.setLong(2, entityIdBound);
+        ps.setLong(3, relatedIdBound);
+        ps.setLong(4, entityIdBound);
+        ps.setInt(5, pageSize);
+        rs = ps.executeQuery();
+
+        // the entity ID and related ID pairs are stored consecutively
+        long[] pageIds = new long[pageSize * 2];
+        while (rs.next()) {
+          long entityId = rs.getLong(1);
+          long relatedId = rs.getLong(2);
+          pageIds[resultCount * 2] = entityId;
+          pageIds[resultCount * 2 + 1] = relatedId;
+          resultCount++;
+
+          // track the minimums and maximums
+          if (minEntityId < 0L || entityId < minEntityId
+              || (entityId == minEntityId && relatedId < minRelatedId)) {
+            minEntityId = entityId;
+            minRelatedId = relatedId;
+          }
+          if (maxEntityId < 0L || entityId > maxEntityId
+              || (entityId == maxEntityId && relatedId > maxRelatedId)) {
+            maxEntityId = entityId;
+            maxRelatedId = relatedId;
+          }
+        }
+        rs = close(rs);
+        ps = close(ps);
+
+        // pick the sample from the page
+        if (resultCount > sampleSize) {
+          // set the page minimum and maximum values
+          page.setPageMinimumValue(minEntityId + ":" + minRelatedId);
+          page.setPageMaximumValue(maxEntityId + ":" + maxRelatedId);
+
+          int[] indices = randomSampleIndices(resultCount, sampleSize);
+          sampleIds = new long[indices.length * 2];
+          for (int index = 0; index < indices.length; index++) {
+            sampleIds[index * 2] = pageIds[indices[index] * 2];
+            sampleIds[index * 2 + 1] = pageIds[indices[index] * 2 + 1];
+          }
+
+        } else if (resultCount > 0) {
+          sampleIds = Arrays.copyOf(pageIds, resultCount * 2);
+        }
+
+        // when sampling use the selected pairs in place of the inner query
+        if (sampleIds != null) {
+          sb.append("VALUES ");
+          for (int index = 0; index < sampleIds.length; index += 2) {
+            sb.append((index == 0) ? "(?, ?)" : ", (?, ?)");
+          }
+          innerQuery = sb.toString();
+          sb.delete(0, sb.length());
+        }
+      }
+
       // now do the outer query
       sb.append("SELECT rel_entity_id, rel_related_id,"
           + " match_type, rel_match_key, rel_errule_code,"
@@ -826,16 +1596,24 @@ public interface DataMartServicesSupport extends ServicesSupport {
       ps = conn.prepareStatement(sb.toString());
 
       // bind the parameters
-      ps.setString(1, reportKey);
-      ps.setLong(2, entityIdBound);
-      ps.setLong(3, relatedIdBound);
-      ps.setLong(4, entityIdBound);
-      ps.setInt(5, pageSize);
-      ps.setString(6, reportKey);
-      ps.setLong(7, entityIdBound);
-      ps.setLong(8, relatedIdBound);
-      ps.setLong(9, entityIdBound);
-      ps.setInt(10, pageSize);
+      if (sampleIds == null) {
+        ps.setString(1, reportKey);
+        ps.setLong(2, entityIdBound);
+        ps.setLong(3, relatedIdBound);
+        ps.setLong(4, entityIdBound);
+        ps.setInt(5, pageSize);
+        ps.setString(6, reportKey);
+        ps.setLong(7, entityIdBound);
+        ps.setLong(8, relatedIdBound);
+        ps.setLong(9, entityIdBound);
+        ps.setInt(10, pageSize);
+      } else {
+        int offset = sampleIds.length;
+        for (int index = 0; index < sampleIds.length; index++) {
+          ps.setLong(index + 1, sampleIds[index]);
+          ps.setLong(offset + index + 1, sampleIds[index]);
+        }
+      }
 
       // execute the query
       rs = ps.executeQuery();
@@ -969,42 +1747,14 @@ public interface DataMartServicesSupport extends ServicesSupport {
         }
       }
 
-      // get the actual count of results on the page
-      resultCount = pageResults.size();
-
-      // now filter the results if we have a sample size
-      if (sampleSize != null && pageResults.size() > sampleSize) {
-        // set the page minimum and maximum values
-        page.setPageMinimumValue(minEntityId + ":" + minRelatedId);
-        page.setPageMaximumValue(maxEntityId + ":" + maxRelatedId);
-
-        // create a list of indices
-        List<Integer> indices = new ArrayList<>();
-        for (int index = 0; index < resultCount; index++) {
-          indices.add(index);
-        }
-
-        // shuffle the list of indices
-        Collections.shuffle(indices);
-
-        // determine how many results to filter out
-        int filterCount = resultCount - sampleSize;
-
-        // now eliminate the filtered results using first N indices
-        for (int index = 0; index < filterCount; index++) {
-          int resultIndex = indices.get(index);
-          pageResults.set(resultIndex, null);
-        }
+      // get the actual count of results on the page (unless sampling in
+      // which case it was determined before the sample was picked)
+      if (sampleSize == null) {
+        resultCount = pageResults.size();
       }
 
-      // add the non-filtered results to the page
-      pageResults.forEach(resultRelation -> {
-        // check if the result was filtered out from random sampling
-        if (resultRelation != null) {
-          // the result was not filtered so add it to the page
-          page.addRelation(resultRelation);
-        }
-      });
+      // add the results to the page
+      pageResults.forEach(resultRelation -> page.addRelation(resultRelation));
     } catch (WebApplicationException e) {
       throw e;
 
@@ -1018,59 +1768,72 @@ public interface DataMartServicesSupport extends ServicesSupport {
       ps = close(ps);
     }
 
-    // now get the total relation count
-    long totalCount = 0L;
-    this.queryingDatabase(timers, "selectTotalRelationsPageCount");
-    try {
-      // prepare the statement
-      ps = conn.prepareStatement(
-          "SELECT COUNT(*) FROM sz_dm_report_detail "
-              + "WHERE report_key = ? AND related_id <> 0");
-      ps.setString(1, reportKey);
-      rs = ps.executeQuery();
-      rs.next();
-      totalCount = rs.getLong(1);
-      rs = close(rs);
-      ps = close(ps);
-
-    } catch (WebApplicationException e) {
-      throw e;
+    // get the count cache and its generation before counting
+    SzDataMartCountCache countCache = provider.getDataMartCountCache();
+    long generation = countCache.getGeneration();
 
-    } catch (Exception e) {
-      throw this.newInternalServerErrorException(
-          httpMethod, uriInfo, timers, e);
-
-    } finally {
-      this.queriedDatabase(timers, "selectTotalRelationsPageCount");
-      rs = close(rs);
-      ps = close(ps);
-    }
-
-    // now get the "before" and "after" relation count
-    long beforeCount = 0L;
-    long afterCount = 0L;
-    this.queryingDatabase(timers, "selectBeforePageRelationCount");
     try {
-      if (resultCount > 0) {
-        ps = conn.prepareStatement("SELECT COUNT(*) FROM sz_dm_report_detail "
-            + "WHERE report_key = ? AND related_id <> 0 AND "
-            + "((entity_id = ? AND related_id < ?) OR (entity_id < ?))");
-
-        ps.setString(1, reportKey);
-        ps.setLong(2, minEntityId);
-        ps.setLong(3, minRelatedId);
-        ps.setLong(4, minEntityId);
-
-        rs = ps.executeQuery();
-        rs.next();
-
-        beforeCount = rs.getLong(1);
+      // get the total relation count (checking the cache first)
+      String totalKey = "relationTotal:" + reportKey;
+      Long totalCount = countCache.get(totalKey);
+      if (totalCount == null) {
+        this.queryingDatabase(timers, "selectTotalRelationsPageCount");
+        try {
+          // prepare the statement
+          ps = conn.prepareStatement(
+              "SELECT COUNT(*) FROM sz_dm_report_detail "
+                  + "WHERE report_key = ? AND related_id <> 0");
+          ps.setString(1, reportKey);
+          rs = ps.executeQuery();
+          rs.next();
+          totalCount = rs.getLong(1);
+
+        } finally {
+          this.queriedDatabase(timers, "selectTotalRelationsPageCount");
+          rs = close(rs);
+          ps = close(ps);
+        }
+        countCache.put(totalKey, generation, totalCount);
+      }
 
-        rs = close(rs);
-        ps = close(ps);
+      // now get the "before" and "after" relation count
+      long beforeCount = 0L;
+      if (resultCount > 0) {
+        String beforeKey = "relationBefore:" + reportKey + ":" + minEntityId
+            + ":" + minRelatedId;
+        Long cachedCount = countCache.get(beforeKey);
+        if (cachedCount != null) {
+          beforeCount = cachedCount;
+
+        } else {
+          this.queryingDatabase(timers, "selectBeforePageRelationCount");
+          try {
+            ps = conn.prepareStatement("SELECT COUNT(*) FROM sz_dm_report_detail "
+                + "WHERE report_key = ? AND related_id <> 0 AND "
+                + "((entity_id = ? AND related_id < ?) OR (entity_id < ?))");
+
+            ps.setString(1, reportKey);
+            ps.setLong(2, minEntityId);
+            ps.setLong(3, minRelatedId);
+            ps.setLong(4, minEntityId);
+
+            rs = ps.executeQuery();
+            rs.next();
+
+            beforeCount = rs.getLong(1);
+
+          } finally {
+            this.queriedDatabase(timers, "selectBeforePageRelationCount");
+            rs = close(rs);
+            ps = close(ps);
+          }
+          countCache.put(beforeKey, generation, beforeCount);
+        }
       }
+
       // calculate the "after" count from total, page and before count
-      afterCount = totalCount - resultCount - beforeCount;
+      // (guarding against cached counts from slightly different times)
+      long afterCount = Math.max(0L, totalCount - resultCount - beforeCount);
 
       // set the fields on the page
       page.setTotalRelationCount(totalCount);
@@ -1088,7 +1851,6 @@ public interface DataMartServicesSupport extends ServicesSupport {
           httpMethod, uriInfo, timers, e);
 
     } finally {
-      this.queriedDatabase(timers, "selectBeforePageRelationCount");
       rs = close(rs);
       ps = close(ps);
       conn = close(conn);
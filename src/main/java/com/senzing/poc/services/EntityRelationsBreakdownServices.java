@@ -9,7 +9,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.ws.rs.*;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import com.senzing.poc.model.SzEntityRelationsBreakdown;
@@ -44,25 +46,41 @@ public class EntityRelationsBreakdownServices
    * entity repository having each distinct entity size that exists
    * in the entity repository.
    * 
+   * @param ifNoneMatch The optional value of the <code>If-None-Match</code>
+   *                    header for conditional requests.
+   * @param response The {@link HttpServletResponse} for the request.
    * @param uriInfo The {@link UriInfo} for the request.
    */
   @GET
   @Path("/")
   public SzEntityRelationsBreakdownResponse getEntityRelationsBreakdown(
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzEntityRelationsBreakdown cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzEntityRelationsBreakdown.class);
+
     try {
-      SzEntityRelationsBreakdown breakdown = this.getBreakdown(GET,
-          uriInfo,
-          timers,
-          provider);
+      SzEntityRelationsBreakdown breakdown = cached;
+      if (breakdown == null) {
+        breakdown = this.getBreakdown(GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, breakdown, response, provider);
+      }
 
       return SzEntityRelationsBreakdownResponse.FACTORY.create(this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           breakdown);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -148,6 +166,9 @@ public class EntityRelationsBreakdownServices
    *
    * @param relationsCount The number of entity relations that for which the
    *                       count is being requested.
+   * @param ifNoneMatch    The optional value of the <code>If-None-Match</code>
+   *                       header for conditional requests.
+   * @param response       The {@link HttpServletResponse} for the request.
    * @param uriInfo        The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -156,6 +177,8 @@ public class EntityRelationsBreakdownServices
   @Path("/{relationsCount}")
   public SzEntityRelationsCountResponse getEntityRelationsCount(
       @PathParam("relationsCount") int relationsCount,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
@@ -167,19 +190,29 @@ public class EntityRelationsBreakdownServices
           "The relations count cannot be less than zero: " + relationsCount);
     }
 
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzEntityRelationsCount cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzEntityRelationsCount.class);
+
     try {
-      SzEntityRelationsCount sizeCount = this.doGetEntityRelationsCount(relationsCount,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzEntityRelationsCount sizeCount = cached;
+      if (sizeCount == null) {
+        sizeCount = this.doGetEntityRelationsCount(relationsCount,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, sizeCount, response, provider);
+      }
 
       return SzEntityRelationsCountResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           sizeCount);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -278,6 +311,12 @@ public class EntityRelationsBreakdownServices
    * @param boundType      The {@link SzBoundType} that describes how to apply the
    *                       specified entity ID bound.
    * @param pageSize       The maximum number of entity ID's to return.
+   * @param sampleSize     The optional number of entities to randomly sample
+   *                       from the page.
+   * @param cursor         The optional opaque cursor from a previous page to
+   *                       use in place of the bound and bound type.
+   * @param withCounts     Whether or not to include the total, before and
+   *                       after entity counts.
    * @param uriInfo        The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -290,6 +329,8 @@ public class EntityRelationsBreakdownServices
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
@@ -311,8 +352,10 @@ public class EntityRelationsBreakdownServices
           reportKey,
           entityIdBound,
           boundType,
+          cursor,
           pageSize,
-          sampleSize);
+          sampleSize,
+          withCounts);
 
       return SzEntitiesPageResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
@@ -331,4 +374,51 @@ public class EntityRelationsBreakdownServices
     }
   }
 
+  /**
+   * Exports all the entities having the specified number of entity relations
+   * as newline-delimited JSON with one {@link com.senzing.poc.model.SzEntity}
+   * per line in ascending order of entity ID.
+   *
+   * @param relationsCount The relations count for which the entities are
+   *                       being exported.
+   * @param uriInfo        The {@link UriInfo} for the request.
+   *
+   * @return The {@link StreamingOutput} for writing the entities.
+   *
+   * @throws NotFoundException If the specified relations count is less than
+   *                           one.
+   */
+  @GET
+  @Path("/{relationsCount}/entities/export")
+  @Produces(APPLICATION_NDJSON)
+  public StreamingOutput exportEntitiesForRelationsCount(
+      @PathParam("relationsCount") int relationsCount,
+      @Context UriInfo uriInfo)
+      throws NotFoundException {
+    SzPocProvider provider = (SzPocProvider) this.getApiProvider();
+    Timers timers = this.newTimers();
+
+    // check the relations count
+    if (relationsCount < 1) {
+      throw this.newNotFoundException(GET, uriInfo, timers,
+          "The relations count cannot be less than zero: " + relationsCount);
+    }
+
+    try {
+      String reportKey = "ERB:" + relationsCount;
+
+      return this.streamEntities(GET, uriInfo, timers, provider, reportKey);
+
+    } catch (ClientErrorException e) {
+      throw e;
+
+    } catch (WebApplicationException e) {
+      throw logOnceAndThrow(e);
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw this.newInternalServerErrorException(GET, uriInfo, timers, e);
+    }
+  }
+
 }
@@ -9,7 +9,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.ws.rs.*;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import com.senzing.poc.model.SzEntitySizeBreakdown;
@@ -45,26 +47,42 @@ public class EntitySizeBreakdownServices
    * entity repository having each distinct entity size that exists
    * in the entity repository.
    * 
+   * @param ifNoneMatch The optional value of the <code>If-None-Match</code>
+   *                    header for conditional requests.
+   * @param response The {@link HttpServletResponse} for the request.
    * @param uriInfo The {@link UriInfo} for the request.
    */
   @GET
   @Path("/")
   public SzEntitySizeBreakdownResponse getEntitySizeBreakdown(
+    @HeaderParam("If-None-Match") String ifNoneMatch,
+    @Context HttpServletResponse response,
     @Context UriInfo uriInfo)
   {
     SzPocProvider provider  = (SzPocProvider) this.getApiProvider();
     Timers        timers    = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzEntitySizeBreakdown cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzEntitySizeBreakdown.class);
+
     try {
-        SzEntitySizeBreakdown breakdown = this.getBreakdown(GET, 
-                                                            uriInfo, 
-                                                            timers, 
-                                                            provider);
+        SzEntitySizeBreakdown breakdown = cached;
+        if (breakdown == null) {
+          breakdown = this.getBreakdown(GET, 
+                                        uriInfo, 
+                                        timers, 
+                                        provider);
+          this.cacheStatistics(
+              uriInfo, ifNoneMatch, generation, breakdown, response, provider);
+        }
 
         return SzEntitySizeBreakdownResponse.FACTORY.create(this.newMeta(GET, 200, timers),
                                                             this.newLinks(uriInfo),
                                                             breakdown);
         
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -152,6 +170,9 @@ public class EntitySizeBreakdownServices
    *
    * @param entitySize The entity size for which the entity count is being
    *                   requested.
+   * @param ifNoneMatch The optional value of the <code>If-None-Match</code>
+   *                    header for conditional requests.
+   * @param response The {@link HttpServletResponse} for the request.
    * @param uriInfo The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -160,6 +181,8 @@ public class EntitySizeBreakdownServices
   @Path("/{entitySize}")
   public SzEntitySizeCountResponse getEntitySizeCount(
     @PathParam("entitySize")  int     entitySize,
+    @HeaderParam("If-None-Match") String ifNoneMatch,
+    @Context HttpServletResponse response,
     @Context                  UriInfo uriInfo)
     throws NotFoundException
   {
@@ -172,19 +195,30 @@ public class EntitySizeBreakdownServices
         "The entity size cannot be less than one: " + entitySize);
     }
     
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzEntitySizeCount cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzEntitySizeCount.class);
+
     try {
-        SzEntitySizeCount sizeCount = this.doGetEntitySizeCount(entitySize,
-                                                                GET, 
-                                                                uriInfo, 
-                                                                timers, 
-                                                                provider);
+        SzEntitySizeCount sizeCount = cached;
+        if (sizeCount == null) {
+          sizeCount = this.doGetEntitySizeCount(entitySize,
+                                                GET, 
+                                                uriInfo, 
+                                                timers, 
+                                                provider);
+          this.cacheStatistics(
+              uriInfo, ifNoneMatch, generation, sizeCount, response, provider);
+        }
 
         return SzEntitySizeCountResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           sizeCount);
         
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -284,6 +318,12 @@ public class EntitySizeBreakdownServices
    * @param boundType The {@link SzBoundType} that describes how to apply the
    *                  specified entity ID bound.
    * @param pageSize The maximum number of entity ID's to return.
+   * @param sampleSize The optional number of entities to randomly sample
+   *                   from the page.
+   * @param cursor The optional opaque cursor from a previous page to use in
+   *               place of the bound and bound type.
+   * @param withCounts Whether or not to include the total, before and after
+   *                   entity counts.
    * @param uriInfo The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -296,6 +336,8 @@ public class EntitySizeBreakdownServices
     @QueryParam("boundType")  @DefaultValue("EXCLUSIVE_LOWER")  SzBoundType boundType,
     @QueryParam("pageSize")                                     Integer     pageSize,
     @QueryParam("sampleSize")                                   Integer     sampleSize,
+    @QueryParam("cursor")                                       String      cursor,
+    @QueryParam("withCounts") @DefaultValue("true")             boolean     withCounts,
     @Context                                                    UriInfo     uriInfo)
     throws NotFoundException
   {
@@ -318,8 +360,10 @@ public class EntitySizeBreakdownServices
                                                       reportKey, 
                                                       entityIdBound, 
                                                       boundType, 
+                                                      cursor,
                                                       pageSize,
-                                                      sampleSize);
+                                                      sampleSize,
+                                                      withCounts);
 
       return SzEntitiesPageResponse.FACTORY.create(
         this.newMeta(GET, 200, timers),
@@ -338,4 +382,51 @@ public class EntitySizeBreakdownServices
     }
   }
 
+  /**
+   * Exports all the entities having the specified entity size as
+   * newline-delimited JSON with one {@link com.senzing.poc.model.SzEntity}
+   * per line in ascending order of entity ID.
+   *
+   * @param entitySize The entity size for which the entities are being
+   *                   exported.
+   * @param uriInfo The {@link UriInfo} for the request.
+   *
+   * @return The {@link StreamingOutput} for writing the entities.
+   *
+   * @throws NotFoundException If the specified entity size is less than one.
+   */
+  @GET
+  @Path("/{entitySize}/entities/export")
+  @Produces(APPLICATION_NDJSON)
+  public StreamingOutput exportEntitiesForEntitySize(
+    @PathParam("entitySize")  int     entitySize,
+    @Context                  UriInfo uriInfo)
+    throws NotFoundException
+  {
+    SzPocProvider provider  = (SzPocProvider) this.getApiProvider();
+    Timers        timers    = this.newTimers();
+
+    // check the entity size
+    if (entitySize < 1) {
+      throw this.newNotFoundException(GET, uriInfo, timers, 
+        "The entity size cannot be less than one: " + entitySize);
+    }
+
+    try {
+      String reportKey = "ESB:" + entitySize;
+
+      return this.streamEntities(GET, uriInfo, timers, provider, reportKey);
+
+    } catch (ClientErrorException e) {
+      throw e;
+
+    } catch (WebApplicationException e) {
+      throw logOnceAndThrow(e);
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw this.newInternalServerErrorException(GET, uriInfo, timers, e);
+    }
+  }
+
 }
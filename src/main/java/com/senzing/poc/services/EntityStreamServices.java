@@ -4,9 +4,14 @@ import com.senzing.api.model.SzBasicResponse;
 import com.senzing.api.model.SzHttpMethod;
 import com.senzing.api.model.SzLoadRecordResponse;
 import com.senzing.api.services.*;
+import com.senzing.poc.model.SzLoadFailureStats;
+import com.senzing.poc.model.SzLoadFailureStatsResponse;
+import com.senzing.poc.model.SzLoadJournalStats;
+import com.senzing.poc.model.SzLoadJournalStatsResponse;
 import com.senzing.poc.model.SzQueueInfo;
 import com.senzing.poc.model.SzQueueInfoResponse;
 import com.senzing.poc.model.impl.SzQueueInfoResponseImpl;
+import com.senzing.poc.server.SzLoadJournal;
 import com.senzing.poc.server.SzPocProvider;
 import com.senzing.util.JsonUtilities;
 import com.senzing.util.Timers;
@@ -80,6 +85,85 @@ public class EntityStreamServices extends EntityDataServices
     }
   }
 
+  /**
+   * Gets the statistics on the records that have failed to be enqueued on
+   * the load queue since the server started, providing the implementation
+   * of <tt>"GET /load-queue/failures"</tt>.  The failures are counted
+   * asynchronously so the counts may briefly lag recent failures.
+   *
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @return The {@link SzLoadFailureStatsResponse} describing the failures.
+   */
+  @GET
+  @Path("load-queue/failures")
+  @Produces(APPLICATION_JSON)
+  public SzLoadFailureStatsResponse getLoadQueueFailures(
+      @Context UriInfo uriInfo)
+  {
+    Timers timers = this.newTimers();
+
+    // check if there is a load sink configured
+    SzPocProvider provider = (SzPocProvider) this.getApiProvider();
+    if (!provider.hasLoadSink()) {
+      throw newNotFoundException(GET, uriInfo, timers,
+          "No load queue is configured");
+    }
+
+    SzLoadFailureStats stats = SzLoadFailureStats.FACTORY.create();
+    stats.setFailedRecordCount(StreamLoadUtilities.getFailedLoadRecordCount());
+    stats.setDroppedFailureCount(
+        StreamLoadUtilities.getDroppedLoadFailureCount());
+    stats.setDataSourceCounts(StreamLoadUtilities.getFailedLoadRecordCounts());
+
+    return SzLoadFailureStatsResponse.FACTORY.create(
+        this.newMeta(GET, 200, timers),
+        this.newLinks(uriInfo),
+        stats);
+  }
+
+  /**
+   * Gets the statistics for the spill-over journal of load messages that
+   * failed to be sent to the load queue, including the replay throughput,
+   * providing the implementation of <tt>"GET /load-queue/journal"</tt>.
+   *
+   * @param uriInfo The {@link UriInfo} for the request.
+   * @return The {@link SzLoadJournalStatsResponse} describing the journal.
+   */
+  @GET
+  @Path("load-queue/journal")
+  @Produces(APPLICATION_JSON)
+  public SzLoadJournalStatsResponse getLoadQueueJournal(
+      @Context UriInfo uriInfo)
+  {
+    Timers timers = this.newTimers();
+
+    // check if there is a load journal configured
+    SzPocProvider provider = (SzPocProvider) this.getApiProvider();
+    SzLoadJournal journal = provider.getLoadJournal();
+    if (journal == null) {
+      throw newNotFoundException(GET, uriInfo, timers,
+          "No load journal is configured");
+    }
+
+    SzLoadJournalStats stats = SzLoadJournalStats.FACTORY.create();
+    stats.setSegmentCount(journal.getSegmentCount());
+    stats.setPendingMessageCount(journal.getPendingMessageCount());
+    stats.setPendingByteCount(journal.getPendingByteCount());
+    stats.setJournaledMessageCount(journal.getJournaledMessageCount());
+    stats.setReplayedMessageCount(journal.getReplayedMessageCount());
+    stats.setReplayedByteCount(journal.getReplayedByteCount());
+    stats.setReplayFailureCount(journal.getReplayFailureCount());
+    stats.setParkedMessageCount(journal.getParkedMessageCount());
+    stats.setRejectedMessageCount(journal.getRejectedMessageCount());
+    stats.setReplayMessageRate(journal.getReplayMessageRate());
+    stats.setReplayByteRate(journal.getReplayByteRate());
+
+    return SzLoadJournalStatsResponse.FACTORY.create(
+        this.newMeta(GET, 200, timers),
+        this.newLinks(uriInfo),
+        stats);
+  }
+
   /**
    * Creates a new instance of {@link SzQueueInfo}.
    *
@@ -0,0 +1,458 @@
+package com.senzing.poc.services;
+
+import com.senzing.util.JsonUtilities;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads JSON-lines records as text so that they can be copied directly into
+ * a batch message without first being parsed into a {@link JsonObject} and
+ * re-serialized.  Each line is given a single-pass scan that checks it is
+ * well-formed JSON and finds the top-level <code>"DATA_SOURCE"</code> value
+ * and any existing top-level <code>"SOURCE_ID"</code>.  The load ID is
+ * spliced in as the <code>"SOURCE_ID"</code> in the same position that {@link
+ * com.senzing.io.RecordReader} would add it.  Lines that cannot be handled
+ * by the scan (e.g.: those with an existing <code>"SOURCE_ID"</code>, with
+ * escape sequences in a top-level key or that are not well-formed) are
+ * parsed and serialized in the usual way so that malformed lines fail
+ * individually.
+ * <p>
+ * This is only suitable when no data source mapping is being applied.
+ */
+class JsonLinesPassthroughReader {
+  /**
+   * The top-level key for the data source.
+   */
+  private static final String DATA_SOURCE_KEY = "DATA_SOURCE";
+
+  /**
+   * The top-level key for the source ID.
+   */
+  private static final String SOURCE_ID_KEY = "SOURCE_ID";
+
+  /**
+   * The scan state when expecting a value.
+   */
+  private static final int EXPECT_VALUE = 0;
+
+  /**
+   * The scan state when expecting a value or the end of an array.
+   */
+  private static final int EXPECT_VALUE_OR_END = 1;
+
+  /**
+   * The scan state when expecting an object key.
+   */
+  private static final int EXPECT_KEY = 2;
+
+  /**
+   * The scan state when expecting an object key or the end of an object.
+   */
+  private static final int EXPECT_KEY_OR_END = 3;
+
+  /**
+   * The scan state when expecting the colon following an object key.
+   */
+  private static final int EXPECT_COLON = 4;
+
+  /**
+   * The scan state when expecting a comma or the end of the container.
+   */
+  private static final int EXPECT_COMMA_OR_END = 5;
+
+  /**
+   * The backing {@link BufferedReader}.
+   */
+  private BufferedReader reader;
+
+  /**
+   * The load ID to set as the source ID, or <code>null</code> if none.
+   */
+  private String loadId;
+
+  /**
+   * The JSON text for the <code>"SOURCE_ID"</code> property to splice into
+   * each record, or <code>null</code> if no load ID.
+   */
+  private String sourceIdProperty;
+
+  /**
+   * The current line number.
+   */
+  private long lineNumber = 0L;
+
+  /**
+   * The line number on which the last error occurred, or <code>null</code>.
+   */
+  private Long errorLineNumber = null;
+
+  /**
+   * The data source for the last record read.
+   */
+  private String dataSource = null;
+
+  /**
+   * Constructs with the specified {@link BufferedReader} and load ID.
+   *
+   * @param reader The {@link BufferedReader} from which to read the lines.
+   * @param loadId The load ID to set as the <code>"SOURCE_ID"</code> for each
+   *               record, or <code>null</code> if none.
+   */
+  JsonLinesPassthroughReader(BufferedReader reader, String loadId) {
+    this.reader = reader;
+    this.loadId = loadId;
+    this.sourceIdProperty = (loadId == null) ? null
+        : "\"" + SOURCE_ID_KEY + "\":" + Json.createValue(loadId).toString();
+  }
+
+  /**
+   * Gets the data source for the last record read.  This returns
+   * <code>null</code> if the record did not have a <code>"DATA_SOURCE"</code>
+   * or if no record has been read.
+   *
+   * @return The data source for the last record read.
+   */
+  String getDataSource() {
+    return this.dataSource;
+  }
+
+  /**
+   * Gets the line number on which the last error occurred, or
+   * <code>null</code> if the last read did not fail.
+   *
+   * @return The line number on which the last error occurred.
+   */
+  Long getErrorLineNumber() {
+    return this.errorLineNumber;
+  }
+
+  /**
+   * Reads the next record as JSON text, skipping blank lines and comment
+   * lines.
+   *
+   * @return The JSON text for the next record, or <code>null</code> if there
+   *         are no more records.
+   *
+   * @throws IOException If an I/O failure occurs.
+   * @throws IllegalStateException If a line does not appear to be a JSON
+   *                               record.
+   */
+  String readRecord() throws IOException {
+    this.dataSource = null;
+    while (true) {
+      String line = this.reader.readLine();
+      if (line == null) return null;
+      this.lineNumber++;
+      this.errorLineNumber = null;
+
+      line = line.trim();
+      if (line.length() == 0 || line.startsWith("#")) continue;
+      if (!line.startsWith("{")) {
+        this.errorLineNumber = this.lineNumber;
+        throw new IllegalStateException(
+            "Line does not appear to be JSON record: " + line);
+      }
+
+      String recordText = this.passthrough(line);
+      if (recordText != null) return recordText;
+
+      try {
+        return this.reserialize(line);
+
+      } catch (RuntimeException e) {
+        this.errorLineNumber = this.lineNumber;
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Scans the specified line and returns the record text with the source ID
+   * spliced in, or <code>null</code> if the line must be parsed instead.  The
+   * scan checks the full JSON grammar (including the scalar tokens, string
+   * escapes and separators) so that only lines that are provably well-formed
+   * are passed through, and a malformed line is parsed and reported as an
+   * error for that line rather than poisoning the batch message it would
+   * otherwise be copied into.
+   *
+   * @param line The trimmed line to scan.
+   *
+   * @return The record text, or <code>null</code> if the line must be parsed.
+   */
+  private String passthrough(String line) {
+    int     length      = line.length();
+    char[]  containers  = new char[8];
+    int     depth       = 0;
+    int     keyCount    = 0;
+    int     state       = EXPECT_VALUE;
+    String  currentKey  = null;
+    String  foundDS     = null;
+
+    int index = 0;
+    while (index < length) {
+      char c = line.charAt(index);
+      if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+        index++;
+        continue;
+      }
+
+      switch (state) {
+        case EXPECT_COLON:
+          if (c != ':') return null;
+          state = EXPECT_VALUE;
+          index++;
+          continue;
+
+        case EXPECT_COMMA_OR_END: {
+          // nothing may follow the record
+          if (depth == 0) return null;
+          char container = containers[depth - 1];
+          if (c == ',') {
+            state = (container == '{') ? EXPECT_KEY : EXPECT_VALUE;
+            if (depth == 1) currentKey = null;
+          } else if (c == ((container == '{') ? '}' : ']')) {
+            depth--;
+          } else {
+            return null;
+          }
+          index++;
+          continue;
+        }
+
+        case EXPECT_KEY:
+        case EXPECT_KEY_OR_END: {
+          if (c == '}' && state == EXPECT_KEY_OR_END) {
+            depth--;
+            state = EXPECT_COMMA_OR_END;
+            index++;
+            continue;
+          }
+          if (c != '"') return null;
+          int end = scanString(line, index);
+          if (end < 0) return null;
+          if (depth == 1) {
+            // escaped keys could hide a source ID or data source
+            if (hasEscape(line, index, end)) return null;
+            currentKey = line.substring(index + 1, end);
+            keyCount++;
+            if (SOURCE_ID_KEY.equals(currentKey)) return null;
+          }
+          state = EXPECT_COLON;
+          index = end + 1;
+          continue;
+        }
+
+        default:
+          // expecting a value (or the end of an empty array)
+          if (c == ']' && state == EXPECT_VALUE_OR_END) {
+            depth--;
+            state = EXPECT_COMMA_OR_END;
+            index++;
+            continue;
+          }
+      }
+
+      // a non-string data source value requires parsing
+      boolean dataSourceValue
+          = (depth == 1 && DATA_SOURCE_KEY.equals(currentKey));
+
+      switch (c) {
+        case '{':
+        case '[':
+          if (dataSourceValue) return null;
+          if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth * 2);
+          }
+          containers[depth++] = c;
+          state = (c == '{') ? EXPECT_KEY_OR_END : EXPECT_VALUE_OR_END;
+          index++;
+          continue;
+
+        case '"': {
+          int end = scanString(line, index);
+          if (end < 0) return null;
+          if (dataSourceValue) {
+            if (hasEscape(line, index, end)) return null;
+            foundDS = line.substring(index + 1, end);
+          }
+          index = end + 1;
+          break;
+        }
+
+        case 't':
+        case 'f':
+        case 'n': {
+          if (dataSourceValue) return null;
+          String literal = (c == 't') ? "true" : ((c == 'f') ? "false" : "null");
+          if (!line.startsWith(literal, index)) return null;
+          index += literal.length();
+          break;
+        }
+
+        default: {
+          if (dataSourceValue) return null;
+          int end = scanNumber(line, index);
+          if (end < 0) return null;
+          index = end;
+        }
+      }
+      state = EXPECT_COMMA_OR_END;
+    }
+
+    // check that the record was closed
+    if (depth != 0 || state != EXPECT_COMMA_OR_END) return null;
+
+    this.dataSource = foundDS;
+    if (this.sourceIdProperty == null) return line;
+
+    StringBuilder sb = new StringBuilder(
+        length + this.sourceIdProperty.length() + 1);
+    sb.append(line, 0, length - 1);
+    if (keyCount > 0) sb.append(',');
+    sb.append(this.sourceIdProperty);
+    sb.append('}');
+    return sb.toString();
+  }
+
+  /**
+   * Scans the JSON string starting with the double quote at the specified
+   * index, checking that its escape sequences are valid and that it has no
+   * unescaped control characters.
+   *
+   * @param line The line containing the string.
+   * @param start The index of the opening double quote.
+   *
+   * @return The index of the closing double quote, or <code>-1</code> if the
+   *         string is not valid.
+   */
+  private static int scanString(String line, int start) {
+    int length = line.length();
+    for (int index = start + 1; index < length; index++) {
+      char c = line.charAt(index);
+      if (c == '"') return index;
+      if (c < 0x20) return -1;
+      if (c != '\\') continue;
+
+      // check the escape sequence
+      if (++index >= length) return -1;
+      char escape = line.charAt(index);
+      if (escape == 'u') {
+        if (index + 4 >= length) return -1;
+        for (int hex = 1; hex <= 4; hex++) {
+          if (Character.digit(line.charAt(index + hex), 16) < 0) return -1;
+        }
+        index += 4;
+      } else if ("\"\\/bfnrt".indexOf(escape) < 0) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if the JSON string between the specified indexes of the specified
+   * line contains any escape sequences.
+   *
+   * @param line The line containing the string.
+   * @param start The index of the opening double quote.
+   * @param end The index of the closing double quote.
+   *
+   * @return <code>true</code> if the string has escape sequences, otherwise
+   *         <code>false</code>.
+   */
+  private static boolean hasEscape(String line, int start, int end) {
+    int escape = line.indexOf('\\', start + 1);
+    return (escape >= 0 && escape < end);
+  }
+
+  /**
+   * Scans the JSON number starting at the specified index.
+   *
+   * @param line The line containing the number.
+   * @param start The index of the first character of the number.
+   *
+   * @return The index following the number, or <code>-1</code> if it is not
+   *         a valid JSON number.
+   */
+  private static int scanNumber(String line, int start) {
+    int length = line.length();
+    int index  = start;
+    if (index < length && line.charAt(index) == '-') index++;
+
+    // the integer part cannot have leading zeroes
+    if (index >= length) return -1;
+    char c = line.charAt(index);
+    if (c == '0') {
+      index++;
+    } else if (c >= '1' && c <= '9') {
+      index = skipDigits(line, index);
+    } else {
+      return -1;
+    }
+
+    // the optional fraction part
+    if (index < length && line.charAt(index) == '.') {
+      int digits = index + 1;
+      index = skipDigits(line, digits);
+      if (index == digits) return -1;
+    }
+
+    // the optional exponent part
+    if (index < length && (line.charAt(index) == 'e'
+                           || line.charAt(index) == 'E'))
+    {
+      index++;
+      if (index < length && (line.charAt(index) == '+'
+                             || line.charAt(index) == '-'))
+      {
+        index++;
+      }
+      int digits = index;
+      index = skipDigits(line, digits);
+      if (index == digits) return -1;
+    }
+    return index;
+  }
+
+  /**
+   * Skips the decimal digits starting at the specified index.
+   *
+   * @param line The line containing the digits.
+   * @param start The index of the first digit.
+   *
+   * @return The index following the digits.
+   */
+  private static int skipDigits(String line, int start) {
+    int index = start;
+    while (index < line.length()
+           && line.charAt(index) >= '0' && line.charAt(index) <= '9')
+    {
+      index++;
+    }
+    return index;
+  }
+
+  /**
+   * Parses the specified line and serializes the record with the source ID
+   * set in the same way as {@link com.senzing.io.RecordReader}.
+   *
+   * @param line The line to parse.
+   *
+   * @return The record text.
+   */
+  private String reserialize(String line) {
+    JsonObject record = JsonUtilities.parseJsonObject(line);
+    this.dataSource = JsonUtilities.getString(record, DATA_SOURCE_KEY);
+    if (this.loadId == null) return JsonUtilities.toJsonText(record);
+
+    JsonObjectBuilder builder = Json.createObjectBuilder(record);
+    builder.remove(SOURCE_ID_KEY);
+    builder.add(SOURCE_ID_KEY, this.loadId);
+    return JsonUtilities.toJsonText(builder.build());
+  }
+}
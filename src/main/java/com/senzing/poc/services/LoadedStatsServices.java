@@ -9,7 +9,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.ws.rs.*;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import com.senzing.poc.model.SzBoundType;
@@ -45,6 +47,9 @@ public class LoadedStatsServices implements DataMartServicesSupport {
    * @param onlyLoaded Set to <code>true</code> to only consider data sources
    *                   that have loaded record, otherwise set this to
    *                   <code>false<code> to consider all data sources.
+   * @param ifNoneMatch The optional value of the <code>If-None-Match</code>
+   *                    header for conditional requests.
+   * @param response The {@link HttpServletResponse} for the request.
    * @param uriInfo The {@link UriInfo} for the request.
    * 
    * @return The {@link SzLoadedStatsResponse} describing the response.
@@ -52,23 +57,36 @@ public class LoadedStatsServices implements DataMartServicesSupport {
   @GET
   @Path("/")
   public SzLoadedStatsResponse getLoadedStatistics(
-    @QueryParam("onlyLoadedSources")  @DefaultValue("true") boolean onlyLoaded,
-    @Context                                                UriInfo uriInfo)
+    @QueryParam("onlyLoadedSources")  @DefaultValue("true") boolean             onlyLoaded,
+    @HeaderParam("If-None-Match")                           String              ifNoneMatch,
+    @Context                                                HttpServletResponse response,
+    @Context                                                UriInfo             uriInfo)
   {
     SzPocProvider provider  = (SzPocProvider) this.getApiProvider();
     Timers        timers    = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzLoadedStats cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzLoadedStats.class);
+
     try {
-        SzLoadedStats stats = this.getStatistics(onlyLoaded,
-                                                 GET, 
-                                                 uriInfo, 
-                                                 timers, 
-                                                 provider);
+        SzLoadedStats stats = cached;
+        if (stats == null) {
+          stats = this.getStatistics(onlyLoaded,
+                                     GET, 
+                                     uriInfo, 
+                                     timers, 
+                                     provider);
+          this.cacheStatistics(
+              uriInfo, ifNoneMatch, generation, stats, response, provider);
+        }
 
         return SzLoadedStatsResponse.FACTORY.create(this.newMeta(GET, 200, timers),
                                                    this.newLinks(uriInfo),
                                                    stats);
         
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -251,29 +269,45 @@ public class LoadedStatsServices implements DataMartServicesSupport {
    *
    * @param dataSourceCode The data source code identifying the data source
    *                       for which the count statistics are being requested.
+   * @param ifNoneMatch The optional value of the <code>If-None-Match</code>
+   *                    header for conditional requests.
+   * @param response The {@link HttpServletResponse} for the request.
    * @param uriInfo The {@link UriInfo} for the request.
    */
   @GET
   @Path("/data-sources/{dataSourceCode}")
   public SzSourceLoadedStatsResponse getSourceLoadedStatistics(
     @PathParam("dataSourceCode") String dataSourceCode,
+    @HeaderParam("If-None-Match") String ifNoneMatch,
+    @Context HttpServletResponse response,
     @Context UriInfo uriInfo)
   {
     SzPocProvider provider  = (SzPocProvider) this.getApiProvider();
     Timers        timers    = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzSourceLoadedStats cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzSourceLoadedStats.class);
+
     try {
-        SzSourceLoadedStats stats = this.getSourceStatistics(dataSourceCode, 
-                                                             GET, 
-                                                             uriInfo, 
-                                                             timers, 
-                                                             provider);
+        SzSourceLoadedStats stats = cached;
+        if (stats == null) {
+          stats = this.getSourceStatistics(dataSourceCode, 
+                                           GET, 
+                                           uriInfo, 
+                                           timers, 
+                                           provider);
+          this.cacheStatistics(
+              uriInfo, ifNoneMatch, generation, stats, response, provider);
+        }
 
         return SzSourceLoadedStatsResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           stats);
         
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -420,6 +454,12 @@ public class LoadedStatsServices implements DataMartServicesSupport {
    * @param boundType The {@link SzBoundType} that describes how to apply the
    *                  specified entity ID bound.
    * @param pageSize The maximum number of entity ID's to return.
+   * @param sampleSize The optional number of entities to randomly sample
+   *                   from the page.
+   * @param cursor The optional opaque cursor from a previous page to use in
+   *               place of the bound and bound type.
+   * @param withCounts Whether or not to include the total, before and after
+   *                   entity counts.
    * @param uriInfo The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -432,6 +472,8 @@ public class LoadedStatsServices implements DataMartServicesSupport {
     @QueryParam("boundType")  @DefaultValue("EXCLUSIVE_LOWER")  SzBoundType boundType,
     @QueryParam("pageSize")                                     Integer     pageSize,
     @QueryParam("sampleSize")                                   Integer     sampleSize,
+    @QueryParam("cursor")                                       String      cursor,
+    @QueryParam("withCounts") @DefaultValue("true")             boolean     withCounts,
     @Context                                                    UriInfo     uriInfo)
     throws NotFoundException
   {
@@ -457,8 +499,10 @@ public class LoadedStatsServices implements DataMartServicesSupport {
                                                       reportKey.toString(), 
                                                       entityIdBound, 
                                                       boundType, 
+                                                      cursor,
                                                       pageSize,
-                                                      sampleSize);
+                                                      sampleSize,
+                                                      withCounts);
 
       return SzEntitiesPageResponse.FACTORY.create(
         this.newMeta(GET, 200, timers),
@@ -476,4 +520,56 @@ public class LoadedStatsServices implements DataMartServicesSupport {
       throw this.newInternalServerErrorException(GET, uriInfo, timers, e);
     }
   }
+
+  /**
+   * Exports all the entities having at least one record from the specified
+   * data source as newline-delimited JSON with one
+   * {@link com.senzing.poc.model.SzEntity} per line in ascending order of
+   * entity ID.
+   *
+   * @param dataSource The data source for which the entities are being
+   *                   exported.
+   * @param uriInfo The {@link UriInfo} for the request.
+   *
+   * @return The {@link StreamingOutput} for writing the entities.
+   *
+   * @throws NotFoundException If the specified data source is not recognized.
+   */
+  @GET
+  @Path("/data-sources/{dataSourceCode}/entities/export")
+  @Produces(APPLICATION_NDJSON)
+  public StreamingOutput exportEntitiesForDataSource(
+    @PathParam("dataSourceCode")  String  dataSource,
+    @Context                      UriInfo uriInfo)
+    throws NotFoundException
+  {
+    SzPocProvider provider  = (SzPocProvider) this.getApiProvider();
+    Timers        timers    = this.newTimers();
+
+    // check the data source
+    Set<String> dataSources = provider.getDataSources(dataSource);
+    if (!dataSources.contains(dataSource)) {
+      throw new NotFoundException("Unrecognized data source: " + dataSource);
+    }
+
+    try {
+      SzReportKey reportKey = new SzReportKey(DATA_SOURCE_SUMMARY,
+                                              ENTITY_COUNT, 
+                                              dataSource, 
+                                              dataSource);
+
+      return this.streamEntities(
+          GET, uriInfo, timers, provider, reportKey.toString());
+
+    } catch (ClientErrorException e) {
+      throw e;
+
+    } catch (WebApplicationException e) {
+      throw logOnceAndThrow(e);
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw this.newInternalServerErrorException(GET, uriInfo, timers, e);
+    }
+  }
 }
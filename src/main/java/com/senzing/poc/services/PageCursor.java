@@ -0,0 +1,111 @@
+package com.senzing.poc.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import com.senzing.poc.model.SzBoundType;
+
+/**
+ * Describes an opaque paging cursor that encodes an {@link SzBoundType}
+ * together with its associated bound value.  The cursor is rendered as a
+ * URL-safe Base64 text value so that it can be passed back as a query
+ * parameter without the caller needing to understand its contents.
+ */
+public final class PageCursor {
+  /**
+   * The separator between the bound type and the bound value in the
+   * decoded form of the cursor.
+   */
+  private static final char SEPARATOR = ':';
+
+  /**
+   * The {@link SzBoundType} for this cursor.
+   */
+  private SzBoundType boundType;
+
+  /**
+   * The bound value for this cursor.
+   */
+  private String bound;
+
+  /**
+   * Constructs with the specified {@link SzBoundType} and bound value.
+   *
+   * @param boundType The {@link SzBoundType} for the cursor.
+   * @param bound The bound value for the cursor.
+   *
+   * @throws NullPointerException If either parameter is <code>null</code>.
+   */
+  public PageCursor(SzBoundType boundType, String bound) {
+    Objects.requireNonNull(boundType, "The bound type cannot be null");
+    Objects.requireNonNull(bound, "The bound cannot be null");
+    this.boundType  = boundType;
+    this.bound      = bound;
+  }
+
+  /**
+   * Gets the {@link SzBoundType} for this cursor.
+   *
+   * @return The {@link SzBoundType} for this cursor.
+   */
+  public SzBoundType getBoundType() {
+    return this.boundType;
+  }
+
+  /**
+   * Gets the bound value for this cursor.
+   *
+   * @return The bound value for this cursor.
+   */
+  public String getBound() {
+    return this.bound;
+  }
+
+  /**
+   * Encodes this instance as an opaque URL-safe {@link String}.
+   *
+   * @return The encoded cursor text.
+   */
+  public String encode() {
+    String text = this.boundType.toString() + SEPARATOR + this.bound;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(
+        text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Parses the specified encoded cursor text that was previously produced
+   * by {@link #encode()}.
+   *
+   * @param cursor The encoded cursor text to parse.
+   *
+   * @return The {@link PageCursor} that was parsed.
+   *
+   * @throws IllegalArgumentException If the specified text is not a properly
+   *                                  encoded cursor.
+   */
+  public static PageCursor parse(String cursor)
+      throws IllegalArgumentException
+  {
+    Objects.requireNonNull(cursor, "The cursor cannot be null");
+    String text = new String(Base64.getUrlDecoder().decode(cursor.trim()),
+                             StandardCharsets.UTF_8);
+    int index = text.indexOf(SEPARATOR);
+    if (index <= 0 || index == text.length() - 1) {
+      throw new IllegalArgumentException(
+          "The specified cursor is not properly formatted: " + cursor);
+    }
+    SzBoundType boundType = SzBoundType.valueOf(text.substring(0, index));
+    return new PageCursor(boundType, text.substring(index + 1));
+  }
+
+  /**
+   * Returns the encoded form of this cursor.
+   *
+   * @return The encoded form of this cursor.
+   */
+  @Override
+  public String toString() {
+    return this.encode();
+  }
+}
@@ -0,0 +1,424 @@
+package com.senzing.poc.services;
+
+import com.senzing.api.model.SzBulkLoadResult;
+import com.senzing.api.model.SzError;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.senzing.poc.services.BulkDataStreamSupport.MAXIMUM_BATCH_BYTES;
+
+/**
+ * Assembles the JSON array message body for a batch of stream-loaded records
+ * directly into a reusable character buffer while counting the UTF-8 encoded
+ * size of the message so that records need not be encoded to bytes and the
+ * batch need not be copied between buffers.  The records in the batch are
+ * tracked as counts per distinct data source rather than per record.
+ * <p>
+ * Instances are pooled since the buffer is sized for the {@linkplain
+ * BulkDataStreamSupport#MAXIMUM_BATCH_BYTES maximum batch size}.  Use {@link
+ * #acquire()} to obtain an instance and {@link #release(
+ * StreamLoadBatchBuilder)} to return it once no longer needed.  Instances
+ * are <b>not</b> thread-safe.
+ */
+class StreamLoadBatchBuilder {
+  /**
+   * The maximum number of idle instances to retain in the pool.
+   */
+  private static final int MAXIMUM_POOL_SIZE = 16;
+
+  /**
+   * The initial capacity for the per-data-source counters.
+   */
+  private static final int INITIAL_DATA_SOURCE_CAPACITY = 4;
+
+  /**
+   * The pool of idle instances.
+   */
+  private static final BlockingQueue<StreamLoadBatchBuilder> POOL
+      = new ArrayBlockingQueue<>(MAXIMUM_POOL_SIZE);
+
+  /**
+   * Describes a completed batch message along with the number of records for
+   * each data source in the batch.
+   */
+  static final class Batch {
+    /**
+     * The message body for the batch.
+     */
+    private String messageBody;
+
+    /**
+     * The number of records in the batch.
+     */
+    private int recordCount;
+
+    /**
+     * The offset of the first record of the bulk data in the batch, or a
+     * negative number if the record offsets are not tracked.
+     */
+    private long startOffset;
+
+    /**
+     * The offset after the last record of the bulk data in the batch.
+     */
+    private long endOffset;
+
+    /**
+     * The distinct data sources for the records in the batch.
+     */
+    private String[] dataSources;
+
+    /**
+     * The number of records for each of the data sources.
+     */
+    private int[] counts;
+
+    /**
+     * Flag indicating if failure has already been tracked for the batch.
+     */
+    private AtomicBoolean failed = new AtomicBoolean(false);
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param messageBody The message body for the batch.
+     * @param recordCount The number of records in the batch.
+     * @param startOffset The offset of the first record in the batch, or a
+     *                    negative number if not tracked.
+     * @param endOffset The offset after the last record in the batch.
+     * @param dataSources The distinct data sources for the records.
+     * @param counts The number of records for each of the data sources.
+     */
+    Batch(String    messageBody,
+          int       recordCount,
+          long      startOffset,
+          long      endOffset,
+          String[]  dataSources,
+          int[]     counts)
+    {
+      this.messageBody  = messageBody;
+      this.recordCount  = recordCount;
+      this.startOffset  = startOffset;
+      this.endOffset    = endOffset;
+      this.dataSources  = dataSources;
+      this.counts       = counts;
+    }
+
+    /**
+     * Gets the message body for the batch.
+     *
+     * @return The message body for the batch.
+     */
+    String getMessageBody() {
+      return this.messageBody;
+    }
+
+    /**
+     * Gets the number of records in the batch.
+     *
+     * @return The number of records in the batch.
+     */
+    int getRecordCount() {
+      return this.recordCount;
+    }
+
+    /**
+     * Marks the records in the batch as handled against the specified {@link
+     * StreamLoadCheckpoint}.  This does nothing if the checkpoint is
+     * <code>null</code> or if the record offsets are not tracked.
+     *
+     * @param checkpoint The {@link StreamLoadCheckpoint} to track against, or
+     *                   <code>null</code> if not checkpointing.
+     */
+    void trackHandled(StreamLoadCheckpoint checkpoint) {
+      if (checkpoint == null || this.startOffset < 0L) return;
+      checkpoint.handled(this.startOffset, this.endOffset);
+    }
+
+    /**
+     * Records the records in the batch as failed against the specified {@link
+     * StreamLoadCheckpoint} so that the checkpoint is held before them.  This
+     * does nothing if the checkpoint is <code>null</code> or if the record
+     * offsets are not tracked.
+     *
+     * @param checkpoint The {@link StreamLoadCheckpoint} to track against, or
+     *                   <code>null</code> if not checkpointing.
+     */
+    void trackUnhandled(StreamLoadCheckpoint checkpoint) {
+      if (checkpoint == null || this.startOffset < 0L) return;
+      checkpoint.failed(this.startOffset, this.endOffset);
+    }
+
+    /**
+     * Marks the batch as failed so that the failure is only tracked once.
+     *
+     * @return <code>true</code> if the batch was not previously marked as
+     *         failed, otherwise <code>false</code>.
+     */
+    boolean markFailed() {
+      return this.failed.compareAndSet(false, true);
+    }
+
+    /**
+     * Tracks each of the records in the batch as loaded against the specified
+     * {@link SzBulkLoadResult}.
+     *
+     * @param bulkLoadResult The {@link SzBulkLoadResult} to track against.
+     */
+    void trackLoaded(SzBulkLoadResult bulkLoadResult) {
+      for (int index = 0; index < this.dataSources.length; index++) {
+        String dataSource = this.dataSources[index];
+        for (int count = this.counts[index]; count > 0; count--) {
+          bulkLoadResult.trackLoadedRecord(dataSource);
+        }
+      }
+    }
+
+    /**
+     * Tracks each of the records in the batch as failed with the specified
+     * {@link SzError} against the specified {@link SzBulkLoadResult}.
+     *
+     * @param bulkLoadResult The {@link SzBulkLoadResult} to track against.
+     * @param error The {@link SzError} describing the failure.
+     */
+    void trackFailed(SzBulkLoadResult bulkLoadResult, SzError error) {
+      for (int index = 0; index < this.dataSources.length; index++) {
+        String dataSource = this.dataSources[index];
+        for (int count = this.counts[index]; count > 0; count--) {
+          bulkLoadResult.trackFailedRecord(dataSource, error);
+        }
+      }
+    }
+  }
+
+  /**
+   * The buffer for the message body.
+   */
+  private StringBuilder buffer = new StringBuilder(MAXIMUM_BATCH_BYTES);
+
+  /**
+   * The number of UTF-8 encoded bytes in the message body so far.
+   */
+  private int byteCount = 0;
+
+  /**
+   * The number of records in the batch.
+   */
+  private int recordCount = 0;
+
+  /**
+   * The offset of the first record in the batch, or a negative number if
+   * the record offsets are not tracked.
+   */
+  private long startOffset = -1L;
+
+  /**
+   * The offset after the last record in the batch.
+   */
+  private long endOffset = -1L;
+
+  /**
+   * The distinct data sources for the records in the batch.
+   */
+  private String[] dataSources = new String[INITIAL_DATA_SOURCE_CAPACITY];
+
+  /**
+   * The number of records for each of the data sources.
+   */
+  private int[] counts = new int[INITIAL_DATA_SOURCE_CAPACITY];
+
+  /**
+   * The number of distinct data sources in the batch.
+   */
+  private int dataSourceCount = 0;
+
+  /**
+   * Private constructor to force use of {@link #acquire()}.
+   */
+  private StreamLoadBatchBuilder() {
+    // do nothing
+  }
+
+  /**
+   * Obtains an empty instance from the pool, creating one if none is
+   * available.
+   *
+   * @return An empty {@link StreamLoadBatchBuilder}.
+   */
+  static StreamLoadBatchBuilder acquire() {
+    StreamLoadBatchBuilder builder = POOL.poll();
+    return (builder == null) ? new StreamLoadBatchBuilder() : builder;
+  }
+
+  /**
+   * Resets the specified instance and returns it to the pool.  This does
+   * nothing if the specified instance is <code>null</code>.
+   *
+   * @param builder The {@link StreamLoadBatchBuilder} to release.
+   */
+  static void release(StreamLoadBatchBuilder builder) {
+    if (builder == null) return;
+    builder.reset();
+    POOL.offer(builder);
+  }
+
+  /**
+   * Computes the number of bytes in the UTF-8 encoding of the specified
+   * text without encoding it.
+   *
+   * @param text The text to measure.
+   *
+   * @return The number of bytes in the UTF-8 encoding of the text.
+   */
+  static int utf8Length(CharSequence text) {
+    int length = text.length();
+    int count = length;
+    for (int index = 0; index < length; index++) {
+      char c = text.charAt(index);
+      if (c < 0x80) continue;
+      if (c < 0x800) {
+        count++;
+      } else if (Character.isHighSurrogate(c) && index + 1 < length
+                 && Character.isLowSurrogate(text.charAt(index + 1)))
+      {
+        // a surrogate pair is encoded as four bytes
+        count += 2;
+        index++;
+      } else {
+        count += 2;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks if the batch has no records.
+   *
+   * @return <code>true</code> if the batch has no records, otherwise
+   *         <code>false</code>.
+   */
+  boolean isEmpty() {
+    return this.recordCount == 0;
+  }
+
+  /**
+   * Gets the number of records in the batch.
+   *
+   * @return The number of records in the batch.
+   */
+  int getRecordCount() {
+    return this.recordCount;
+  }
+
+  /**
+   * Gets the number of UTF-8 encoded bytes in the message body so far, not
+   * including the closing bracket that is added when the batch is
+   * {@linkplain #build() built}.
+   *
+   * @return The number of UTF-8 encoded bytes in the message body.
+   */
+  int getByteCount() {
+    return this.byteCount;
+  }
+
+  /**
+   * Adds the specified record text to the batch without tracking its offset
+   * in the bulk data.
+   *
+   * @param recordText The JSON text for the record.
+   * @param recordByteCount The number of bytes in the UTF-8 encoding of the
+   *                        record text.
+   * @param dataSource The data source for the record.
+   */
+  void add(String recordText, int recordByteCount, String dataSource) {
+    this.add(recordText, recordByteCount, dataSource, -1L);
+  }
+
+  /**
+   * Adds the specified record text at the specified offset in the bulk data
+   * to the batch.  Records must be added in order of their offsets.
+   *
+   * @param recordText The JSON text for the record.
+   * @param recordByteCount The number of bytes in the UTF-8 encoding of the
+   *                        record text.
+   * @param dataSource The data source for the record.
+   * @param recordOffset The offset of the record in the bulk data, or a
+   *                     negative number if not tracked.
+   */
+  void add(String   recordText,
+           int      recordByteCount,
+           String   dataSource,
+           long     recordOffset)
+  {
+    if (recordOffset >= 0L) {
+      if (this.startOffset < 0L) this.startOffset = recordOffset;
+      this.endOffset = recordOffset + 1L;
+    }
+    if (this.recordCount == 0) {
+      this.buffer.append('[');
+      this.byteCount = 1;
+    } else {
+      this.buffer.append(',');
+      this.byteCount++;
+    }
+    this.buffer.append(recordText);
+    this.byteCount += recordByteCount;
+    this.recordCount++;
+
+    // count the record against its data source (most recent first)
+    for (int index = this.dataSourceCount - 1; index >= 0; index--) {
+      String existing = this.dataSources[index];
+      if (existing == dataSource
+          || (existing != null && existing.equals(dataSource)))
+      {
+        this.counts[index]++;
+        return;
+      }
+    }
+    if (this.dataSourceCount == this.dataSources.length) {
+      int capacity = this.dataSourceCount * 2;
+      this.dataSources  = Arrays.copyOf(this.dataSources, capacity);
+      this.counts       = Arrays.copyOf(this.counts, capacity);
+    }
+    this.dataSources[this.dataSourceCount] = dataSource;
+    this.counts[this.dataSourceCount] = 1;
+    this.dataSourceCount++;
+  }
+
+  /**
+   * Completes the current batch and resets this instance so it can be used
+   * to build the next batch.
+   *
+   * @return The completed {@link Batch}, or <code>null</code> if the batch
+   *         has no records.
+   */
+  Batch build() {
+    if (this.recordCount == 0) return null;
+    this.buffer.append(']');
+    Batch batch = new Batch(
+        this.buffer.toString(),
+        this.recordCount,
+        this.startOffset,
+        this.endOffset,
+        Arrays.copyOf(this.dataSources, this.dataSourceCount),
+        Arrays.copyOf(this.counts, this.dataSourceCount));
+    this.reset();
+    return batch;
+  }
+
+  /**
+   * Discards the current batch.
+   */
+  void reset() {
+    this.buffer.setLength(0);
+    this.byteCount    = 0;
+    this.recordCount  = 0;
+    this.startOffset  = -1L;
+    this.endOffset    = -1L;
+    Arrays.fill(this.dataSources, 0, this.dataSourceCount, null);
+    this.dataSourceCount = 0;
+  }
+}
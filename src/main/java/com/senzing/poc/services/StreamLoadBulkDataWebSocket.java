@@ -29,6 +29,34 @@ public class StreamLoadBulkDataWebSocket extends LoadBulkDataWebSocket
    */
   protected int maxBatchCount = 10;
 
+  /**
+   * The optional number of threads to send the batches on, or
+   * <code>null</code> if not pipelining the load.
+   */
+  protected Integer senderThreads = null;
+
+  /**
+   * Whether or not to adaptively size the batches.
+   */
+  protected boolean adaptiveBatching = false;
+
+  /**
+   * The optional maximum number of batches in flight, or <code>null</code>
+   * if not windowing the sends.
+   */
+  protected Integer inFlightBatches = null;
+
+  /**
+   * Whether or not to resume the load from its checkpoint.
+   */
+  protected boolean resume = false;
+
+  /**
+   * The optional offset in the original bulk data of the first uploaded
+   * record, or <code>null</code> if uploading from the first record.
+   */
+  protected Long startRecord = null;
+
   /**
    * Default constructor.
    */
@@ -56,6 +84,71 @@ public class StreamLoadBulkDataWebSocket extends LoadBulkDataWebSocket
       }
     }
 
+    paramList = params.get("senderThreads");
+    if (paramList != null && paramList.size() > 0) {
+      try {
+        this.senderThreads = Integer.parseInt(paramList.get(0));
+
+      } catch (IllegalArgumentException e) {
+        throw new BadRequestException(
+            "The specified number of sender threads (senderThreads) must be "
+                + "an integer: " + paramList.get(0));
+      }
+      this.validateSenderThreads(this.senderThreads, this.uriInfo, this.timers);
+    }
+
+    paramList = params.get("inFlightBatches");
+    if (paramList != null && paramList.size() > 0) {
+      try {
+        this.inFlightBatches = Integer.parseInt(paramList.get(0));
+
+      } catch (IllegalArgumentException e) {
+        throw new BadRequestException(
+            "The specified number of in-flight batches (inFlightBatches) must "
+                + "be an integer: " + paramList.get(0));
+      }
+      this.validateInFlightBatches(
+          this.inFlightBatches, this.senderThreads, this.uriInfo, this.timers);
+    }
+
+    paramList = params.get("adaptiveBatching");
+    if (paramList != null && paramList.size() > 0) {
+      String value = paramList.get(0).trim();
+      if (value.length() == 0 || "true".equalsIgnoreCase(value)) {
+        this.adaptiveBatching = true;
+      } else if (!"false".equalsIgnoreCase(value)) {
+        throw new BadRequestException(
+            "The specified adaptive batching flag (adaptiveBatching) must be "
+                + "true or false: " + paramList.get(0));
+      }
+    }
+
+    paramList = params.get("resume");
+    if (paramList != null && paramList.size() > 0) {
+      String value = paramList.get(0).trim();
+      if (value.length() == 0 || "true".equalsIgnoreCase(value)) {
+        this.resume = true;
+      } else if (!"false".equalsIgnoreCase(value)) {
+        throw new BadRequestException(
+            "The specified resume flag (resume) must be true or false: "
+                + paramList.get(0));
+      }
+    }
+
+    paramList = params.get("startRecord");
+    if (paramList != null && paramList.size() > 0) {
+      try {
+        this.startRecord = Long.parseLong(paramList.get(0));
+
+      } catch (IllegalArgumentException e) {
+        throw new BadRequestException(
+            "The specified start record (startRecord) must be an integer: "
+                + paramList.get(0));
+      }
+    }
+    this.validateResume(
+        this.loadId, this.resume, this.startRecord, this.uriInfo, this.timers);
+
   }
 
   /**
@@ -72,7 +165,13 @@ public class StreamLoadBulkDataWebSocket extends LoadBulkDataWebSocket
                                this.loadId,
                                this.maxBatchCount,
                                this.maxFailures,
+                               this.senderThreads,
+                               this.adaptiveBatching,
+                               this.inFlightBatches,
+                               this.resume,
+                               this.startRecord,
                                this.mediaType,
+                               null,
                                this.pipedInputStream,
                                null,
                                this.uriInfo,
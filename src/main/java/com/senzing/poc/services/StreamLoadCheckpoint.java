@@ -0,0 +1,212 @@
+package com.senzing.poc.services;
+
+import com.senzing.poc.server.SzLoadCheckpointStore;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tracks the checkpoint for a single stream load as the record offset below
+ * which every record of the bulk data has been handled, either by being
+ * acknowledged by the load queue as part of a batch or by being rejected
+ * (e.g.: as incomplete or too large).  Since batches may complete out of
+ * order when they are sent concurrently, the ranges of handled records
+ * beyond the checkpoint are retained until the gaps before them are filled.
+ * <p>
+ * A batch that fails to send is {@linkplain #failed(long, long) recorded as
+ * failed} rather than handled, and the checkpoint is held before the first
+ * failed record for the rest of the load so that resuming the load sends it
+ * again.  Since an asynchronous send may fail after the batch was handled
+ * (and after the checkpoint was saved past it), a failure that arrives late
+ * moves the checkpoint back and saves it immediately, even after the load
+ * has completed.
+ * <p>
+ * The checkpoint is saved to the {@link SzLoadCheckpointStore} at most once
+ * per {@linkplain #SAVE_INTERVAL save interval} while loading and again when
+ * {@linkplain #save() explicitly saved}.  Once the load has {@linkplain
+ * #complete() completed} with every record handled the checkpoint is
+ * removed from the store.  This class is thread-safe.
+ */
+class StreamLoadCheckpoint {
+  /**
+   * The minimum number of milliseconds between saves of the checkpoint while
+   * loading.
+   */
+  private static final long SAVE_INTERVAL = 1000L;
+
+  /**
+   * The {@link SzLoadCheckpointStore} to save the checkpoint to.
+   */
+  private SzLoadCheckpointStore store;
+
+  /**
+   * The load ID for the checkpoint.
+   */
+  private String loadId;
+
+  /**
+   * The record offset below which all records have been handled.
+   */
+  private long recordOffset;
+
+  /**
+   * The ranges of handled records beyond the record offset, keyed by the
+   * offset of the first record with the offset after the last record as the
+   * value.
+   */
+  private TreeMap<Long, Long> handledRanges = new TreeMap<>();
+
+  /**
+   * The offset of the first record of the earliest failed batch, or {@link
+   * Long#MAX_VALUE} if no batch has failed.
+   */
+  private long failedOffset = Long.MAX_VALUE;
+
+  /**
+   * Flag indicating if the load has completed.
+   */
+  private boolean completed = false;
+
+  /**
+   * The record offset that was last saved.
+   */
+  private long savedOffset = -1L;
+
+  /**
+   * The nanosecond timestamp at which the checkpoint was last saved.
+   */
+  private long saveTime = 0L;
+
+  /**
+   * Constructs with the specified parameters.
+   *
+   * @param store The {@link SzLoadCheckpointStore} to save to.
+   * @param loadId The load ID for the checkpoint.
+   * @param recordOffset The initial record offset for the checkpoint.
+   */
+  StreamLoadCheckpoint(SzLoadCheckpointStore  store,
+                       String                 loadId,
+                       long                   recordOffset)
+  {
+    this.store        = store;
+    this.loadId       = loadId;
+    this.recordOffset = recordOffset;
+  }
+
+  /**
+   * Gets the number of leading records to skip from an upload that begins
+   * at the specified start record in order to resume the load with the
+   * specified load ID from its checkpoint.  If there is no checkpoint for
+   * the load then the load is resumed from the first record.
+   *
+   * @param store The {@link SzLoadCheckpointStore} holding the checkpoint.
+   * @param loadId The load ID for the checkpoint.
+   * @param startRecord The offset in the original bulk data of the first
+   *                    uploaded record.
+   *
+   * @return The number of leading uploaded records to skip.
+   *
+   * @throws IllegalArgumentException If the start record is beyond the
+   *                                  checkpoint.
+   */
+  static long getResumeSkipCount(SzLoadCheckpointStore  store,
+                                 String                 loadId,
+                                 long                   startRecord)
+  {
+    Long resumeOffset = store.getRecordOffset(loadId);
+    if (resumeOffset == null) resumeOffset = 0L;
+    if (startRecord > resumeOffset) {
+      throw new IllegalArgumentException(
+          "The start record (startRecord) is beyond the checkpoint for "
+          + "the load (" + resumeOffset + "): " + startRecord);
+    }
+    return resumeOffset - startRecord;
+  }
+
+  /**
+   * Gets the record offset below which all records have been handled and
+   * none have failed.
+   *
+   * @return The record offset below which all records have been handled and
+   *         none have failed.
+   */
+  synchronized long getRecordOffset() {
+    return Math.min(this.recordOffset, this.failedOffset);
+  }
+
+  /**
+   * Marks the records from the specified start offset (inclusive) to the
+   * specified end offset (exclusive) as handled, advancing the checkpoint if
+   * the gap before them has been filled.
+   *
+   * @param startOffset The offset of the first handled record.
+   * @param endOffset The offset after the last handled record.
+   */
+  synchronized void handled(long startOffset, long endOffset) {
+    if (endOffset <= this.recordOffset) return;
+    if (startOffset > this.recordOffset) {
+      this.handledRanges.merge(startOffset, endOffset, Math::max);
+      return;
+    }
+
+    // advance the checkpoint and absorb any ranges it now reaches
+    this.recordOffset = endOffset;
+    Map.Entry<Long, Long> entry = this.handledRanges.firstEntry();
+    while (entry != null && entry.getKey() <= this.recordOffset) {
+      this.recordOffset = Math.max(this.recordOffset, entry.getValue());
+      this.handledRanges.pollFirstEntry();
+      entry = this.handledRanges.firstEntry();
+    }
+
+    long now = System.nanoTime();
+    if ((now - this.saveTime) / 1000000L >= SAVE_INTERVAL) {
+      this.saveTime = now;
+      this.save();
+    }
+  }
+
+  /**
+   * Records that the batch of records from the specified start offset
+   * (inclusive) to the specified end offset (exclusive) failed to send,
+   * holding the checkpoint before the start offset.  If the checkpoint has
+   * already been saved beyond the start offset then it is moved back and
+   * saved immediately.
+   *
+   * @param startOffset The offset of the first record of the failed batch.
+   * @param endOffset The offset after the last record of the failed batch.
+   */
+  synchronized void failed(long startOffset, long endOffset) {
+    if (startOffset >= this.failedOffset) return;
+    this.failedOffset = startOffset;
+    if (this.completed || this.savedOffset > startOffset) {
+      this.completed = false;
+      this.save();
+    }
+  }
+
+  /**
+   * Marks the load as completed, removing the checkpoint from the backing
+   * {@link SzLoadCheckpointStore} if no batch failed, otherwise saving it so
+   * that the failed batches can be sent again by resuming the load.
+   */
+  synchronized void complete() {
+    if (this.failedOffset != Long.MAX_VALUE) {
+      this.save();
+      return;
+    }
+    this.store.removeRecordOffset(this.loadId);
+    this.savedOffset  = -1L;
+    this.completed    = true;
+  }
+
+  /**
+   * Saves the current checkpoint to the backing {@link
+   * SzLoadCheckpointStore} if it has changed since last saved.
+   */
+  synchronized void save() {
+    long offset = this.getRecordOffset();
+    if (offset == this.savedOffset) return;
+    this.store.saveRecordOffset(this.loadId, offset);
+    this.savedOffset = offset;
+  }
+}
@@ -0,0 +1,307 @@
+package com.senzing.poc.services;
+
+import com.senzing.api.services.SzMessage;
+import com.senzing.api.services.SzMessageSink;
+import com.senzing.poc.server.SzPocProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.senzing.poc.services.StreamLoadUtilities.handleFailedAsyncLoad;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Coalesces concurrently loaded single records into JSON array batch
+ * messages for the load queue so that many concurrent single-record loads
+ * result in few load queue messages.  Each caller of {@link #load(String)}
+ * blocks until the batch containing its record has been sent, so the
+ * outcome reported to the caller is unchanged.  A batch is sent once it
+ * reaches the maximum number of records or bytes, or once the coalescing
+ * window has elapsed since its first record arrived.
+ * <p>
+ * The batches are assembled and sent by a fixed number of daemon flusher
+ * threads that each drain the shared queue of pending records, so a slow
+ * send only delays the batch being sent by that thread.  This class is
+ * thread-safe.
+ */
+public class StreamLoadCoalescer {
+  /**
+   * The default maximum number of records per coalesced batch.
+   */
+  public static final int DEFAULT_MAXIMUM_RECORDS = 100;
+
+  /**
+   * Describes a record awaiting coalescing.
+   */
+  private static final class Pending {
+    /**
+     * The JSON text for the record.
+     */
+    private String recordText;
+
+    /**
+     * The number of bytes in the UTF-8 encoding of the record text.
+     */
+    private int byteCount;
+
+    /**
+     * The {@link CompletableFuture} completed once the record is sent.
+     */
+    private CompletableFuture<Void> future = new CompletableFuture<>();
+
+    /**
+     * Constructs with the specified record text.
+     *
+     * @param recordText The JSON text for the record.
+     */
+    private Pending(String recordText) {
+      this.recordText = recordText;
+      this.byteCount  = StreamLoadBatchBuilder.utf8Length(recordText);
+    }
+  }
+
+  /**
+   * The {@link SzPocProvider} from which to acquire the load sinks.
+   */
+  private SzPocProvider provider;
+
+  /**
+   * The number of nanoseconds to wait for more records after the first
+   * record of a batch arrives.
+   */
+  private long windowNanos;
+
+  /**
+   * The maximum number of records per batch.
+   */
+  private int maxRecords;
+
+  /**
+   * The maximum number of bytes per batch message.
+   */
+  private int maxMessageBytes;
+
+  /**
+   * The queue of records awaiting coalescing.
+   */
+  private LinkedBlockingQueue<Pending> pendingQueue
+      = new LinkedBlockingQueue<>();
+
+  /**
+   * The flusher threads.
+   */
+  private List<Thread> flushers;
+
+  /**
+   * Flag indicating if shutdown has been requested.
+   */
+  private volatile boolean shutdown = false;
+
+  /**
+   * Constructs with the specified parameters and starts the flusher
+   * threads.
+   *
+   * @param provider The {@link SzPocProvider} from which to acquire the load
+   *                 sinks.
+   * @param windowMillis The number of milliseconds to wait for more records
+   *                     after the first record of a batch arrives.
+   * @param maxRecords The maximum number of records per batch.
+   * @param maxMessageBytes The maximum number of bytes per batch message.
+   * @param flusherCount The number of flusher threads.
+   */
+  public StreamLoadCoalescer(SzPocProvider  provider,
+                             long           windowMillis,
+                             int            maxRecords,
+                             int            maxMessageBytes,
+                             int            flusherCount)
+  {
+    if (windowMillis < 0L) {
+      throw new IllegalArgumentException(
+          "The coalescing window cannot be negative: " + windowMillis);
+    }
+    if (maxRecords < 1) {
+      throw new IllegalArgumentException(
+          "The maximum number of records must be positive: " + maxRecords);
+    }
+    if (flusherCount < 1) {
+      throw new IllegalArgumentException(
+          "The number of flusher threads must be positive: " + flusherCount);
+    }
+    this.provider         = provider;
+    this.windowNanos      = windowMillis * 1000000L;
+    this.maxRecords       = maxRecords;
+    this.maxMessageBytes  = maxMessageBytes;
+    this.flushers         = new ArrayList<>(flusherCount);
+
+    for (int index = 0; index < flusherCount; index++) {
+      Thread thread = new Thread(this::flushBatches,
+                                 "load-coalescer-" + index);
+      thread.setDaemon(true);
+      this.flushers.add(thread);
+      thread.start();
+    }
+  }
+
+  /**
+   * Adds the record described by the specified JSON text to the next batch
+   * and waits for that batch to be sent.
+   *
+   * @param recordText The JSON text describing the record.
+   *
+   * @throws Exception If the batch could not be sent.
+   */
+  public void load(String recordText) throws Exception {
+    if (this.shutdown) {
+      throw new IllegalStateException("The load coalescer has been shutdown");
+    }
+    Pending pending = new Pending(recordText);
+    this.pendingQueue.add(pending);
+
+    // fail the record if shutdown began after the check above and it was
+    // added after the flushers and shutdown drained the queue (if it is no
+    // longer queued then whoever took it will complete it)
+    if (this.shutdown && this.pendingQueue.remove(pending)) {
+      throw new IllegalStateException("The load coalescer has been shutdown");
+    }
+    try {
+      pending.future.get();
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) throw (Exception) cause;
+      throw e;
+    }
+  }
+
+  /**
+   * Stops the flusher threads once the records already pending have been
+   * sent and fails any records that could not be sent.
+   */
+  public void shutdown() {
+    this.shutdown = true;
+    for (Thread thread : this.flushers) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    Exception failure = new IllegalStateException(
+        "The load coalescer has been shutdown");
+    for (Pending pending = this.pendingQueue.poll();
+         pending != null;
+         pending = this.pendingQueue.poll())
+    {
+      pending.future.completeExceptionally(failure);
+    }
+  }
+
+  /**
+   * Runs a flusher thread which coalesces the pending records into batches
+   * and sends them until shutdown.
+   */
+  private void flushBatches() {
+    List<Pending> batch = new ArrayList<>(this.maxRecords);
+    StreamLoadBatchBuilder builder = StreamLoadBatchBuilder.acquire();
+    Pending carry = null;
+    try {
+      while (true) {
+        // wait for the first record of the batch
+        Pending first = carry;
+        carry = null;
+        while (first == null) {
+          if (this.shutdown && this.pendingQueue.isEmpty()) return;
+          first = this.pendingQueue.poll(100L, TimeUnit.MILLISECONDS);
+        }
+        builder.add(first.recordText, first.byteCount, null);
+        batch.add(first);
+
+        // gather more records until the batch is full or the window closes
+        long deadline = System.nanoTime() + this.windowNanos;
+        while (batch.size() < this.maxRecords) {
+          long remaining = deadline - System.nanoTime();
+          Pending next = (remaining > 0L)
+              ? this.pendingQueue.poll(remaining, TimeUnit.NANOSECONDS)
+              : this.pendingQueue.poll();
+          if (next == null) break;
+
+          // start the next batch with the record if it does not fit
+          if (builder.getByteCount() + next.byteCount + 2
+              >= this.maxMessageBytes)
+          {
+            carry = next;
+            break;
+          }
+          builder.add(next.recordText, next.byteCount, null);
+          batch.add(next);
+        }
+
+        this.send(builder.build(), batch);
+        batch.clear();
+      }
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+    } finally {
+      StreamLoadBatchBuilder.release(builder);
+      Exception failure = new IllegalStateException(
+          "The load coalescer was interrupted");
+      for (Pending pending : batch) {
+        pending.future.completeExceptionally(failure);
+      }
+      if (carry != null) carry.future.completeExceptionally(failure);
+    }
+  }
+
+  /**
+   * Sends the specified batch and completes the futures for each of the
+   * coalesced records accordingly.
+   *
+   * @param batch The {@link StreamLoadBatchBuilder.Batch} to send.
+   * @param pendings The {@link List} of {@link Pending} records in the batch.
+   */
+  private void send(StreamLoadBatchBuilder.Batch batch, List<Pending> pendings)
+  {
+    SzMessage message = new SzMessage(batch.getMessageBody());
+    SzMessageSink loadSink = null;
+    try {
+      if (isDebugLogging()) {
+        logDebug("Sending coalesced message of " + pendings.size()
+                     + " records: " + batch.getMessageBody());
+      }
+      loadSink = this.provider.acquireLoadSink();
+
+      // send the batch on the async queue (the callers are already complete
+      // if the failure is reported after the send returns)
+      loadSink.send(message, (e, msg) -> {
+        if (handleFailedAsyncLoad(this.provider, e, msg)) return;
+        throw e;
+      });
+
+      for (Pending pending : pendings) {
+        pending.future.complete(null);
+      }
+
+    } catch (Exception e) {
+      // the records are not lost if the batch was journaled for replay (and
+      // the failed async logger will not double-log)
+      boolean journaled = handleFailedAsyncLoad(this.provider, e, message);
+      for (Pending pending : pendings) {
+        if (journaled) {
+          pending.future.complete(null);
+        } else {
+          pending.future.completeExceptionally(e);
+        }
+      }
+
+    } finally {
+      if (loadSink != null) this.provider.releaseLoadSink(loadSink);
+    }
+  }
+}
@@ -0,0 +1,431 @@
+package com.senzing.poc.services;
+
+import com.senzing.util.ErrorLogSuppressor;
+import com.senzing.util.JsonUtilities;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reports failures to enqueue load messages asynchronously so that the
+ * loading threads never block on logging during a failure storm.  The failed
+ * records are counted per data source on the reporting thread with a cheap
+ * scan of the message text, and the failed messages are then offered to a
+ * bounded lock-free ring buffer which is drained by a single daemon writer
+ * thread that parses the messages and logs them to {@link System#err} (with
+ * stack traces throttled by an {@link ErrorLogSuppressor}).  If the ring
+ * buffer is full then the failure is not logged and is counted as dropped,
+ * but its records are still counted as failed.  This class is thread-safe.
+ */
+class StreamLoadFailureReporter {
+  /**
+   * The default capacity of the ring buffer (must be a power of two).
+   */
+  static final int DEFAULT_CAPACITY = 8192;
+
+  /**
+   * The number of nanoseconds for the writer to park when there are no
+   * failures to report.
+   */
+  private static final long IDLE_PARK_NANOS = 10000000L;
+
+  /**
+   * The top-level key for the data source of a record.
+   */
+  private static final String DATA_SOURCE_KEY = "DATA_SOURCE";
+
+  /**
+   * Describes a failure awaiting reporting.
+   */
+  private static final class Failure {
+    /**
+     * The {@link Exception} that occurred.
+     */
+    private Exception exception;
+
+    /**
+     * The body of the message that failed.
+     */
+    private String body;
+
+    /**
+     * The timestamp at which the failure occurred.
+     */
+    private Date timestamp;
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param exception The {@link Exception} that occurred.
+     * @param body The body of the message that failed.
+     */
+    private Failure(Exception exception, String body) {
+      this.exception  = exception;
+      this.body       = body;
+      this.timestamp  = new Date();
+    }
+  }
+
+  /**
+   * The slots of the ring buffer.
+   */
+  private final AtomicReferenceArray<Failure> slots;
+
+  /**
+   * The mask for converting a sequence number to a slot index.
+   */
+  private final int mask;
+
+  /**
+   * The sequence number of the next slot to be claimed by a producer.
+   */
+  private final AtomicLong tail = new AtomicLong(0L);
+
+  /**
+   * The sequence number of the next slot to be drained by the writer.  This
+   * is only written by the writer thread.
+   */
+  private volatile long head = 0L;
+
+  /**
+   * The number of failures dropped because the ring buffer was full.
+   */
+  private final AtomicLong droppedCount = new AtomicLong(0L);
+
+  /**
+   * The number of dropped failures that have been logged.
+   */
+  private long loggedDroppedCount = 0L;
+
+  /**
+   * The total number of failed records that have been reported.
+   */
+  private final LongAdder failedRecordCount = new LongAdder();
+
+  /**
+   * The number of failed records per data source code.
+   */
+  private final ConcurrentHashMap<String, LongAdder> dataSourceCounts
+      = new ConcurrentHashMap<>();
+
+  /**
+   * The suppression state for the stack traces, which is only accessed by
+   * the writer thread.
+   */
+  private final ErrorLogSuppressor suppressor = new ErrorLogSuppressor();
+
+  /**
+   * Constructs with the specified ring buffer capacity and starts the writer
+   * thread.
+   *
+   * @param capacity The capacity of the ring buffer, which must be a power
+   *                 of two.
+   */
+  StreamLoadFailureReporter(int capacity) {
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException(
+          "The capacity must be a positive power of two: " + capacity);
+    }
+    this.slots  = new AtomicReferenceArray<>(capacity);
+    this.mask   = capacity - 1;
+
+    Thread writer = new Thread(this::writeFailures, "load-failure-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Counts the failed records of the specified failure and offers it for
+   * logging without blocking.  If the ring buffer is full then the failure
+   * is not logged and is counted as dropped.
+   *
+   * @param e The {@link Exception} that occurred.
+   * @param body The body of the message that failed.
+   *
+   * @return <code>true</code> if the failure was accepted for reporting,
+   *         otherwise <code>false</code> if it was dropped.
+   */
+  boolean report(Exception e, String body) {
+    // count the failed records here so they are counted even if dropped
+    Map<String, Integer> sourceCounts = new HashMap<>();
+    this.failedRecordCount.add(countRecords(body, sourceCounts));
+    sourceCounts.forEach((code, count) -> {
+      this.dataSourceCounts.computeIfAbsent(code, k -> new LongAdder())
+          .add(count);
+    });
+
+    long capacity = this.mask + 1L;
+    long sequence;
+    do {
+      sequence = this.tail.get();
+      if (sequence - this.head >= capacity) {
+        this.droppedCount.incrementAndGet();
+        return false;
+      }
+    } while (!this.tail.compareAndSet(sequence, sequence + 1L));
+
+    this.slots.lazySet((int) (sequence & this.mask), new Failure(e, body));
+    return true;
+  }
+
+  /**
+   * Counts the records in the specified message body along with the number
+   * of records for each top-level <code>"DATA_SOURCE"</code> value in a
+   * single pass over the text without parsing it.  The body may be a single
+   * record or a JSON array of records.  A body without any records (e.g.:
+   * one that is malformed) is counted as a single record.
+   *
+   * @param body The body of the message that failed.
+   * @param sourceCounts The {@link Map} to which to add the number of records
+   *                     for each data source code.
+   *
+   * @return The number of records in the message body.
+   */
+  static int countRecords(String body, Map<String, Integer> sourceCounts) {
+    if (body == null) return 1;
+    int length = body.length();
+    int start = 0;
+    while (start < length && Character.isWhitespace(body.charAt(start))) {
+      start++;
+    }
+
+    // the keys of the records are one level deeper if in an array
+    int keyDepth = (start < length && body.charAt(start) == '[') ? 2 : 1;
+    int depth = 0;
+    int recordCount = 0;
+    boolean expectingKey = false;
+    boolean dataSourceKey = false;
+    for (int index = start; index < length; index++) {
+      char c = body.charAt(index);
+      switch (c) {
+        case '"': {
+          int end = index + 1;
+          while (end < length && body.charAt(end) != '"') {
+            if (body.charAt(end) == '\\') end++;
+            end++;
+          }
+          end = Math.min(end, length);
+          if (depth == keyDepth) {
+            if (expectingKey) {
+              dataSourceKey = (end - index - 1 == DATA_SOURCE_KEY.length())
+                  && body.startsWith(DATA_SOURCE_KEY, index + 1);
+            } else if (dataSourceKey) {
+              sourceCounts.merge(body.substring(index + 1, end), 1,
+                                 Integer::sum);
+            }
+          }
+          index = end;
+          break;
+        }
+        case '{':
+          if (depth == keyDepth - 1) recordCount++;
+          depth++;
+          if (depth == keyDepth) expectingKey = true;
+          break;
+        case '[':
+          depth++;
+          break;
+        case '}':
+        case ']':
+          depth--;
+          break;
+        case ':':
+          if (depth == keyDepth) expectingKey = false;
+          break;
+        case ',':
+          if (depth == keyDepth) {
+            expectingKey  = true;
+            dataSourceKey = false;
+          }
+          break;
+        default:
+          // ignore other characters
+      }
+    }
+    return Math.max(1, recordCount);
+  }
+
+  /**
+   * Gets the total number of failed records that have been reported,
+   * including those of failures that were dropped without being logged.
+   *
+   * @return The total number of failed records that have been reported.
+   */
+  long getFailedRecordCount() {
+    return this.failedRecordCount.sum();
+  }
+
+  /**
+   * Gets the number of failures that were dropped without being reported
+   * because the ring buffer was full.
+   *
+   * @return The number of dropped failures.
+   */
+  long getDroppedCount() {
+    return this.droppedCount.get();
+  }
+
+  /**
+   * Gets a snapshot of the number of failed records per data source code
+   * sorted by data source code.
+   *
+   * @return The {@link Map} of data source codes to the number of failed
+   *         records.
+   */
+  Map<String, Long> getDataSourceCounts() {
+    Map<String, Long> result = new TreeMap<>();
+    this.dataSourceCounts.forEach((code, count) -> {
+      result.put(code, count.sum());
+    });
+    return result;
+  }
+
+  /**
+   * Takes the next failure from the ring buffer.  This is only called by the
+   * writer thread.
+   *
+   * @return The next {@link Failure}, or <code>null</code> if none is ready.
+   */
+  private Failure poll() {
+    long sequence = this.head;
+    int index = (int) (sequence & this.mask);
+    Failure failure = this.slots.get(index);
+    if (failure == null) return null;
+    this.slots.lazySet(index, null);
+    this.head = sequence + 1L;
+    return failure;
+  }
+
+  /**
+   * Runs the writer thread which drains and reports the failures.
+   */
+  private void writeFailures() {
+    while (true) {
+      Failure failure = this.poll();
+      if (failure == null) {
+        this.logDropped();
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+        continue;
+      }
+      try {
+        this.writeFailure(failure);
+      } catch (Exception e) {
+        e.printStackTrace();
+      }
+    }
+  }
+
+  /**
+   * Logs the number of failures dropped since last logged, if any.
+   */
+  private void logDropped() {
+    long dropped = this.droppedCount.get();
+    if (dropped == this.loggedDroppedCount) return;
+    System.err.println(
+        new Date() + ": DROPPED " + (dropped - this.loggedDroppedCount)
+            + " LOAD FAILURE REPORTS (REPORTING BACKLOG FULL)");
+    this.loggedDroppedCount = dropped;
+  }
+
+  /**
+   * Logs the specified failure, whose records were already counted when it
+   * was reported.  The message body may be a single record or a JSON array
+   * of records.
+   *
+   * @param failure The {@link Failure} to report.
+   */
+  private void writeFailure(Failure failure) {
+    List<JsonObject> records = new LinkedList<>();
+    try {
+      String body = (failure.body == null) ? "" : failure.body.trim();
+      if (body.length() == 0) {
+        // nothing to parse
+      } else if (body.startsWith("[")) {
+        JsonArray jsonArray = JsonUtilities.parseJsonArray(body);
+        for (JsonValue value : jsonArray) {
+          if (value.getValueType() == JsonValue.ValueType.OBJECT) {
+            records.add(value.asJsonObject());
+          }
+        }
+      } else {
+        records.add(JsonUtilities.parseJsonObject(body));
+      }
+    } catch (Exception ignore) {
+      ignore.printStackTrace();
+    }
+
+    // summarize the failed records by data source for the log
+    Map<String, Integer> sourceCounts = new TreeMap<>();
+    for (JsonObject record : records) {
+      String dataSource = JsonUtilities.getString(record, DATA_SOURCE_KEY);
+      if (dataSource == null) continue;
+      sourceCounts.merge(dataSource, 1, Integer::sum);
+    }
+
+    // log the failure
+    Date timestamp = failure.timestamp;
+    StringBuilder sb = new StringBuilder();
+    sb.append(timestamp);
+    if (records.size() <= 1) {
+      sb.append(": FAILED TO ENQUEUE RECORD FOR LOAD");
+      String prefix = ": ";
+      JsonObject record = records.isEmpty() ? null : records.get(0);
+      String dataSource = (record == null) ? null
+          : JsonUtilities.getString(record, "DATA_SOURCE");
+      String recordId = (record == null) ? null
+          : JsonUtilities.getString(record, "RECORD_ID");
+
+      // append the data source
+      if (dataSource != null) {
+        sb.append(prefix).append("DATA_SOURCE=[ ").append(dataSource)
+            .append(" ]");
+        prefix = ", ";
+      }
+
+      // append the record ID
+      if (recordId != null) {
+        sb.append(prefix).append("RECORD_ID=[ ").append(recordId)
+            .append(" ]");
+      }
+
+    } else {
+      sb.append(": FAILED TO ENQUEUE ").append(records.size())
+          .append(" RECORDS FOR LOAD");
+      String prefix = ": ";
+      for (Map.Entry<String, Integer> entry : sourceCounts.entrySet()) {
+        sb.append(prefix).append("DATA_SOURCE=[ ").append(entry.getKey())
+            .append(" ] (").append(entry.getValue()).append(")");
+        prefix = ", ";
+      }
+    }
+    System.err.println(sb.toString());
+
+    boolean suppressing = this.suppressor.isSuppressing();
+    ErrorLogSuppressor.Result result = this.suppressor.updateOnError();
+    switch (result.getState()) {
+      case SUPPRESSED:
+        if (!suppressing) {
+          System.err.println(
+              timestamp + ": SUPPRESSING ASYNC INFO MESSAGE ERRORS FOR "
+                  + this.suppressor.getSuppressDuration() + "ms");
+        }
+        break;
+      case REACTIVATED:
+        if (result.getSuppressedCount() > 0) {
+          System.err.println(
+              timestamp + ": RESUMING ASYNC INFO MESSAGE ERRORS ("
+                  + result.getSuppressedCount() + " SUPPRESSED)");
+        }
+      case ACTIVE:
+        failure.exception.printStackTrace();
+        break;
+    }
+  }
+}
@@ -0,0 +1,648 @@
+package com.senzing.poc.services;
+
+import com.senzing.api.model.SzBulkLoadResult;
+import com.senzing.api.services.SzMessage;
+import com.senzing.api.services.SzMessageSink;
+import com.senzing.poc.server.SzPocProvider;
+import com.senzing.poc.services.StreamLoadBatchBuilder.Batch;
+import com.senzing.util.JsonUtilities;
+import com.senzing.util.Timers;
+
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.senzing.poc.services.StreamLoadSupport.LOAD_QUEUE_NAME;
+import static com.senzing.poc.services.StreamLoadUtilities.handleFailedAsyncLoad;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Provides a pipelined implementation of stream loading bulk records that
+ * splits the work across three stages joined by bounded queues:
+ * <ol>
+ *   <li>The calling thread reads the records and {@linkplain
+ *       #submit(JsonObject, long) submits} them to the pipeline.</li>
+ *   <li>A single batching thread serializes the records (unless {@linkplain
+ *       #submit(String, String, long) submitted as text}) and builds the
+ *       batch messages.</li>
+ *   <li>One or more sender threads send the batch messages, each using its
+ *       own {@link SzMessageSink}.  The first sender waits for its sink but
+ *       the others are only started if a sink is free without waiting, so
+ *       concurrent loads never hold some sinks while waiting on others.</li>
+ * </ol>
+ * The bounded queues apply back-pressure so that a slow load queue throttles
+ * reading rather than buffering the entire upload in memory.  All tracking
+ * against the {@link SzBulkLoadResult} is synchronized on that object.
+ */
+class StreamLoadPipeline {
+  /**
+   * The maximum number of sender threads that may be requested.
+   */
+  static final int MAXIMUM_SENDER_THREADS = 16;
+
+  /**
+   * The capacity of the queue of records awaiting batching.
+   */
+  private static final int RECORD_QUEUE_CAPACITY = 1000;
+
+  /**
+   * The number of batch messages that may be queued per sender thread.
+   */
+  private static final int BATCHES_PER_SENDER = 2;
+
+  /**
+   * The number of milliseconds to wait on a queue before checking if the
+   * pipeline has failed.
+   */
+  private static final long QUEUE_WAIT_TIME = 100L;
+
+  /**
+   * Describes a submitted record as either a {@link JsonObject} to be
+   * serialized or as JSON text with its already-resolved data source.
+   */
+  private static final class QueuedRecord {
+    /**
+     * The {@link JsonObject} for the record, or <code>null</code> if the
+     * record was submitted as text.
+     */
+    private JsonObject record;
+
+    /**
+     * The JSON text for the record, or <code>null</code> if the record was
+     * submitted as a {@link JsonObject}.
+     */
+    private String recordText;
+
+    /**
+     * The data source for the record if submitted as text.
+     */
+    private String dataSource;
+
+    /**
+     * The offset of the record in the bulk data.
+     */
+    private long recordOffset;
+
+    /**
+     * Constructs with the specified parameters.
+     *
+     * @param record The {@link JsonObject} for the record, or
+     *               <code>null</code> if submitted as text.
+     * @param recordText The JSON text for the record, or <code>null</code>
+     *                   if submitted as a {@link JsonObject}.
+     * @param dataSource The data source for the record if submitted as text.
+     * @param recordOffset The offset of the record in the bulk data.
+     */
+    private QueuedRecord(JsonObject record,
+                         String     recordText,
+                         String     dataSource,
+                         long       recordOffset)
+    {
+      this.record       = record;
+      this.recordText   = recordText;
+      this.dataSource   = dataSource;
+      this.recordOffset = recordOffset;
+    }
+  }
+
+  /**
+   * The marker placed on the record queue to indicate there are no more
+   * records.
+   */
+  private static final QueuedRecord END_OF_RECORDS
+      = new QueuedRecord(null, null, null, -1L);
+
+  /**
+   * The marker placed on the batch queue to indicate there are no more
+   * batches.
+   */
+  private static final Batch END_OF_BATCHES = new Batch(null, 0, -1L, -1L, null, null);
+
+  /**
+   * The {@link BulkDataStreamSupport} for creating errors and tracking
+   * timings.
+   */
+  private BulkDataStreamSupport support;
+
+  /**
+   * The {@link SzPocProvider} from which to acquire the load sinks.
+   */
+  private SzPocProvider provider;
+
+  /**
+   * The {@link SzBulkLoadResult} for tracking the results.
+   */
+  private SzBulkLoadResult bulkLoadResult;
+
+  /**
+   * The maximum number of records per batch.
+   */
+  private int maxBatchCount;
+
+  /**
+   * The maximum number of bytes per batch message.
+   */
+  private int maxMessageBytes;
+
+  /**
+   * The {@link AdaptiveBatchSizer} for adjusting the batch limits, or
+   * <code>null</code> if the limits are fixed.
+   */
+  private AdaptiveBatchSizer batchSizer;
+
+  /**
+   * The {@link StreamLoadCheckpoint} for tracking the handled records, or
+   * <code>null</code> if not checkpointing.
+   */
+  private StreamLoadCheckpoint checkpoint;
+
+  /**
+   * The {@link Timers} for the request.
+   */
+  private Timers timers;
+
+  /**
+   * The maximum number of sender threads.
+   */
+  private int senderCount;
+
+  /**
+   * The {@link Timers} for each of the sender threads.
+   */
+  private List<Timers> senderTimers;
+
+  /**
+   * The queue of records awaiting batching.
+   */
+  private BlockingQueue<QueuedRecord> recordQueue;
+
+  /**
+   * The queue of batches awaiting sending.
+   */
+  private BlockingQueue<Batch> batchQueue;
+
+  /**
+   * The {@link List} of pipeline {@link Thread} instances.
+   */
+  private List<Thread> threads;
+
+  /**
+   * Flag indicating if the load has been aborted and any remaining records
+   * and batches should be discarded.
+   */
+  private volatile boolean aborted = false;
+
+  /**
+   * The first failure that occurred in a pipeline thread, if any.
+   */
+  private volatile Throwable failure = null;
+
+  /**
+   * Constructs with the specified parameters.
+   *
+   * @param support The {@link BulkDataStreamSupport} for creating errors and
+   *                tracking timings.
+   * @param provider The {@link SzPocProvider} from which to acquire the load
+   *                 sinks.
+   * @param bulkLoadResult The {@link SzBulkLoadResult} for tracking results.
+   * @param maxBatchCount The maximum number of records per batch.
+   * @param maxMessageBytes The maximum number of bytes per batch message.
+   * @param batchSizer The {@link AdaptiveBatchSizer} for adjusting the batch
+   *                   limits, or <code>null</code> if the limits are fixed.
+   * @param checkpoint The {@link StreamLoadCheckpoint} for tracking the
+   *                   handled records, or <code>null</code> if not
+   *                   checkpointing.
+   * @param senderCount The maximum number of sender threads, which is further
+   *                    limited by the number of free load sinks.
+   * @param timers The {@link Timers} for the request.
+   */
+  StreamLoadPipeline(BulkDataStreamSupport  support,
+                     SzPocProvider          provider,
+                     SzBulkLoadResult       bulkLoadResult,
+                     int                    maxBatchCount,
+                     int                    maxMessageBytes,
+                     AdaptiveBatchSizer     batchSizer,
+                     StreamLoadCheckpoint   checkpoint,
+                     int                    senderCount,
+                     Timers                 timers)
+  {
+    if (senderCount < 1 || senderCount > MAXIMUM_SENDER_THREADS) {
+      throw new IllegalArgumentException(
+          "The sender count must be between 1 and " + MAXIMUM_SENDER_THREADS
+          + ": " + senderCount);
+    }
+    this.support         = support;
+    this.provider        = provider;
+    this.bulkLoadResult  = bulkLoadResult;
+    this.maxBatchCount   = maxBatchCount;
+    this.maxMessageBytes = maxMessageBytes;
+    this.batchSizer      = batchSizer;
+    this.checkpoint      = checkpoint;
+    this.timers          = timers;
+    this.senderCount     = senderCount;
+    this.recordQueue     = new ArrayBlockingQueue<>(RECORD_QUEUE_CAPACITY);
+    this.batchQueue      = new ArrayBlockingQueue<>(
+        senderCount * BATCHES_PER_SENDER);
+    this.senderTimers    = new ArrayList<>(senderCount);
+    this.threads         = new ArrayList<>(senderCount + 1);
+
+    this.threads.add(this.newThread(this::batchRecords, "batcher"));
+  }
+
+  /**
+   * Creates a daemon {@link Thread} for a pipeline stage that records the
+   * first failure of any stage.
+   *
+   * @param stage The {@link PipelineStage} to run.
+   * @param name The name suffix for the thread.
+   *
+   * @return The created {@link Thread}.
+   */
+  private Thread newThread(PipelineStage stage, String name) {
+    Thread thread = new Thread(() -> {
+      try {
+        stage.run();
+      } catch (InterruptedException e) {
+        this.fail(e);
+      } catch (Throwable e) {
+        logError(e, "Stream loading pipeline stage failed: " + name);
+        this.fail(e);
+      }
+    }, "stream-load-" + name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /**
+   * A stage of the pipeline that may be interrupted.
+   */
+  private interface PipelineStage {
+    /**
+     * Runs the stage.
+     *
+     * @throws Exception If a failure occurs.
+     */
+    void run() throws Exception;
+  }
+
+  /**
+   * Records the specified failure if it is the first.
+   *
+   * @param failure The failure that occurred.
+   */
+  private synchronized void fail(Throwable failure) {
+    if (this.failure == null) this.failure = failure;
+  }
+
+  /**
+   * Acquires the load sinks for the sender threads and starts the pipeline
+   * threads.  The load sink for the first sender is waited for, but the
+   * other senders are only created if a load sink is free without waiting.
+   */
+  void start() {
+    for (int index = 0; index < this.senderCount; index++) {
+      SzMessageSink loadSink = (index == 0)
+          ? this.provider.acquireLoadSink()
+          : this.provider.tryAcquireLoadSink();
+      if (loadSink == null && index > 0) break;
+
+      Timers senderTimers = new Timers();
+      this.senderTimers.add(senderTimers);
+      this.threads.add(this.newThread(
+          () -> this.sendBatches(loadSink, senderTimers), "sender-" + index));
+    }
+    this.threads.forEach(Thread::start);
+  }
+
+  /**
+   * Submits the specified record to the pipeline, blocking while the record
+   * queue is full.
+   *
+   * @param record The record to submit.
+   * @param recordOffset The offset of the record in the bulk data.
+   *
+   * @throws IOException If the pipeline has failed.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  void submit(JsonObject record, long recordOffset)
+      throws IOException, InterruptedException
+  {
+    this.submit(new QueuedRecord(record, null, null, recordOffset));
+  }
+
+  /**
+   * Submits the specified JSON text for a record with its already-resolved
+   * data source to the pipeline, blocking while the record queue is full.
+   * The text is added to the batch as-is.
+   *
+   * @param recordText The JSON text for the record to submit.
+   * @param dataSource The data source for the record, or <code>null</code>
+   *                   if the record has none.
+   * @param recordOffset The offset of the record in the bulk data.
+   *
+   * @throws IOException If the pipeline has failed.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  void submit(String recordText, String dataSource, long recordOffset)
+      throws IOException, InterruptedException
+  {
+    this.submit(
+        new QueuedRecord(null, recordText, dataSource, recordOffset));
+  }
+
+  /**
+   * Puts the specified {@link QueuedRecord} on the record queue, blocking
+   * while the record queue is full.
+   *
+   * @param queued The {@link QueuedRecord} to submit.
+   *
+   * @throws IOException If the pipeline has failed.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  private void submit(QueuedRecord queued)
+      throws IOException, InterruptedException
+  {
+    if (!this.put(this.recordQueue, queued)) {
+      throw new IOException("Stream loading pipeline failed", this.failure);
+    }
+  }
+
+  /**
+   * Marks the load as aborted so that the remaining records and batches are
+   * discarded rather than sent.
+   */
+  void abort() {
+    this.aborted = true;
+  }
+
+  /**
+   * Signals that there are no more records and waits for all queued batches
+   * to be sent and the pipeline threads to complete, then merges the sender
+   * timings into the request {@link Timers}.
+   *
+   * @throws IOException If the pipeline failed.
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  void close() throws IOException, InterruptedException {
+    this.put(this.recordQueue, END_OF_RECORDS);
+    for (Thread thread : this.threads) {
+      thread.join();
+    }
+    if (this.timers != null) {
+      this.senderTimers.forEach(this.timers::mergeWith);
+    }
+    if (this.failure != null) {
+      throw new IOException("Stream loading pipeline failed", this.failure);
+    }
+  }
+
+  /**
+   * Puts the specified item on the specified queue, blocking while the queue
+   * is full unless the pipeline fails.
+   *
+   * @param queue The {@link BlockingQueue} to put the item on.
+   * @param item The item to put on the queue.
+   *
+   * @return <code>true</code> if the item was put on the queue, or
+   *         <code>false</code> if the pipeline failed.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  private <T> boolean put(BlockingQueue<T> queue, T item)
+      throws InterruptedException
+  {
+    while (!queue.offer(item, QUEUE_WAIT_TIME, TimeUnit.MILLISECONDS)) {
+      if (this.failure != null) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Takes the next item from the specified queue, returning the specified
+   * end marker if the pipeline fails while waiting.
+   *
+   * @param queue The {@link BlockingQueue} to take the item from.
+   * @param endMarker The end marker for the queue.
+   *
+   * @return The next item from the queue, or the end marker.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  private <T> T take(BlockingQueue<T> queue, T endMarker)
+      throws InterruptedException
+  {
+    while (true) {
+      T item = queue.poll(QUEUE_WAIT_TIME, TimeUnit.MILLISECONDS);
+      if (item != null) return item;
+      if (this.failure != null) return endMarker;
+    }
+  }
+
+  /**
+   * Runs the batching stage which serializes the queued records and builds
+   * the batch messages.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  private void batchRecords() throws InterruptedException {
+    StreamLoadBatchBuilder batchBuilder = StreamLoadBatchBuilder.acquire();
+    try {
+      while (true) {
+        QueuedRecord queued = this.take(this.recordQueue, END_OF_RECORDS);
+        if (queued == END_OF_RECORDS) break;
+        if (this.aborted) continue;
+
+        // serialize the record if not submitted as text
+        String recordText = queued.recordText;
+        String resolvedDS = queued.dataSource;
+        if (queued.record != null) {
+          recordText = JsonUtilities.toJsonText(queued.record);
+          resolvedDS = JsonUtilities.getString(queued.record, "DATA_SOURCE");
+        }
+
+        // check if we have a data source
+        if (resolvedDS == null || resolvedDS.trim().length() == 0) {
+          if (isDebugLogging()) {
+            logDebug("Incomplete record not set: " + recordText);
+          }
+          synchronized (this.bulkLoadResult) {
+            this.bulkLoadResult.trackIncompleteRecord(resolvedDS);
+          }
+          this.trackHandledRecord(queued.recordOffset);
+          continue;
+        }
+
+        int recordByteCount = StreamLoadBatchBuilder.utf8Length(recordText);
+        int byteCount = recordByteCount + 3;
+
+        // check if the individual message is simply too large to send
+        if ((byteCount + 2) >= this.maxMessageBytes) {
+          synchronized (this.bulkLoadResult) {
+            this.bulkLoadResult.trackFailedRecord(
+                resolvedDS,
+                this.support.newError("Maximum message size ("
+                    + this.maxMessageBytes + ") exceeded: " + byteCount));
+          }
+          this.trackHandledRecord(queued.recordOffset);
+          continue;
+        }
+
+        int countLimit = (this.batchSizer == null) ? this.maxBatchCount
+            : this.batchSizer.getCountLimit();
+        int byteLimit = (this.batchSizer == null) ? this.maxMessageBytes
+            : this.batchSizer.getByteLimit();
+
+        // send the current batch if this record will not fit
+        if (!batchBuilder.isEmpty()
+            && (byteCount + batchBuilder.getByteCount() >= byteLimit))
+        {
+          if (!this.put(this.batchQueue, batchBuilder.build())) break;
+        }
+
+        // add the record to the batch
+        batchBuilder.add(
+            recordText, recordByteCount, resolvedDS, queued.recordOffset);
+
+        // send the batch if full
+        if (batchBuilder.getRecordCount() >= countLimit
+            || (batchBuilder.getByteCount() + 1) >= byteLimit)
+        {
+          if (!this.put(this.batchQueue, batchBuilder.build())) break;
+        }
+      }
+
+      // send the final partial batch
+      if (!batchBuilder.isEmpty() && !this.aborted) {
+        this.put(this.batchQueue, batchBuilder.build());
+      }
+
+    } finally {
+      StreamLoadBatchBuilder.release(batchBuilder);
+
+      // signal each of the senders that there are no more batches
+      for (int index = 1; index < this.threads.size(); index++) {
+        if (!this.put(this.batchQueue, END_OF_BATCHES)) break;
+      }
+    }
+  }
+
+  /**
+   * Runs a sender stage which sends the queued batch messages using its own
+   * {@link SzMessageSink}, releasing the sink when done.
+   *
+   * @param loadSink The {@link SzMessageSink} for this sender.
+   * @param senderTimers The {@link Timers} for this sender.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  private void sendBatches(SzMessageSink loadSink, Timers senderTimers)
+      throws InterruptedException
+  {
+    try {
+      while (true) {
+        Batch batch = this.take(this.batchQueue, END_OF_BATCHES);
+        if (batch == END_OF_BATCHES) break;
+        if (this.aborted) continue;
+
+        // create the message object
+        SzMessage message = new SzMessage(batch.getMessageBody());
+
+        // send the batch
+        this.support.sendingAsyncMessage(senderTimers, LOAD_QUEUE_NAME);
+        long sendStart = System.nanoTime();
+        boolean sendFailed = false;
+        try {
+          if (isDebugLogging()) {
+            logDebug("Sending message: " + batch.getMessageBody());
+          }
+
+          // send the info on the async queue
+          loadSink.send(message, (exception, msg) -> {
+            if (!handleFailedAsyncLoad(this.provider, exception, msg)) {
+              this.trackFailedBatch(batch, exception);
+            }
+          });
+
+          // track that we successfully enqueued the records
+          synchronized (this.bulkLoadResult) {
+            batch.trackLoaded(this.bulkLoadResult);
+          }
+          batch.trackHandled(this.checkpoint);
+
+        } catch (Exception e) {
+          sendFailed = true;
+
+          // the records are not lost if the batch was journaled for replay
+          // (and the failed async logger will not double-log)
+          if (handleFailedAsyncLoad(this.provider, e, message)) {
+            this.trackJournaledBatch(batch);
+          } else {
+            this.trackFailedBatch(batch, e);
+          }
+
+        } finally {
+          this.support.sentAsyncMessage(senderTimers, LOAD_QUEUE_NAME);
+          // failures are recorded when tracking the failed batch
+          if (this.batchSizer != null && !sendFailed) {
+            this.batchSizer.recordSend(batch.getRecordCount(),
+                                       System.nanoTime() - sendStart,
+                                       false);
+          }
+        }
+      }
+    } finally {
+      if (loadSink != null) this.provider.releaseLoadSink(loadSink);
+    }
+  }
+
+  /**
+   * Marks the record at the specified offset as handled against the {@link
+   * StreamLoadCheckpoint} if checkpointing.
+   *
+   * @param recordOffset The offset of the handled record.
+   */
+  private void trackHandledRecord(long recordOffset) {
+    if (this.checkpoint == null) return;
+    this.checkpoint.handled(recordOffset, recordOffset + 1L);
+  }
+
+  /**
+   * Tracks the records of the specified {@link Batch} that failed to send but
+   * was journaled for replay as loaded and handled, while still recording the
+   * failed send against the {@link AdaptiveBatchSizer}.
+   *
+   * @param batch The {@link Batch} that was journaled.
+   */
+  private void trackJournaledBatch(Batch batch) {
+    if (this.batchSizer != null) {
+      this.batchSizer.recordSend(batch.getRecordCount(), 0L, true);
+    }
+    synchronized (this.bulkLoadResult) {
+      batch.trackLoaded(this.bulkLoadResult);
+    }
+    batch.trackHandled(this.checkpoint);
+  }
+
+  /**
+   * Tracks the records of the specified {@link Batch} as failed unless its
+   * failure has already been tracked, holding the checkpoint (if any) before
+   * the batch.
+   *
+   * @param batch The {@link Batch} that failed.
+   * @param e The {@link Exception} describing the failure.
+   */
+  private void trackFailedBatch(Batch batch, Exception e) {
+    batch.trackUnhandled(this.checkpoint);
+    if (!batch.markFailed()) return;
+    if (this.batchSizer != null) {
+      this.batchSizer.recordSend(batch.getRecordCount(), 0L, true);
+    }
+    synchronized (this.bulkLoadResult) {
+      batch.trackFailed(this.bulkLoadResult, this.support.newError(e));
+    }
+  }
+}
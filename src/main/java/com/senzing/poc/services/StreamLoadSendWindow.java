@@ -0,0 +1,338 @@
+package com.senzing.poc.services;
+
+import com.senzing.api.model.SzBulkLoadResult;
+import com.senzing.api.services.SzMessage;
+import com.senzing.api.services.SzMessageSink;
+import com.senzing.poc.server.SzPocProvider;
+import com.senzing.poc.services.StreamLoadBatchBuilder.Batch;
+import com.senzing.util.Timers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.senzing.poc.services.StreamLoadSupport.LOAD_QUEUE_NAME;
+import static com.senzing.poc.services.StreamLoadUtilities.handleFailedAsyncLoad;
+import static com.senzing.util.LoggingUtilities.*;
+
+/**
+ * Sends stream-load batch messages asynchronously with a bounded number of
+ * batches in flight so that the thread reading and batching the records
+ * only blocks when the window is full rather than on every send.  Each slot
+ * in the window has its own {@link SzMessageSink} and {@link Timers}, and a
+ * batch is only dispatched once a slot is free.  The window starts with one
+ * slot and only widens (up to its maximum size) when a sink is free without
+ * waiting, so concurrent loads never hold some sinks while waiting on others
+ * and the window never exceeds the sinks of the load endpoint.  The outcome
+ * of each batch
+ * is tracked against the {@link SzBulkLoadResult} when its send completes.
+ * All tracking against the {@link SzBulkLoadResult} is synchronized on that
+ * object.
+ */
+class StreamLoadSendWindow {
+  /**
+   * The maximum number of batches that may be in flight.
+   */
+  static final int MAXIMUM_IN_FLIGHT_BATCHES = 32;
+
+  /**
+   * Describes a slot in the window.
+   */
+  private static final class Slot {
+    /**
+     * The {@link SzMessageSink} for the slot.
+     */
+    private SzMessageSink loadSink;
+
+    /**
+     * The {@link Timers} for the slot.
+     */
+    private Timers timers = new Timers();
+
+    /**
+     * Constructs with the specified {@link SzMessageSink}.
+     *
+     * @param loadSink The {@link SzMessageSink} for the slot.
+     */
+    private Slot(SzMessageSink loadSink) {
+      this.loadSink = loadSink;
+    }
+  }
+
+  /**
+   * The {@link BulkDataStreamSupport} for creating errors and tracking
+   * timings.
+   */
+  private BulkDataStreamSupport support;
+
+  /**
+   * The {@link SzPocProvider} from which the load sinks were acquired.
+   */
+  private SzPocProvider provider;
+
+  /**
+   * The {@link SzBulkLoadResult} for tracking the results.
+   */
+  private SzBulkLoadResult bulkLoadResult;
+
+  /**
+   * The {@link AdaptiveBatchSizer} to record the sends with, or
+   * <code>null</code> if the batch limits are fixed.
+   */
+  private AdaptiveBatchSizer batchSizer;
+
+  /**
+   * The {@link StreamLoadCheckpoint} for tracking the handled records, or
+   * <code>null</code> if not checkpointing.
+   */
+  private StreamLoadCheckpoint checkpoint;
+
+  /**
+   * The {@link Timers} for the request.
+   */
+  private Timers timers;
+
+  /**
+   * The maximum number of slots in the window.
+   */
+  private int windowSize;
+
+  /**
+   * All the {@link Slot} instances in the window.
+   */
+  private List<Slot> slots;
+
+  /**
+   * The {@link Slot} instances that are free to send a batch.
+   */
+  private BlockingQueue<Slot> freeSlots;
+
+  /**
+   * The {@link ExecutorService} performing the sends.
+   */
+  private ExecutorService executor;
+
+  /**
+   * Flag indicating if the load has been aborted.
+   */
+  private volatile boolean aborted = false;
+
+  /**
+   * Constructs with the specified parameters, acquiring the load sink for
+   * the first slot in the window (waiting if none are free).
+   *
+   * @param support The {@link BulkDataStreamSupport} for creating errors and
+   *                tracking timings.
+   * @param provider The {@link SzPocProvider} from which to acquire the load
+   *                 sinks.
+   * @param bulkLoadResult The {@link SzBulkLoadResult} for tracking results.
+   * @param batchSizer The {@link AdaptiveBatchSizer} to record the sends
+   *                   with, or <code>null</code> if the limits are fixed.
+   * @param checkpoint The {@link StreamLoadCheckpoint} for tracking the
+   *                   handled records, or <code>null</code> if not
+   *                   checkpointing.
+   * @param windowSize The maximum number of batches in flight, which is
+   *                   further limited by the number of free load sinks.
+   * @param timers The {@link Timers} for the request.
+   */
+  StreamLoadSendWindow(BulkDataStreamSupport  support,
+                       SzPocProvider          provider,
+                       SzBulkLoadResult       bulkLoadResult,
+                       AdaptiveBatchSizer     batchSizer,
+                       StreamLoadCheckpoint   checkpoint,
+                       int                    windowSize,
+                       Timers                 timers)
+  {
+    if (windowSize < 1 || windowSize > MAXIMUM_IN_FLIGHT_BATCHES) {
+      throw new IllegalArgumentException(
+          "The window size must be between 1 and " + MAXIMUM_IN_FLIGHT_BATCHES
+          + ": " + windowSize);
+    }
+    this.support        = support;
+    this.provider       = provider;
+    this.bulkLoadResult = bulkLoadResult;
+    this.batchSizer     = batchSizer;
+    this.checkpoint     = checkpoint;
+    this.timers         = timers;
+    this.windowSize     = windowSize;
+    this.slots          = new ArrayList<>(windowSize);
+    this.freeSlots      = new ArrayBlockingQueue<>(windowSize);
+
+    Slot slot = new Slot(provider.acquireLoadSink());
+    this.slots.add(slot);
+    this.freeSlots.add(slot);
+
+    this.executor = Executors.newFixedThreadPool(windowSize, runnable -> {
+      Thread thread = new Thread(runnable, "stream-load-send");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Dispatches the specified {@link Batch} to be sent asynchronously,
+   * blocking only while every slot is in flight and the window cannot be
+   * widened.
+   *
+   * @param batch The {@link Batch} to send.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  void send(Batch batch) throws InterruptedException {
+    Slot slot = this.freeSlots.poll();
+
+    // widen the window only if a load sink is free without waiting
+    if (slot == null && this.slots.size() < this.windowSize) {
+      SzMessageSink loadSink = this.provider.tryAcquireLoadSink();
+      if (loadSink != null) {
+        slot = new Slot(loadSink);
+        this.slots.add(slot);
+      }
+    }
+    if (slot == null) slot = this.freeSlots.take();
+
+    Slot sendSlot = slot;
+    try {
+      this.executor.execute(() -> {
+        try {
+          this.sendBatch(sendSlot, batch);
+        } finally {
+          this.freeSlots.add(sendSlot);
+        }
+      });
+    } catch (RuntimeException e) {
+      this.freeSlots.add(sendSlot);
+      throw e;
+    }
+  }
+
+  /**
+   * Marks the load as aborted so that batches that have not yet started
+   * sending are discarded.
+   */
+  void abort() {
+    this.aborted = true;
+  }
+
+  /**
+   * Waits for all in-flight batches to complete, releases the load sinks and
+   * merges the timings of each slot into the request {@link Timers}.
+   *
+   * @throws InterruptedException If interrupted while waiting.
+   */
+  void close() throws InterruptedException {
+    // wait for every slot to be returned
+    List<Slot> returned = new ArrayList<>(this.slots.size());
+    try {
+      while (returned.size() < this.slots.size()) {
+        returned.add(this.freeSlots.take());
+      }
+
+    } finally {
+      this.executor.shutdown();
+
+      // only release the sinks that are no longer in use
+      for (Slot slot : returned) {
+        this.provider.releaseLoadSink(slot.loadSink);
+        if (this.timers != null) this.timers.mergeWith(slot.timers);
+      }
+    }
+  }
+
+  /**
+   * Sends the specified {@link Batch} using the specified {@link Slot} and
+   * tracks the outcome.
+   *
+   * @param slot The {@link Slot} to send with.
+   * @param batch The {@link Batch} to send.
+   */
+  private void sendBatch(Slot slot, Batch batch) {
+    if (this.aborted) return;
+
+    // create the message object
+    SzMessage message = new SzMessage(batch.getMessageBody());
+
+    // send the batch
+    this.support.sendingAsyncMessage(slot.timers, LOAD_QUEUE_NAME);
+    long sendStart = System.nanoTime();
+    boolean sendFailed = false;
+    try {
+      if (isDebugLogging()) {
+        logDebug("Sending message: " + batch.getMessageBody());
+      }
+
+      // send the info on the async queue
+      slot.loadSink.send(message, (exception, msg) -> {
+        if (!handleFailedAsyncLoad(this.provider, exception, msg)) {
+          this.trackFailedBatch(batch, exception);
+        }
+      });
+
+      // track that we successfully enqueued the records
+      synchronized (this.bulkLoadResult) {
+        batch.trackLoaded(this.bulkLoadResult);
+      }
+      batch.trackHandled(this.checkpoint);
+
+    } catch (Exception e) {
+      sendFailed = true;
+
+      // the records are not lost if the batch was journaled for replay
+      // (and the failed async logger will not double-log)
+      if (handleFailedAsyncLoad(this.provider, e, message)) {
+        this.trackJournaledBatch(batch);
+      } else {
+        this.trackFailedBatch(batch, e);
+      }
+
+    } finally {
+      this.support.sentAsyncMessage(slot.timers, LOAD_QUEUE_NAME);
+
+      // failures are recorded when tracking the failed batch
+      if (this.batchSizer != null && !sendFailed) {
+        this.batchSizer.recordSend(batch.getRecordCount(),
+                                   System.nanoTime() - sendStart,
+                                   false);
+      }
+    }
+  }
+
+  /**
+   * Tracks the records of the specified {@link Batch} that failed to send but
+   * was journaled for replay as loaded and handled, while still recording the
+   * failed send against the {@link AdaptiveBatchSizer}.
+   *
+   * @param batch The {@link Batch} that was journaled.
+   */
+  private void trackJournaledBatch(Batch batch) {
+    if (this.batchSizer != null) {
+      this.batchSizer.recordSend(batch.getRecordCount(), 0L, true);
+    }
+    synchronized (this.bulkLoadResult) {
+      batch.trackLoaded(this.bulkLoadResult);
+    }
+    batch.trackHandled(this.checkpoint);
+  }
+
+  /**
+   * Tracks the records of the specified {@link Batch} as failed unless its
+   * failure has already been tracked, holding the checkpoint (if any) before
+   * the batch.
+   *
+   * @param batch The {@link Batch} that failed.
+   * @param e The {@link Exception} describing the failure.
+   */
+  private void trackFailedBatch(Batch batch, Exception e) {
+    batch.trackUnhandled(this.checkpoint);
+    if (!batch.markFailed()) return;
+    if (this.batchSizer != null) {
+      this.batchSizer.recordSend(batch.getRecordCount(), 0L, true);
+    }
+    synchronized (this.bulkLoadResult) {
+      batch.trackFailed(this.bulkLoadResult, this.support.newError(e));
+    }
+  }
+}
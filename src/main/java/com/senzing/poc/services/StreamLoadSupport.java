@@ -6,7 +6,7 @@ import com.senzing.api.services.SzMessageSink;
 import com.senzing.poc.server.SzPocProvider;
 import com.senzing.util.Timers;
 
-import static com.senzing.poc.services.StreamLoadUtilities.logFailedAsyncLoad;
+import static com.senzing.poc.services.StreamLoadUtilities.handleFailedAsyncLoad;
 
 /**
  * Provides a base interface for stream loading.
@@ -20,6 +20,9 @@ public interface StreamLoadSupport extends ServicesSupport {
   /**
    * Loads the record described by the specified text asynchronously by adding
    * it to the load queue configured for the specified {@link SzPocProvider}.
+   * If no {@link SzMessageSink} is specified and the provider has a {@link
+   * StreamLoadCoalescer} then the record is sent as part of a batch with other
+   * concurrently loaded records.
    *
    * @param provider The {@link SzPocProvider} to use.
    * @param timers The {@link Timers} used to track timing for the operation.
@@ -32,6 +35,19 @@ public interface StreamLoadSupport extends ServicesSupport {
                                String         recordText)
     throws Exception
   {
+    // coalesce the record with other concurrently loaded records if enabled
+    StreamLoadCoalescer coalescer = (loadSink == null)
+        ? provider.getLoadCoalescer() : null;
+    if (coalescer != null) {
+      this.sendingAsyncMessage(timers, LOAD_QUEUE_NAME);
+      try {
+        coalescer.load(recordText);
+      } finally {
+        this.sentAsyncMessage(timers, LOAD_QUEUE_NAME);
+      }
+      return;
+    }
+
     boolean acquiredLoadSink = false;
     if (loadSink == null) {
       loadSink = provider.acquireLoadSink();
@@ -43,13 +59,14 @@ public interface StreamLoadSupport extends ServicesSupport {
 
       // send the info on the async queue
       loadSink.send(message, (e, msg) -> {
-        StreamLoadUtilities.logFailedAsyncLoad(e, msg);
+        if (handleFailedAsyncLoad(provider, e, msg)) return;
         throw e;
       });
 
     } catch (Exception e) {
-      // failed async logger will not double-log
-      logFailedAsyncLoad(e, message);
+      // the record is not lost if it was journaled for replay (and the
+      // failed async logger will not double-log)
+      if (handleFailedAsyncLoad(provider, e, message)) return;
       throw e;
 
     } finally {
@@ -1,19 +1,21 @@
 package com.senzing.poc.services;
 
 import com.senzing.api.services.SzMessage;
-import com.senzing.util.ErrorLogSuppressor;
-import com.senzing.util.JsonUtilities;
+import com.senzing.poc.server.SzLoadJournal;
+import com.senzing.poc.server.SzPocProvider;
+
+import java.util.Map;
 
-import javax.json.JsonObject;
-import java.util.Date;
 import static com.senzing.api.services.ServicesUtil.*;
 
 public class StreamLoadUtilities {
   /**
-   * The suppression state for async load errors.
+   * The {@link StreamLoadFailureReporter} for reporting async load errors
+   * without blocking the loading threads.
    */
-  private static final ErrorLogSuppressor LOAD_ERROR_SUPPRESSOR
-      = new ErrorLogSuppressor();
+  private static final StreamLoadFailureReporter FAILURE_REPORTER
+      = new StreamLoadFailureReporter(
+          StreamLoadFailureReporter.DEFAULT_CAPACITY);
 
   /**
    * The hash of the system identity codes of the last load message exception
@@ -23,7 +25,17 @@ public class StreamLoadUtilities {
       = new ThreadLocal<>();
 
   /**
-   * Logs an error related to sending asynchronous load messages.
+   * The last load message journaled by the current thread.
+   */
+  private static final ThreadLocal<SzMessage> LAST_JOURNALED_MESSAGE
+      = new ThreadLocal<>();
+
+  /**
+   * Logs an error related to sending asynchronous load messages.  The failed
+   * records are counted immediately and the error is handed off to a
+   * background writer so this never blocks on logging.  If the backlog of
+   * errors to be logged is full then the error is not logged and is counted
+   * as dropped.
    *
    * @param e The {@link Exception} that occurred.
    * @param message The info message that failed.
@@ -35,59 +47,88 @@ public class StreamLoadUtilities {
     if (previous != null && previous == hash) return;
     LAST_LOAD_ERROR_HASH.set(hash);
 
-    Date    timestamp = new Date();
-    String  record    = message.getBody();
+    FAILURE_REPORTER.report(e, message.getBody());
+  }
 
-    StringBuilder sb = new StringBuilder();
-    sb.append(timestamp);
-    sb.append(": FAILED TO ENQUEUE RECORD FOR LOAD");
+  /**
+   * Writes the specified load message that failed to be sent to the {@link
+   * SzLoadJournal} of the specified {@link SzPocProvider} (if it has one) so
+   * that it is replayed once the load queue recovers.  A message that was
+   * just journaled by the current thread is not journaled again, so this can
+   * be called from both the failure handler and the failed send.
+   *
+   * @param provider The {@link SzPocProvider} for the load journal.
+   * @param message The {@link SzMessage} that failed to be sent.
+   *
+   * @return <code>true</code> if the message was journaled, otherwise
+   *         <code>false</code> if there is no journal or it could not be
+   *         written.
+   */
+  public static boolean journalFailedLoad(SzPocProvider provider,
+                                          SzMessage     message)
+  {
+    SzLoadJournal journal = provider.getLoadJournal();
+    if (journal == null) return false;
 
-    try {
-      JsonObject  jsonRecord  = JsonUtilities.parseJsonObject(record);
-      String      prefix      = ": ";
-      String      dataSource  = jsonRecord.getString("DATA_SOURCE");
-      String      recordId    = jsonRecord.getString("RECORD_ID");
+    // avoid double-journaling
+    if (LAST_JOURNALED_MESSAGE.get() == message) return true;
+    if (!journal.append(message)) return false;
+    LAST_JOURNALED_MESSAGE.set(message);
+    return true;
+  }
 
-      // append the data source
-      if (dataSource != null) {
-        sb.append(prefix).append("DATA_SOURCE=[ ").append(dataSource)
-            .append(" ]");
-        prefix = ", ";
-      }
+  /**
+   * Handles a load message that failed to be sent by journaling it for
+   * replay if the specified {@link SzPocProvider} has a {@link SzLoadJournal},
+   * otherwise logging it and counting its records as failed.  A message that
+   * was journaled is not counted as a failure since its records are not lost.
+   *
+   * @param provider The {@link SzPocProvider} for the load journal.
+   * @param e The {@link Exception} that occurred.
+   * @param message The {@link SzMessage} that failed to be sent.
+   *
+   * @return <code>true</code> if the message was journaled, otherwise
+   *         <code>false</code> if it was reported as a failure.
+   */
+  public static boolean handleFailedAsyncLoad(SzPocProvider provider,
+                                              Exception     e,
+                                              SzMessage     message)
+  {
+    if (journalFailedLoad(provider, message)) return true;
+    logFailedAsyncLoad(e, message);
+    return false;
+  }
 
-      // append the record ID
-      if (recordId != null) {
-        sb.append(prefix).append("RECORD_ID=[ ").append(recordId)
-            .append(" ]");
-        prefix = ", ";
-      }
-    } catch(Exception ignore) {
-      ignore.printStackTrace();
-    }
+  /**
+   * Gets the total number of records that have failed to be enqueued for
+   * loading, including the records in failures that were dropped without
+   * being logged.
+   *
+   * @return The total number of records that have failed to be enqueued.
+   */
+  public static long getFailedLoadRecordCount() {
+    return FAILURE_REPORTER.getFailedRecordCount();
+  }
 
-    System.err.println(sb.toString());
-    synchronized (LOAD_ERROR_SUPPRESSOR) {
-      boolean suppressing = LOAD_ERROR_SUPPRESSOR.isSuppressing();
-      ErrorLogSuppressor.Result result = LOAD_ERROR_SUPPRESSOR.updateOnError();
-      switch (result.getState()) {
-        case SUPPRESSED:
-          if (!suppressing) {
-            System.err.println(
-                timestamp + ": SUPPRESSING ASYNC INFO MESSAGE ERRORS FOR "
-                    + LOAD_ERROR_SUPPRESSOR.getSuppressDuration() + "ms");
-          }
-          break;
-        case REACTIVATED:
-          if (result.getSuppressedCount() > 0) {
-            System.err.println(
-                timestamp + ": RESUMING ASYNC INFO MESSAGE ERRORS ("
-                    + result.getSuppressedCount() + " SUPPRESSED)");
-          }
-        case ACTIVE:
-          e.printStackTrace();
-          break;
-      }
-    }
+  /**
+   * Gets the number of load failures that were dropped without being logged
+   * because the backlog of failures to be logged was full.  Their records
+   * are still counted as failed.
+   *
+   * @return The number of dropped load failures.
+   */
+  public static long getDroppedLoadFailureCount() {
+    return FAILURE_REPORTER.getDroppedCount();
   }
 
+  /**
+   * Gets the number of records that have failed to be enqueued for loading
+   * for each data source code, sorted by data source code.
+   *
+   * @return The {@link Map} of data source codes to the number of records
+   *         that have failed to be enqueued.
+   */
+  public static Map<String, Long> getFailedLoadRecordCounts() {
+    return FAILURE_REPORTER.getDataSourceCounts();
+  }
 }
@@ -7,12 +7,18 @@ import java.util.TreeSet;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import javax.ws.rs.*;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 
 import com.senzing.poc.model.SzBoundType;
@@ -41,6 +47,7 @@ import com.senzing.api.model.SzHttpMethod;
 import com.senzing.datamart.model.SzReportCode;
 import com.senzing.datamart.model.SzReportKey;
 import com.senzing.datamart.model.SzReportStatistic;
+import com.senzing.sql.ConnectionProvider;
 
 import static com.senzing.sql.SQLUtilities.*;
 import static com.senzing.util.LoggingUtilities.*;
@@ -57,6 +64,13 @@ import static com.senzing.poc.model.SzRelationType.*;
 @Path("/statistics/summary")
 @Produces(APPLICATION_JSON)
 public class SummaryStatsServices implements DataMartServicesSupport {
+  /**
+   * The {@link DataMartRequestContext} attribute name for the loaded data
+   * sources.
+   */
+  private static final String LOADED_DATA_SOURCES_ATTRIBUTE
+      = "loadedDataSources";
+
   /**
    * Gets all the source summaries for all the configured data
    * sources.
@@ -74,6 +88,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    * @param onlyLoaded Set to <code>true</code> to only consider data sources
    *                   that have loaded record, otherwise set this to
    *                   <code>false<code> to consider all data sources.
+   * @param ifNoneMatch The optional value of the <code>If-None-Match</code>
+   *                    header for conditional requests.
+   * @param response   The {@link HttpServletResponse} for the request.
    * @param uriInfo    The {@link UriInfo} for the request.
    * 
    * @return The {@link SzSummaryStatsResponse} describing the response.
@@ -84,24 +101,37 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
       @QueryParam("onlyLoadedSources") @DefaultValue("true") boolean onlyLoaded,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzSummaryStats cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzSummaryStats.class);
+
     try {
-      SzSummaryStats stats = this.getSummaryStats(matchKey,
-          principle,
-          onlyLoaded,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzSummaryStats stats = cached;
+      if (stats == null) {
+        stats = this.getSummaryStats(matchKey,
+            principle,
+            onlyLoaded,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, stats, response, provider);
+      }
 
       return SzSummaryStatsResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           stats);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -125,11 +155,21 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    * 
    * @throws SQLException If a JDBC failure occurs.
    */
+  @SuppressWarnings("unchecked")
   private SortedSet<String> getLoadedDataSources(SzHttpMethod httpMethod,
       UriInfo uriInfo,
       Timers timers,
       SzPocProvider provider)
       throws SQLException {
+    // check if already obtained for this request
+    DataMartRequestContext context = DataMartRequestContext.getCurrent();
+    if (context != null) {
+      Object loaded = context.getAttribute(LOADED_DATA_SOURCES_ATTRIBUTE);
+      if (loaded != null) {
+        return new TreeSet<>((SortedSet<String>) loaded);
+      }
+    }
+
     // initialize resources
     Connection conn = null;
     PreparedStatement ps = null;
@@ -159,6 +199,12 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         dataSources.add(rs.getString(1));
       }
 
+      // remember the data sources for the rest of the request
+      if (context != null) {
+        context.setAttribute(LOADED_DATA_SOURCES_ATTRIBUTE,
+                             new TreeSet<>(dataSources));
+      }
+
       // return the data sources
       return dataSources;
 
@@ -210,22 +256,137 @@ public class SummaryStatsServices implements DataMartServicesSupport {
 
     // create the result
     SzSummaryStats result = SzSummaryStats.FACTORY.create();
+
+    // normalize the match key and principle
+    if (matchKey != null) {
+      matchKey = matchKey.trim();
+      if (matchKey.length() == 0)
+        matchKey = null;
+    }
+    if (principle != null) {
+      principle = principle.trim();
+      if (principle.length() == 0)
+        principle = null;
+    }
+
+    // share one connection and snapshot across all the data sources
+    DataMartRequestContext context = DataMartRequestContext.begin();
+    Connection conn = null;
+    PreparedStatement ps = null;
+    ResultSet rs = null;
     try {
       Set<String> dataSources = (onlyLoaded)
           ? getLoadedDataSources(httpMethod, uriInfo, timers, provider)
           : provider.getDataSources();
 
-      // iterate over the data sources
-      dataSources.forEach(dataSource -> {
-        result.addSourceSummary(this.getSourceSummary(dataSource,
-            matchKey,
-            principle,
-            onlyLoaded,
-            httpMethod,
-            uriInfo,
-            timers,
-            provider));
-      });
+      // create the source and cross-source summaries for the data sources
+      Map<String, SzSourceSummary> sourceSummaries = new LinkedHashMap<>();
+      Map<String, SzCrossSourceSummary> crossSummaries = new LinkedHashMap<>();
+      for (String dataSource : dataSources) {
+        SzSourceSummary sourceSummary = SzSourceSummary.FACTORY.create(dataSource);
+        sourceSummaries.put(dataSource, sourceSummary);
+        for (String vsDataSource : dataSources) {
+          crossSummaries.put(dataSource + ":" + vsDataSource,
+              SzCrossSourceSummary.FACTORY.create(dataSource, vsDataSource));
+        }
+      }
+
+      // get the connection to the data mart database
+      conn = this.getConnection(httpMethod, uriInfo, timers, provider);
+
+      // determine the exact statistics if no wildcards were requested
+      List<String> encodedStats = getEncodedStatistics(null, matchKey, principle);
+      if (encodedStats != null) {
+        encodedStats.add(0, ENTITY_COUNT.toString());
+        encodedStats.add(1, UNMATCHED_COUNT.toString());
+      }
+
+      // read all the summary statistics with a single ordered scan
+      this.queryingDatabase(timers, "selectAllSummaryStats");
+      try {
+        ps = conn.prepareStatement(
+            "SELECT data_source1, data_source2, statistic,"
+                + " entity_count, record_count, relation_count "
+                + "FROM sz_dm_report WHERE report IN (?, ?) "
+                + ((encodedStats != null)
+                    ? "AND statistic IN (" + parameterList(encodedStats.size())
+                      + ") "
+                    : "")
+                + "ORDER BY data_source1, data_source2, statistic");
+
+        // bind the parameters
+        int index = 1;
+        ps.setString(index++, DATA_SOURCE_SUMMARY.getCode());
+        ps.setString(index++, CROSS_SOURCE_SUMMARY.getCode());
+        if (encodedStats != null) {
+          for (String encodedStat : encodedStats) {
+            ps.setString(index++, encodedStat);
+          }
+        }
+
+        // execute the query
+        rs = ps.executeQuery();
+
+        // bucket the rows into the summaries
+        while (rs.next()) {
+          String dataSource = rs.getString(1);
+          String vsDataSource = rs.getString(2);
+          String encodedStat = rs.getString(3);
+          long entityCount = rs.getLong(4);
+          long recordCount = rs.getLong(5);
+          long relationCount = rs.getLong(6);
+
+          // skip data sources we are not reporting on
+          SzCrossSourceSummary crossSummary
+              = crossSummaries.get(dataSource + ":" + vsDataSource);
+          if (crossSummary == null) {
+            continue;
+          }
+
+          // check for the source-level statistics
+          boolean sameSource = dataSource.equals(vsDataSource);
+          if (ENTITY_COUNT.toString().equals(encodedStat)) {
+            if (sameSource) {
+              SzSourceSummary sourceSummary = sourceSummaries.get(dataSource);
+              sourceSummary.setEntityCount(entityCount);
+              sourceSummary.setRecordCount(recordCount);
+            }
+            continue;
+          }
+          if (UNMATCHED_COUNT.toString().equals(encodedStat)) {
+            if (sameSource) {
+              SzSourceSummary sourceSummary = sourceSummaries.get(dataSource);
+              sourceSummary.setUnmatchedRecordCount(recordCount);
+            }
+            continue;
+          }
+
+          // add the counts to the cross-source summary if not filtered out
+          addCrossSourceCounts(crossSummary,
+              encodedStat,
+              entityCount,
+              recordCount,
+              relationCount,
+              null,
+              matchKey,
+              principle);
+        }
+
+      } finally {
+        this.queriedDatabase(timers, "selectAllSummaryStats");
+      }
+
+      // assemble the result
+      for (SzSourceSummary sourceSummary : sourceSummaries.values()) {
+        String dataSource = sourceSummary.getDataSource();
+        for (String vsDataSource : dataSources) {
+          SzCrossSourceSummary crossSummary
+              = crossSummaries.get(dataSource + ":" + vsDataSource);
+          addZeroCounts(crossSummary, null, matchKey, principle);
+          sourceSummary.addCrossSourceSummary(crossSummary);
+        }
+        result.addSourceSummary(sourceSummary);
+      }
 
       // return the result
       return result;
@@ -240,6 +401,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       throw this.newInternalServerErrorException(
           httpMethod, uriInfo, timers, e);
 
+    } finally {
+      rs = close(rs);
+      ps = close(ps);
+      conn = close(conn);
+      context.close();
     }
   }
 
@@ -258,6 +424,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                       (<code>"*"</code>) for all principles, or
    *                       <code>null</code> for only retrieving statistics
    *                       that are not specific to a principle.
+   * @param ifNoneMatch    The optional value of the <code>If-None-Match</code>
+   *                       header for conditional requests.
+   * @param response       The {@link HttpServletResponse} for the request.
    * @param uriInfo        The {@link UriInfo} for the request.
    */
   @GET
@@ -267,25 +436,38 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
       @QueryParam("onlyLoadedSources") @DefaultValue("true") boolean onlyLoaded,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzSourceSummary.class);
+
     try {
-      SzSourceSummary summary = this.getSourceSummary(dataSourceCode,
-          matchKey,
-          principle,
-          onlyLoaded,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getSourceSummary(dataSourceCode,
+            matchKey,
+            principle,
+            onlyLoaded,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       return SzSourceSummaryResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           summary);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -351,6 +533,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
     PreparedStatement ps = null;
     ResultSet rs = null;
     SzSourceSummary result = SzSourceSummary.FACTORY.create(dataSource);
+
+    // share one connection and snapshot across the cross-source summaries
+    DataMartRequestContext context = DataMartRequestContext.begin();
     try {
       // get the connection to the data mart database
       conn = this.getConnection(httpMethod, uriInfo, timers, provider);
@@ -411,23 +596,6 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         dataSources = getLoadedDataSources(httpMethod, uriInfo, timers, provider);
       }
 
-      // get the cross summaries
-      dataSources.forEach(vsDataSource -> {
-        result.addCrossSourceSummary(this.getCrossSourceSummary(
-            dataSource,
-            vsDataSource,
-            null,
-            matchKey,
-            principle,
-            httpMethod,
-            uriInfo,
-            timers,
-            provider));
-      });
-
-      // return the result
-      return result;
-
     } catch (SQLException e) {
       throw this.newInternalServerErrorException(
           httpMethod, uriInfo, timers, e);
@@ -436,6 +604,163 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       rs = close(rs);
       ps = close(ps);
       conn = close(conn);
+      context.close();
+    }
+
+    // get the cross summaries (after closing the context so this thread does
+    // not hold a connection while waiting on concurrent computations)
+    this.addCrossSourceSummaries(result,
+        dataSource,
+        dataSources,
+        matchKey,
+        principle,
+        httpMethod,
+        uriInfo,
+        timers,
+        provider);
+
+    // return the result
+    return result;
+  }
+
+  /**
+   * Computes the cross-source summary statistics for the specified primary
+   * data source versus each of the specified "versus" data sources and adds
+   * them to the specified {@link SzSourceSummary}.  If the {@link
+   * SzPocProvider} provides an {@linkplain
+   * SzPocProvider#getDataMartSummaryExecutor() executor} then the summaries
+   * are computed concurrently on that executor (each leasing its own
+   * connection from the {@linkplain
+   * SzPocProvider#getDataMartSummaryConnectionProvider() summary connection
+   * provider}), otherwise they are computed serially on the calling thread
+   * sharing one connection.  The summaries are computed serially if the
+   * calling thread already has an active {@link DataMartRequestContext} since
+   * it would hold its connection while waiting.  In either case the summaries
+   * are added to the result on the calling thread in the iteration order of
+   * the "versus" data sources.
+   *
+   * @param result        The {@link SzSourceSummary} to add the cross-source
+   *                      summaries to.
+   * @param dataSource    The data source code for the primary data source.
+   * @param vsDataSources The {@link Set} of "versus" data source codes.
+   * @param matchKey      The optional match key for retrieving statistics
+   *                      specific to a match key, or asterisk
+   *                      (<code>"*"</code>) for all match keys, or
+   *                      <code>null</code> for only retrieving statistics
+   *                      that are not specific to a match key.
+   * @param principle     The optional principle for retrieving statistics
+   *                      specific to a principle, or asterisk
+   *                      (<code>"*"</code>) for all principles, or
+   *                      <code>null</code> for only retrieving statistics
+   *                      that are not specific to a principle.
+   * @param httpMethod    The {@link SzHttpMethod} of the request.
+   * @param uriInfo       The {@link UriInfo} for the request.
+   * @param timers        The {@link Timers} associated with the request.
+   * @param provider      The {@link SzPocProvider} for the request context.
+   *
+   * @throws ServiceUnavailableException  If the data mart is not yet ready to
+   *                                      service a request.
+   * @throws InternalServerErrorException If an internal error occurs.
+   */
+  protected void addCrossSourceSummaries(
+      SzSourceSummary result,
+      String dataSource,
+      Set<String> vsDataSources,
+      String matchKey,
+      String principle,
+      SzHttpMethod httpMethod,
+      UriInfo uriInfo,
+      Timers timers,
+      SzPocProvider provider)
+      throws ServiceUnavailableException, InternalServerErrorException {
+    ExecutorService executor = provider.getDataMartSummaryExecutor();
+    ConnectionProvider connProvider
+        = provider.getDataMartSummaryConnectionProvider();
+
+    // compute serially if not configured for concurrency
+    if (executor == null || connProvider == null || vsDataSources.size() < 2
+        || DataMartRequestContext.getCurrent() != null)
+    {
+      DataMartRequestContext context = DataMartRequestContext.begin();
+      try {
+        vsDataSources.forEach(vsDataSource -> {
+          result.addCrossSourceSummary(this.getCrossSourceSummary(
+              dataSource,
+              vsDataSource,
+              null,
+              matchKey,
+              principle,
+              httpMethod,
+              uriInfo,
+              timers,
+              provider));
+        });
+      } finally {
+        context.close();
+      }
+      return;
+    }
+
+    // submit the computations (each with its own timers since they are not
+    // thread-safe)
+    List<Timers> taskTimers = new ArrayList<>(vsDataSources.size());
+    List<Future<SzCrossSourceSummary>> futures
+        = new ArrayList<>(vsDataSources.size());
+    try {
+      for (String vsDataSource : vsDataSources) {
+        Timers subTimers = new Timers();
+        taskTimers.add(subTimers);
+        futures.add(executor.submit(() -> {
+          // lease from the summary connection provider rather than the data
+          // mart pool shared with the request threads
+          DataMartRequestContext context = DataMartRequestContext.begin();
+          try {
+            Connection taskConn = connProvider.getConnection();
+            try {
+              context.attach(taskConn);
+            } catch (SQLException e) {
+              close(taskConn);
+              throw e;
+            }
+            return this.getCrossSourceSummary(
+                dataSource,
+                vsDataSource,
+                null,
+                matchKey,
+                principle,
+                httpMethod,
+                uriInfo,
+                subTimers,
+                provider);
+          } finally {
+            context.close();
+          }
+        }));
+      }
+
+      // add the results in order once all have completed
+      List<SzCrossSourceSummary> summaries = new ArrayList<>(futures.size());
+      for (Future<SzCrossSourceSummary> future : futures) {
+        summaries.add(future.get());
+      }
+      summaries.forEach(result::addCrossSourceSummary);
+      if (timers != null) taskTimers.forEach(timers::mergeWith);
+
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw this.newInternalServerErrorException(
+          httpMethod, uriInfo, timers, e);
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+      if (cause instanceof Error) throw (Error) cause;
+      throw this.newInternalServerErrorException(
+          httpMethod, uriInfo, timers, (Exception) cause);
+
+    } finally {
+      // cancel any computations still pending after a failure
+      futures.forEach(future -> future.cancel(true));
     }
   }
 
@@ -459,6 +784,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                         (<code>"*"</code>) for all principles, or
    *                         <code>null</code> for only retrieving statistics
    *                         that are not specific to a principle.
+   * @param ifNoneMatch      The optional value of the <code>If-None-Match</code>
+   *                         header for conditional requests.
+   * @param response         The {@link HttpServletResponse} for the request.
    * @param uriInfo          The {@link UriInfo} for the request.
    */
   @GET
@@ -468,27 +796,40 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @PathParam("vsDataSourceCode") String vsDataSourceCode,
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzCrossSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzCrossSourceSummary.class);
+
     try {
-      SzCrossSourceSummary summary = this.getCrossSourceSummary(
-          dataSourceCode,
-          vsDataSourceCode,
-          null,
-          matchKey,
-          principle,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzCrossSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getCrossSourceSummary(
+            dataSourceCode,
+            vsDataSourceCode,
+            null,
+            matchKey,
+            principle,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       return SzCrossSourceSummaryResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
           this.newLinks(uriInfo),
           summary);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -522,6 +863,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                         (<code>"*"</code>) for all principles, or
    *                         <code>null</code> for only retrieving statistics
    *                         that are not specific to a principle.
+   * @param ifNoneMatch      The optional value of the <code>If-None-Match</code>
+   *                         header for conditional requests.
+   * @param response         The {@link HttpServletResponse} for the request.
    * @param uriInfo          The {@link UriInfo} for the request.
    */
   @GET
@@ -531,20 +875,33 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @PathParam("vsDataSourceCode") String vsDataSourceCode,
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzCrossSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzCrossSourceSummary.class);
+
     try {
-      SzCrossSourceSummary summary = this.getCrossSourceSummary(
-          dataSourceCode,
-          vsDataSourceCode,
-          MATCHED_COUNT,
-          matchKey,
-          principle,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzCrossSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getCrossSourceSummary(
+            dataSourceCode,
+            vsDataSourceCode,
+            MATCHED_COUNT,
+            matchKey,
+            principle,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       SzMatchCountsResponseData responseData = SzMatchCountsResponseData.FACTORY.create(dataSourceCode,
           vsDataSourceCode);
@@ -555,7 +912,7 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           this.newLinks(uriInfo),
           responseData);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -589,6 +946,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                         (<code>"*"</code>) for all principles, or
    *                         <code>null</code> for only retrieving statistics
    *                         that are not specific to a principle.
+   * @param ifNoneMatch      The optional value of the <code>If-None-Match</code>
+   *                         header for conditional requests.
+   * @param response         The {@link HttpServletResponse} for the request.
    * @param uriInfo          The {@link UriInfo} for the request.
    */
   @GET
@@ -598,20 +958,33 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @PathParam("vsDataSourceCode") String vsDataSourceCode,
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzCrossSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzCrossSourceSummary.class);
+
     try {
-      SzCrossSourceSummary summary = this.getCrossSourceSummary(
-          dataSourceCode,
-          vsDataSourceCode,
-          AMBIGUOUS_MATCH_COUNT,
-          matchKey,
-          principle,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzCrossSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getCrossSourceSummary(
+            dataSourceCode,
+            vsDataSourceCode,
+            AMBIGUOUS_MATCH_COUNT,
+            matchKey,
+            principle,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       SzRelationCountsResponseData responseData = SzRelationCountsResponseData.FACTORY.create(
           dataSourceCode, vsDataSourceCode, AMBIGUOUS_MATCH);
@@ -623,7 +996,7 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           this.newLinks(uriInfo),
           responseData);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -657,6 +1030,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                         (<code>"*"</code>) for all principles, or
    *                         <code>null</code> for only retrieving statistics
    *                         that are not specific to a principle.
+   * @param ifNoneMatch      The optional value of the <code>If-None-Match</code>
+   *                         header for conditional requests.
+   * @param response         The {@link HttpServletResponse} for the request.
    * @param uriInfo          The {@link UriInfo} for the request.
    */
   @GET
@@ -666,20 +1042,33 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @PathParam("vsDataSourceCode") String vsDataSourceCode,
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzCrossSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzCrossSourceSummary.class);
+
     try {
-      SzCrossSourceSummary summary = this.getCrossSourceSummary(
-          dataSourceCode,
-          vsDataSourceCode,
-          POSSIBLE_MATCH_COUNT,
-          matchKey,
-          principle,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzCrossSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getCrossSourceSummary(
+            dataSourceCode,
+            vsDataSourceCode,
+            POSSIBLE_MATCH_COUNT,
+            matchKey,
+            principle,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       SzRelationCountsResponseData responseData = SzRelationCountsResponseData.FACTORY.create(
           dataSourceCode, vsDataSourceCode, POSSIBLE_MATCH);
@@ -691,7 +1080,7 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           this.newLinks(uriInfo),
           responseData);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -725,6 +1114,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                         (<code>"*"</code>) for all principles, or
    *                         <code>null</code> for only retrieving statistics
    *                         that are not specific to a principle.
+   * @param ifNoneMatch      The optional value of the <code>If-None-Match</code>
+   *                         header for conditional requests.
+   * @param response         The {@link HttpServletResponse} for the request.
    * @param uriInfo          The {@link UriInfo} for the request.
    */
   @GET
@@ -734,20 +1126,33 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @PathParam("vsDataSourceCode") String vsDataSourceCode,
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzCrossSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzCrossSourceSummary.class);
+
     try {
-      SzCrossSourceSummary summary = this.getCrossSourceSummary(
-          dataSourceCode,
-          vsDataSourceCode,
-          POSSIBLE_RELATION_COUNT,
-          matchKey,
-          principle,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzCrossSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getCrossSourceSummary(
+            dataSourceCode,
+            vsDataSourceCode,
+            POSSIBLE_RELATION_COUNT,
+            matchKey,
+            principle,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       SzRelationCountsResponseData responseData = SzRelationCountsResponseData.FACTORY.create(
           dataSourceCode, vsDataSourceCode, POSSIBLE_RELATION);
@@ -759,7 +1164,7 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           this.newLinks(uriInfo),
           responseData);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -793,6 +1198,9 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                         (<code>"*"</code>) for all principles, or
    *                         <code>null</code> for only retrieving statistics
    *                         that are not specific to a principle.
+   * @param ifNoneMatch      The optional value of the <code>If-None-Match</code>
+   *                         header for conditional requests.
+   * @param response         The {@link HttpServletResponse} for the request.
    * @param uriInfo          The {@link UriInfo} for the request.
    */
   @GET
@@ -802,20 +1210,33 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @PathParam("vsDataSourceCode") String vsDataSourceCode,
       @QueryParam("matchKey") String matchKey,
       @QueryParam("principle") String principle,
+      @HeaderParam("If-None-Match") String ifNoneMatch,
+      @Context HttpServletResponse response,
       @Context UriInfo uriInfo) {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
     Timers timers = this.newTimers();
+
+    // check for a cached result (responding 304 if not modified)
+    long generation = this.getStatisticsGeneration(provider);
+    SzCrossSourceSummary cached = this.getCachedStatistics(
+        uriInfo, ifNoneMatch, response, provider, SzCrossSourceSummary.class);
+
     try {
-      SzCrossSourceSummary summary = this.getCrossSourceSummary(
-          dataSourceCode,
-          vsDataSourceCode,
-          DISCLOSED_RELATION_COUNT,
-          matchKey,
-          principle,
-          GET,
-          uriInfo,
-          timers,
-          provider);
+      SzCrossSourceSummary summary = cached;
+      if (summary == null) {
+        summary = this.getCrossSourceSummary(
+            dataSourceCode,
+            vsDataSourceCode,
+            DISCLOSED_RELATION_COUNT,
+            matchKey,
+            principle,
+            GET,
+            uriInfo,
+            timers,
+            provider);
+        this.cacheStatistics(
+            uriInfo, ifNoneMatch, generation, summary, response, provider);
+      }
 
       SzRelationCountsResponseData responseData = SzRelationCountsResponseData.FACTORY.create(
           dataSourceCode, vsDataSourceCode, DISCLOSED_RELATION);
@@ -827,7 +1248,7 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           this.newLinks(uriInfo),
           responseData);
 
-    } catch (ClientErrorException e) {
+    } catch (ClientErrorException | RedirectionException e) {
       throw e;
 
     } catch (WebApplicationException e) {
@@ -905,13 +1326,6 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         requestedPrinciple = null;
     }
 
-    // keep counts
-    int matchCount = 0;
-    int ambMatchCount = 0;
-    int posMatchCount = 0;
-    int posRelCount = 0;
-    int discRelCount = 0;
-
     // get the connection
     Connection conn = null;
     PreparedStatement ps = null;
@@ -928,22 +1342,42 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         // determine the report code
         String reportCode = (dataSource.equals(vsDataSource)) ? "DSS" : "CSS";
 
+        // determine the exact statistics if no wildcards were requested
+        List<String> encodedStats = getEncodedStatistics(
+            requestedStatistic, requestedMatchKey, requestedPrinciple);
+
         // prepare the statement
-        ps = conn.prepareStatement(
-            "SELECT statistic, entity_count, record_count, relation_count "
-                + "FROM sz_dm_report WHERE report=? AND data_source1 = ? "
-                + "AND data_source2 = ? AND statistic NOT IN (?, ?) "
-                + ((requestedStatistic != null) ? "AND statistic LIKE ? " : "")
-                + "ORDER BY statistic");
+        if (encodedStats != null) {
+          ps = conn.prepareStatement(
+              "SELECT statistic, entity_count, record_count, relation_count "
+                  + "FROM sz_dm_report WHERE report=? AND data_source1 = ? "
+                  + "AND data_source2 = ? AND statistic IN ("
+                  + parameterList(encodedStats.size()) + ") "
+                  + "ORDER BY statistic");
+        } else {
+          ps = conn.prepareStatement(
+              "SELECT statistic, entity_count, record_count, relation_count "
+                  + "FROM sz_dm_report WHERE report=? AND data_source1 = ? "
+                  + "AND data_source2 = ? AND statistic NOT IN (?, ?) "
+                  + ((requestedStatistic != null) ? "AND statistic LIKE ? " : "")
+                  + "ORDER BY statistic");
+        }
 
         // bind the parameters
-        ps.setString(1, reportCode);
-        ps.setString(2, dataSource);
-        ps.setString(3, vsDataSource);
-        ps.setString(4, ENTITY_COUNT.toString());
-        ps.setString(5, UNMATCHED_COUNT.toString());
-        if (requestedStatistic != null) {
-          ps.setString(6, requestedStatistic.toString() + "%");
+        int index = 1;
+        ps.setString(index++, reportCode);
+        ps.setString(index++, dataSource);
+        ps.setString(index++, vsDataSource);
+        if (encodedStats != null) {
+          for (String encodedStat : encodedStats) {
+            ps.setString(index++, encodedStat);
+          }
+        } else {
+          ps.setString(index++, ENTITY_COUNT.toString());
+          ps.setString(index++, UNMATCHED_COUNT.toString());
+          if (requestedStatistic != null) {
+            ps.setString(index++, requestedStatistic.toString() + "%");
+          }
         }
 
         // execute the query
@@ -956,76 +1390,15 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           long recordCount = rs.getLong(3);
           long relationCount = rs.getLong(4);
 
-          SzReportStatistic.Formatter formatter = SzReportStatistic.Formatter.parse(encodedStat);
-
-          SzReportStatistic statistic = formatter.getStatistic();
-          String principle = formatter.getPrinciple();
-          String matchKey = formatter.getMatchKey();
-
-          // check the statistic
-          if (requestedStatistic != null && requestedStatistic != statistic) {
-            continue;
-          }
-
-          // filter on match key and principle
-          if (!Objects.equals(principle, requestedPrinciple)
-              && !"*".equals(requestedPrinciple)) {
-            continue;
-          }
-          if (!Objects.equals(matchKey, requestedMatchKey)
-              && !"*".equals(requestedMatchKey)) {
-            continue;
-          }
-
-          SzMatchCounts matchCounts = null;
-          SzRelationCounts relationCounts = null;
-
-          switch (statistic) {
-            case MATCHED_COUNT:
-              matchCounts = SzMatchCounts.FACTORY.create(matchKey, principle);
-              matchCounts.setEntityCount(entityCount);
-              matchCounts.setRecordCount(recordCount);
-              break;
-            case AMBIGUOUS_MATCH_COUNT:
-            case POSSIBLE_MATCH_COUNT:
-            case POSSIBLE_RELATION_COUNT:
-            case DISCLOSED_RELATION_COUNT:
-              relationCounts = SzRelationCounts.FACTORY.create(matchKey, principle);
-              relationCounts.setEntityCount(entityCount);
-              relationCounts.setRecordCount(recordCount);
-              relationCounts.setRelationCount(relationCount);
-              break;
-            default:
-              throw new IllegalStateException(
-                  "Unexpected statistic encountered.  statistic=[ " + statistic
-                      + " ], formattedStatistic=[ " + encodedStat + " ]");
-          }
-          switch (statistic) {
-            case MATCHED_COUNT:
-              matchCount++;
-              result.addMatches(matchCounts);
-              break;
-            case AMBIGUOUS_MATCH_COUNT:
-              ambMatchCount++;
-              result.addAmbiguousMatches(relationCounts);
-              break;
-            case POSSIBLE_MATCH_COUNT:
-              posMatchCount++;
-              result.addPossibleMatches(relationCounts);
-              break;
-            case POSSIBLE_RELATION_COUNT:
-              posRelCount++;
-              result.addPossibleRelations(relationCounts);
-              break;
-            case DISCLOSED_RELATION_COUNT:
-              discRelCount++;
-              result.addDisclosedRelations(relationCounts);
-              break;
-            default:
-              throw new IllegalStateException(
-                  "Unexpected statistic encountered.  statistic=[ " + statistic
-                      + " ], formattedStatistic=[ " + encodedStat + " ]");
-          }
+          // add the counts to the result if not filtered out
+          addCrossSourceCounts(result,
+                               encodedStat,
+                               entityCount,
+                               recordCount,
+                               relationCount,
+                               requestedStatistic,
+                               requestedMatchKey,
+                               requestedPrinciple);
         }
 
       } finally {
@@ -1037,28 +1410,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       ps = close(ps);
 
       // handle the zeroes
-      SzReportStatistic stat = requestedStatistic;
-      String mkey = requestedMatchKey;
-      String prin = requestedPrinciple;
-      if ("*".equals(mkey))
-        mkey = null;
-      if ("*".equals(prin))
-        prin = null;
-      if (matchCount == 0 && (stat == null || stat == MATCHED_COUNT)) {
-        result.addMatches(SzMatchCounts.FACTORY.create(mkey, prin));
-      }
-      if (ambMatchCount == 0 && (stat == null || stat == AMBIGUOUS_MATCH_COUNT)) {
-        result.addAmbiguousMatches(SzRelationCounts.FACTORY.create(mkey, prin));
-      }
-      if (posMatchCount == 0 && (stat == null || stat == POSSIBLE_MATCH_COUNT)) {
-        result.addPossibleMatches(SzRelationCounts.FACTORY.create(mkey, prin));
-      }
-      if (posRelCount == 0 && (stat == null || stat == POSSIBLE_RELATION_COUNT)) {
-        result.addPossibleRelations(SzRelationCounts.FACTORY.create(mkey, prin));
-      }
-      if (discRelCount == 0 && (stat == null || stat == DISCLOSED_RELATION_COUNT)) {
-        result.addDisclosedRelations(SzRelationCounts.FACTORY.create(mkey, prin));
-      }
+      addZeroCounts(result,
+                    requestedStatistic,
+                    requestedMatchKey,
+                    requestedPrinciple);
 
       // return the result
       return result;
@@ -1074,6 +1429,212 @@ public class SummaryStatsServices implements DataMartServicesSupport {
     }
   }
 
+  /**
+   * Gets the {@link List} of encoded statistics that exactly satisfy the
+   * requested statistic, match key and principle so that they can be matched
+   * exactly in the database rather than filtering every row for the data
+   * source pair after it is read.  This is only possible if neither the match
+   * key nor the principle is the asterisk (<code>"*"</code>) wildcard.
+   *
+   * @param requestedStatistic The requested {@link SzReportStatistic}, or
+   *                           <code>null</code> for all cross-source
+   *                           statistics.
+   * @param requestedMatchKey  The normalized requested match key, or
+   *                           asterisk (<code>"*"</code>) for all match
+   *                           keys, or <code>null</code> for none.
+   * @param requestedPrinciple The normalized requested principle, or
+   *                           asterisk (<code>"*"</code>) for all
+   *                           principles, or <code>null</code> for none.
+   *
+   * @return The modifiable {@link List} of encoded statistics, or
+   *         <code>null</code> if a wildcard was requested.
+   */
+  private static List<String> getEncodedStatistics(
+      SzReportStatistic requestedStatistic,
+      String requestedMatchKey,
+      String requestedPrinciple) {
+    if ("*".equals(requestedMatchKey) || "*".equals(requestedPrinciple)) {
+      return null;
+    }
+    List<SzReportStatistic> statistics = (requestedStatistic != null)
+        ? List.of(requestedStatistic)
+        : List.of(MATCHED_COUNT,
+                  AMBIGUOUS_MATCH_COUNT,
+                  POSSIBLE_MATCH_COUNT,
+                  POSSIBLE_RELATION_COUNT,
+                  DISCLOSED_RELATION_COUNT);
+
+    List<String> result = new ArrayList<>(statistics.size() + 2);
+    for (SzReportStatistic statistic : statistics) {
+      result.add(statistic.principle(requestedPrinciple)
+          .matchKey(requestedMatchKey).format());
+    }
+    return result;
+  }
+
+  /**
+   * Formats a comma-separated list of the specified number of JDBC
+   * parameter placeholders (e.g.: <code>"?, ?, ?"</code>).
+   *
+   * @param count The number of parameter placeholders.
+   *
+   * @return The comma-separated list of parameter placeholders.
+   */
+  private static String parameterList(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int index = 0; index < count; index++) {
+      if (index > 0) sb.append(", ");
+      sb.append("?");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Adds the counts for the specified encoded statistic to the specified
+   * {@link SzCrossSourceSummary} provided the statistic satisfies the
+   * requested statistic, match key and principle.
+   *
+   * @param result             The {@link SzCrossSourceSummary} to add to.
+   * @param encodedStat        The encoded statistic from the data mart.
+   * @param entityCount        The entity count for the statistic.
+   * @param recordCount        The record count for the statistic.
+   * @param relationCount      The relation count for the statistic.
+   * @param requestedStatistic The requested {@link SzReportStatistic}, or
+   *                           <code>null</code> if all statistics.
+   * @param requestedMatchKey  The normalized requested match key, or
+   *                           asterisk (<code>"*"</code>) for all match
+   *                           keys, or <code>null</code> for none.
+   * @param requestedPrinciple The normalized requested principle, or
+   *                           asterisk (<code>"*"</code>) for all
+   *                           principles, or <code>null</code> for none.
+   *
+   * @return <code>true</code> if the counts were added, otherwise
+   *         <code>false</code> if they were filtered out.
+   */
+  private static boolean addCrossSourceCounts(
+      SzCrossSourceSummary result,
+      String encodedStat,
+      long entityCount,
+      long recordCount,
+      long relationCount,
+      SzReportStatistic requestedStatistic,
+      String requestedMatchKey,
+      String requestedPrinciple) {
+    SzReportStatistic.Formatter formatter = SzReportStatistic.Formatter.parse(encodedStat);
+
+    SzReportStatistic statistic = formatter.getStatistic();
+    String principle = formatter.getPrinciple();
+    String matchKey = formatter.getMatchKey();
+
+    // check the statistic
+    if (requestedStatistic != null && requestedStatistic != statistic) {
+      return false;
+    }
+
+    // filter on match key and principle
+    if (!Objects.equals(principle, requestedPrinciple)
+        && !"*".equals(requestedPrinciple)) {
+      return false;
+    }
+    if (!Objects.equals(matchKey, requestedMatchKey)
+        && !"*".equals(requestedMatchKey)) {
+      return false;
+    }
+
+    SzMatchCounts matchCounts = null;
+    SzRelationCounts relationCounts = null;
+
+    switch (statistic) {
+      case MATCHED_COUNT:
+        matchCounts = SzMatchCounts.FACTORY.create(matchKey, principle);
+        matchCounts.setEntityCount(entityCount);
+        matchCounts.setRecordCount(recordCount);
+        break;
+      case AMBIGUOUS_MATCH_COUNT:
+      case POSSIBLE_MATCH_COUNT:
+      case POSSIBLE_RELATION_COUNT:
+      case DISCLOSED_RELATION_COUNT:
+        relationCounts = SzRelationCounts.FACTORY.create(matchKey, principle);
+        relationCounts.setEntityCount(entityCount);
+        relationCounts.setRecordCount(recordCount);
+        relationCounts.setRelationCount(relationCount);
+        break;
+      default:
+        throw new IllegalStateException(
+            "Unexpected statistic encountered.  statistic=[ " + statistic
+                + " ], formattedStatistic=[ " + encodedStat + " ]");
+    }
+    switch (statistic) {
+      case MATCHED_COUNT:
+        result.addMatches(matchCounts);
+        break;
+      case AMBIGUOUS_MATCH_COUNT:
+        result.addAmbiguousMatches(relationCounts);
+        break;
+      case POSSIBLE_MATCH_COUNT:
+        result.addPossibleMatches(relationCounts);
+        break;
+      case POSSIBLE_RELATION_COUNT:
+        result.addPossibleRelations(relationCounts);
+        break;
+      case DISCLOSED_RELATION_COUNT:
+        result.addDisclosedRelations(relationCounts);
+        break;
+      default:
+        throw new IllegalStateException(
+            "Unexpected statistic encountered.  statistic=[ " + statistic
+                + " ], formattedStatistic=[ " + encodedStat + " ]");
+    }
+    return true;
+  }
+
+  /**
+   * Adds zero counts to the specified {@link SzCrossSourceSummary} for each
+   * requested match type for which no counts were found.
+   *
+   * @param result             The {@link SzCrossSourceSummary} to add to.
+   * @param requestedStatistic The requested {@link SzReportStatistic}, or
+   *                           <code>null</code> if all statistics.
+   * @param requestedMatchKey  The normalized requested match key, or
+   *                           asterisk (<code>"*"</code>) for all match
+   *                           keys, or <code>null</code> for none.
+   * @param requestedPrinciple The normalized requested principle, or
+   *                           asterisk (<code>"*"</code>) for all
+   *                           principles, or <code>null</code> for none.
+   */
+  private static void addZeroCounts(SzCrossSourceSummary result,
+      SzReportStatistic requestedStatistic,
+      String requestedMatchKey,
+      String requestedPrinciple) {
+    SzReportStatistic stat = requestedStatistic;
+    String mkey = requestedMatchKey;
+    String prin = requestedPrinciple;
+    if ("*".equals(mkey))
+      mkey = null;
+    if ("*".equals(prin))
+      prin = null;
+    if (result.getMatches().isEmpty()
+        && (stat == null || stat == MATCHED_COUNT)) {
+      result.addMatches(SzMatchCounts.FACTORY.create(mkey, prin));
+    }
+    if (result.getAmbiguousMatches().isEmpty()
+        && (stat == null || stat == AMBIGUOUS_MATCH_COUNT)) {
+      result.addAmbiguousMatches(SzRelationCounts.FACTORY.create(mkey, prin));
+    }
+    if (result.getPossibleMatches().isEmpty()
+        && (stat == null || stat == POSSIBLE_MATCH_COUNT)) {
+      result.addPossibleMatches(SzRelationCounts.FACTORY.create(mkey, prin));
+    }
+    if (result.getPossibleRelations().isEmpty()
+        && (stat == null || stat == POSSIBLE_RELATION_COUNT)) {
+      result.addPossibleRelations(SzRelationCounts.FACTORY.create(mkey, prin));
+    }
+    if (result.getDisclosedRelations().isEmpty()
+        && (stat == null || stat == DISCLOSED_RELATION_COUNT)) {
+      result.addDisclosedRelations(SzRelationCounts.FACTORY.create(mkey, prin));
+    }
+  }
+
   /**
    * Retrieves a page of entity ID's for entities that have at least two
    * records from the associated data source that have matched.
@@ -1086,7 +1647,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1101,6 +1666,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1110,8 +1677,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1129,7 +1698,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1144,6 +1717,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1153,8 +1728,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1172,7 +1749,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1187,6 +1768,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1196,8 +1779,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1215,7 +1800,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1230,6 +1819,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1239,8 +1830,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1258,7 +1851,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1273,6 +1870,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1282,8 +1881,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1302,7 +1903,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    */
   @GET
@@ -1316,6 +1921,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1325,8 +1932,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1346,7 +1955,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1362,6 +1975,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1371,8 +1986,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1392,7 +2009,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1408,6 +2029,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1417,8 +2040,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1436,7 +2061,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1452,6 +2081,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1461,8 +2092,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1480,7 +2113,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * 
    * @throws NotFoundException If the specified entity size is less than one.
@@ -1496,6 +2133,8 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       @QueryParam("boundType") @DefaultValue("EXCLUSIVE_LOWER") SzBoundType boundType,
       @QueryParam("pageSize") Integer pageSize,
       @QueryParam("sampleSize") Integer sampleSize,
+      @QueryParam("cursor") String cursor,
+      @QueryParam("withCounts") @DefaultValue("true") boolean withCounts,
       @Context UriInfo uriInfo)
       throws NotFoundException {
     return this.getEntityIds(dataSource,
@@ -1505,8 +2144,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
         matchKey,
         entityIdBound,
         boundType,
+        cursor,
         pageSize,
         sampleSize,
+        withCounts,
         uriInfo);
   }
 
@@ -1526,7 +2167,11 @@ public class SummaryStatsServices implements DataMartServicesSupport {
    *                      returned.
    * @param boundType     The {@link SzBoundType} that describes how to apply the
    *                      specified entity ID bound.
+   * @param cursor        The optional opaque cursor from a previous page to
+   *                      use in place of the bound and bound type.
    * @param pageSize      The maximum number of entity ID's to return.
+   * @param withCounts    Whether or not to include the total, before and
+   *                      after entity counts.
    * @param uriInfo       The {@link UriInfo} for the request.
    * @return The {@link SzEntitiesPageResponse} describing the page of entities.
    * 
@@ -1540,8 +2185,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
       String matchKey,
       String entityIdBound,
       SzBoundType boundType,
+      String cursor,
       Integer pageSize,
       Integer sampleSize,
+      boolean withCounts,
       UriInfo uriInfo)
       throws NotFoundException {
     SzPocProvider provider = (SzPocProvider) this.getApiProvider();
@@ -1576,8 +2223,10 @@ public class SummaryStatsServices implements DataMartServicesSupport {
           reportKey.toString(),
           entityIdBound,
           boundType,
+          cursor,
           pageSize,
-          sampleSize);
+          sampleSize,
+          withCounts);
 
       return SzEntitiesPageResponse.FACTORY.create(
           this.newMeta(GET, 200, timers),
@@ -1596,6 +2245,147 @@ public class SummaryStatsServices implements DataMartServicesSupport {
     }
   }
 
+  /**
+   * The regular expression for the path segment that identifies the match
+   * type of the entities being exported.
+   */
+  private static final String EXPORT_MATCH_TYPE_REGEX
+      = "matches|ambiguous-matches|possible-matches"
+      + "|possible-relations|disclosed-relations";
+
+  /**
+   * Exports all the entities that have at least one record from the
+   * associated data source with the match type identified by the specified
+   * path segment as newline-delimited JSON with one
+   * {@link com.senzing.poc.model.SzEntity} per line in ascending order of
+   * entity ID.
+   *
+   * @param dataSource The data source for which the entities are being
+   *                   exported.
+   * @param matchType  The path segment identifying the match type.
+   * @param principle  The optional principle to use.
+   * @param matchKey   The optional match key to use.
+   * @param uriInfo    The {@link UriInfo} for the request.
+   *
+   * @return The {@link StreamingOutput} for writing the entities.
+   *
+   * @throws NotFoundException If the specified data source is not recognized.
+   */
+  @GET
+  @Path("/data-sources/{dataSourceCode}/{matchType: " + EXPORT_MATCH_TYPE_REGEX
+      + "}/entities/export")
+  @Produces(APPLICATION_NDJSON)
+  public StreamingOutput exportEntities(
+      @PathParam("dataSourceCode") String dataSource,
+      @PathParam("matchType") String matchType,
+      @QueryParam("principle") String principle,
+      @QueryParam("matchKey") String matchKey,
+      @Context UriInfo uriInfo)
+      throws NotFoundException {
+    return this.exportEntities(dataSource,
+        dataSource,
+        matchType,
+        principle,
+        matchKey,
+        uriInfo);
+  }
+
+  /**
+   * Exports all the entities that have at least one record from the first
+   * data source with the match type identified by the specified path segment
+   * against an entity having at least one record from the "versus" data
+   * source as newline-delimited JSON with one
+   * {@link com.senzing.poc.model.SzEntity} per line in ascending order of
+   * entity ID.
+   *
+   * @param dataSource   The data source for which the entities are being
+   *                     exported.
+   * @param vsDataSource The "versus" data source for which the entities are
+   *                     being exported.
+   * @param matchType    The path segment identifying the match type.
+   * @param principle    The optional principle to use.
+   * @param matchKey     The optional match key to use.
+   * @param uriInfo      The {@link UriInfo} for the request.
+   *
+   * @return The {@link StreamingOutput} for writing the entities.
+   *
+   * @throws NotFoundException If either of the specified data sources is not
+   *                           recognized.
+   */
+  @GET
+  @Path("/data-sources/{dataSourceCode}/vs/{vsDataSourceCode}/{matchType: "
+      + EXPORT_MATCH_TYPE_REGEX + "}/entities/export")
+  @Produces(APPLICATION_NDJSON)
+  public StreamingOutput exportEntities(
+      @PathParam("dataSourceCode") String dataSource,
+      @PathParam("vsDataSourceCode") String vsDataSource,
+      @PathParam("matchType") String matchType,
+      @QueryParam("principle") String principle,
+      @QueryParam("matchKey") String matchKey,
+      @Context UriInfo uriInfo)
+      throws NotFoundException {
+    SzPocProvider provider = (SzPocProvider) this.getApiProvider();
+    Timers timers = this.newTimers();
+
+    // check the data sources
+    Set<String> dataSources = provider.getDataSources(dataSource, vsDataSource);
+    if (!dataSources.contains(dataSource)) {
+      throw new NotFoundException("Unrecognized data source: " + dataSource);
+    }
+    if (!dataSources.contains(vsDataSource)) {
+      throw new NotFoundException("Unrecognized versus data source: " + vsDataSource);
+    }
+
+    try {
+      SzReportStatistic statistic = null;
+      switch (matchType) {
+        case "matches":
+          statistic = MATCHED_COUNT;
+          break;
+        case "ambiguous-matches":
+          statistic = AMBIGUOUS_MATCH_COUNT;
+          break;
+        case "possible-matches":
+          statistic = POSSIBLE_MATCH_COUNT;
+          break;
+        case "possible-relations":
+          statistic = POSSIBLE_RELATION_COUNT;
+          break;
+        case "disclosed-relations":
+          statistic = DISCLOSED_RELATION_COUNT;
+          break;
+        default:
+          throw this.newNotFoundException(GET, uriInfo, timers,
+              "Unrecognized match type: " + matchType);
+      }
+
+      String stat = statistic.principle(principle)
+          .matchKey(matchKey).format();
+
+      SzReportCode reportCode = (dataSource.equals(vsDataSource))
+          ? DATA_SOURCE_SUMMARY
+          : CROSS_SOURCE_SUMMARY;
+
+      SzReportKey reportKey = new SzReportKey(reportCode,
+          stat,
+          dataSource,
+          vsDataSource);
+
+      return this.streamEntities(
+          GET, uriInfo, timers, provider, reportKey.toString());
+
+    } catch (ClientErrorException e) {
+      throw e;
+
+    } catch (WebApplicationException e) {
+      throw logOnceAndThrow(e);
+
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw this.newInternalServerErrorException(GET, uriInfo, timers, e);
+    }
+  }
+
   /**
    * Retrieves a page of {@link SzRelation} instances describing the ambiguous
    * match
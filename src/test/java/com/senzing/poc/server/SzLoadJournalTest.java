@@ -0,0 +1,456 @@
+package com.senzing.poc.server;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import com.senzing.api.services.SzMessage;
+import com.senzing.api.services.SzMessageSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SzLoadJournal} covering recovery after a restart, torn
+ * writes, the hand-off between the appending threads and the replay thread,
+ * parking of messages that cannot be replayed and the maximum size.
+ */
+public class SzLoadJournalTest {
+  /**
+   * The maximum number of milliseconds to wait for the replay thread.
+   */
+  private static final long TIMEOUT = 10000L;
+
+  /**
+   * The number of bytes for the length and checksum preceding each entry.
+   */
+  private static final int HEADER_BYTES = 8;
+
+  /**
+   * The temporary journal directory.
+   */
+  @TempDir
+  File directory;
+
+  /**
+   * A fake load queue that records the messages sent to it.
+   */
+  private static class FakeLoadQueue {
+    /**
+     * The message bodies sent to the queue in order.
+     */
+    private final List<String> sent
+        = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Flag indicating if the queue is reachable.
+     */
+    private volatile boolean reachable = true;
+
+    /**
+     * The function returning the exception to throw for a message body, or
+     * <code>null</code> if the message should be sent.
+     */
+    private volatile Function<String, Exception> failure = body -> null;
+
+    /**
+     * The maximum number of bytes for a message.
+     */
+    private volatile int maximumBytes = 1024 * 1024;
+
+    /**
+     * Marks the queue as down so that all sends fail.
+     */
+    private void down() {
+      this.reachable = false;
+      this.failure = body -> new IllegalStateException("Load queue is down");
+    }
+
+    /**
+     * Marks the queue as up so that all sends succeed.
+     */
+    private void up() {
+      this.failure = body -> null;
+      this.reachable = true;
+    }
+
+    /**
+     * Creates a {@link SzMessageSink} that sends to this queue.
+     *
+     * @return The {@link SzMessageSink} that sends to this queue.
+     */
+    private SzMessageSink newSink() {
+      return (SzMessageSink) Proxy.newProxyInstance(
+          SzMessageSink.class.getClassLoader(),
+          new Class<?>[] { SzMessageSink.class },
+          (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "send":
+                String body = ((SzMessage) args[0]).getBody();
+                Exception e = this.failure.apply(body);
+                if (e != null) throw e;
+                this.sent.add(body);
+                return null;
+              case "getMessageCount":
+                if (!this.reachable) {
+                  throw new IllegalStateException("Load queue is down");
+                }
+                return this.sent.size();
+              case "getProviderType":
+                return "fake";
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+    }
+
+    /**
+     * Creates a {@link SzPocProvider} whose load sinks send to this queue.
+     *
+     * @return The {@link SzPocProvider} for this queue.
+     */
+    private SzPocProvider newProvider() {
+      return (SzPocProvider) Proxy.newProxyInstance(
+          SzPocProvider.class.getClassLoader(),
+          new Class<?>[] { SzPocProvider.class },
+          (proxy, method, args) -> {
+            switch (method.getName()) {
+              case "acquireLoadSink":
+                return this.newSink();
+              case "releaseLoadSink":
+                return null;
+              case "getLoadMessageMaximumBytes":
+                return this.maximumBytes;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          });
+    }
+  }
+
+  /**
+   * Waits for the specified condition to be satisfied, failing if it is not
+   * satisfied before the timeout.
+   *
+   * @param description The description of the condition.
+   * @param condition The condition to wait for.
+   */
+  private static void await(String description, Callable<Boolean> condition)
+      throws Exception
+  {
+    long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (!condition.call()) {
+      if (System.currentTimeMillis() > deadline) {
+        fail("Timed out waiting for: " + description);
+      }
+      Thread.sleep(10L);
+    }
+  }
+
+  /**
+   * Gets the segment files in the journal directory.
+   *
+   * @return The segment files in the journal directory.
+   */
+  private File[] getSegmentFiles() {
+    return this.directory.listFiles((dir, name) -> name.endsWith(".journal"));
+  }
+
+  /**
+   * Creates a message with the specified number.
+   *
+   * @param number The number for the message.
+   *
+   * @return The message body.
+   */
+  private static String message(int number) {
+    return "{\"RECORD_ID\":\"" + number + "\"}";
+  }
+
+  @Test
+  public void testRecoveryAfterRestart() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.down();
+
+    List<String> expected = new ArrayList<>();
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      for (int index = 0; index < 200; index++) {
+        expected.add(message(index));
+        assertTrue(journal.append(new SzMessage(message(index))));
+      }
+      assertEquals(200L, journal.getPendingMessageCount());
+      assertEquals(200L, journal.getJournaledMessageCount());
+    } finally {
+      journal.shutdown();
+    }
+    assertTrue(this.getSegmentFiles().length > 1,
+               "Expected more than one segment file");
+    assertEquals(Collections.emptyList(), queue.sent);
+
+    // restart with the load queue available
+    queue.up();
+    journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      SzLoadJournal recovered = journal;
+      await("replay of recovered entries",
+            () -> recovered.getPendingMessageCount() == 0L);
+      await("removal of recovered segments",
+            () -> this.getSegmentFiles().length == 0);
+      assertEquals(expected, queue.sent);
+      assertEquals(0L, journal.getParkedMessageCount());
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testReplayedEntriesSkippedOnRecovery() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      for (int index = 0; index < 5; index++) {
+        assertTrue(journal.append(new SzMessage(message(index))));
+      }
+      await("replay of entries", () -> queue.sent.size() == 5);
+      SzLoadJournal replayed = journal;
+      await("pending count", () -> replayed.getPendingMessageCount() == 0L);
+    } finally {
+      journal.shutdown();
+    }
+
+    // the active segment remains with its entries marked as replayed
+    assertEquals(1, this.getSegmentFiles().length);
+
+    FakeLoadQueue restarted = new FakeLoadQueue();
+    journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, restarted.newProvider());
+    try {
+      assertEquals(0L, journal.getPendingMessageCount());
+      assertEquals(0, this.getSegmentFiles().length);
+      Thread.sleep(100L);
+      assertEquals(Collections.emptyList(), restarted.sent);
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testTornEntryIgnoredOnRecovery() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.down();
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      assertTrue(journal.append(new SzMessage("first")));
+      assertTrue(journal.append(new SzMessage("second")));
+      assertTrue(journal.append(new SzMessage("third")));
+    } finally {
+      journal.shutdown();
+    }
+
+    // corrupt the body of the third entry as if its write was torn
+    File[] files = this.getSegmentFiles();
+    assertEquals(1, files.length);
+    int offset = (2 * HEADER_BYTES) + "first".length() + "second".length();
+    try (RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+      raf.seek(offset + HEADER_BYTES);
+      raf.write('X');
+    }
+
+    queue.up();
+    journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      assertEquals(2L, journal.getPendingMessageCount());
+      await("removal of recovered segment",
+            () -> this.getSegmentFiles().length == 0);
+      assertEquals(List.of("first", "second"), queue.sent);
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testTruncatedEntryIgnoredOnRecovery() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.down();
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      assertTrue(journal.append(new SzMessage("first")));
+      assertTrue(journal.append(new SzMessage("second")));
+    } finally {
+      journal.shutdown();
+    }
+
+    // write a length that runs past the end of the segment
+    File[] files = this.getSegmentFiles();
+    assertEquals(1, files.length);
+    int offset = (2 * HEADER_BYTES) + "first".length() + "second".length();
+    try (RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+      raf.seek(offset);
+      raf.writeInt(4096);
+    }
+
+    queue.up();
+    journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 3, queue.newProvider());
+    try {
+      assertEquals(2L, journal.getPendingMessageCount());
+      await("removal of recovered segment",
+            () -> this.getSegmentFiles().length == 0);
+      assertEquals(List.of("first", "second"), queue.sent);
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testAppendWhileReplaying() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 256, 1024 * 1024, 3, queue.newProvider());
+    try {
+      List<Thread> threads = new ArrayList<>();
+      for (int thread = 0; thread < 4; thread++) {
+        int first = thread * 250;
+        threads.add(new Thread(() -> {
+          for (int index = first; index < first + 250; index++) {
+            assertTrue(journal.append(new SzMessage(message(index))));
+          }
+        }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) thread.join();
+
+      await("replay of entries", () -> queue.sent.size() >= 1000);
+      await("pending count", () -> journal.getPendingMessageCount() == 0L);
+
+      // all but the active segment are removed once replayed
+      await("removal of sealed segments",
+            () -> this.getSegmentFiles().length <= 1);
+      Thread.sleep(100L);
+      assertEquals(1000, queue.sent.size());
+      assertEquals(1000, Set.copyOf(queue.sent).size());
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testParkAfterMaximumAttempts() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.failure = body -> body.equals("bad")
+        ? new IllegalStateException("Failed to send") : null;
+
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 2, queue.newProvider());
+    try {
+      assertTrue(journal.append(new SzMessage("bad")));
+      assertTrue(journal.append(new SzMessage("good")));
+
+      await("replay past the parked entry", () -> queue.sent.size() == 1);
+      assertEquals(List.of("good"), queue.sent);
+      assertEquals(1L, journal.getParkedMessageCount());
+      assertEquals(2L, journal.getReplayFailureCount());
+      assertEquals(List.of("bad"),
+                   Files.readAllLines(journal.getDeadLetterFile().toPath(),
+                                      UTF_8));
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testNoParkWhileUnavailable() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.down();
+
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 1, queue.newProvider());
+    try {
+      assertTrue(journal.append(new SzMessage("first")));
+      await("failed replay", () -> journal.getReplayFailureCount() > 0L);
+      Thread.sleep(200L);
+      queue.up();
+
+      await("replay after recovery", () -> queue.sent.size() == 1);
+      assertEquals(List.of("first"), queue.sent);
+      assertEquals(0L, journal.getParkedMessageCount());
+      assertFalse(journal.getDeadLetterFile().exists());
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testParkInvalidMessagesWithoutRetry() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.maximumBytes = 20;
+    queue.failure = body -> body.equals("invalid")
+        ? new IllegalArgumentException("Invalid message") : null;
+
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 1024, 1024 * 1024, 10, queue.newProvider());
+    try {
+      String oversized = "0123456789012345678901234567890123456789";
+      assertTrue(journal.append(new SzMessage("invalid")));
+      assertTrue(journal.append(new SzMessage(oversized)));
+      assertTrue(journal.append(new SzMessage("good")));
+
+      await("replay past the parked entries", () -> queue.sent.size() == 1);
+      assertEquals(List.of("good"), queue.sent);
+      assertEquals(2L, journal.getParkedMessageCount());
+      assertEquals(1L, journal.getReplayFailureCount());
+      assertEquals(List.of("invalid", oversized),
+                   Files.readAllLines(journal.getDeadLetterFile().toPath(),
+                                      UTF_8));
+    } finally {
+      journal.shutdown();
+    }
+  }
+
+  @Test
+  public void testMaximumSize() throws Exception {
+    FakeLoadQueue queue = new FakeLoadQueue();
+    queue.down();
+
+    SzLoadJournal journal = new SzLoadJournal(
+        this.directory, 256, 512, 3, queue.newProvider());
+    try {
+      String body = "0123456789012345678901234567890123456789";
+      int count = 0;
+      while (journal.append(new SzMessage(body))) {
+        count++;
+        assertTrue(count < 100, "Journal size is not capped");
+      }
+      assertEquals(1L, journal.getRejectedMessageCount());
+      assertEquals(count, journal.getPendingMessageCount());
+
+      long totalSize = 0L;
+      for (File file : this.getSegmentFiles()) totalSize += file.length();
+      assertTrue(totalSize <= 512, "Journal exceeds its maximum size");
+
+      // replaying removes the sealed segment so appends succeed again
+      queue.up();
+      await("replay of entries",
+            () -> journal.append(new SzMessage(body)));
+      assertEquals(count + 1, journal.getJournaledMessageCount());
+    } finally {
+      journal.shutdown();
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package com.senzing.poc.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link AdaptiveBatchSizer} driving {@link
+ * AdaptiveBatchSizer#recordSend(int, long, boolean)} with synthetic send
+ * latencies and failures.
+ */
+public class AdaptiveBatchSizerTest {
+  /**
+   * The minimum number of bytes per batch enforced by the sizer.
+   */
+  private static final int MINIMUM_BATCH_BYTES = 8 * 1024;
+
+  /**
+   * The byte ceiling used by the tests.
+   */
+  private static final int BYTE_CEILING = 1024 * 1024;
+
+  /**
+   * The synthetic number of nanoseconds to send a single record.
+   */
+  private static final long RECORD_NANOS = 100000L;
+
+  /**
+   * Records a successful send of a full batch at the specified cost per
+   * record.
+   *
+   * @param sizer The {@link AdaptiveBatchSizer} to record against.
+   * @param recordNanos The number of nanoseconds to send each record.
+   */
+  private static void sendFull(AdaptiveBatchSizer sizer, long recordNanos) {
+    int count = sizer.getCountLimit();
+    sizer.recordSend(count, count * recordNanos, false);
+  }
+
+  @Test
+  public void testConstruction() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 100, BYTE_CEILING);
+    assertEquals(10, sizer.getCountLimit());
+    assertEquals(BYTE_CEILING, sizer.getByteLimit());
+
+    // the initial count is clamped to the ceiling and to at least one
+    assertEquals(100, new AdaptiveBatchSizer(500, 100, 1000).getCountLimit());
+    assertEquals(1, new AdaptiveBatchSizer(0, 100, 1000).getCountLimit());
+
+    assertThrows(IllegalArgumentException.class,
+                 () -> new AdaptiveBatchSizer(10, 0, 1000));
+    assertThrows(IllegalArgumentException.class,
+                 () -> new AdaptiveBatchSizer(10, 100, 0));
+  }
+
+  @Test
+  public void testGrowthStopsAtCeilings() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 100, BYTE_CEILING);
+
+    // shrink the byte limit first so that it has room to grow
+    for (int index = 0; index < 4; index++) {
+      sizer.recordSend(0, 0L, true);
+    }
+    assertEquals(1, sizer.getCountLimit());
+    assertEquals(BYTE_CEILING / 16, sizer.getByteLimit());
+
+    // full batches at a steady cost grow the limits up to the ceilings
+    int previousCount = sizer.getCountLimit();
+    for (int index = 0; index < 100; index++) {
+      sendFull(sizer, RECORD_NANOS);
+      assertTrue(sizer.getCountLimit() >= previousCount);
+      assertTrue(sizer.getCountLimit() <= 100);
+      assertTrue(sizer.getByteLimit() <= BYTE_CEILING);
+      previousCount = sizer.getCountLimit();
+    }
+    assertEquals(100, sizer.getCountLimit());
+    assertEquals(BYTE_CEILING, sizer.getByteLimit());
+  }
+
+  @Test
+  public void testGrowsByAtLeastOneRecord() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(1, 100, BYTE_CEILING);
+    sendFull(sizer, RECORD_NANOS);
+    assertEquals(2, sizer.getCountLimit());
+    sendFull(sizer, RECORD_NANOS);
+    assertEquals(3, sizer.getCountLimit());
+  }
+
+  @Test
+  public void testShrinkStopsAtMinimums() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 100, BYTE_CEILING);
+
+    int previousCount = sizer.getCountLimit();
+    int previousBytes = sizer.getByteLimit();
+    for (int index = 0; index < 50; index++) {
+      sizer.recordSend(sizer.getCountLimit(), 0L, true);
+      assertTrue(sizer.getCountLimit() <= previousCount);
+      assertTrue(sizer.getByteLimit() <= previousBytes);
+      previousCount = sizer.getCountLimit();
+      previousBytes = sizer.getByteLimit();
+    }
+    assertEquals(1, sizer.getCountLimit());
+    assertEquals(MINIMUM_BATCH_BYTES, sizer.getByteLimit());
+  }
+
+  @Test
+  public void testShrinkStopsAtSmallByteCeiling() {
+    // the byte limit never drops below a ceiling smaller than the minimum
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(10, 100, 4000);
+    for (int index = 0; index < 10; index++) {
+      sizer.recordSend(0, 0L, true);
+    }
+    assertEquals(1, sizer.getCountLimit());
+    assertEquals(4000, sizer.getByteLimit());
+  }
+
+  @Test
+  public void testSlowSendShrinks() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 100, BYTE_CEILING);
+
+    // a single send beyond the target latency shrinks the limits
+    sizer.recordSend(100, 2000000000L, false);
+    assertEquals(50, sizer.getCountLimit());
+    assertEquals(BYTE_CEILING / 2, sizer.getByteLimit());
+  }
+
+  @Test
+  public void testDegradedSendShrinks() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(100, 100, BYTE_CEILING);
+    sendFull(sizer, RECORD_NANOS);
+    assertEquals(100, sizer.getCountLimit());
+
+    // a per-record cost well above the average shrinks the limits
+    sendFull(sizer, RECORD_NANOS * 3L);
+    assertEquals(50, sizer.getCountLimit());
+    assertEquals(BYTE_CEILING / 2, sizer.getByteLimit());
+  }
+
+  @Test
+  public void testPartialBatchOnlyGrowsWhenCheaper() {
+    AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(50, 100, BYTE_CEILING);
+    sendFull(sizer, RECORD_NANOS);
+    assertEquals(62, sizer.getCountLimit());
+
+    // a partial batch that was somewhat more costly leaves the limits alone
+    sizer.recordSend(10, 10L * RECORD_NANOS * 6L / 5L, false);
+    assertEquals(62, sizer.getCountLimit());
+
+    // a partial batch that was cheaper grows the limits
+    sizer.recordSend(10, 10L * RECORD_NANOS / 2L, false);
+    assertEquals(77, sizer.getCountLimit());
+
+    // an empty successful batch leaves the limits alone
+    sizer.recordSend(0, 0L, false);
+    assertEquals(77, sizer.getCountLimit());
+  }
+}
@@ -0,0 +1,254 @@
+package com.senzing.poc.services;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link JsonLinesPassthroughReader} covering the lines that are
+ * passed through verbatim, the lines that fall back to being parsed and the
+ * malformed lines that must fail individually rather than being spliced into
+ * a batch message.
+ */
+public class JsonLinesPassthroughReaderTest {
+  /**
+   * The load ID used as the source ID.
+   */
+  private static final String LOAD_ID = "LOAD-1";
+
+  /**
+   * The JSON text for the source ID property spliced into each record.
+   */
+  private static final String SOURCE_ID = "\"SOURCE_ID\":\"" + LOAD_ID + "\"";
+
+  /**
+   * Creates a {@link JsonLinesPassthroughReader} for the specified lines.
+   *
+   * @param loadId The load ID, or <code>null</code> if none.
+   * @param lines The lines to read.
+   *
+   * @return The {@link JsonLinesPassthroughReader} for the lines.
+   */
+  private static JsonLinesPassthroughReader reader(String    loadId,
+                                                   String... lines)
+  {
+    String text = String.join("\n", lines);
+    return new JsonLinesPassthroughReader(
+        new BufferedReader(new StringReader(text)), loadId);
+  }
+
+  /**
+   * Reads the single record from the specified line with the {@link
+   * #LOAD_ID}.
+   *
+   * @param line The line to read.
+   *
+   * @return The record text.
+   */
+  private static String readOne(String line) throws Exception {
+    return reader(LOAD_ID, line).readRecord();
+  }
+
+  /**
+   * Asserts that reading the specified line fails and that the failure is
+   * reported for the first line.
+   *
+   * @param line The malformed line.
+   */
+  private static void assertMalformed(String line) throws Exception {
+    JsonLinesPassthroughReader reader = reader(LOAD_ID, line);
+    assertThrows(RuntimeException.class, reader::readRecord,
+                 "Malformed line was accepted: " + line);
+    assertEquals(1L, reader.getErrorLineNumber(),
+                 "Wrong error line number: " + line);
+  }
+
+  @Test
+  public void testWellFormedLinePassedThrough() throws Exception {
+    String line = "{ \"DATA_SOURCE\" : \"CUSTOMERS\", \"NAME\" : \"Joe\" }";
+    JsonLinesPassthroughReader reader = reader(LOAD_ID, line);
+
+    // the original text (including whitespace) is kept
+    assertEquals(line.substring(0, line.length() - 1) + "," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertEquals("CUSTOMERS", reader.getDataSource());
+    assertNull(reader.getErrorLineNumber());
+    assertNull(reader.readRecord());
+  }
+
+  @Test
+  public void testPassedThroughWithoutLoadId() throws Exception {
+    String line = "{ \"DATA_SOURCE\" : \"CUSTOMERS\", \"A\" : [ 1, 2 ] }";
+    JsonLinesPassthroughReader reader = reader(null, line);
+    assertEquals(line, reader.readRecord());
+    assertEquals("CUSTOMERS", reader.getDataSource());
+  }
+
+  @Test
+  public void testSourceIdSplicedIntoEmptyRecord() throws Exception {
+    assertEquals("{" + SOURCE_ID + "}", readOne("{}"));
+    assertEquals("{ " + SOURCE_ID + "}", readOne("{ }"));
+    assertEquals("{" + SOURCE_ID + "}", readOne("  {}  "));
+  }
+
+  @Test
+  public void testNestedArraysAndObjects() throws Exception {
+    String line = "{ \"A\" : { \"DATA_SOURCE\" : \"X\", \"SOURCE_ID\" : \"S\" },"
+        + " \"B\" : [ [ 1, { \"C\" : [ ] } ], [ ], { } ] }";
+    JsonLinesPassthroughReader reader = reader(LOAD_ID, line);
+
+    // nested keys are neither the data source nor an existing source ID
+    assertEquals(line.substring(0, line.length() - 1) + "," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertNull(reader.getDataSource());
+
+    assertMalformed("{\"A\":{\"B\":1}");
+    assertMalformed("{\"A\":[1,2}");
+    assertMalformed("{\"A\":{\"B\":1]}");
+    assertMalformed("{\"A\":[1,]}");
+    assertMalformed("{\"A\":[,1]}");
+    assertMalformed("{\"A\":{\"B\":1,}}");
+  }
+
+  @Test
+  public void testNumbersAndLiterals() throws Exception {
+    String line = "{ \"A\" : -0, \"B\" : 1.5e-3, \"C\" : 12E+2, \"D\" : 0.25,"
+        + " \"E\" : true, \"F\" : false, \"G\" : null, \"H\" : [ -7, 8e9 ] }";
+    assertEquals(line.substring(0, line.length() - 1) + "," + SOURCE_ID + "}",
+                 readOne(line));
+
+    assertMalformed("{\"A\":tru}");
+    assertMalformed("{\"A\":True}");
+    assertMalformed("{\"A\":nul}");
+    assertMalformed("{\"A\":falsey}");
+    assertMalformed("{\"A\":01}");
+    assertMalformed("{\"A\":1.}");
+    assertMalformed("{\"A\":.5}");
+    assertMalformed("{\"A\":-}");
+    assertMalformed("{\"A\":+1}");
+    assertMalformed("{\"A\":1e}");
+    assertMalformed("{\"A\":0x10}");
+  }
+
+  @Test
+  public void testMalformedSeparators() throws Exception {
+    assertMalformed("{\"A\":1 \"B\":2}");
+    assertMalformed("{\"A\" 1}");
+    assertMalformed("{\"A\":1,}");
+    assertMalformed("{,\"A\":1}");
+    assertMalformed("{\"A\"}");
+    assertMalformed("{A:1}");
+    assertMalformed("{\"A\":}");
+  }
+
+  @Test
+  public void testMalformedStrings() throws Exception {
+    assertMalformed("{\"A\":\"\\q\"}");
+    assertMalformed("{\"A\":\"\\u12G4\"}");
+    assertMalformed("{\"A\":\"unterminated}");
+    assertMalformed("{\"A\":\"tab\there\"}");
+
+    String line = "{\"A\":\"\\\"quoted\\\" \\\\ \\/ \\b\\f\\n\\r\\t \\u00e9\"}";
+    assertEquals(line.substring(0, line.length() - 1) + "," + SOURCE_ID + "}",
+                 readOne(line));
+  }
+
+  @Test
+  public void testMalformedLineFailsOnlyThatLine() throws Exception {
+    JsonLinesPassthroughReader reader = reader(
+        LOAD_ID,
+        "{\"DATA_SOURCE\":\"A\",\"ID\":1}",
+        "{\"DATA_SOURCE\":\"A\",\"ID\":tru}",
+        "",
+        "# a comment",
+        "{\"DATA_SOURCE\":\"B\",\"ID\":3}");
+
+    assertEquals("{\"DATA_SOURCE\":\"A\",\"ID\":1," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertNull(reader.getErrorLineNumber());
+
+    assertThrows(RuntimeException.class, reader::readRecord);
+    assertEquals(2L, reader.getErrorLineNumber());
+
+    // the following records are still read
+    assertEquals("{\"DATA_SOURCE\":\"B\",\"ID\":3," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertEquals("B", reader.getDataSource());
+    assertNull(reader.getErrorLineNumber());
+    assertNull(reader.readRecord());
+  }
+
+  @Test
+  public void testTrailingGarbage() throws Exception {
+    // the garbage must never be copied into the batch message
+    for (String line : new String[] {
+        "{ \"A\" : 1 }}", "{ \"A\" : 1 } x", "{ \"A\" : 1 },{ \"B\" : 2 }" })
+    {
+      String record;
+      try {
+        record = readOne(line);
+      } catch (RuntimeException e) {
+        continue;
+      }
+      assertEquals("{\"A\":1," + SOURCE_ID + "}", record,
+                   "Trailing content was passed through: " + line);
+    }
+  }
+
+  @Test
+  public void testNonObjectLine() throws Exception {
+    JsonLinesPassthroughReader reader = reader(LOAD_ID, "[1,2]");
+    assertThrows(IllegalStateException.class, reader::readRecord);
+    assertEquals(1L, reader.getErrorLineNumber());
+  }
+
+  @Test
+  public void testEscapedKeysAreParsed() throws Exception {
+    // an escaped key could hide the data source
+    JsonLinesPassthroughReader reader = reader(
+        LOAD_ID, "{ \"DATA\\u005FSOURCE\" : \"X\", \"A\" : 1 }");
+    assertEquals("{\"DATA_SOURCE\":\"X\",\"A\":1," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertEquals("X", reader.getDataSource());
+
+    // an escaped key could hide an existing source ID
+    assertEquals("{\"A\":1," + SOURCE_ID + "}",
+                 readOne("{ \"SOURCE\\u005fID\" : \"OLD\", \"A\" : 1 }"));
+
+    // an escaped data source value is decoded
+    reader = reader(LOAD_ID, "{ \"DATA_SOURCE\" : \"A\\u0042\" }");
+    assertEquals("{\"DATA_SOURCE\":\"AB\"," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertEquals("AB", reader.getDataSource());
+  }
+
+  @Test
+  public void testExistingSourceIdReplaced() throws Exception {
+    JsonLinesPassthroughReader reader = reader(
+        LOAD_ID, "{ \"SOURCE_ID\" : \"OLD\", \"DATA_SOURCE\" : \"X\" }");
+    assertEquals("{\"DATA_SOURCE\":\"X\"," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertEquals("X", reader.getDataSource());
+
+    // without a load ID the existing source ID is kept
+    reader = reader(null, "{ \"SOURCE_ID\" : \"OLD\" }");
+    assertEquals("{\"SOURCE_ID\":\"OLD\"}", reader.readRecord());
+  }
+
+  @Test
+  public void testNonStringDataSourceIsParsed() throws Exception {
+    JsonLinesPassthroughReader reader = reader(
+        LOAD_ID, "{ \"DATA_SOURCE\" : 5, \"A\" : 1 }");
+    assertEquals("{\"DATA_SOURCE\":5,\"A\":1," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertEquals("5", reader.getDataSource());
+
+    reader = reader(LOAD_ID, "{ \"DATA_SOURCE\" : null }");
+    assertEquals("{\"DATA_SOURCE\":null," + SOURCE_ID + "}",
+                 reader.readRecord());
+    assertNull(reader.getDataSource());
+  }
+}
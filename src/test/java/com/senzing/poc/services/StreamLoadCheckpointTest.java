@@ -0,0 +1,266 @@
+package com.senzing.poc.services;
+
+import java.io.File;
+
+import com.senzing.poc.server.SzLoadCheckpointStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link StreamLoadCheckpoint} covering batches that complete out
+ * of order, asynchronous failures that arrive after the checkpoint was
+ * saved, completion of the load and the number of records skipped when a
+ * load is resumed.
+ */
+public class StreamLoadCheckpointTest {
+  /**
+   * The load ID for the checkpoints.
+   */
+  private static final String LOAD_ID = "LOAD-1";
+
+  /**
+   * The temporary checkpoint directory.
+   */
+  @TempDir
+  File directory;
+
+  /**
+   * Reads the persisted checkpoint for the specified load ID with a new
+   * {@link SzLoadCheckpointStore} as if the server had restarted.
+   *
+   * @param loadId The load ID for the checkpoint.
+   *
+   * @return The persisted record offset, or <code>null</code> if none.
+   */
+  private Long readPersisted(String loadId) {
+    return new SzLoadCheckpointStore(this.directory).getRecordOffset(loadId);
+  }
+
+  @Test
+  public void testOutOfOrderCompletion() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    // later batches complete first and cannot advance the checkpoint
+    checkpoint.handled(20L, 30L);
+    checkpoint.handled(10L, 20L);
+    assertEquals(0L, checkpoint.getRecordOffset());
+
+    // the first batch fills the gap and absorbs the later batches
+    checkpoint.handled(0L, 10L);
+    assertEquals(30L, checkpoint.getRecordOffset());
+
+    checkpoint.save();
+    assertEquals(30L, store.getRecordOffset(LOAD_ID));
+    assertEquals(30L, this.readPersisted(LOAD_ID));
+  }
+
+  @Test
+  public void testGapFilling() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    checkpoint.handled(0L, 5L);
+    checkpoint.handled(10L, 15L);
+    checkpoint.handled(20L, 25L);
+    checkpoint.handled(30L, 35L);
+    assertEquals(5L, checkpoint.getRecordOffset());
+
+    // filling a later gap does not move the checkpoint past an earlier gap
+    checkpoint.handled(15L, 20L);
+    assertEquals(5L, checkpoint.getRecordOffset());
+
+    // filling the earlier gap absorbs the contiguous ranges only
+    checkpoint.handled(5L, 10L);
+    assertEquals(25L, checkpoint.getRecordOffset());
+
+    // ranges already below the checkpoint are ignored
+    checkpoint.handled(0L, 25L);
+    checkpoint.handled(12L, 13L);
+    assertEquals(25L, checkpoint.getRecordOffset());
+
+    // an overlapping range fills the last gap
+    checkpoint.handled(22L, 32L);
+    assertEquals(35L, checkpoint.getRecordOffset());
+
+    // single records (e.g.: incomplete records) are handled individually
+    checkpoint.handled(36L, 37L);
+    checkpoint.handled(35L, 36L);
+    assertEquals(37L, checkpoint.getRecordOffset());
+  }
+
+  @Test
+  public void testInitialOffset() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 100L);
+
+    checkpoint.save();
+    assertEquals(100L, store.getRecordOffset(LOAD_ID));
+
+    checkpoint.handled(110L, 120L);
+    assertEquals(100L, checkpoint.getRecordOffset());
+    checkpoint.handled(100L, 110L);
+    assertEquals(120L, checkpoint.getRecordOffset());
+  }
+
+  @Test
+  public void testFailureHoldsCheckpoint() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    checkpoint.handled(0L, 10L);
+    checkpoint.failed(10L, 20L);
+    checkpoint.handled(20L, 30L);
+    assertEquals(10L, checkpoint.getRecordOffset());
+
+    // the handled batches beyond the failure do not move the checkpoint
+    checkpoint.handled(10L, 20L);
+    assertEquals(10L, checkpoint.getRecordOffset());
+
+    // a later failure does not move the checkpoint forward
+    checkpoint.failed(25L, 30L);
+    assertEquals(10L, checkpoint.getRecordOffset());
+
+    checkpoint.save();
+    assertEquals(10L, this.readPersisted(LOAD_ID));
+  }
+
+  @Test
+  public void testLateFailureAfterSave() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    checkpoint.handled(0L, 100L);
+    checkpoint.save();
+    assertEquals(100L, this.readPersisted(LOAD_ID));
+
+    // the asynchronous failure of a handled batch moves the saved
+    // checkpoint back immediately
+    checkpoint.failed(40L, 50L);
+    assertEquals(40L, checkpoint.getRecordOffset());
+    assertEquals(40L, store.getRecordOffset(LOAD_ID));
+    assertEquals(40L, this.readPersisted(LOAD_ID));
+
+    // an earlier late failure moves it back further
+    checkpoint.failed(20L, 30L);
+    assertEquals(20L, this.readPersisted(LOAD_ID));
+
+    // further handled batches do not move it forward again
+    checkpoint.handled(100L, 200L);
+    checkpoint.save();
+    assertEquals(20L, this.readPersisted(LOAD_ID));
+  }
+
+  @Test
+  public void testCompleteWithoutFailures() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    checkpoint.handled(10L, 20L);
+    checkpoint.handled(0L, 10L);
+    checkpoint.save();
+    assertEquals(20L, this.readPersisted(LOAD_ID));
+
+    // the checkpoint is removed from memory and from disk
+    checkpoint.complete();
+    assertNull(store.getRecordOffset(LOAD_ID));
+    assertNull(this.readPersisted(LOAD_ID));
+  }
+
+  @Test
+  public void testCompleteWithFailures() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    checkpoint.handled(0L, 10L);
+    checkpoint.failed(10L, 20L);
+    checkpoint.handled(20L, 30L);
+
+    // the checkpoint is kept so the failed batch is sent on resume
+    checkpoint.complete();
+    assertEquals(10L, store.getRecordOffset(LOAD_ID));
+    assertEquals(10L, this.readPersisted(LOAD_ID));
+  }
+
+  @Test
+  public void testLateFailureAfterComplete() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    checkpoint.handled(0L, 50L);
+    checkpoint.complete();
+    assertNull(this.readPersisted(LOAD_ID));
+
+    // a failure reported after completion restores the checkpoint
+    checkpoint.failed(30L, 40L);
+    assertEquals(30L, store.getRecordOffset(LOAD_ID));
+    assertEquals(30L, this.readPersisted(LOAD_ID));
+  }
+
+  @Test
+  public void testResumeSkipCount() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    store.saveRecordOffset(LOAD_ID, 1000L);
+
+    // resuming after a restart reads the persisted checkpoint
+    SzLoadCheckpointStore restarted = new SzLoadCheckpointStore(this.directory);
+    assertEquals(1000L, StreamLoadCheckpoint.getResumeSkipCount(
+        restarted, LOAD_ID, 0L));
+    assertEquals(600L, StreamLoadCheckpoint.getResumeSkipCount(
+        restarted, LOAD_ID, 400L));
+    assertEquals(0L, StreamLoadCheckpoint.getResumeSkipCount(
+        restarted, LOAD_ID, 1000L));
+
+    // the upload cannot begin beyond the checkpoint
+    assertThrows(IllegalArgumentException.class,
+                 () -> StreamLoadCheckpoint.getResumeSkipCount(
+                     restarted, LOAD_ID, 1001L));
+
+    // without a checkpoint the load resumes from the first record
+    assertEquals(0L, StreamLoadCheckpoint.getResumeSkipCount(
+        restarted, "OTHER", 0L));
+    assertThrows(IllegalArgumentException.class,
+                 () -> StreamLoadCheckpoint.getResumeSkipCount(
+                     restarted, "OTHER", 1L));
+  }
+
+  @Test
+  public void testResumeFromCheckpoint() {
+    SzLoadCheckpointStore store = new SzLoadCheckpointStore(this.directory);
+    StreamLoadCheckpoint checkpoint
+        = new StreamLoadCheckpoint(store, LOAD_ID, 0L);
+
+    // the first attempt handles 0-30 but the batch at 30-40 fails
+    checkpoint.handled(0L, 30L);
+    checkpoint.failed(30L, 40L);
+    checkpoint.handled(40L, 50L);
+    checkpoint.complete();
+
+    // the upload is resumed with a file starting at record 25 so the first
+    // five uploaded records are skipped and the failed batch is sent again
+    long startRecord = 25L;
+    long skipCount = StreamLoadCheckpoint.getResumeSkipCount(
+        store, LOAD_ID, startRecord);
+    assertEquals(5L, skipCount);
+
+    StreamLoadCheckpoint resumed = new StreamLoadCheckpoint(
+        store, LOAD_ID, startRecord + skipCount);
+    resumed.save();
+    assertEquals(30L, this.readPersisted(LOAD_ID));
+
+    resumed.handled(30L, 50L);
+    resumed.complete();
+    assertNull(store.getRecordOffset(LOAD_ID));
+    assertNull(this.readPersisted(LOAD_ID));
+  }
+}